@@ -9,6 +9,7 @@ import java.util.Map;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicySimple;
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -21,8 +22,7 @@ public class CSVTaskSimulation {
     private DatacenterBroker broker;
     private List<Vm> vmList;
     private List<Cloudlet> cloudletList;
-    private Map<Integer, Double> cloudletSubmissionTimes;
-    private Map<Integer, Double> cloudletCpuRequests;
+    private TaskTrace tasks;
     private Datacenter datacenter;
     private Map<Integer, List<Double>> hostUtilizationHistory;
     private Map<Long, Integer> vmHostMap;
@@ -41,8 +41,6 @@ public class CSVTaskSimulation {
         }
         this.config = config;
         this.simulationLogger = new SimulationLogger();
-        this.cloudletSubmissionTimes = new HashMap<>();
-        this.cloudletCpuRequests = new HashMap<>();
         this.cloudletList = new ArrayList<>();
         this.hostUtilizationHistory = new HashMap<>();
         this.vmHostMap = new HashMap<>();
@@ -51,11 +49,9 @@ public class CSVTaskSimulation {
 
         this.datacenterFactory = new DatacenterFactory(config);
         this.vmFactory = new VmFactory(config);
-        this.cloudletFactory = new CloudletFactory(config, cloudletSubmissionTimes, cloudletCpuRequests);
+        this.cloudletFactory = new CloudletFactory(config);
         this.scheduler = new Scheduler(config, simulationLogger);
         System.out.println("Scheduler: " + config.optimizationAlgorithm);
-        this.resultsFormatter = new ResultsFormatter(config, simulationLogger, cloudletSubmissionTimes,
-                cloudletCpuRequests, hostUtilizationHistory, vmHostMap, hostActive, finalSimulationTime);
     }
 
     public String getLogs() {
@@ -84,23 +80,19 @@ public class CSVTaskSimulation {
 
             allocateVmsToHosts();
 
-            cloudletList = cloudletFactory.readTasksFromCSV(brokerId);
-
-            cloudletList.sort((c1, c2) -> {
-                double time1 = cloudletSubmissionTimes.get(c1.getCloudletId());
-                double time2 = cloudletSubmissionTimes.get(c2.getCloudletId());
-                return Double.compare(time1, time2);
-            });
+            // Cloudlets are built from the trace columns, already in submission order
+            tasks = cloudletFactory.readTasks();
+            cloudletList = cloudletFactory.createCloudlets(tasks, brokerId);
 
             broker.submitCloudletList(cloudletList);
             // Capture hostActive from Scheduler
-            hostActive = scheduler.bindCloudletsToVms(cloudletList, vmList, cloudletSubmissionTimes, cloudletCpuRequests,
-                    broker, CloudSim.clock(), datacenter.getHostList());
+            hostActive = scheduler.bindCloudletsToVms(cloudletList, vmList, tasks, broker, CloudSim.clock(),
+                    datacenter.getHostList());
 
             CloudSim.startSimulation();
             finalSimulationTime = Math.max(CloudSim.clock(), getMaxFinishTime());
-            resultsFormatter = new ResultsFormatter(config, simulationLogger, cloudletSubmissionTimes,
-                    cloudletCpuRequests, hostUtilizationHistory, vmHostMap, hostActive, finalSimulationTime);
+            resultsFormatter = new ResultsFormatter(config, simulationLogger, tasks, hostUtilizationHistory,
+                    vmHostMap, hostActive, finalSimulationTime);
             CloudSim.stopSimulation();
 
             return getResultsAsJson();
@@ -116,7 +108,7 @@ public class CSVTaskSimulation {
     private double getMaxFinishTime() {
         double maxFinishTime = 0.0;
         for (Cloudlet cloudlet : cloudletList) {
-            double submissionTime = cloudletSubmissionTimes.get(cloudlet.getCloudletId());
+            double submissionTime = tasks.submitTime(cloudlet.getCloudletId());
             double duration = 672.770490608695; // From CSV
             double finishTime = submissionTime + duration;
             maxFinishTime = Math.max(maxFinishTime, finishTime);
@@ -130,9 +122,9 @@ public class CSVTaskSimulation {
             boolean allocated = allocationPolicy.allocateHostForVm(vm);
             if (allocated) {
                 vmHostMap.put((long) vm.getId(), vm.getHost().getId());
-                System.out.println("VM " + vm.getId() + " allocated to Host " + vm.getHost().getId());
+                Log.println("VM " + vm.getId() + " allocated to Host " + vm.getHost().getId());
             } else {
-                System.out.println("Failed to allocate VM " + vm.getId() + " to any host");
+                Log.println("Failed to allocate VM " + vm.getId() + " to any host");
             }
         }
     }
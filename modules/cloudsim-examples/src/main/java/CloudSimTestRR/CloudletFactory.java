@@ -4,113 +4,97 @@ import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 public class CloudletFactory {
+    private static final String DEFAULT_CSV_FILE = "C:\\Users\\reyes\\Downloads\\python_file\\cloudsim_task_events_part00000_preprocessed.csv";
+    private static final double SYNTHETIC_CPU_REQUEST = 0.05;
+    private static final double SYNTHETIC_INTERVAL = 50.0; // Seconds between synthetic submissions
+
     private SimulationConfig config;
-    private Map<Integer, Double> cloudletSubmissionTimes;
-    private Map<Integer, Double> cloudletCpuRequests;
+    private final UtilizationModel ramAndBwModel = new UtilizationModelFull();
+    private final Map<Double, UtilizationModel> cpuModels = new HashMap<>(); // One model per distinct CPU request
 
-    public CloudletFactory(SimulationConfig config, Map<Integer, Double> cloudletSubmissionTimes,
-                           Map<Integer, Double> cloudletCpuRequests) {
+    public CloudletFactory(SimulationConfig config) {
         this.config = config;
-        this.cloudletSubmissionTimes = cloudletSubmissionTimes;
-        this.cloudletCpuRequests = cloudletCpuRequests;
     }
 
-    public List<Cloudlet> readTasksFromCSV(int brokerId) throws Exception {
-        List<Cloudlet> cloudlets = new ArrayList<>();
+    // Synthetic tasks, or the first numCloudlets rows of config.csvFilePath
+    public TaskTrace readTasks() throws IOException {
         if (config.workloadType.equals("Synthetic")) {
-            for (int count = 0; count < config.numCloudlets; count++) {
-                double cpuRequest = 0.05;
-                UtilizationModel cpuUtilizationModel = new UtilizationModel() {
-                    @Override
-                    public double getUtilization(double time) {
-                        return cpuRequest;
-                    }
-                };
-                Cloudlet cloudlet = new Cloudlet(count, config.cloudletLength, config.cloudletPes,
-                        1000000, 1000000, cpuUtilizationModel, new UtilizationModelFull(),
-                        new UtilizationModelFull());
-                cloudlet.setUserId(brokerId);
-                cloudlets.add(cloudlet);
-                cloudletSubmissionTimes.put(count, count * 50.0);
-                cloudletCpuRequests.put(count, cpuRequest);
-            }
-            return cloudlets;
+            return TaskTrace.synthetic(config.numCloudlets, SYNTHETIC_CPU_REQUEST, SYNTHETIC_INTERVAL);
         }
+        Path csvFile = workloadFileOf(config);
+        if (!Files.isRegularFile(csvFile)) {
+            throw new IOException("CSV file not found: " + csvFile);
+        }
+        return TaskTrace.read(csvFile, config.numCloudlets);
+    }
 
-        String csvFile = "C:\\Users\\reyes\\Downloads\\python_file\\cloudsim_task_events_part00000_preprocessed.csv";
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
-            String line = br.readLine();
-            int count = 0;
-            double firstTimestamp = -1;
-
-            while ((line = br.readLine()) != null && count < config.numCloudlets) {
-                String[] data = line.split(",");
-                if (data.length < 9) {
-                    throw new IllegalArgumentException("Malformed CSV: Missing columns in row " + (count + 2));
-                }
+    // The CSV file readTasks reads for a config, null for a synthetic workload
+    public static Path workloadFileOf(SimulationConfig config) {
+        if (config.workloadType.equals("Synthetic")) {
+            return null;
+        }
+        return Paths.get(config.csvFilePath != null ? config.csvFilePath : DEFAULT_CSV_FILE);
+    }
 
-                double cpuRequest;
-                try {
-                    cpuRequest = Double.parseDouble(data[4]);
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid cpu_request at line " + (count + 2) + ": " + data[4], e);
-                }
-                long length = (long) (cpuRequest * 1000000);
+    public List<Cloudlet> createCloudlets(TaskTrace tasks, int brokerId) {
+        List<Cloudlet> cloudlets = new ArrayList<>(tasks.size());
+        cloudletsInSubmissionOrder(tasks, brokerId).forEachRemaining(cloudlets::add);
+        return cloudlets;
+    }
 
-                double memoryRequest;
-                try {
-                    memoryRequest = Double.parseDouble(data[5]);
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid memory_request at line " + (count + 2) + ": " + data[5], e);
-                }
-                long fileSize = (long) (memoryRequest * 1000000);
+    // Builds each cloudlet only when it is requested, in submission order; the cloudlet id is the task index
+    public Iterator<Cloudlet> cloudletsInSubmissionOrder(TaskTrace tasks, int brokerId) {
+        int[] order = tasks.submissionOrder();
+        return new Iterator<>() {
+            private int next;
 
-                double diskSpaceRequest;
-                try {
-                    diskSpaceRequest = Double.parseDouble(data[6]);
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid disk_space_request at line " + (count + 2) + ": " + data[6], e);
-                }
-                long outputSize = (long) (diskSpaceRequest * 1000000);
+            @Override
+            public boolean hasNext() {
+                return next < order.length;
+            }
 
-                double unixTimestamp;
-                try {
-                    unixTimestamp = Double.parseDouble(data[7]);
-                } catch (NumberFormatException e) {
-                    throw new Exception("Invalid time_seconds at line " + (count + 2) + ": " + data[7], e);
-                }
-                if (firstTimestamp == -1) {
-                    firstTimestamp = unixTimestamp;
+            @Override
+            public Cloudlet next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
                 }
-                double relativeTime = unixTimestamp - firstTimestamp;
-
-                UtilizationModel cpuUtilizationModel = new UtilizationModel() {
-                    @Override
-                    public double getUtilization(double time) {
-                        return cpuRequest;
-                    }
-                };
-
-                Cloudlet cloudlet = new Cloudlet(count, length, config.cloudletPes, fileSize, outputSize,
-                        cpuUtilizationModel, new UtilizationModelFull(),
-                        new UtilizationModelFull());
-                cloudlet.setUserId(brokerId);
-                cloudlets.add(cloudlet);
-
-                cloudletSubmissionTimes.put(count, relativeTime);
-                cloudletCpuRequests.put(count, cpuRequest);
-                count++;
+                return createCloudlet(tasks, order[next++], brokerId);
             }
-        } catch (java.io.FileNotFoundException e) {
-            throw new Exception("CSV file not found: " + csvFile, e);
+        };
+    }
+
+    private Cloudlet createCloudlet(TaskTrace tasks, int task, int brokerId) {
+        long length;
+        long fileSize;
+        long outputSize;
+        if (config.workloadType.equals("Synthetic")) {
+            length = config.cloudletLength;
+            fileSize = 1000000;
+            outputSize = 1000000;
+        } else {
+            length = (long) (tasks.cpuRequest(task) * 1000000);
+            fileSize = (long) (tasks.memoryRequest(task) * 1000000);
+            outputSize = (long) (tasks.diskRequest(task) * 1000000);
         }
-        return cloudlets;
+        Cloudlet cloudlet = new Cloudlet(task, length, config.cloudletPes, fileSize, outputSize,
+                cpuModel(tasks.cpuRequest(task)), ramAndBwModel, ramAndBwModel);
+        cloudlet.setUserId(brokerId);
+        return cloudlet;
+    }
+
+    private UtilizationModel cpuModel(double cpuRequest) {
+        return cpuModels.computeIfAbsent(cpuRequest, cpu -> time -> cpu);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,236 @@
+package CloudSimTestRR;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// EPSO search over cloudlet-to-VM mappings (thesis pages 27 and 45), on primitive arrays only.
+// Each particle owns its SplittableRandom, split from the seed in particle order, and its fitness
+// buffers; the global best is reduced sequentially after every parallel evaluation. A seed therefore
+// gives the same mapping whatever the parallelism of the pool.
+public class EpsoOptimizer {
+
+    private static final double POWER_BUSY = 215.0; // Page 42: Power model
+    private static final double POWER_IDLE = 162.0; // Page 42
+    private static final double MIGRATION_ENERGY_COST = 1.0; // Page 46: Migration cost in Wh
+    private static final double SIMULATION_HOURS = 5538.46 / 3600.0; // Page 42: Simulated duration
+    private static final double POWER_OFF_UTILIZATION = 0.15;
+
+    // Page 45: Weighted fitness (weights assumed for balanced optimization)
+    private static final double W_ENERGY = 0.7; // Prioritizes energy efficiency
+    private static final double W_RESPONSE = 0.3; // Balances response time
+    private static final double W_LOAD = 0.1; // Ensures load distribution
+
+    private static final double W_MAX = 0.9, W_MIN = 0.2; // Page 27: Nonlinear inertia reduction
+    private static final double C1 = 1.5, C2 = 2.5; // Page 45: Cognitive and social coefficients
+
+    private final int numCloudlets;
+    private final int numVms;
+    private final int numHosts;
+    private final int numParticles;
+    private final int maxIterations;
+    private final double vMax;
+
+    private final double[] cloudletLength;    // MI of each cloudlet
+    private final double[] cloudletHostShare; // Host utilization a cloudlet adds to the host of its VM
+    private final double[] vmMips;            // MIPS of each VM
+    private final int[] vmHost;               // Host index of each VM, -1 if not allocated
+    private final int[] firstVmOfHost;        // First VM (in VM order) on each host, -1 if none
+
+    private final Particle[] swarm;
+    private final int[] gBestPosition;
+    private double gBestFitness = Double.MAX_VALUE;
+
+    private Consumer<String> trace;
+
+    public EpsoOptimizer(double[] cloudletLength, double[] cloudletHostShare, double[] vmMips, int[] vmHost,
+            int numHosts, int numParticles, int maxIterations, long seed) {
+        if (vmMips.length == 0) {
+            throw new IllegalArgumentException("EPSO needs at least one VM");
+        }
+        this.numCloudlets = cloudletLength.length;
+        this.numVms = vmMips.length;
+        this.numHosts = numHosts;
+        this.numParticles = numParticles;
+        this.maxIterations = maxIterations;
+        this.vMax = numVms / 2.0; // Page 27: Velocity limitation
+        this.cloudletLength = cloudletLength;
+        this.cloudletHostShare = cloudletHostShare;
+        this.vmMips = vmMips;
+        this.vmHost = vmHost;
+
+        this.firstVmOfHost = new int[numHosts];
+        Arrays.fill(firstVmOfHost, -1);
+        for (int v = numVms - 1; v >= 0; v--) {
+            if (vmHost[v] >= 0) {
+                firstVmOfHost[vmHost[v]] = v;
+            }
+        }
+
+        SplittableRandom root = new SplittableRandom(seed);
+        this.swarm = new Particle[numParticles];
+        for (int p = 0; p < numParticles; p++) {
+            swarm[p] = new Particle(root.split());
+        }
+        this.gBestPosition = new int[numCloudlets];
+    }
+
+    // Receives one line per iteration; null (the default) disables tracing entirely
+    public void setTrace(Consumer<String> trace) {
+        this.trace = trace;
+    }
+
+    public double getBestFitness() {
+        return gBestFitness;
+    }
+
+    // Runs the search and returns the best mapping found: VM index of each cloudlet
+    public int[] optimize(ForkJoinPool pool) {
+        if (numCloudlets == 0) {
+            return gBestPosition;
+        }
+        for (int iter = 0; iter < maxIterations; iter++) {
+            // Page 27: Nonlinear inertia weight reduction
+            double ratio = (double) iter / maxIterations;
+            double w = W_MAX - (W_MAX - W_MIN) * ratio * ratio;
+
+            // Page 45: Evaluate fitness (response time, load balance, energy)
+            pool.submit(() -> IntStream.range(0, numParticles).parallel().forEach(p -> swarm[p].evaluate())).join();
+
+            int best = -1;
+            for (int p = 0; p < numParticles; p++) {
+                if (swarm[p].pBestFitness < gBestFitness && (best < 0 || swarm[p].pBestFitness < swarm[best].pBestFitness)) {
+                    best = p;
+                }
+            }
+            if (best >= 0) {
+                gBestFitness = swarm[best].pBestFitness;
+                System.arraycopy(swarm[best].pBestPosition, 0, gBestPosition, 0, numCloudlets);
+            }
+            if (trace != null) {
+                trace.accept("EPSO iteration " + iter + ": best fitness " + gBestFitness);
+            }
+
+            // Page 45: Update velocity and position per PSO equations
+            final double inertia = w;
+            pool.submit(() -> IntStream.range(0, numParticles).parallel().forEach(p -> swarm[p].move(inertia))).join();
+        }
+        return gBestPosition;
+    }
+
+    // Page 45: Fitness evaluates response time, load balance, and energy. vmLoad, hostUtil and
+    // vmCloudlets are scratch buffers of length numVms, numHosts and numVms.
+    double fitness(int[] mapping, double[] vmLoad, double[] hostUtil, int[] vmCloudlets) {
+        Arrays.fill(vmLoad, 0.0);
+        Arrays.fill(hostUtil, 0.0);
+        Arrays.fill(vmCloudlets, 0);
+        for (int i = 0; i < numCloudlets; i++) {
+            int v = mapping[i];
+            vmLoad[v] += cloudletLength[i] / vmMips[v];
+            vmCloudlets[v]++;
+            int h = vmHost[v];
+            if (h >= 0) {
+                hostUtil[h] += cloudletHostShare[i];
+            }
+        }
+
+        // Response time and load balance
+        double maxResponseTime = 0.0;
+        double sum = 0.0;
+        for (int v = 0; v < numVms; v++) {
+            maxResponseTime = Math.max(maxResponseTime, vmLoad[v]);
+            sum += vmLoad[v];
+        }
+        double avgLoad = sum / numVms;
+        double squares = 0.0;
+        for (int v = 0; v < numVms; v++) {
+            double d = vmLoad[v] - avgLoad;
+            squares += d * d;
+        }
+        double loadVariance = squares / numVms;
+
+        // Energy with power-off simulation: hosts below the threshold are powered off and the
+        // cloudlets of their first VM count as migrations
+        double totalEnergy = 0.0;
+        int migrationCount = 0;
+        for (int h = 0; h < numHosts; h++) {
+            double util = Math.min(hostUtil[h], 1.0);
+            if (util < POWER_OFF_UTILIZATION) {
+                if (firstVmOfHost[h] >= 0) {
+                    migrationCount += vmCloudlets[firstVmOfHost[h]];
+                }
+            } else {
+                // Page 42: Power model for energy calculation
+                totalEnergy += ((POWER_BUSY - POWER_IDLE) * util + POWER_IDLE) * SIMULATION_HOURS;
+            }
+        }
+        totalEnergy += migrationCount * MIGRATION_ENERGY_COST;
+
+        return W_ENERGY * totalEnergy + W_RESPONSE * maxResponseTime + W_LOAD * loadVariance;
+    }
+
+    private final class Particle {
+
+        final SplittableRandom random;
+        final int[] position;
+        final double[] velocity;
+        final int[] pBestPosition;
+        double pBestFitness = Double.MAX_VALUE;
+
+        // Fitness buffers, reused across iterations
+        final double[] vmLoad = new double[numVms];
+        final double[] hostUtil = new double[numHosts];
+        final int[] vmCloudlets = new int[numVms];
+
+        Particle(SplittableRandom random) {
+            this.random = random;
+            position = new int[numCloudlets];
+            velocity = new double[numCloudlets];
+            pBestPosition = new int[numCloudlets];
+
+            // Page 45: Randomly assign tasks to VMs, balancing load (a shuffled round robin)
+            for (int i = 0; i < numCloudlets; i++) {
+                position[i] = i % numVms;
+                velocity[i] = random.nextDouble() * 0.2 - 0.1;
+            }
+            for (int i = numCloudlets - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = position[i];
+                position[i] = position[j];
+                position[j] = tmp;
+            }
+            System.arraycopy(position, 0, pBestPosition, 0, numCloudlets);
+        }
+
+        void evaluate() {
+            double fitness = fitness(position, vmLoad, hostUtil, vmCloudlets);
+            if (fitness < pBestFitness) {
+                pBestFitness = fitness;
+                System.arraycopy(position, 0, pBestPosition, 0, numCloudlets);
+            }
+        }
+
+        void move(double w) {
+            for (int i = 0; i < numCloudlets; i++) {
+                double r1 = random.nextDouble();
+                double r2 = random.nextDouble();
+                double v = w * velocity[i]
+                        + C1 * r1 * (pBestPosition[i] - position[i])
+                        + C2 * r2 * (gBestPosition[i] - position[i]);
+                v = Math.max(-vMax, Math.min(vMax, v));
+                velocity[i] = v;
+                // Same as abs((position + round(v)) % numVms): |round(v)| <= numVms / 2 keeps the
+                // sum within (-numVms, 2 * numVms), so a single wrap replaces the division
+                int next = position[i] + (int) Math.round(v);
+                if (next >= numVms) {
+                    next -= numVms;
+                } else if (next < 0) {
+                    next = -next;
+                }
+                position[i] = next;
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Map;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 
 import com.google.gson.Gson;
@@ -16,24 +17,21 @@ public class ResultsFormatter {
     private static final double POWER_IDLE = 162.0; // Watts
     private SimulationConfig config;
     private SimulationLogger simulationLogger;
-    private Map<Integer, Double> cloudletSubmissionTimes;
-    private Map<Integer, Double> cloudletCpuRequests;
+    private TaskTrace tasks;
     private Map<Integer, List<Double>> hostUtilizationHistory;
     private Map<Long, Integer> vmHostMap;
     private Map<Integer, Boolean> hostActive; // New field to track powered-off state
     private double finalSimulationTime;
 
     public ResultsFormatter(SimulationConfig config, SimulationLogger simulationLogger,
-                           Map<Integer, Double> cloudletSubmissionTimes,
-                           Map<Integer, Double> cloudletCpuRequests,
+                           TaskTrace tasks,
                            Map<Integer, List<Double>> hostUtilizationHistory,
                            Map<Long, Integer> vmHostMap,
                            Map<Integer, Boolean> hostActive, // Add to constructor
                            double finalSimulationTime) {
         this.config = config;
         this.simulationLogger = simulationLogger;
-        this.cloudletSubmissionTimes = cloudletSubmissionTimes;
-        this.cloudletCpuRequests = cloudletCpuRequests;
+        this.tasks = tasks;
         this.hostUtilizationHistory = hostUtilizationHistory;
         this.vmHostMap = vmHostMap;
         this.hostActive = hostActive;
@@ -46,10 +44,10 @@ public class ResultsFormatter {
             Map<String, Object> cloudletData = new HashMap<>();
             cloudletData.put("cloudletId", cloudlet.getCloudletId());
             cloudletData.put("vmId", cloudlet.getVmId());
-            cloudletData.put("submissionTime", cloudletSubmissionTimes.get(cloudlet.getCloudletId()));
+            cloudletData.put("submissionTime", tasks.submitTime(cloudlet.getCloudletId()));
             cloudletData.put("startTime", cloudlet.getExecStartTime());
             cloudletData.put("finishTime", cloudlet.getFinishTime());
-            cloudletData.put("responseTime", cloudlet.getFinishTime() - cloudletSubmissionTimes.get(cloudlet.getCloudletId()));
+            cloudletData.put("responseTime", cloudlet.getFinishTime() - tasks.submitTime(cloudlet.getCloudletId()));
             cloudletData.put("status", cloudlet.getStatus().toString());
             results.add(cloudletData);
         }
@@ -76,7 +74,7 @@ public class ResultsFormatter {
 
         for (Cloudlet cloudlet : cloudlets) {
             Long vmId = (long) cloudlet.getVmId();
-            double cpuRequest = cloudletCpuRequests.get(cloudlet.getCloudletId());
+            double cpuRequest = tasks.cpuRequest(cloudlet.getCloudletId());
             double cpuUtil = cpuRequest * config.vmMips;
             double ramUtil = cloudlet.getUtilizationOfRam(cloudlet.getFinishTime()) * config.vmRam;
             vmCpuUtilization.put(vmId, vmCpuUtilization.get(vmId) + cpuUtil);
@@ -87,9 +85,9 @@ public class ResultsFormatter {
             if (hostId != null) {
                 double hostUtil = cpuUtil / (config.peMips * config.numPesPerHost);
                 hostUtilizationHistory.get(hostId).add(hostUtil);
-                System.out.println("Cloudlet " + cloudlet.getCloudletId() + " VM " + vmId + " Host " + hostId + " cpuUtil: " + cpuUtil + " hostUtil: " + hostUtil);
+                Log.println("Cloudlet " + cloudlet.getCloudletId() + " VM " + vmId + " Host " + hostId + " cpuUtil: " + cpuUtil + " hostUtil: " + hostUtil);
             } else {
-                System.out.println("Cloudlet " + cloudlet.getCloudletId() + " VM " + vmId + " has no host mapping");
+                Log.println("Cloudlet " + cloudlet.getCloudletId() + " VM " + vmId + " has no host mapping");
             }
         }
 
@@ -132,7 +130,7 @@ public class ResultsFormatter {
             }
 
             double simulationTime = finalSimulationTime / 3600.0;
-            System.out.println("Simulation time: " + simulationTime + " s");
+            Log.println("Simulation time: " + simulationTime + " s");
             double energy = power * simulationTime;
 
             totalEnergy += energy;
@@ -143,12 +141,12 @@ public class ResultsFormatter {
             hostEnergy.put("power", power);
             hostEnergy.put("energy", energy);
             hostEnergyList.add(hostEnergy);
-            System.out.println("Host " + hostId + " util: " + averageUtilization + " power: " + power + " energy: " + energy);
+            Log.println("Host " + hostId + " util: " + averageUtilization + " power: " + power + " energy: " + energy);
         }
 
         energyResults.put("totalEnergyWh", totalEnergy);
         energyResults.put("hosts", hostEnergyList);
-        System.out.println("Total energy: " + totalEnergy + " Wh, simulation time: " + finalSimulationTime + " s");
+        Log.println("Total energy: " + totalEnergy + " Wh, simulation time: " + finalSimulationTime + " s");
         return energyResults;
     }
 
@@ -156,7 +154,7 @@ public class ResultsFormatter {
         Map<String, Object> summary = new HashMap<>();
         double totalResponseTime = 0;
         for (Cloudlet cloudlet : cloudlets) {
-            double submissionTime = cloudletSubmissionTimes.get(cloudlet.getCloudletId());
+            double submissionTime = tasks.submitTime(cloudlet.getCloudletId());
             double finishTime = cloudlet.getFinishTime();
             double responseTime = Math.max(0.0, finishTime - submissionTime);
             totalResponseTime += responseTime;
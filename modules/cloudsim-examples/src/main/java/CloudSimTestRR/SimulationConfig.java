@@ -29,6 +29,12 @@ public class SimulationConfig {
 
     // Optimization configuration
     public String optimizationAlgorithm; // Scheduling algorithm: "RoundRobin" or "EPSO"
+    public Long randomSeed;       // Seed for the scheduler's random numbers (null = unseeded, not reproducible)
+    public int schedulerThreads;  // EPSO parallelism (0 = common ForkJoinPool); does not change the result
+    public boolean energyDebugLog; // Collect the scheduler's energy debug log (slow, off by default)
+
+    // Result cache
+    public boolean useCache;      // Reuse the cached result of an identical reproducible run
 
     // Constructor with defaults
     public SimulationConfig() {
@@ -50,5 +56,9 @@ public class SimulationConfig {
         this.cloudletPes = 1;
         this.workloadType = "CSV";
         this.optimizationAlgorithm = "RoundRobin"; // Default at first 
+        this.randomSeed = null;
+        this.schedulerThreads = 0;
+        this.energyDebugLog = false;
+        this.useCache = true;
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package CloudSimTestRR;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 import org.springframework.http.HttpStatus;
@@ -7,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,22 +23,91 @@ import org.springframework.web.multipart.MultipartFile;
 @CrossOrigin(origins = "*") // Allow frontend
 public class SimulationController {
 
-    private String simulationResults = "{}";
-    private String schedulingLog = "[]"; // Store structured scheduling log
+    private final SimulationJobService jobService;
 
-    @PostMapping("/run")
-    public ResponseEntity<String> runSimulation(@RequestBody SimulationConfig config) {
-        CSVTaskSimulation simulation = new CSVTaskSimulation(config);
+    public SimulationController(SimulationJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    // Submits a simulation job; poll /jobs/{id} and fetch /jobs/{id}/result when COMPLETED
+    @PostMapping(value = "/jobs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> submitJob(@RequestBody SimulationConfig config) {
+        try {
+            SimulationJob job = jobService.submit(config);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toStatusMap());
+        } catch (SimulationJobService.RejectedJobException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
+    @PostMapping(value = "/jobs/with-file", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> submitJobWithFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam Map<String, String> params) {
+        Path workload = null;
         try {
-            System.out.println("Starting CloudSim simulation...");
-            simulationResults = simulation.runSimulation();
-            schedulingLog = simulation.getSchedulingLog(); // Capture structured scheduling log
-            System.out.println("CloudSim simulation completed.");
-            System.out.println("Energy Results" + simulation.getEnergyResults());
-            
-            return ResponseEntity.ok(simulationResults);
+            workload = saveUpload(file);
+            SimulationJob job = jobService.submit(configFromParams(params, workload), workload);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toStatusMap());
+        } catch (SimulationJobService.RejectedJobException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (IOException | IllegalArgumentException e) {
+            deleteQuietly(workload);
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @GetMapping(value = "/jobs/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getJobMetrics() {
+        return ResponseEntity.ok(jobService.getMetrics());
+    }
+
+    @GetMapping(value = "/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getJobStatus(@PathVariable String jobId) {
+        SimulationJob job = jobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job.toStatusMap());
+    }
 
+    @GetMapping(value = "/jobs/{jobId}/result", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJobResult(@PathVariable String jobId) {
+        SimulationJob job = jobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return switch (job.getStatus()) {
+            case COMPLETED -> ResponseEntity.ok(job.getResult());
+            case FAILED -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job.getError());
+            default -> ResponseEntity.status(HttpStatus.ACCEPTED).body("{\"status\": \"" + job.getStatus() + "\"}");
+        };
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/log", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJobLog(@PathVariable String jobId) {
+        SimulationJob job = jobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != SimulationJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("{\"status\": \"" + job.getStatus() + "\"}");
+        }
+        return ResponseEntity.ok(job.getSchedulingLog());
+    }
+
+    // Synchronous endpoints kept for the existing frontend; they go through the job queue too
+
+    @PostMapping("/run")
+    public ResponseEntity<String> runSimulation(@RequestBody SimulationConfig config) {
+        try {
+            return toResponse(jobService.submitAndWait(config, null));
+        } catch (SimulationJobService.RejectedJobException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("{\"error\": \"" + e.getMessage() + "\"}");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             System.err.println("Error running simulation: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error running simulation");
@@ -43,47 +116,77 @@ public class SimulationController {
 
     @GetMapping("/results")
     public ResponseEntity<String> getSimulationResults() {
-        return ResponseEntity.ok(simulationResults);
+        SimulationJob job = jobService.getLastCompleted();
+        return ResponseEntity.ok(job == null ? "{}" : job.getResult());
     }
 
     @GetMapping(value = "/logs", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> getSchedulingLog() {
-        return ResponseEntity.ok(schedulingLog);
+        SimulationJob job = jobService.getLastCompleted();
+        return ResponseEntity.ok(job == null ? "[]" : job.getSchedulingLog());
     }
 
     @PostMapping("/run-with-file")
     public ResponseEntity<String> runSimulationWithFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam Map<String, String> params) {
-        
+        Path workload = null;
         try {
-            // Convert params to SimulationConfig
-            SimulationConfig config = new SimulationConfig();
-            config.numHosts = Integer.parseInt(params.getOrDefault("numHosts", "10"));
-            config.numVms = Integer.parseInt(params.getOrDefault("numVMs", "20"));
-            config.numPesPerHost = Integer.parseInt(params.getOrDefault("numPesPerHost", "4"));
-            config.peMips = Integer.parseInt(params.getOrDefault("peMips", "1000"));
-            config.optimizationAlgorithm = params.getOrDefault("optimizationAlgorithm", "RoundRobin");
-            // Set other fields as needed
-            
-            // Save uploaded file to a temp location
-            String tempFilePath = System.getProperty("java.io.tmpdir") + "/" + file.getOriginalFilename();
-            file.transferTo(new java.io.File(tempFilePath));
-            
-            // Set the CSV file path in the config
-            config.csvFilePath = tempFilePath;
-            
-            // Run simulation with uploaded file
-            CSVTaskSimulation simulation = new CSVTaskSimulation(config);
-            simulationResults = simulation.runSimulation();
-            schedulingLog = simulation.getSchedulingLog();
-            
-            return ResponseEntity.ok(simulationResults);
+            workload = saveUpload(file);
+            return toResponse(jobService.submitAndWait(configFromParams(params, workload), workload));
+        } catch (SimulationJobService.RejectedJobException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("{\"error\": \"" + e.getMessage() + "\"}");
+        } catch (IllegalArgumentException e) {
+            deleteQuietly(workload);
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             System.err.println("Error running simulation with file: " + e.getMessage());
             e.printStackTrace();
+            deleteQuietly(workload);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("{\"error\": \"" + e.getMessage() + "\"}");
         }
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<String> toResponse(SimulationJob job) {
+        if (job.getStatus() == SimulationJob.Status.COMPLETED) {
+            return ResponseEntity.ok(job.getResult());
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job.getError());
+    }
+
+    private SimulationConfig configFromParams(Map<String, String> params, Path workload) {
+        SimulationConfig config = new SimulationConfig();
+        config.numHosts = Integer.parseInt(params.getOrDefault("numHosts", "10"));
+        config.numVms = Integer.parseInt(params.getOrDefault("numVMs", "20"));
+        config.numPesPerHost = Integer.parseInt(params.getOrDefault("numPesPerHost", "4"));
+        config.peMips = Integer.parseInt(params.getOrDefault("peMips", "1000"));
+        config.optimizationAlgorithm = params.getOrDefault("optimizationAlgorithm", "RoundRobin");
+        if (params.containsKey("randomSeed")) {
+            config.randomSeed = Long.parseLong(params.get("randomSeed"));
+        }
+        config.useCache = Boolean.parseBoolean(params.getOrDefault("useCache", "true"));
+        // Set other fields as needed
+
+        // Set the CSV file path in the config
+        config.csvFilePath = workload.toString();
+        return config;
+    }
+
+    // Each upload gets its own temp file, so concurrent jobs never read each other's workload
+    private Path saveUpload(MultipartFile file) throws IOException {
+        Path workload = Files.createTempFile("cloudsim-workload-", ".csv");
+        file.transferTo(workload);
+        return workload;
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Best effort
+            }
+        }
+    }
+}
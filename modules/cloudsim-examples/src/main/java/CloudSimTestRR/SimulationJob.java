@@ -0,0 +1,120 @@
+package CloudSimTestRR;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SimulationJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final SimulationConfig config;
+    private final long weight;            // Admission cost of this job, see SimulationJobService
+    private final long submittedAt;       // Wall-clock millis
+
+    private volatile Status status;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String result;       // Results JSON, once COMPLETED
+    private volatile String schedulingLog; // Scheduling log JSON, once COMPLETED
+    private volatile String error;        // Error message, once FAILED
+    private volatile boolean cached;      // Result served from SimulationResultCache
+
+    public SimulationJob(String id, SimulationConfig config, long weight) {
+        this.id = id;
+        this.config = config;
+        this.weight = weight;
+        this.submittedAt = System.currentTimeMillis();
+        this.status = Status.QUEUED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public SimulationConfig getConfig() {
+        return config;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getSchedulingLog() {
+        return schedulingLog;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    void markRunning() {
+        startedAt = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    void markCompleted(String result, String schedulingLog) {
+        this.result = result;
+        this.schedulingLog = schedulingLog;
+        finishedAt = System.currentTimeMillis();
+        status = Status.COMPLETED;
+    }
+
+    void markCached(String result, String schedulingLog) {
+        cached = true;
+        startedAt = System.currentTimeMillis();
+        markCompleted(result, schedulingLog);
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finishedAt = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+
+    // Status view returned by the REST API (results and logs are fetched separately)
+    public Map<String, Object> toStatusMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("status", status.toString());
+        map.put("optimizationAlgorithm", config.optimizationAlgorithm);
+        map.put("numCloudlets", config.numCloudlets);
+        map.put("submittedAt", submittedAt);
+        if (startedAt > 0) {
+            map.put("startedAt", startedAt);
+            map.put("queuedMillis", startedAt - submittedAt);
+        }
+        if (finishedAt > 0) {
+            map.put("finishedAt", finishedAt);
+            map.put("runMillis", finishedAt - startedAt);
+        }
+        if (cached) {
+            map.put("cached", true);
+        }
+        if (error != null) {
+            map.put("error", error);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,309 @@
+package CloudSimTestRR;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+// Runs simulations off the HTTP threads: a bounded pool of platform threads runs the CPU-bound
+// simulations (each in its own SimulationContext), virtual threads do the file I/O around them.
+@Service
+public class SimulationJobService {
+
+    // EPSO keeps a swarm of particles per cloudlet, so it weighs much more than RoundRobin
+    private static final int EPSO_WEIGHT = 50;
+
+    public static class RejectedJobException extends RuntimeException {
+        public RejectedJobException(String message) {
+            super(message);
+        }
+    }
+
+    private final SimulationResultCache cache;
+    private final Function<SimulationConfig, CSVTaskSimulation> simulations;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long maxInFlightWeight;
+    private final int retainedJobs;
+
+    private final Map<String, SimulationJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> finishedJobIds = new ConcurrentLinkedQueue<>();
+    private volatile SimulationJob lastCompleted;
+
+    // Metrics
+    private final AtomicLong inFlightWeight = new AtomicLong();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder servedFromCache = new LongAdder();
+    private final LongAdder totalRunMillis = new LongAdder();
+    private final AtomicLong maxRunMillis = new AtomicLong();
+
+    @Autowired
+    public SimulationJobService(
+            SimulationResultCache cache,
+            @Value("${simulation.jobs.workers:0}") int workers,
+            @Value("${simulation.jobs.queue-capacity:32}") int queueCapacity,
+            @Value("${simulation.jobs.max-inflight-weight:5000000}") long maxInFlightWeight,
+            @Value("${simulation.jobs.retained:256}") int retainedJobs) {
+        this(cache, workers, queueCapacity, maxInFlightWeight, retainedJobs, CSVTaskSimulation::new);
+    }
+
+    // simulations creates the simulation of each job, so that tests can control how long it runs
+    SimulationJobService(SimulationResultCache cache, int workers, int queueCapacity, long maxInFlightWeight,
+            int retainedJobs, Function<SimulationConfig, CSVTaskSimulation> simulations) {
+        this.cache = cache;
+        this.simulations = simulations;
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "simulation-worker-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxInFlightWeight = maxInFlightWeight;
+        this.retainedJobs = retainedJobs;
+    }
+
+    public SimulationJob submit(SimulationConfig config) {
+        return submit(config, null);
+    }
+
+    // uploadedFile, if any, is deleted once the job is finished
+    public SimulationJob submit(SimulationConfig config, Path uploadedFile) {
+        if (config.numCloudlets <= 0) {
+            throw new IllegalArgumentException("Number of Cloudlets must be greater than 0");
+        }
+
+        long weight = weightOf(config);
+        if (weight > maxInFlightWeight) {
+            // Could never run, even on an idle server: not worth retrying
+            throw new IllegalArgumentException("Simulation too large (job weight " + weight
+                    + ", limit " + maxInFlightWeight + ")");
+        }
+        SimulationJob job = new SimulationJob(UUID.randomUUID().toString(), config, weight);
+
+        // Identical reproducible runs are answered from the cache without touching the pool
+        String cacheKey = cacheKeyOf(config, uploadedFile);
+        if (cacheKey != null) {
+            SimulationResultCache.Entry entry = cache.get(cacheKey);
+            if (entry != null) {
+                job.markCached(entry.result, entry.schedulingLog);
+                jobs.put(job.getId(), job);
+                submitted.increment();
+                completed.increment();
+                servedFromCache.increment();
+                lastCompleted = job;
+                retire(job);
+                deleteLater(uploadedFile);
+                return job;
+            }
+        }
+
+        // Admission control: reserve the job's weight before queueing it
+        if (inFlightWeight.addAndGet(weight) > maxInFlightWeight) {
+            inFlightWeight.addAndGet(-weight);
+            rejected.increment();
+            deleteLater(uploadedFile);
+            throw new RejectedJobException("Simulation capacity exceeded (job weight " + weight
+                    + ", in flight " + inFlightWeight.get() + ", limit " + maxInFlightWeight + ")");
+        }
+
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(new JobTask(job, uploadedFile, cacheKey));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            inFlightWeight.addAndGet(-weight);
+            rejected.increment();
+            deleteLater(uploadedFile);
+            throw new RejectedJobException("Simulation queue is full (" + workers.getQueue().size() + " queued)");
+        }
+        submitted.increment();
+        return job;
+    }
+
+    // Submits a job and waits for it, for the legacy synchronous endpoints
+    public SimulationJob submitAndWait(SimulationConfig config, Path uploadedFile) throws InterruptedException {
+        SimulationJob job = submit(config, uploadedFile);
+        synchronized (job) {
+            while (!job.isFinished()) {
+                job.wait();
+            }
+        }
+        return job;
+    }
+
+    public SimulationJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public SimulationJob getLastCompleted() {
+        return lastCompleted;
+    }
+
+    private void run(SimulationJob job, Path uploadedFile, String cacheKey) {
+        job.markRunning();
+        long start = System.nanoTime();
+        try {
+            CSVTaskSimulation simulation = simulations.apply(job.getConfig());
+            String result = new SimulationContext().call(simulation::runSimulation);
+            if (result.startsWith("{\"error\"")) {
+                job.markFailed(result);
+            } else {
+                job.markCompleted(result, simulation.getSchedulingLog());
+                if (cacheKey != null) {
+                    cache.put(cacheKey, job.getResult(), job.getSchedulingLog());
+                }
+            }
+        } catch (Throwable e) {
+            job.markFailed(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            long runMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            totalRunMillis.add(runMillis);
+            maxRunMillis.accumulateAndGet(runMillis, Math::max);
+            finish(job, uploadedFile);
+        }
+    }
+
+    // Releases what a finished job holds and wakes up the threads waiting for it
+    private void finish(SimulationJob job, Path uploadedFile) {
+        inFlightWeight.addAndGet(-job.getWeight());
+        if (job.getStatus() == SimulationJob.Status.COMPLETED) {
+            completed.increment();
+            lastCompleted = job;
+        } else {
+            failed.increment();
+        }
+        retire(job);
+        deleteLater(uploadedFile);
+        synchronized (job) {
+            job.notifyAll();
+        }
+    }
+
+    // Keeps only the most recent finished jobs, so results do not accumulate forever
+    private void retire(SimulationJob job) {
+        finishedJobIds.add(job.getId());
+        while (finishedJobIds.size() > retainedJobs) {
+            String oldest = finishedJobIds.poll();
+            if (oldest != null) {
+                jobs.remove(oldest);
+            }
+        }
+    }
+
+    private String cacheKeyOf(SimulationConfig config, Path uploadedFile) {
+        if (!cache.isCacheable(config)) {
+            return null;
+        }
+        try {
+            return SimulationResultCache.keyOf(config, uploadedFile);
+        } catch (IOException e) {
+            return null; // Unreadable workload: let the simulation report it
+        }
+    }
+
+    private void deleteLater(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            ioExecutor.execute(() -> delete(file));
+        } catch (RejectedExecutionException e) {
+            delete(file); // Shutting down: a job interrupted by shutdown() finishes after it
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete uploaded workload " + file + ": " + e.getMessage());
+        }
+    }
+
+    static long weightOf(SimulationConfig config) {
+        long weight = Math.max(1, config.numCloudlets);
+        if ("EPSO".equals(config.optimizationAlgorithm)) {
+            weight *= EPSO_WEIGHT;
+        }
+        return weight;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long finished = completed.sum() + failed.sum() - servedFromCache.sum(); // Runs actually simulated
+        metrics.put("workers", workers.getMaximumPoolSize());
+        metrics.put("running", workers.getActiveCount());
+        metrics.put("queueDepth", workers.getQueue().size());
+        metrics.put("queueRemainingCapacity", workers.getQueue().remainingCapacity());
+        metrics.put("inFlightWeight", inFlightWeight.get());
+        metrics.put("maxInFlightWeight", maxInFlightWeight);
+        metrics.put("submitted", submitted.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("completed", completed.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("servedFromCache", servedFromCache.sum());
+        metrics.put("averageRunMillis", finished == 0 ? 0.0 : (double) totalRunMillis.sum() / finished);
+        metrics.put("maxRunMillis", maxRunMillis.get());
+        metrics.put("cache", cache.getMetrics());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The queued jobs will never run: fail them, so that submitAndWait does not wait forever
+        for (Runnable task : workers.shutdownNow()) {
+            if (task instanceof JobTask jobTask) {
+                jobTask.job.markFailed("Simulation service shut down");
+                finish(jobTask.job, jobTask.uploadedFile);
+            }
+        }
+        ioExecutor.shutdown();
+    }
+
+    // A queued job, kept recognizable for shutdown()
+    private final class JobTask implements Runnable {
+        private final SimulationJob job;
+        private final Path uploadedFile;
+        private final String cacheKey;
+
+        JobTask(SimulationJob job, Path uploadedFile, String cacheKey) {
+            this.job = job;
+            this.uploadedFile = uploadedFile;
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public void run() {
+            SimulationJobService.this.run(job, uploadedFile, cacheKey);
+        }
+    }
+}
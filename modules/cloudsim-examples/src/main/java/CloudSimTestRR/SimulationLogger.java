@@ -1,18 +1,18 @@
 package CloudSimTestRR;
 
 import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.Log;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 public class SimulationLogger {
     private ByteArrayOutputStream logStream;
-    private PrintStream originalOut;
     private List<Map<String, Object>> schedulingLog; // Store assignments, migrations, power-offs
     private Map<String, Object> simulationResults;   // Store final results (energy, utilization, etc.)
     private Map<String, Object> simulationConfig;    // Store simulation configuration
@@ -23,15 +23,15 @@ public class SimulationLogger {
         this.simulationConfig = new HashMap<>();
     }
 
+    // The log output belongs to the simulation context of the calling thread, so each simulation
+    // captures its own log even when several run concurrently
     public void startLogging() {
         logStream = new ByteArrayOutputStream();
-        PrintStream logPrintStream = new PrintStream(logStream);
-        originalOut = System.out;
-        System.setOut(logPrintStream);
+        Log.setOutput(logStream);
     }
 
     public void stopLogging() {
-        System.setOut(originalOut);
+        Log.setOutput(null);
     }
 
     // Log the number of tasks (cloudlets) being scheduled
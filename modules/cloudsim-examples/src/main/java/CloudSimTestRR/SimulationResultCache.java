@@ -0,0 +1,279 @@
+package CloudSimTestRR;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Caches simulation results by a canonical hash of the SimulationConfig plus a digest of the
+// workload file. Memory tier: LRU bounded by entries and bytes. Disk tier (optional): one pair of
+// JSON files per key under simulation.cache.dir, bounded by bytes, oldest entries evicted first.
+@Component
+public class SimulationResultCache {
+
+    // Fields that do not change the simulation outcome (the workload path is replaced by its digest)
+    private static final List<String> NON_KEY_FIELDS = List.of("csvFilePath", "useCache", "schedulerThreads", "energyDebugLog");
+
+    public static class Entry {
+        public final String result;
+        public final String schedulingLog;
+
+        public Entry(String result, String schedulingLog) {
+            this.result = result;
+            this.schedulingLog = schedulingLog;
+        }
+
+        long sizeInBytes() {
+            // Java strings take up to 2 bytes per char
+            return 2L * (result.length() + schedulingLog.length());
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Path diskDir;
+    private final long maxDiskBytes;
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SimulationResultCache(
+            @Value("${simulation.cache.enabled:true}") boolean enabled,
+            @Value("${simulation.cache.max-entries:128}") int maxEntries,
+            @Value("${simulation.cache.max-bytes:268435456}") long maxBytes,
+            @Value("${simulation.cache.dir:}") String diskDir,
+            @Value("${simulation.cache.max-disk-bytes:1073741824}") long maxDiskBytes) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.diskDir = diskDir == null || diskDir.isBlank() ? null : Paths.get(diskDir);
+        this.maxDiskBytes = maxDiskBytes;
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create result cache directory " + diskDir, e);
+            }
+        }
+    }
+
+    // A result can be reused only if the run is reproducible. RoundRobin needs no seed: it assigns the
+    // cloudlets to the VMs in turn, in submission order, and never draws from the scheduler's Random,
+    // which only EPSO uses (for its optimizer seed and its random migrations). EPSO needs a fixed seed.
+    public boolean isCacheable(SimulationConfig config) {
+        return enabled && config.useCache
+                && (!"EPSO".equals(config.optimizationAlgorithm) || config.randomSeed != null);
+    }
+
+    public Entry get(String key) {
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                hits.increment();
+                return entry;
+            }
+        }
+
+        Entry entry = readFromDisk(key);
+        if (entry != null) {
+            diskHits.increment();
+            putInMemory(key, entry);
+            return entry;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, String result, String schedulingLog) {
+        Entry entry = new Entry(result, schedulingLog);
+        putInMemory(key, entry);
+        writeToDisk(key, entry);
+    }
+
+    private synchronized void putInMemory(String key, Entry entry) {
+        if (entry.sizeInBytes() > maxBytes) {
+            return; // Would evict everything else
+        }
+        Entry previous = memory.put(key, entry);
+        if (previous != null) {
+            memoryBytes -= previous.sizeInBytes();
+        }
+        memoryBytes += entry.sizeInBytes();
+
+        // Evict least recently used entries
+        Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+        while ((memory.size() > maxEntries || memoryBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            memoryBytes -= eldest.getValue().sizeInBytes();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path resultFile = diskDir.resolve(key + ".result.json");
+        Path logFile = diskDir.resolve(key + ".log.json");
+        try {
+            if (!Files.exists(resultFile) || !Files.exists(logFile)) {
+                return null;
+            }
+            return new Entry(Files.readString(resultFile), Files.readString(logFile));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private synchronized void writeToDisk(String key, Entry entry) {
+        if (diskDir == null) {
+            return;
+        }
+        try {
+            // The result file is written last and atomically, it marks the entry as complete
+            Files.writeString(diskDir.resolve(key + ".log.json"), entry.schedulingLog);
+            Path tmp = diskDir.resolve(key + ".result.json.tmp");
+            Files.writeString(tmp, entry.result);
+            Files.move(tmp, diskDir.resolve(key + ".result.json"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            trimDisk();
+        } catch (IOException e) {
+            System.err.println("Could not write cached result " + key + ": " + e.getMessage());
+        }
+    }
+
+    // Evicts whole entries, oldest first, so that a log is never left without its result
+    private void trimDisk() throws IOException {
+        Map<String, DiskEntry> entries = new HashMap<>();
+        long total = 0;
+        try (Stream<Path> list = Files.list(diskDir)) {
+            for (Path file : (Iterable<Path>) list::iterator) {
+                String name = file.getFileName().toString();
+                String key;
+                if (name.endsWith(".result.json")) {
+                    key = name.substring(0, name.length() - ".result.json".length());
+                } else if (name.endsWith(".log.json")) {
+                    key = name.substring(0, name.length() - ".log.json".length());
+                } else {
+                    continue;
+                }
+                long size = Files.size(file);
+                DiskEntry entry = entries.computeIfAbsent(key, DiskEntry::new);
+                entry.bytes += size;
+                entry.lastModified = Math.max(entry.lastModified, file.toFile().lastModified());
+                total += size;
+            }
+        }
+        if (total <= maxDiskBytes) {
+            return;
+        }
+        List<DiskEntry> oldestFirst = new ArrayList<>(entries.values());
+        oldestFirst.sort(Comparator.comparingLong((DiskEntry e) -> e.lastModified).thenComparing(e -> e.key));
+        for (DiskEntry entry : oldestFirst) {
+            if (total <= maxDiskBytes) {
+                break;
+            }
+            // The result goes first: without it, a leftover log is never read
+            Files.deleteIfExists(diskDir.resolve(entry.key + ".result.json"));
+            Files.deleteIfExists(diskDir.resolve(entry.key + ".log.json"));
+            total -= entry.bytes;
+        }
+    }
+
+    private static class DiskEntry {
+        final String key;
+        long bytes;
+        long lastModified;
+
+        DiskEntry(String key) {
+            this.key = key;
+        }
+    }
+
+    // Canonical key: every result-relevant SimulationConfig field, sorted by name, plus the digest of the
+    // workload file. A null workload stands for the file the simulation reads for this config (see
+    // CloudletFactory.workloadFileOf), so that the key follows the content of the default file too.
+    public static String keyOf(SimulationConfig config, Path workload) throws IOException {
+        if (workload == null) {
+            workload = CloudletFactory.workloadFileOf(config);
+        }
+        MessageDigest sha = sha256();
+        Field[] fields = SimulationConfig.class.getFields();
+        Arrays.sort(fields, Comparator.comparing(Field::getName));
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) || NON_KEY_FIELDS.contains(field.getName())) {
+                continue;
+            }
+            try {
+                String value = field.getName() + "=" + field.get(config) + "\n";
+                sha.update(value.getBytes(StandardCharsets.UTF_8));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        sha.update(("workload=" + (workload == null ? "synthetic" : digestOf(workload)) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    public static String digestOf(Path file) throws IOException {
+        MessageDigest sha = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                sha.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("entries", memory.size());
+        metrics.put("bytes", memoryBytes);
+        metrics.put("hits", hits.sum());
+        metrics.put("diskHits", diskHits.sum());
+        metrics.put("misses", misses.sum());
+        metrics.put("evictions", evictions.sum());
+        metrics.put("diskTier", diskDir != null);
+        return metrics;
+    }
+}
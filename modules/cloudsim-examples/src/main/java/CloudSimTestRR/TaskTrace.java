@@ -0,0 +1,361 @@
+package CloudSimTestRR;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Columnar task workload: one primitive array per column, indexed by task (= cloudlet id).
+// Rows are parsed straight from the bytes of the CSV, without splitting lines or building strings,
+// so a trace costs 32 bytes per task plus the submission order once it is sorted.
+public class TaskTrace {
+
+    // Columns of the preprocessed Google cluster trace
+    private static final int CPU_COLUMN = 4;
+    private static final int MEMORY_COLUMN = 5;
+    private static final int DISK_COLUMN = 6;
+    private static final int TIME_COLUMN = 7;
+    private static final int MIN_COLUMNS = 9;
+
+    private static final String[] COLUMN_NAMES = new String[MIN_COLUMNS];
+    static {
+        COLUMN_NAMES[CPU_COLUMN] = "cpu_request";
+        COLUMN_NAMES[MEMORY_COLUMN] = "memory_request";
+        COLUMN_NAMES[DISK_COLUMN] = "disk_space_request";
+        COLUMN_NAMES[TIME_COLUMN] = "time_seconds";
+    }
+
+    // Exact powers of ten for the fast decimal path (all representable as doubles)
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private int size;
+    private double[] submitTime;   // Seconds since the first task
+    private double[] cpuRequest;   // Normalized CPU request
+    private double[] memoryRequest; // Normalized memory request
+    private double[] diskRequest;  // Normalized disk space request
+    private int[] order;           // Task indices by submission time, computed on first use
+
+    private TaskTrace(int capacity) {
+        submitTime = new double[capacity];
+        cpuRequest = new double[capacity];
+        memoryRequest = new double[capacity];
+        diskRequest = new double[capacity];
+    }
+
+    // Identical tasks submitted at a fixed interval
+    public static TaskTrace synthetic(int numTasks, double cpuRequest, double interval) {
+        TaskTrace trace = new TaskTrace(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            trace.add(i * interval, cpuRequest, 0, 0);
+        }
+        return trace;
+    }
+
+    // Reads at most maxTasks rows after the header line
+    public static TaskTrace read(Path csvFile, int maxTasks) throws IOException {
+        try (InputStream in = Files.newInputStream(csvFile)) {
+            return read(in, maxTasks);
+        }
+    }
+
+    public static TaskTrace read(InputStream in, int maxTasks) throws IOException {
+        return new Parser(in, maxTasks).parse();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double submitTime(int task) {
+        return submitTime[task];
+    }
+
+    public double cpuRequest(int task) {
+        return cpuRequest[task];
+    }
+
+    public double memoryRequest(int task) {
+        return memoryRequest[task];
+    }
+
+    public double diskRequest(int task) {
+        return diskRequest[task];
+    }
+
+    // Task indices ordered by submission time; tasks submitted together keep their file order
+    public int[] submissionOrder() {
+        if (order == null) {
+            int[] result = new int[size];
+            boolean sorted = true;
+            for (int i = 0; i < size; i++) {
+                result[i] = i;
+                sorted &= i == 0 || submitTime[i - 1] <= submitTime[i];
+            }
+            if (!sorted) {
+                sortBySubmitTime(result);
+            }
+            order = result;
+        }
+        return order;
+    }
+
+    // Stable bottom-up merge sort of task indices, without boxing
+    private void sortBySubmitTime(int[] tasks) {
+        int[] from = tasks;
+        int[] to = new int[tasks.length];
+        for (int width = 1; width < tasks.length; width *= 2) {
+            for (int lo = 0; lo < tasks.length; lo += 2 * width) {
+                int mid = Math.min(lo + width, tasks.length);
+                int hi = Math.min(lo + 2 * width, tasks.length);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    to[k++] = submitTime[from[j]] < submitTime[from[i]] ? from[j++] : from[i++];
+                }
+                while (i < mid) {
+                    to[k++] = from[i++];
+                }
+                while (j < hi) {
+                    to[k++] = from[j++];
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != tasks) {
+            System.arraycopy(from, 0, tasks, 0, tasks.length);
+        }
+    }
+
+    private void add(double time, double cpu, double memory, double disk) {
+        if (size == submitTime.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            submitTime = Arrays.copyOf(submitTime, capacity);
+            cpuRequest = Arrays.copyOf(cpuRequest, capacity);
+            memoryRequest = Arrays.copyOf(memoryRequest, capacity);
+            diskRequest = Arrays.copyOf(diskRequest, capacity);
+        }
+        submitTime[size] = time;
+        cpuRequest[size] = cpu;
+        memoryRequest[size] = memory;
+        diskRequest[size] = disk;
+        size++;
+    }
+
+    private void trim() {
+        if (size < submitTime.length) {
+            submitTime = Arrays.copyOf(submitTime, size);
+            cpuRequest = Arrays.copyOf(cpuRequest, size);
+            memoryRequest = Arrays.copyOf(memoryRequest, size);
+            diskRequest = Arrays.copyOf(diskRequest, size);
+        }
+    }
+
+    // Single pass over a byte buffer: fields are tracked as offsets, only the needed columns are parsed
+    private static final class Parser {
+        private final InputStream in;
+        private final int maxTasks;
+        private byte[] buffer = new byte[1 << 16];
+        private int position;
+        private int limit;
+
+        private final int[] fieldStart = new int[MIN_COLUMNS];
+        private final int[] fieldEnd = new int[MIN_COLUMNS];
+
+        Parser(InputStream in, int maxTasks) {
+            this.in = in;
+            this.maxTasks = maxTasks;
+        }
+
+        TaskTrace parse() throws IOException {
+            TaskTrace trace = new TaskTrace(Math.min(Math.max(maxTasks, 0), 1 << 20));
+            if (!skipLine()) {
+                return trace; // No header, no tasks
+            }
+            double firstTimestamp = -1;
+            while (trace.size < maxTasks) {
+                int columns = nextLine();
+                if (columns < 0) {
+                    break;
+                }
+                int row = trace.size + 2; // 1-based line number, after the header
+                if (columns < MIN_COLUMNS) {
+                    throw new IllegalArgumentException("Malformed CSV: Missing columns in row " + row);
+                }
+                double cpu = field(CPU_COLUMN, row);
+                double memory = field(MEMORY_COLUMN, row);
+                double disk = field(DISK_COLUMN, row);
+                double timestamp = field(TIME_COLUMN, row);
+                if (firstTimestamp == -1) {
+                    firstTimestamp = timestamp;
+                }
+                trace.add(timestamp - firstTimestamp, cpu, memory, disk);
+            }
+            trace.trim();
+            return trace;
+        }
+
+        private boolean skipLine() throws IOException {
+            while (true) {
+                if (position == limit && !fill()) {
+                    return false;
+                }
+                if (buffer[position++] == '\n') {
+                    return true;
+                }
+            }
+        }
+
+        // Marks the fields of the next non-empty line; returns its column count, -1 at end of input
+        private int nextLine() throws IOException {
+            while (true) {
+                int start = position;
+                int end = -1;
+                while (end < 0) {
+                    for (int i = position; i < limit; i++) {
+                        if (buffer[i] == '\n') {
+                            end = i;
+                            break;
+                        }
+                    }
+                    if (end < 0) {
+                        position = limit;
+                        int shift = compact(start);
+                        start -= shift;
+                        if (!fill()) {
+                            if (start == limit) {
+                                return -1;
+                            }
+                            end = limit; // Last line without a newline
+                        }
+                    }
+                }
+                position = end < limit ? end + 1 : end;
+                if (end > start && buffer[end - 1] == '\r') {
+                    end--;
+                }
+                if (end == start) {
+                    continue; // Blank line
+                }
+
+                int columns = 0;
+                int fieldBegin = start;
+                for (int i = start; i <= end; i++) {
+                    if (i == end || buffer[i] == ',') {
+                        if (columns < MIN_COLUMNS) {
+                            fieldStart[columns] = fieldBegin;
+                            fieldEnd[columns] = i;
+                        }
+                        columns++;
+                        fieldBegin = i + 1;
+                    }
+                }
+                return columns;
+            }
+        }
+
+        // Moves the current line to the front of the buffer (growing it for very long lines)
+        private int compact(int lineStart) {
+            int length = limit - lineStart;
+            if (lineStart == 0 && length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                return 0;
+            }
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+            limit = length;
+            position = length;
+            return lineStart;
+        }
+
+        private boolean fill() throws IOException {
+            if (position == limit && limit == buffer.length) {
+                position = 0;
+                limit = 0;
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read <= 0) {
+                return false;
+            }
+            limit += read;
+            return true;
+        }
+
+        private double field(int column, int row) {
+            int from = fieldStart[column];
+            int to = fieldEnd[column];
+            while (from < to && buffer[from] == ' ') {
+                from++;
+            }
+            while (to > from && buffer[to - 1] == ' ') {
+                to--;
+            }
+            double value = parseDouble(buffer, from, to);
+            if (Double.isNaN(value)) {
+                throw new IllegalArgumentException("Invalid " + COLUMN_NAMES[column] + " at line " + row + ": "
+                        + new String(buffer, fieldStart[column], fieldEnd[column] - fieldStart[column],
+                                StandardCharsets.US_ASCII));
+            }
+            return value;
+        }
+    }
+
+    // Parses a decimal number; plain numbers with up to 15 significant digits are converted exactly
+    // without allocating, anything else goes through Double.parseDouble. Returns NaN if invalid.
+    static double parseDouble(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (dot) {
+                        scale++; // Leading zeros after the point only shift the scale
+                    }
+                    continue;
+                }
+                if (digits >= 18) {
+                    return slowParse(bytes, from, to);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (dot) {
+                    scale++;
+                }
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowParse(bytes, from, to); // Exponent, infinity, NaN or garbage
+            }
+        }
+        if (!anyDigit) {
+            return Double.NaN;
+        }
+        if (digits <= 15 && scale < POWERS_OF_TEN.length) {
+            double value = (double) mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        return slowParse(bytes, from, to);
+    }
+
+    private static double slowParse(byte[] bytes, int from, int to) {
+        try {
+            return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package org.cloudbus.cloudsim.examples.container;
 
-import com.opencsv.CSVWriter;
-import com.opencsv.ICSVWriter;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.container.core.*;
 import org.cloudbus.cloudsim.container.resourceAllocatorMigrationEnabled.PowerContainerVmAllocationPolicyMigrationAbstract;
@@ -11,7 +9,11 @@ import org.cloudbus.cloudsim.power.PowerHost;
 import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.util.AsyncMetricsSink;
+import org.cloudbus.cloudsim.util.CsvMetricsSink;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.MetricsSink;
+import org.cloudbus.cloudsim.util.StateHistoryStore;
 
 import java.io.*;
 import java.io.File;
@@ -25,6 +27,12 @@ import java.util.*;
 
 public class HelperEx {
 
+    /**
+     * The sinks of the stats files, kept open until {@link #closeStatsSinks()}, which the runner
+     * calls when its experiment finishes; the rows reach the files when the sinks are closed.
+     */
+    private static final Map<String, MetricsSink> STATS_SINKS = new HashMap<>();
+
     public HelperEx() {
 //        System.out.print();
 
@@ -503,7 +511,7 @@ public class HelperEx {
         for (ContainerVm vm : vms) {
             boolean previousIsInMigration = false;
             double lastTimeMigrationFinished = 0;
-            for (VmStateHistoryEntry entry : vm.getStateHistory()) {
+            for (StateHistoryStore.Cursor entry = vm.getStateHistoryStore().cursor(); entry.next();) {
                 if (previousIsInMigration && !entry.isInMigration()) {
                     timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
                 }
@@ -527,7 +535,7 @@ public class HelperEx {
         for (Container container : containers) {
             boolean previousIsInMigration = false;
             double lastTimeMigrationFinished = 0;
-            for (VmStateHistoryEntry entry : container.getStateHistory()) {
+            for (StateHistoryStore.Cursor entry = container.getStateHistoryStore().cursor(); entry.next();) {
                 if (previousIsInMigration && !entry.isInMigration()) {
                     timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
                 }
@@ -551,7 +559,7 @@ public class HelperEx {
         for (HostEntity host : hosts) {
             boolean previousIsActive = true;
             double lastTimeSwitchedOn = 0;
-            for (HostStateHistoryEntry entry : ((HostDynamicWorkload) host).getStateHistory()) {
+            for (StateHistoryStore.Cursor entry = ((HostDynamicWorkload) host).getStateHistoryStore().cursor(); entry.next();) {
                 if (previousIsActive && !entry.isActive()) {
                     timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
                 }
@@ -603,7 +611,7 @@ public class HelperEx {
             double previousRequested = 0;
             boolean previousIsActive = true;
 
-            for (HostStateHistoryEntry entry : host.getStateHistory()) {
+            for (StateHistoryStore.Cursor entry = host.getStateHistoryStore().cursor(); entry.next();) {
                 if (previousTime != -1 && previousIsActive) {
                     double timeDiff = entry.getTime() - previousTime;
                     totalTime += timeDiff;
@@ -638,7 +646,7 @@ public class HelperEx {
             double previousAllocated = 0;
             double previousRequested = 0;
 
-            for (HostStateHistoryEntry entry : host.getStateHistory()) {
+            for (StateHistoryStore.Cursor entry = host.getStateHistoryStore().cursor(); entry.next();) {
                 if (previousTime != -1) {
                     double timeDiff = entry.getTime() - previousTime;
                     totalTime += timeDiff;
@@ -678,7 +686,7 @@ public class HelperEx {
             double previousRequested = 0;
             boolean previousIsInMigration = false;
 
-            for (VmStateHistoryEntry entry : vm.getStateHistory()) {
+            for (StateHistoryStore.Cursor entry = vm.getStateHistoryStore().cursor(); entry.next();) {
                 if (previousTime != -1) {
                     double timeDiff = entry.getTime() - previousTime;
                     vmTotalAllocated += previousAllocated * timeDiff;
@@ -726,23 +734,10 @@ public class HelperEx {
      * @param outputPath the output path
      */
     public static void writeDataColumn(List<? extends Number> data, String outputPath) {
-        File file = new File(outputPath);
-        File parent = file.getParentFile();
-        if(!parent.exists() && !parent.mkdirs()){
-            throw new IllegalStateException("Couldn't create dir: " + parent);
-        }
-        try {
-            file.createNewFile();
-        } catch (IOException e1) {
-            e1.printStackTrace();
-            System.exit(0);
-        }
-        try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        try (MetricsSink writer = new CsvMetricsSink(outputPath, false)) {
             for (Number value : data) {
-                writer.write(value.toString() + "\n");
+                writer.write(value.toString());
             }
-            writer.close();
         } catch (IOException e) {
             e.printStackTrace();
             System.exit(0);
@@ -752,21 +747,14 @@ public class HelperEx {
     /**
      * Write data row.
      *
-     * @param data       the data
+     * @param data       the data, a line of comma-separated values
      * @param outputPath the output path
      */
     public static void writeDataRow(String data, String outputPath) {
-        File file = new File(outputPath);
-        try {
-            file.createNewFile();
-        } catch (IOException e1) {
-            e1.printStackTrace();
-            System.exit(0);
-        }
-        try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(file));
-            writer.write(data);
-            writer.close();
+        try (MetricsSink writer = new CsvMetricsSink(outputPath, false)) {
+            // The sink separates the values and ends the line itself
+            String row = data.endsWith("\n") ? data.substring(0, data.length() - 1) : data;
+            writer.write(row.split(",", -1));
         } catch (IOException e) {
             e.printStackTrace();
             System.exit(0);
@@ -791,27 +779,17 @@ public class HelperEx {
             if (!vmAllocationPolicy.getTimeHistory().containsKey(host.getId())) {
                 continue;
             }
-            File file = new File(outputPath + "_" + host.getId() + ".csv");
-            try {
-                file.createNewFile();
-            } catch (IOException e1) {
-                e1.printStackTrace();
-                System.exit(0);
-            }
-            try {
-                BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+            try (MetricsSink writer = new CsvMetricsSink(outputPath + "_" + host.getId() + ".csv", false)) {
                 List<Double> timeData = vmAllocationPolicy.getTimeHistory().get(host.getId());
                 List<Double> utilizationData = vmAllocationPolicy.getUtilizationHistory().get(host.getId());
                 List<Double> metricData = vmAllocationPolicy.getMetricHistory().get(host.getId());
 
                 for (int i = 0; i < timeData.size(); i++) {
-                    writer.write(String.format(
-                            "%.2f,%.2f,%.2f\n",
-                            timeData.get(i),
-                            utilizationData.get(i),
-                            metricData.get(i)));
+                    writer.write(
+                            String.format("%.2f", timeData.get(i)),
+                            String.format("%.2f", utilizationData.get(i)),
+                            String.format("%.2f", metricData.get(i)));
                 }
-                writer.close();
             } catch (IOException e) {
                 e.printStackTrace();
                 System.exit(0);
@@ -1064,26 +1042,12 @@ public class HelperEx {
         String fileAddress = String.format("%s/stats/%s_stats.csv", outputFolder, experimentName.substring(0,index));
 
 
-        File f = new File(fileAddress);
-        CSVWriter writer = new CSVWriter(new FileWriter(fileAddress, true), ',',CSVWriter.NO_QUOTE_CHARACTER,
-                CSVWriter.DEFAULT_ESCAPE_CHARACTER, ICSVWriter.DEFAULT_LINE_END);
-        File parent = f.getParentFile();
-        if(!parent.exists() && !parent.mkdirs()){
-            throw new IllegalStateException("Couldn't create dir: " + parent);
-        }
-
-        if(!f.exists()) {
-            f.createNewFile();
-//            writer.writeNext("\n")
-        }
         int temp = index;
-        if(experimentName.substring(index).startsWith("_1") && experimentName.length()-2 == temp){
-//            CSVWriter writer1 = new CSVWriter(new FileWriter(fileAddress, true), ',',CSVWriter.NO_QUOTE_CHARACTER);
-            writer.writeNext(msg);
+        MetricsSink writer = getStatsSink(fileAddress);
+        if (experimentName.substring(index).startsWith("_1") && experimentName.length() - 2 == temp) {
+            writer.write(msg);
         }
-        writer.writeNext(new String[]{data.toString()});
-        writer.flush();
-        writer.close();
+        writer.write(data.toString());
 
 
 
@@ -1097,6 +1061,37 @@ public class HelperEx {
     }
 
 
+    /**
+     * Gets the sink appending rows to a stats file, opened on first use.
+     *
+     * @param fileAddress the path of the stats file
+     * @return the sink
+     * @throws IOException if the file cannot be opened
+     */
+    private static synchronized MetricsSink getStatsSink(String fileAddress) throws IOException {
+        MetricsSink sink = STATS_SINKS.get(fileAddress);
+        if (sink == null) {
+            sink = new AsyncMetricsSink(new CsvMetricsSink(fileAddress, true));
+            STATS_SINKS.put(fileAddress, sink);
+        }
+        return sink;
+    }
+
+    /**
+     * Writes the pending rows of the stats files and closes them; later rows open them again.
+     *
+     * @throws IOException if a stats file cannot be written
+     */
+    public static synchronized void closeStatsSinks() throws IOException {
+        try {
+            for (MetricsSink sink : STATS_SINKS.values()) {
+                sink.close();
+            }
+        } finally {
+            STATS_SINKS.clear();
+        }
+    }
+
     public static int getNumberofOverUtilization(List<? extends HostEntity> hosts,
                                                  PowerContainerVmAllocationPolicyMigrationAbstract vmAllocationPolicy) {
         int numberOfOverUtilization = 0;
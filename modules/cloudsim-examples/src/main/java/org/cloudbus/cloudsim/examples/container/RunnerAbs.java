@@ -185,6 +185,7 @@ public abstract class RunnerAbs {
 
 //            HelperEx.printResults(e, broker.getVmsCreatedList(),broker.getContainersCreatedList() ,lastClock, experimentName, true, outputFolder);
             HelperEx.printResultsNew(e, broker, lastClock, experimentName, true, outputFolder);
+            HelperEx.closeStatsSinks();
         } catch (Exception var8) {
             var8.printStackTrace();
             Log.println("The simulation has been terminated due to an unexpected error");
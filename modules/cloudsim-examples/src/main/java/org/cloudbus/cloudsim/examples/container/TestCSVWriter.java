@@ -16,6 +16,7 @@ public class TestCSVWriter {
             writer = new CustomCSVWriter(fileAddress);
             writer.writeTofile(strings1, false);
             writer.writeTofile(strings2, true);
+            writer.close();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
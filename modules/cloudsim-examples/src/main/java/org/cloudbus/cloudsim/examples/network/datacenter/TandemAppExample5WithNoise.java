@@ -184,6 +184,7 @@ public class TandemAppExample5WithNoise {
 				writer.writeTofile(data, true);
 			}
 
+			writer.close();
 			System.out.println("Result in "+writer.getFileAddress());
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -1,8 +1,6 @@
 package org.cloudbus.cloudsim.examples.power;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
@@ -19,14 +17,12 @@ import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
-import org.cloudbus.cloudsim.HostStateHistoryEntry;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
-import org.cloudbus.cloudsim.VmStateHistoryEntry;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
 import org.cloudbus.cloudsim.power.PowerHost;
 import org.cloudbus.cloudsim.power.PowerVm;
@@ -34,7 +30,13 @@ import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
 import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.util.CsvMetricsSink;
+import org.cloudbus.cloudsim.util.GuestStateMetrics;
+import org.cloudbus.cloudsim.util.HostStateMetrics;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.MetricsSink;
+import org.cloudbus.cloudsim.util.RunningStat;
+import org.cloudbus.cloudsim.util.StateHistoryStore;
 
 /**
  * The Class Helper.
@@ -193,7 +195,7 @@ public class Helper {
 		for (Host host : hosts) {
 			boolean previousIsActive = true;
 			double lastTimeSwitchedOn = 0;
-			for (HostStateHistoryEntry entry : ((HostDynamicWorkload) host).getStateHistory()) {
+			for (StateHistoryStore.Cursor entry = ((HostDynamicWorkload) host).getStateHistoryStore().cursor(); entry.next();) {
 				if (previousIsActive && !entry.isActive()) {
 					timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
 				}
@@ -217,7 +219,7 @@ public class Helper {
 		for (Vm vm : vms) {
 			boolean previousIsInMigration = false;
 			double lastTimeMigrationFinished = 0;
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
+			for (StateHistoryStore.Cursor entry = vm.getStateHistoryStore().cursor(); entry.next();) {
 				if (previousIsInMigration && !entry.isInMigration()) {
 					timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
 				}
@@ -256,37 +258,28 @@ public class Helper {
 		double energy = datacenter.getPower() / (3600 * 1000);
 		int numberOfMigrations = datacenter.getMigrationCount();
 
-		Map<String, Double> slaMetrics = getSlaMetrics(vms);
+		// The metrics are accumulated during the run, they don't need the state histories
+		GuestStateMetrics guestMetrics = datacenter.getGuestStateMetrics();
+		HostStateMetrics hostMetrics = datacenter.getHostStateMetrics();
 
-		double slaOverall = slaMetrics.get("overall");
-		double slaAverage = slaMetrics.get("average");
-		double slaDegradationDueToMigration = slaMetrics.get("underallocated_migration");
-		// double slaTimePerVmWithMigration = slaMetrics.get("sla_time_per_vm_with_migration");
-		// double slaTimePerVmWithoutMigration =
-		// slaMetrics.get("sla_time_per_vm_without_migration");
-		// double slaTimePerHost = getSlaTimePerHost(hosts);
-		double slaTimePerActiveHost = getSlaTimePerActiveHost(hosts);
+		double slaOverall = guestMetrics.getOverallSlaViolation();
+		double slaAverage = guestMetrics.getAverageSlaViolation();
+		double slaDegradationDueToMigration = guestMetrics.getSlaDegradationDueToMigration();
+		// double slaTimePerHost = hostMetrics.getSlaTimePerHost();
+		double slaTimePerActiveHost = hostMetrics.getSlaTimePerActiveHost();
 
 		double sla = slaTimePerActiveHost * slaDegradationDueToMigration;
 
-		List<Double> timeBeforeHostShutdown = getTimesBeforeHostShutdown(hosts);
+		RunningStat timeBeforeHostShutdown = hostMetrics.getTimeBeforeShutdown();
 
-		int numberOfHostShutdowns = timeBeforeHostShutdown.size();
+		int numberOfHostShutdowns = (int) timeBeforeHostShutdown.getCount();
 
-		double meanTimeBeforeHostShutdown = Double.NaN;
-		double stDevTimeBeforeHostShutdown = Double.NaN;
-		if (!timeBeforeHostShutdown.isEmpty()) {
-			meanTimeBeforeHostShutdown = MathUtil.mean(timeBeforeHostShutdown);
-			stDevTimeBeforeHostShutdown = MathUtil.stDev(timeBeforeHostShutdown);
-		}
+		double meanTimeBeforeHostShutdown = timeBeforeHostShutdown.getMean();
+		double stDevTimeBeforeHostShutdown = timeBeforeHostShutdown.getStDev();
 
-		List<Double> timeBeforeVmMigration = getTimesBeforeVmMigration(vms);
-		double meanTimeBeforeVmMigration = Double.NaN;
-		double stDevTimeBeforeVmMigration = Double.NaN;
-		if (!timeBeforeVmMigration.isEmpty()) {
-			meanTimeBeforeVmMigration = MathUtil.mean(timeBeforeVmMigration);
-			stDevTimeBeforeVmMigration = MathUtil.stDev(timeBeforeVmMigration);
-		}
+		RunningStat timeBeforeVmMigration = guestMetrics.getTimeBeforeMigration();
+		double meanTimeBeforeVmMigration = timeBeforeVmMigration.getMean();
+		double stDevTimeBeforeVmMigration = timeBeforeVmMigration.getStDev();
 
 		if (outputInCsv) {
 			File folder = new File(outputFolder);
@@ -371,9 +364,10 @@ public class Helper {
 			data.append("\n");
 
 			writeDataRow(data.toString(), outputFolder + "/stats/" + experimentName + "_stats.csv");
-			writeDataColumn(timeBeforeHostShutdown, outputFolder + "/time_before_host_shutdown/"
+			// The columns of every interval still replay the state histories
+			writeDataColumn(getTimesBeforeHostShutdown(hosts), outputFolder + "/time_before_host_shutdown/"
 					+ experimentName + "_time_before_host_shutdown.csv");
-			writeDataColumn(timeBeforeVmMigration, outputFolder + "/time_before_vm_migration/"
+			writeDataColumn(getTimesBeforeVmMigration(vms), outputFolder + "/time_before_vm_migration/"
 					+ experimentName + "_time_before_vm_migration.csv");
 
 		} else {
@@ -498,7 +492,7 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsActive = true;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			for (StateHistoryStore.Cursor entry = host.getStateHistoryStore().cursor(); entry.next();) {
 				if (previousTime != -1 && previousIsActive) {
 					double timeDiff = entry.getTime() - previousTime;
 					totalTime += timeDiff;
@@ -533,7 +527,7 @@ public class Helper {
 			double previousAllocated = 0;
 			double previousRequested = 0;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			for (StateHistoryStore.Cursor entry = host.getStateHistoryStore().cursor(); entry.next();) {
 				if (previousTime != -1) {
 					double timeDiff = entry.getTime() - previousTime;
 					totalTime += timeDiff;
@@ -573,7 +567,7 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsInMigration = false;
 
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
+			for (StateHistoryStore.Cursor entry = vm.getStateHistoryStore().cursor(); entry.next();) {
 				if (previousTime != -1) {
 					double timeDiff = entry.getTime() - previousTime;
 					vmTotalAllocated += previousAllocated * timeDiff;
@@ -621,19 +615,10 @@ public class Helper {
 	 * @param outputPath the output path
 	 */
 	public static void writeDataColumn(List<? extends Number> data, String outputPath) {
-		File file = new File(outputPath);
-		try {
-			file.createNewFile();
-		} catch (IOException e1) {
-			e1.printStackTrace();
-			System.exit(0);
-		}
-		try {
-			BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		try (MetricsSink writer = new CsvMetricsSink(outputPath, false)) {
 			for (Number value : data) {
-				writer.write(value.toString() + "\n");
+				writer.write(value.toString());
 			}
-			writer.close();
 		} catch (IOException e) {
 			e.printStackTrace();
 			System.exit(0);
@@ -643,21 +628,14 @@ public class Helper {
 	/**
 	 * Write data row.
 	 * 
-	 * @param data the data
+	 * @param data the data, a line of comma-separated values
 	 * @param outputPath the output path
 	 */
 	public static void writeDataRow(String data, String outputPath) {
-		File file = new File(outputPath);
-		try {
-			file.createNewFile();
-		} catch (IOException e1) {
-			e1.printStackTrace();
-			System.exit(0);
-		}
-		try {
-			BufferedWriter writer = new BufferedWriter(new FileWriter(file));
-			writer.write(data);
-			writer.close();
+		try (MetricsSink writer = new CsvMetricsSink(outputPath, false)) {
+			// The sink separates the values and ends the line itself
+			String row = data.endsWith("\n") ? data.substring(0, data.length() - 1) : data;
+			writer.write(row.split(",", -1));
 		} catch (IOException e) {
 			e.printStackTrace();
 			System.exit(0);
@@ -682,27 +660,17 @@ public class Helper {
 			if (vmAllocationPolicy.getTimeHistory(host.getId()) == null) {
 				continue;
 			}
-			File file = new File(outputPath + "_" + host.getId() + ".csv");
-			try {
-				file.createNewFile();
-			} catch (IOException e1) {
-				e1.printStackTrace();
-				System.exit(0);
-			}
-			try {
-				BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+			try (MetricsSink writer = new CsvMetricsSink(outputPath + "_" + host.getId() + ".csv", false)) {
 				List<Double> timeData = vmAllocationPolicy.getTimeHistory(host.getId());
 				List<Double> utilizationData = vmAllocationPolicy.getUtilizationHistory(host.getId());
 				List<Double> metricData = vmAllocationPolicy.getMetricHistory(host.getId());
 
 				for (int i = 0; i < timeData.size(); i++) {
-					writer.write(String.format(
-							"%.2f,%.2f,%.2f\n",
-							timeData.get(i),
-							utilizationData.get(i),
-							metricData.get(i)));
+					writer.write(
+							String.format("%.2f", timeData.get(i)),
+							String.format("%.2f", utilizationData.get(i)),
+							String.format("%.2f", metricData.get(i)));
 				}
-				writer.close();
 			} catch (IOException e) {
 				e.printStackTrace();
 				System.exit(0);
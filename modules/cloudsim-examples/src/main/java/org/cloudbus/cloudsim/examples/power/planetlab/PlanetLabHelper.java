@@ -2,6 +2,7 @@ package org.cloudbus.cloudsim.examples.power.planetlab;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,7 +10,9 @@ import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
 import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabMapped;
 import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.util.UtilizationTraceStore;
 
 /**
  * A helper class for the running examples for the PlanetLab workload.
@@ -31,12 +34,23 @@ public class PlanetLabHelper {
 	 * Creates the cloudlet list planet lab.
 	 * 
 	 * @param brokerId the broker id
-	 * @param inputFolderName the input folder name
+	 * @param inputFolderName the input folder name, or the path of a {@link UtilizationTraceStore}
+	 *            the folder has been packed into
 	 * @return the list
 	 * @throws FileNotFoundException the file not found exception
 	 */
 	public static List<Cloudlet> createCloudletListPlanetLab(int brokerId, String inputFolderName)
 			throws FileNotFoundException {
+		if (new File(inputFolderName).isFile()) {
+			try {
+				return createCloudletListPlanetLab(brokerId, UtilizationTraceStore.open(inputFolderName));
+			} catch (FileNotFoundException e) {
+				throw e;
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
 		List<Cloudlet> list = new ArrayList<>();
 
 		long fileSize = 300;
@@ -70,4 +84,37 @@ public class PlanetLabHelper {
 		return list;
 	}
 
+	/**
+	 * Creates the cloudlet list planet lab from a packed workload, with a cloudlet per trace.
+	 * 
+	 * @param brokerId the broker id
+	 * @param store the store the input folder has been packed into
+	 * @return the list
+	 */
+	public static List<Cloudlet> createCloudletListPlanetLab(int brokerId, UtilizationTraceStore store) {
+		List<Cloudlet> list = new ArrayList<>();
+
+		long fileSize = 300;
+		long outputSize = 300;
+		UtilizationModel utilizationModelNull = new UtilizationModelNull();
+
+		for (int i = 0; i < store.getTraceCount(); i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					Constants.CLOUDLET_LENGTH,
+					Constants.CLOUDLET_PES,
+					fileSize,
+					outputSize,
+					new UtilizationModelPlanetLabMapped(
+							store,
+							i,
+							Constants.SCHEDULING_INTERVAL), utilizationModelNull, utilizationModelNull);
+			cloudlet.setUserId(brokerId);
+			cloudlet.setGuestId(i);
+			list.add(cloudlet);
+		}
+
+		return list;
+	}
+
 }
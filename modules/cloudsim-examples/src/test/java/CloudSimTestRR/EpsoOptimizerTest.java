@@ -0,0 +1,53 @@
+package CloudSimTestRR;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EpsoOptimizerTest {
+
+    private static final int CLOUDLETS = 500;
+    private static final int VMS = 12;
+    private static final int HOSTS = 6;
+
+    @Test
+    public void sameSeedGivesSameMappingAtAnyParallelism() {
+        int[] sequential = optimize(42, 1);
+        int[] parallel = optimize(42, 4);
+
+        assertArrayEquals(sequential, parallel);
+        for (int vm : sequential) {
+            assertTrue(vm >= 0 && vm < VMS);
+        }
+        assertFalse(Arrays.equals(sequential, optimize(43, 4)));
+    }
+
+    private static int[] optimize(long seed, int threads) {
+        // Same workload for every run, only the optimizer seed changes
+        SplittableRandom workload = new SplittableRandom(7);
+        double[] length = new double[CLOUDLETS];
+        double[] hostShare = new double[CLOUDLETS];
+        for (int i = 0; i < CLOUDLETS; i++) {
+            length[i] = 1000 + workload.nextInt(40000);
+            hostShare[i] = workload.nextDouble() * 0.05;
+        }
+        double[] vmMips = new double[VMS];
+        int[] vmHost = new int[VMS];
+        for (int v = 0; v < VMS; v++) {
+            vmMips[v] = 500 + 250 * (v % 3);
+            vmHost[v] = v % HOSTS;
+        }
+
+        EpsoOptimizer optimizer = new EpsoOptimizer(length, hostShare, vmMips, vmHost, HOSTS, 20, 30, seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return optimizer.optimize(pool).clone();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
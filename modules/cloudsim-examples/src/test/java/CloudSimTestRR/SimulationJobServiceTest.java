@@ -0,0 +1,170 @@
+package CloudSimTestRR;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationJobServiceTest {
+
+    // Lets the held simulations finish
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SimulationJobService service;
+
+    // A simulation that waits for release instead of simulating anything
+    private class HeldSimulation extends CSVTaskSimulation {
+        private final int numCloudlets;
+
+        HeldSimulation(SimulationConfig config) {
+            super(config);
+            numCloudlets = config.numCloudlets;
+        }
+
+        @Override
+        public String runSimulation() {
+            try {
+                release.await();
+                return "{\"cloudlets\": " + numCloudlets + "}";
+            } catch (InterruptedException e) {
+                return "{\"error\": \"interrupted\"}";
+            }
+        }
+    }
+
+    private SimulationJobService newService(int workers, int queueCapacity, long maxInFlightWeight, int retainedJobs) {
+        service = new SimulationJobService(new SimulationResultCache(false, 0, 0, "", 0),
+                workers, queueCapacity, maxInFlightWeight, retainedJobs, HeldSimulation::new);
+        return service;
+    }
+
+    private static SimulationConfig config(int numCloudlets, String algorithm) {
+        SimulationConfig config = new SimulationConfig();
+        config.numCloudlets = numCloudlets;
+        config.optimizationAlgorithm = algorithm;
+        return config;
+    }
+
+    private static void awaitFinished(SimulationJob job) throws InterruptedException {
+        synchronized (job) {
+            while (!job.isFinished()) {
+                job.wait(10_000);
+            }
+        }
+    }
+
+    private static void awaitStatus(SimulationJob job, SimulationJob.Status status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.getStatus() != status) {
+            assertTrue(System.nanoTime() < deadline, "job still " + job.getStatus());
+            Thread.sleep(1);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsJobsThatCanNeverRunAsInvalid() {
+        newService(1, 4, 100, 16);
+        assertThrows(IllegalArgumentException.class, () -> service.submit(config(101, "RoundRobin")));
+        // EPSO jobs weigh 50 per cloudlet
+        assertThrows(IllegalArgumentException.class, () -> service.submit(config(3, "EPSO")));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(config(0, "RoundRobin")));
+        assertEquals(0L, service.getMetrics().get("rejected"));
+    }
+
+    @Test
+    public void rejectsJobsBeyondTheInFlightWeight() throws InterruptedException {
+        newService(1, 4, 100, 16);
+        SimulationJob first = service.submit(config(60, "RoundRobin"));
+        assertEquals(60L, service.getMetrics().get("inFlightWeight"));
+        assertThrows(SimulationJobService.RejectedJobException.class, () -> service.submit(config(50, "RoundRobin")));
+        assertEquals(1L, service.getMetrics().get("rejected"));
+
+        // The weight is given back once the job is finished
+        release.countDown();
+        awaitFinished(first);
+        assertEquals(SimulationJob.Status.COMPLETED, first.getStatus());
+        assertEquals(0L, service.getMetrics().get("inFlightWeight"));
+        SimulationJob second = service.submitAndWait(config(50, "RoundRobin"), null);
+        assertEquals(SimulationJob.Status.COMPLETED, second.getStatus());
+        assertSame(second, service.getLastCompleted());
+    }
+
+    @Test
+    public void rejectsJobsBeyondTheQueueCapacity() throws InterruptedException {
+        newService(1, 1, 1000, 16);
+        SimulationJob running = service.submit(config(1, "RoundRobin"));
+        awaitStatus(running, SimulationJob.Status.RUNNING);
+        SimulationJob queued = service.submit(config(1, "RoundRobin"));
+        assertThrows(SimulationJobService.RejectedJobException.class, () -> service.submit(config(1, "RoundRobin")));
+        assertEquals(2L, service.getMetrics().get("inFlightWeight"));
+
+        release.countDown();
+        awaitFinished(queued);
+        assertEquals(SimulationJob.Status.COMPLETED, queued.getStatus());
+        assertEquals(2L, service.getMetrics().get("completed"));
+    }
+
+    @Test
+    public void submitAndWaitReturnsTheFinishedJob() throws InterruptedException {
+        newService(2, 4, 1000, 16);
+        release.countDown();
+        SimulationJob job = service.submitAndWait(config(7, "RoundRobin"), null);
+        assertEquals(SimulationJob.Status.COMPLETED, job.getStatus());
+        assertEquals("{\"cloudlets\": 7}", job.getResult());
+        assertSame(job, service.getJob(job.getId()));
+    }
+
+    @Test
+    public void retainsOnlyTheMostRecentFinishedJobs() throws InterruptedException {
+        newService(1, 4, 1000, 2);
+        release.countDown();
+        SimulationJob first = service.submitAndWait(config(1, "RoundRobin"), null);
+        SimulationJob second = service.submitAndWait(config(1, "RoundRobin"), null);
+        SimulationJob third = service.submitAndWait(config(1, "RoundRobin"), null);
+        assertNull(service.getJob(first.getId()));
+        assertSame(second, service.getJob(second.getId()));
+        assertSame(third, service.getJob(third.getId()));
+    }
+
+    @Test
+    public void shutdownFailsTheQueuedJobs() throws InterruptedException {
+        newService(1, 4, 1000, 16);
+        SimulationJob running = service.submit(config(1, "RoundRobin"));
+        awaitStatus(running, SimulationJob.Status.RUNNING);
+
+        AtomicReference<SimulationJob> waited = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                waited.set(service.submitAndWait(config(1, "RoundRobin"), null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.getMetrics().get("queueDepth").equals(0)) {
+            assertTrue(System.nanoTime() < deadline, "job not queued");
+            Thread.sleep(1);
+        }
+
+        // The queued job never runs: its waiter must not wait forever
+        service.shutdown();
+        waiter.join(10_000);
+        assertFalse(waiter.isAlive());
+        assertEquals(SimulationJob.Status.FAILED, waited.get().getStatus());
+        awaitFinished(running);
+        assertEquals(SimulationJob.Status.FAILED, running.getStatus());
+        assertEquals(0L, service.getMetrics().get("inFlightWeight"));
+    }
+}
@@ -0,0 +1,162 @@
+package CloudSimTestRR;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class SimulationResultCacheTest {
+
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() {
+        SimulationResultCache cache = new SimulationResultCache(true, 2, UNBOUNDED, "", UNBOUNDED);
+        cache.put("a", "result a", "log a");
+        cache.put("b", "result b", "log b");
+        assertNotNull(cache.get("a")); // b is now the least recently used
+        cache.put("c", "result c", "log c");
+
+        assertNull(cache.get("b"));
+        assertEquals("result a", cache.get("a").result);
+        assertEquals("log c", cache.get("c").schedulingLog);
+        assertEquals(1L, cache.getMetrics().get("evictions"));
+    }
+
+    @Test
+    public void evictsToStayWithinTheByteLimit() {
+        // Each entry takes 2 * (8 + 5) = 26 bytes
+        SimulationResultCache cache = new SimulationResultCache(true, 100, 60, "", UNBOUNDED);
+        cache.put("a", "result a", "log a");
+        cache.put("b", "result b", "log b");
+        cache.put("c", "result c", "log c");
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(52L, cache.getMetrics().get("bytes"));
+
+        // An entry larger than the whole limit is not kept, and evicts nothing
+        cache.put("huge", "x".repeat(100), "");
+        assertNull(cache.get("huge"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    public void keysIgnoreFieldsThatDoNotChangeTheResult() throws IOException {
+        Path workload = write("workload.csv", "time,job\n0,1\n");
+        Path sameContent = write("copy.csv", "time,job\n0,1\n");
+
+        SimulationConfig config = new SimulationConfig();
+        String key = SimulationResultCache.keyOf(config, workload);
+
+        SimulationConfig other = new SimulationConfig();
+        other.csvFilePath = "/somewhere/else.csv";
+        other.useCache = true;
+        other.schedulerThreads = 8;
+        other.energyDebugLog = true;
+        assertEquals(key, SimulationResultCache.keyOf(other, workload));
+        assertEquals(key, SimulationResultCache.keyOf(other, sameContent));
+
+        other.numVms++;
+        assertNotEquals(key, SimulationResultCache.keyOf(other, workload));
+        other.numVms--;
+        other.randomSeed = 42L;
+        assertNotEquals(key, SimulationResultCache.keyOf(other, workload));
+
+        Files.writeString(workload, "time,job\n0,2\n");
+        assertNotEquals(key, SimulationResultCache.keyOf(config, workload));
+    }
+
+    @Test
+    public void keysDigestTheWorkloadTheSimulationReads() throws IOException {
+        Path workload = write("workload.csv", "time,job\n0,1\n");
+        SimulationConfig config = new SimulationConfig();
+        config.csvFilePath = workload.toString();
+        String key = SimulationResultCache.keyOf(config, null);
+        assertEquals(key, SimulationResultCache.keyOf(config, workload));
+
+        Files.writeString(workload, "time,job\n0,2\n");
+        assertNotEquals(key, SimulationResultCache.keyOf(config, null));
+
+        // The default workload file the simulation would read is missing here: no key rather than a stale one
+        config.csvFilePath = null;
+        assumeFalse(Files.exists(CloudletFactory.workloadFileOf(config)));
+        assertThrows(IOException.class, () -> SimulationResultCache.keyOf(config, null));
+
+        // A synthetic workload reads no file
+        config.workloadType = "Synthetic";
+        assertNotNull(SimulationResultCache.keyOf(config, null));
+    }
+
+    @Test
+    public void diskTierSurvivesTheMemoryTier() {
+        String dir = folder.resolve("cache").toString();
+        new SimulationResultCache(true, 10, UNBOUNDED, dir, UNBOUNDED).put("k", "{\"result\":1}", "[\"log\"]");
+
+        SimulationResultCache restarted = new SimulationResultCache(true, 10, UNBOUNDED, dir, UNBOUNDED);
+        SimulationResultCache.Entry entry = restarted.get("k");
+        assertNotNull(entry);
+        assertEquals("{\"result\":1}", entry.result);
+        assertEquals("[\"log\"]", entry.schedulingLog);
+        assertEquals(1L, restarted.getMetrics().get("diskHits"));
+
+        // Now served from memory
+        assertNotNull(restarted.get("k"));
+        assertEquals(1L, restarted.getMetrics().get("hits"));
+        assertNull(restarted.get("missing"));
+        assertEquals(1L, restarted.getMetrics().get("misses"));
+    }
+
+    @Test
+    public void diskTierEvictsResultAndLogTogether() throws IOException {
+        Path dir = folder.resolve("cache");
+        String result = "r".repeat(100);
+        String log = "l".repeat(100);
+        // Room for one entry only
+        SimulationResultCache cache = new SimulationResultCache(true, 10, UNBOUNDED, dir.toString(), 300);
+        cache.put("old", result, log);
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        Files.setLastModifiedTime(dir.resolve("old.result.json"), past);
+        Files.setLastModifiedTime(dir.resolve("old.log.json"), past);
+
+        cache.put("new", result, log);
+        assertFalse(Files.exists(dir.resolve("old.result.json")));
+        assertFalse(Files.exists(dir.resolve("old.log.json")));
+        assertTrue(Files.exists(dir.resolve("new.result.json")));
+        assertTrue(Files.exists(dir.resolve("new.log.json")));
+    }
+
+    @Test
+    public void optingOutDisablesCaching() {
+        SimulationConfig config = new SimulationConfig();
+        config.useCache = true;
+        assertTrue(new SimulationResultCache(true, 10, UNBOUNDED, "", UNBOUNDED).isCacheable(config));
+        assertFalse(new SimulationResultCache(false, 10, UNBOUNDED, "", UNBOUNDED).isCacheable(config));
+
+        SimulationResultCache cache = new SimulationResultCache(true, 10, UNBOUNDED, "", UNBOUNDED);
+        config.useCache = false;
+        assertFalse(cache.isCacheable(config));
+
+        // EPSO is reproducible only with a seed
+        config.useCache = true;
+        config.optimizationAlgorithm = "EPSO";
+        assertFalse(cache.isCacheable(config));
+        config.randomSeed = 7L;
+        assertTrue(cache.isCacheable(config));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = folder.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+}
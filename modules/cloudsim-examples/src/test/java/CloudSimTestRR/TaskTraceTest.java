@@ -0,0 +1,78 @@
+package CloudSimTestRR;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskTraceTest {
+
+    private static final String HEADER = "time,job,task,machine,cpu_request,memory_request,disk_space_request,time_seconds,priority\n";
+
+    @Test
+    public void readsColumnsRelativeToFirstTimestamp() throws IOException {
+        TaskTrace trace = read(HEADER
+                + "0,1,0,5,0.0625,0.0318,0.0001,1000.5,9\r\n"
+                + "0,1,1,5,0.125,0.05,2.5E-4,1010,9\n"
+                + "\n"
+                + "0,1,2,5,0.03,0.1,0,1003.25,9", 10);
+
+        assertEquals(3, trace.size());
+        assertEquals(0.0, trace.submitTime(0), 0);
+        assertEquals(1010 - 1000.5, trace.submitTime(1), 0);
+        assertEquals(1003.25 - 1000.5, trace.submitTime(2), 0);
+        assertEquals(0.0625, trace.cpuRequest(0), 0);
+        assertEquals(0.05, trace.memoryRequest(1), 0);
+        assertEquals(2.5E-4, trace.diskRequest(1), 0);
+        assertArrayEquals(new int[] {0, 2, 1}, trace.submissionOrder());
+    }
+
+    @Test
+    public void stopsAfterMaxTasks() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 50_000; i++) {
+            csv.append("0,1,").append(i).append(",5,0.5,0.25,0.125,").append(i).append(",0\n");
+        }
+        TaskTrace trace = read(csv.toString(), 40_000);
+
+        assertEquals(40_000, trace.size());
+        assertEquals(39_999.0, trace.submitTime(39_999), 0);
+    }
+
+    @Test
+    public void matchesDoubleParseDouble() {
+        SplittableRandom random = new SplittableRandom(1);
+        String[] fixed = {"0", "-0.5", "+3", "0.000123", "123456789012345", "1234567890.1234567", "1e-7", "5.", ".5"};
+        for (String value : fixed) {
+            assertParsed(value);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertParsed(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(-8, 12))));
+            assertParsed(String.format("%.6f", random.nextDouble() * 1000));
+        }
+    }
+
+    @Test
+    public void reportsMalformedRows() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> read(HEADER + "0,1,0,5,0.5,0.5,0.5,10,0\n0,1,1,5,0.5\n", 10));
+        assertEquals("Malformed CSV: Missing columns in row 3", missing.getMessage());
+
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class,
+                () -> read(HEADER + "0,1,0,5,abc,0.5,0.5,10,0\n", 10));
+        assertEquals("Invalid cpu_request at line 2: abc", invalid.getMessage());
+    }
+
+    private static void assertParsed(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Double.parseDouble(value), TaskTrace.parseDouble(bytes, 0, bytes.length), 0, value);
+    }
+
+    private static TaskTrace read(String csv, int maxTasks) throws IOException {
+        return TaskTrace.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.US_ASCII)), maxTasks);
+    }
+}
@@ -520,15 +520,8 @@ public abstract class CloudletScheduler {
 			capacity += mips;
 		}
 
-		int pesInUse = 0;
-		for (Cloudlet cl : getCloudletExecList()) {
-			if (cl.getRemainingCloudletLength() > 0) {
-				pesInUse += cl.getNumberOfPes();
-			}
-		}
-
 		int cpus = currentMipsShare.size();
-		capacity /= Math.max(pesInUse, cpus);
+		capacity /= Math.max(getPesInUse(), cpus);
 
 
 		currentCapacity = capacity;
@@ -536,6 +529,21 @@ public abstract class CloudletScheduler {
 		return capacity;
 	}
 
+	/**
+	 * Gets the number of PEs required by the cloudlets in execution that have not finished yet.
+	 *
+	 * @return the number of PEs in use
+	 */
+	protected int getPesInUse() {
+		int pesInUse = 0;
+		for (Cloudlet cl : getCloudletExecList()) {
+			if (cl.getRemainingCloudletLength() > 0) {
+				pesInUse += cl.getNumberOfPes();
+			}
+		}
+		return pesInUse;
+	}
+
 	@Deprecated
 	protected double getCapacity(List<Double> mipsShare) {
 		setCurrentMipsShare(mipsShare);
@@ -0,0 +1,329 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.CloudletList;
+
+/**
+ * A {@link CloudletSchedulerTimeShared} that updates its cloudlets in logarithmic time, whatever
+ * their number.
+ * <p>
+ * In a time-shared VM every running cloudlet gets the same MIPS capacity on each of its PEs, so
+ * all the cloudlets progress at the same pace per PE. The scheduler keeps this progress as a single
+ * virtual clock, in MI executed per PE since the first submission: a cloudlet submitted when the
+ * clock reads <tt>v</tt> with <tt>r</tt> MI left on each PE finishes when the clock reaches
+ * <tt>v + r</tt>. The running cloudlets are kept in a min-heap on that finish point, so an update
+ * only advances the clock and pops the cloudlets that have finished, and the next finish time is
+ * read from the top of the heap.
+ * <p>
+ * The execution list holds the running cloudlets in no particular order: a cloudlet leaving it is
+ * replaced by the last one, so that it is removed in constant time. The progress of each cloudlet
+ * is only written back to it when it leaves the scheduler (paused, cancelled or migrated), and
+ * when {@link #updateCloudletsFinishedSoFar()} is called. As a consequence,
+ * {@link Cloudlet#updateCloudlet(Object)} is never called: cloudlets that change their own length
+ * while running need the list-based {@link CloudletSchedulerTimeShared}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class CloudletSchedulerVirtualTimeShared extends CloudletSchedulerTimeShared {
+
+	/** A running cloudlet and its positions in the heap and in the execution list. */
+	private static final class Entry {
+		final Cloudlet cloudlet;
+		final int pes;
+		/** The virtual time at which the cloudlet finishes. */
+		final double finish;
+		/** Whether the cloudlet always uses its whole CPU share. */
+		final boolean fullCpu;
+		int index;
+		int position;
+
+		Entry(Cloudlet cloudlet, double finish) {
+			this.cloudlet = cloudlet;
+			this.pes = cloudlet.getNumberOfPes();
+			this.finish = finish;
+			this.fullCpu = cloudlet.getUtilizationModelCpu().getClass() == UtilizationModelFull.class;
+		}
+	}
+
+	/** The virtual clock: the MI executed by each running cloudlet on each of its PEs. */
+	private double virtualTime;
+
+	/** The running cloudlets, a binary min-heap on the finish point. */
+	private Entry[] heap = new Entry[16];
+
+	/** The number of running cloudlets. */
+	private int size;
+
+	/** The heap entry of each running cloudlet. */
+	private final Map<Cloudlet, Entry> entries = new IdentityHashMap<>();
+
+	/** The number of PEs required by the running cloudlets. */
+	private int pesInUse;
+
+	/** The number of running cloudlets whose CPU utilization is not always full. */
+	private int variableCpuCloudlets;
+
+	/**
+	 * Creates a new CloudletSchedulerVirtualTimeShared object.
+	 */
+	public CloudletSchedulerVirtualTimeShared() {
+		super();
+		setCloudletExecList(new ArrayList<>());
+	}
+
+	@Override
+	public double updateCloudletsProcessing(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+
+		double timeSpan = currentTime - getPreviousTime(); // time since last update
+		virtualTime += timeSpan * getCurrentCapacity();
+
+		// Remove the cloudlets with less than 1 MI left, as the list-based scheduler does
+		while (size > 0 && (heap[0].finish - virtualTime) * heap[0].pes < 1) {
+			Entry entry = removeAt(0);
+			removeFromExecList(entry);
+			cloudletJustFinishedList.add(entry.cloudlet);
+			cloudletFinish(entry.cloudlet);
+		}
+
+		if (size == 0 && getCloudletWaitingList().isEmpty()) {
+			// Nothing is running: restart the clock to keep its precision
+			virtualTime = 0;
+			cloudletJustFinishedList.clear();
+			setPreviousTime(currentTime);
+			return 0.0;
+		}
+
+		// Update cloudlets in waiting list, if any
+		updateWaitingCloudlets(currentTime, null);
+		cloudletJustFinishedList.clear();
+
+		double nextEvent = Double.MAX_VALUE;
+		if (size > 0 && getCurrentCapacity() > 0) {
+			nextEvent = currentTime + (heap[0].finish - virtualTime) / getCurrentCapacity();
+			if (nextEvent - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+				nextEvent = currentTime + CloudSim.getMinTimeBetweenEvents();
+			}
+		}
+
+		setPreviousTime(currentTime);
+		return nextEvent;
+	}
+
+	@Override
+	public double cloudletSubmit(Cloudlet cl, double fileTransferTime) {
+		double time = super.cloudletSubmit(cl, fileTransferTime);
+		enqueue(cl);
+		return time;
+	}
+
+	@Override
+	public double cloudletResume(int cloudletId) {
+		int position = CloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		Cloudlet cl = position >= 0 ? getCloudletPausedList().get(position) : null;
+		double time = super.cloudletResume(cloudletId);
+		if (cl != null) {
+			enqueue(cl);
+		}
+		return time;
+	}
+
+	@Override
+	public Cloudlet cloudletCancel(int cloudletId) {
+		dequeue(CloudletList.getById(getCloudletExecList(), cloudletId));
+		return super.cloudletCancel(cloudletId);
+	}
+
+	@Override
+	public boolean cloudletPause(int cloudletId) {
+		dequeue(CloudletList.getById(getCloudletExecList(), cloudletId));
+		return super.cloudletPause(cloudletId);
+	}
+
+	@Override
+	public Cloudlet migrateCloudlet() {
+		if (size == 0) {
+			return super.migrateCloudlet();
+		}
+		Cloudlet cl = getCloudletExecList().getFirst();
+		dequeue(cl);
+		getCloudletExecList().removeLast();
+		cl.finalizeCloudlet();
+		return cl;
+	}
+
+	@Override
+	public double getEstimatedFinishTime(Cloudlet cl, double time) {
+		Entry entry = entries.get(cl);
+		if (entry == null) {
+			return super.getEstimatedFinishTime(cl, time);
+		}
+		return time + (entry.finish - virtualTime) / getCurrentCapacity();
+	}
+
+	@Override
+	public int runningCloudlets() {
+		return size;
+	}
+
+	/**
+	 * Gets the total CPU utilization of the running cloudlets, in constant time when all of them use
+	 * their whole CPU share.
+	 */
+	@Override
+	public double getTotalUtilizationOfCpu(double time) {
+		if (variableCpuCloudlets == 0) {
+			return size;
+		}
+		double totalUtilization = 0;
+		for (int i = 0; i < size; i++) {
+			totalUtilization += heap[i].cloudlet.getUtilizationOfCpu(time);
+		}
+		return totalUtilization;
+	}
+
+	/**
+	 * Writes the progress of the running cloudlets back to them, so that their length executed so
+	 * far is up to date; this takes linear time. The cloudlets leaving the scheduler are written
+	 * back on their own.
+	 */
+	public void updateCloudletsFinishedSoFar() {
+		for (int i = 0; i < size; i++) {
+			writeBack(heap[i]);
+		}
+	}
+
+	@Override
+	protected int getPesInUse() {
+		return pesInUse;
+	}
+
+	/**
+	 * Adds a cloudlet that has just entered the execution list to the heap.
+	 */
+	private void enqueue(Cloudlet cl) {
+		double remaining = (double) cl.getCloudletTotalLength() * Consts.MILLION - cl.getCloudletFinishedSoFar();
+		Entry entry = new Entry(cl, virtualTime + Math.max(remaining, 0) / Consts.MILLION / cl.getNumberOfPes());
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, 2 * size);
+		}
+		entry.index = size;
+		heap[size++] = entry;
+		siftUp(entry.index);
+		entries.put(cl, entry);
+		pesInUse += entry.pes;
+		if (!entry.fullCpu) {
+			variableCpuCloudlets++;
+		}
+		// The cloudlet has just been appended to the execution list
+		entry.position = getCloudletExecList().size() - 1;
+	}
+
+	/**
+	 * Removes a cloudlet about to leave the execution list from the heap, writing back its progress,
+	 * and moves it to the end of the list, where the list-based methods remove it in constant time.
+	 */
+	private void dequeue(Cloudlet cl) {
+		Entry entry = cl == null ? null : entries.get(cl);
+		if (entry != null) {
+			writeBack(entry);
+			removeAt(entry.index);
+			List<Cloudlet> execList = getCloudletExecList();
+			int last = execList.size() - 1;
+			if (entry.position != last) {
+				Cloudlet moved = execList.get(last);
+				execList.set(entry.position, moved);
+				execList.set(last, cl);
+				entries.get(moved).position = entry.position;
+			}
+		}
+	}
+
+	/**
+	 * Removes a cloudlet that left the heap from the execution list, replacing it by the last one.
+	 */
+	private void removeFromExecList(Entry entry) {
+		List<Cloudlet> execList = getCloudletExecList();
+		Cloudlet moved = execList.removeLast();
+		if (moved != entry.cloudlet) {
+			execList.set(entry.position, moved);
+			entries.get(moved).position = entry.position;
+		}
+	}
+
+	/**
+	 * Sets the length executed so far by a running cloudlet from the virtual clock.
+	 */
+	private void writeBack(Entry entry) {
+		Cloudlet cl = entry.cloudlet;
+		long total = cl.getCloudletTotalLength() * Consts.MILLION;
+		long remaining = (long) Math.ceil((entry.finish - virtualTime) * entry.pes * Consts.MILLION);
+		cl.setCloudletFinishedSoFar(Math.min(Math.max(total - remaining, 0), total));
+	}
+
+	private Entry removeAt(int index) {
+		Entry entry = heap[index];
+		Entry last = heap[--size];
+		heap[size] = null;
+		if (index < size) {
+			heap[index] = last;
+			last.index = index;
+			siftDown(index);
+			siftUp(last.index);
+		}
+		entries.remove(entry.cloudlet);
+		pesInUse -= entry.pes;
+		if (!entry.fullCpu) {
+			variableCpuCloudlets--;
+		}
+		return entry;
+	}
+
+	private void siftUp(int index) {
+		Entry entry = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (heap[parent].finish <= entry.finish) {
+				break;
+			}
+			heap[index] = heap[parent];
+			heap[index].index = index;
+			index = parent;
+		}
+		heap[index] = entry;
+		entry.index = index;
+	}
+
+	private void siftDown(int index) {
+		Entry entry = heap[index];
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			if (child + 1 < size && heap[child + 1].finish < heap[child].finish) {
+				child++;
+			}
+			if (entry.finish <= heap[child].finish) {
+				break;
+			}
+			heap[index] = heap[child];
+			heap[index].index = index;
+			index = child;
+		}
+		heap[index] = entry;
+		entry.index = index;
+	}
+}
@@ -13,7 +13,6 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
 import org.cloudbus.cloudsim.core.CloudActionTags;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
@@ -151,11 +150,11 @@ public class Datacenter extends SimEntity {
 
             // New Cloudlet arrives
         } else if (tag == CloudActionTags.CLOUDLET_SUBMIT) {
-            processCloudletSubmit(ev, false);
+            processCloudletBatchSubmit(ev, false);
 
             // New Cloudlet arrives, but the sender asks for an ack
         } else if (tag == CloudActionTags.CLOUDLET_SUBMIT_ACK) {
-            processCloudletSubmit(ev, true);
+            processCloudletBatchSubmit(ev, true);
 
             // Cancels a previously submitted Cloudlet
         } else if (tag == CloudActionTags.CLOUDLET_CANCEL) {
@@ -286,7 +285,7 @@ public class Datacenter extends SimEntity {
 
 		/**
 		 * // DEBUG Log.printLine(super.get_name() + ".addMasterFile(): " + file.getName() +
-		 * " from " + CloudSim.getEntityName(sentFrom));
+		 * " from " + getSimulation().getEntityName(sentFrom));
 		 */
 
 		Object[] data = new Object[3];
@@ -416,7 +415,7 @@ public class Datacenter extends SimEntity {
 			data[0] = getId();
 			data[1] = guest.getId();
 			data[2] = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
-			send(guest.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudActionTags.VM_CREATE_ACK, data);
+			send(guest.getUserId(), getSimulation().getMinTimeBetweenEvents(), CloudActionTags.VM_CREATE_ACK, data);
 		}
 
 		if (result) {
@@ -426,10 +425,12 @@ public class Datacenter extends SimEntity {
 				guest.setBeingInstantiated(false);
 			}
 
-			guest.updateCloudletsProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(guest).getGuestScheduler()
+			guest.updateCloudletsProcessing(getSimulation().clock(), getVmAllocationPolicy().getHost(guest).getGuestScheduler()
 					.getAllocatedMipsForGuest(guest));
 		} else {
-			Log.printlnConcat(CloudSim.clock(), ": Datacenter.guestAllocator: Couldn't find a host for ", guest.getClassName(), " #", guest.getId());
+			if (!Log.isDisabled()) {
+				Log.printlnConcat(getSimulation().clock(), ": Datacenter.guestAllocator: Couldn't find a host for ", guest.getClassName(), " #", guest.getId());
+			}
 		}
 	}
 
@@ -501,11 +502,13 @@ public class Datacenter extends SimEntity {
 			sendNow(ev.getSourceId(), CloudActionTags.VM_CREATE_ACK, data);
 		}
 
-		Log.formatLine(
-				"%.2f: Migration of VM #%d to Host #%d is completed",
-				CloudSim.clock(),
-				vm.getId(),
-				host.getId());
+		if (!Log.isDisabled()) {
+			Log.formatLine(
+					"%.2f: Migration of VM #%d to Host #%d is completed",
+					getSimulation().clock(),
+					vm.getId(),
+					host.getId());
+		}
 		vm.setInMigration(false);
 	}
 
@@ -630,6 +633,24 @@ public class Datacenter extends SimEntity {
 		}
 	}
 
+	/**
+	 * Processes the submission of a cloudlet, or of a batch of cloudlets sent in a single event
+	 * as a {@link List}, each one being processed by {@link #processCloudletSubmit(SimEvent, boolean)}.
+	 * 
+	 * @param ev information about the event just happened
+	 * @param ack indicates if the event's sender expects to receive 
+	 * an acknowledge message for each cloudlet when the event finishes to be processed
+	 */
+	protected void processCloudletBatchSubmit(SimEvent ev, boolean ack) {
+		if (ev.getData() instanceof List<?> cloudlets) {
+			for (Object cl : cloudlets) {
+				processCloudletSubmit(ev.withData(cl), ack);
+			}
+		} else {
+			processCloudletSubmit(ev, ack);
+		}
+	}
+
 	/**
 	 * Processes a Cloudlet submission.
 	 * 
@@ -649,7 +670,7 @@ public class Datacenter extends SimEntity {
 
 			// checks whether this Cloudlet has finished or not
 			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
+				String name = getSimulation().getEntityName(cl.getUserId());
 				Log.printlnConcat(getName(), ": Warning - ",cl.getClass().getSimpleName()," #", cl.getCloudletId(), " owned by ", name,
 						" is already completed/finished.");
 				Log.println("Therefore, it is not being executed again");
@@ -695,7 +716,7 @@ public class Datacenter extends SimEntity {
 				send(getId(), estimatedFinishTime, CloudActionTags.VM_DATACENTER_EVENT);
 			}
 			/*else {
-				Log.printlnConcat(CloudSim.clock(), ": [",getName(), "]: Warning - ", cl.getClass().getSimpleName()," #", cl.getCloudletId(),
+				Log.printlnConcat(getSimulation().clock(), ": [",getName(), "]: Warning - ", cl.getClass().getSimpleName()," #", cl.getCloudletId(),
 						" is paused because not enough free PEs on ", vm.getClassName(), " #", vm.getId());
 			}*/
 
@@ -759,7 +780,7 @@ public class Datacenter extends SimEntity {
 		boolean status = false;
 		if (eventTime > 0.0) { // if this cloudlet is in the exec queue
 			status = true;
-			if (eventTime > CloudSim.clock()) {
+			if (eventTime > getSimulation().clock()) {
 				schedule(getId(), eventTime, CloudActionTags.VM_DATACENTER_EVENT);
 			}
 		}
@@ -826,24 +847,24 @@ public class Datacenter extends SimEntity {
 		// if some time passed since last processing
 		// R: for term is to allow loop at simulation start. Otherwise, one initial
 		// simulation step is skipped and schedulers are not properly initialized
-		if (CloudSim.clock() < 0.111 || CloudSim.clock() >= getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
+		if (getSimulation().clock() < 0.111 || getSimulation().clock() >= getLastProcessTime() + getSimulation().getMinTimeBetweenEvents()) {
 			double smallerTime = Double.MAX_VALUE;
 			for (HostEntity host : getVmAllocationPolicy().getHostList()) {
 				// inform VMs to update processing
-				double time = host.updateCloudletsProcessing(CloudSim.clock());
+				double time = host.updateCloudletsProcessing(getSimulation().clock());
 				// what time do we expect that the next cloudlet will finish?
 				if (time < smallerTime) {
 					smallerTime = time;
 				}
 			}
 			// gurantees a minimal interval before scheduling the event
-			if (smallerTime < CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01) {
-				smallerTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01;
+			if (smallerTime < getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01) {
+				smallerTime = getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01;
 			}
 			if (smallerTime != Double.MAX_VALUE) {
-				schedule(getId(), (smallerTime - CloudSim.clock()), CloudActionTags.VM_DATACENTER_EVENT);
+				schedule(getId(), (smallerTime - getSimulation().clock()), CloudActionTags.VM_DATACENTER_EVENT);
 			}
-			setLastProcessTime(CloudSim.clock());
+			setLastProcessTime(getSimulation().clock());
 		}
 	}
 
@@ -973,9 +994,9 @@ public class Datacenter extends SimEntity {
 		// this resource should register to regional CIS.
 		// However, if not specified, then register to system CIS (the
 		// default CloudInformationService) entity.
-		int gisID = CloudSim.getEntityId(regionalCisName);
+		int gisID = getSimulation().getEntityId(regionalCisName);
 		if (gisID == -1) {
-			gisID = CloudSim.getCloudInfoServiceEntityId();
+			gisID = getSimulation().getCloudInfoServiceEntityId();
 		}
 
 		// send the registration to CIS
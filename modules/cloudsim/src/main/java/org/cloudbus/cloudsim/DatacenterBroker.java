@@ -9,13 +9,18 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.core.*;
 import org.cloudbus.cloudsim.lists.CloudletList;
+import org.cloudbus.cloudsim.lists.IdIndexedList;
 import org.cloudbus.cloudsim.lists.VmList;
 
 /**
@@ -87,9 +92,9 @@ public class DatacenterBroker extends SimEntity {
 	public DatacenterBroker(String name) throws Exception {
 		super(name);
 
-		setGuestList(new ArrayList<>());
-		setGuestsCreatedList(new ArrayList<>());
-		setCloudletList(new ArrayList<>());
+		setGuestList(new IdIndexedList<>(GuestEntity::getId));
+		setGuestsCreatedList(new IdIndexedList<>(GuestEntity::getId));
+		setCloudletList(new IdIndexedList<>(Cloudlet::getCloudletId));
 		setCloudletSubmittedList(new ArrayList<>());
 		setCloudletReceivedList(new ArrayList<>());
 
@@ -202,11 +207,13 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processResourceCharacteristicsRequest(SimEvent ev) {
-		setDatacenterIdsList(CloudSim.getCloudResourceList());
+		setDatacenterIdsList(getSimulation().getCloudResourceList());
 		setDatacenterCharacteristicsList(new HashMap<>());
 
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Cloud Resource List received with ",
-				getDatacenterIdsList().size(), " datacenter(s)");
+		if (!Log.isDisabled()) {
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Cloud Resource List received with ",
+					getDatacenterIdsList().size(), " datacenter(s)");
+		}
 
 		for (Integer datacenterId : getDatacenterIdsList()) {
 			sendNow(datacenterId, CloudActionTags.RESOURCE_CHARACTERISTICS, getId());
@@ -231,12 +238,16 @@ public class DatacenterBroker extends SimEntity {
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
 			getGuestsCreatedList().add(guest);
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": ", guest.getClassName(), " #", vmId,
-					" has been created in Datacenter #", datacenterId, ", ", guest.getHost().getClassName(), " #",
-					guest.getHost().getId());
+			if (!Log.isDisabled()) {
+				Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": ", guest.getClassName(), " #", vmId,
+						" has been created in Datacenter #", datacenterId, ", ", guest.getHost().getClassName(), " #",
+						guest.getHost().getId());
+			}
 		} else {
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Creation of ", guest.getClassName(), " #", vmId,
-					" failed in Datacenter #", datacenterId);
+			if (!Log.isDisabled()) {
+				Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Creation of ", guest.getClassName(), " #", vmId,
+						" failed in Datacenter #", datacenterId);
+			}
 		}
 
 		incrementVmsAcks();
@@ -259,7 +270,7 @@ public class DatacenterBroker extends SimEntity {
 				if (!getGuestsCreatedList().isEmpty()) { // if some vm were created
 					submitCloudlets();
 				} else { // no vms created. abort
-					Log.printlnConcat(CloudSim.clock(), ": ", getName(),
+					Log.printlnConcat(getSimulation().clock(), ": ", getName(),
 							": none of the required VMs could be created. Aborting");
 					finishExecution();
 				}
@@ -277,12 +288,14 @@ public class DatacenterBroker extends SimEntity {
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
 		getCloudletReceivedList().add(cloudlet);
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": ", cloudlet.getClass().getSimpleName(), " #", cloudlet.getCloudletId(),
-				" return received");
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": The number of finished Cloudlets is:", getCloudletReceivedList().size());
+		if (!Log.isDisabled()) {
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": ", cloudlet.getClass().getSimpleName(), " #", cloudlet.getCloudletId(),
+					" return received");
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": The number of finished Cloudlets is:", getCloudletReceivedList().size());
+		}
 		cloudletsSubmitted--;
 		if (getCloudletList().isEmpty() && cloudletsSubmitted == 0) { // all cloudlets executed
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
 			finishExecution();
 		} else { // some cloudlets haven't finished yet
@@ -328,11 +341,13 @@ public class DatacenterBroker extends SimEntity {
 	protected void createVmsInDatacenter(int datacenterId) {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
-		String datacenterName = CloudSim.getEntityName(datacenterId);
+		String datacenterName = getSimulation().getEntityName(datacenterId);
 		for (GuestEntity vm : getGuestList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-				Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Trying to Create ", vm.getClassName(),
-						" #", vm.getId(), " in ", datacenterName);
+				if (!Log.isDisabled()) {
+					Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Trying to Create ", vm.getClassName(),
+							" #", vm.getId(), " in ", datacenterName);
+				}
 				sendNow(datacenterId, CloudActionTags.VM_CREATE_ACK, vm);
 				requestedVms++;
 			}
@@ -352,7 +367,9 @@ public class DatacenterBroker extends SimEntity {
          * @see #submitCloudletList(java.util.List) 
 	 */
 	protected void submitCloudlets() {
-		List<Cloudlet> successfullySubmitted = new ArrayList<>();
+		// the cloudlets to send to each guest, in one event per guest
+		Map<Integer, List<Cloudlet>> batches = new LinkedHashMap<>();
+		Set<Cloudlet> successfullySubmitted = Collections.newSetFromMap(new IdentityHashMap<>());
 		for (Cloudlet cloudlet : getCloudletList()) {
 			GuestEntity vm;
 			// if user didn't bind this cloudlet and it has not been executed yet
@@ -365,10 +382,10 @@ public class DatacenterBroker extends SimEntity {
 
 					if(!Log.isDisabled()) {
 						if (vm != null) {
-							Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Postponing execution of cloudlet ",
+							Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Postponing execution of cloudlet ",
 									cloudlet.getCloudletId(), ": bount ", vm.getClassName(), " #", vm.getId(), " not available");
 						} else {
-							Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Postponing execution of cloudlet ",
+							Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Postponing execution of cloudlet ",
 									cloudlet.getCloudletId(), ": bount guest entity of id ", cloudlet.getGuestId(), " doesn't exist");
 						}
 					}
@@ -377,20 +394,28 @@ public class DatacenterBroker extends SimEntity {
 			}
 
 			if (!Log.isDisabled()) {
-				Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Sending ", cloudlet.getClass().getSimpleName(),
+				Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Sending ", cloudlet.getClass().getSimpleName(),
 						" #", cloudlet.getCloudletId(), " to " + vm.getClassName() + " #", vm.getId());
 			}
 			
 			cloudlet.setGuestId(vm.getId());
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
+			batches.computeIfAbsent(vm.getId(), id -> new ArrayList<>()).add(cloudlet);
 			cloudletsSubmitted++;
 			guestIndex = (guestIndex + 1) % getGuestsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
 			successfullySubmitted.add(cloudlet);
 		}
 
-		// remove submitted cloudlets from waiting list
-		getCloudletList().removeAll(successfullySubmitted);
+		for (Map.Entry<Integer, List<Cloudlet>> batch : batches.entrySet()) {
+			List<Cloudlet> cloudlets = batch.getValue();
+			sendNow(getVmsToDatacentersMap().get(batch.getKey()), CloudActionTags.CLOUDLET_SUBMIT,
+					cloudlets.size() == 1 ? cloudlets.get(0) : cloudlets);
+		}
+
+		// remove submitted cloudlets from waiting list, in a single pass
+		if (!successfullySubmitted.isEmpty()) {
+			getCloudletList().removeIf(successfullySubmitted::contains);
+		}
 	}
 
 	/**
@@ -401,7 +426,9 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void clearDatacenters() {
 		for (GuestEntity vm : getGuestsCreatedList()) {
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Destroying ", vm.getClassName(), " #", vm.getId());
+			if (!Log.isDisabled()) {
+				Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Destroying ", vm.getClassName(), " #", vm.getId());
+			}
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.VM_DESTROY, vm);
 		}
 
@@ -120,8 +120,10 @@ public class HddCloudletSchedulerTimeShared extends CloudletSchedulerTimeShared
      */
     public double updateVmProcessing(final double currentTime, final List<Double> mipsShare,
             final List<Double> iopsShare) {
-        CustomLog.printf(Level.FINEST, "\nupdateVmProcessing(currentTime=%f, mipsShare=%s,final iopsShare=%s)",
-                currentTime, mipsShare.toString(), iopsShare.toString());
+        if (CustomLog.isLevelHighEnough(Level.FINEST)) {
+            CustomLog.printf(Level.FINEST, "\nupdateVmProcessing(currentTime=%f, mipsShare=%s,final iopsShare=%s)",
+                    currentTime, mipsShare.toString(), iopsShare.toString());
+        }
 
         setCurrentMipsShare(mipsShare);
         setCurrentIOMipsShare(iopsShare);
@@ -438,8 +440,10 @@ public class HddCloudletSchedulerTimeShared extends CloudletSchedulerTimeShared
 
             return nanMin(cpuEst, ioEst);
         } else {
-            CustomLog.printf("Cloudlet %d could not be served on VM %d, since its data item #%d is not accessible.",
-                    hddCloudlet.getCloudletId(), getVm().getId(), hddCloudlet.getData().getId());
+            if (CustomLog.isLevelHighEnough(CustomLog.DEFAULT_LEVEL)) {
+                CustomLog.printf("Cloudlet %d could not be served on VM %d, since its data item #%d is not accessible.",
+                        hddCloudlet.getCloudletId(), getVm().getId(), hddCloudlet.getData().getId());
+            }
             failCloudlet(hddCloudlet);
             return 0;
         }
@@ -77,16 +77,20 @@ public class HddDataCenter extends DatacenterEX {
                     scheduler.addFailedCloudlet(cl);
                     vm.setOutOfMemory(true);
 
-                    CustomLog.printf("VM/Server %d on host %d in data center %s(%d) is out of memory. "
-                            + "It will not be further available", vm.getId(), host.getId(), getName(), getId());
+                    if (CustomLog.isLevelHighEnough(CustomLog.DEFAULT_LEVEL)) {
+                        CustomLog.printf("VM/Server %d on host %d in data center %s(%d) is out of memory. "
+                                + "It will not be further available", vm.getId(), host.getId(), getName(), getId());
+                    }
                 } else {
                     super.processCloudletSubmit(ev, ack);
                 }
             } else {
                 scheduler.addFailedCloudlet(cl);
-                CustomLog.printf("Cloudlet %d could not be submited because "
-                        + "VM/Server %d on host %d in data center %s(%d) is out of memory. ", cl.getCloudletId(),
-                        vm.getId(), host.getId(), getName(), getId());
+                if (CustomLog.isLevelHighEnough(CustomLog.DEFAULT_LEVEL)) {
+                    CustomLog.printf("Cloudlet %d could not be submited because "
+                            + "VM/Server %d on host %d in data center %s(%d) is out of memory. ", cl.getCloudletId(),
+                            vm.getId(), host.getId(), getName(), getId());
+                }
             }
         } catch (Exception e) {
             CustomLog.logError(Level.SEVERE, "An error occurred when processing cloudlet sbmission", e);
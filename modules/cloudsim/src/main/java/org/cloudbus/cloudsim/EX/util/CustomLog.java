@@ -227,9 +227,17 @@ public class CustomLog {
         }
     }
 
+    /**
+     * Checks if messages of a level are logged: on hot paths, messages are only built after this
+     * check. Nothing is logged when {@link Log#ENABLED} is false.
+     * 
+     * @param level
+     *            - the level. If null the default level is used.
+     * @return if messages of the level are logged.
+     */
     public static boolean isLevelHighEnough(final Level level) {
-        return (level == null && DEFAULT_LEVEL.intValue() >= granularityLevel.intValue())
-                || (level != null && level.intValue() >= granularityLevel.intValue());
+        return Log.ENABLED && ((level == null && DEFAULT_LEVEL.intValue() >= granularityLevel.intValue())
+                || (level != null && level.intValue() >= granularityLevel.intValue()));
     }
 
     /**
@@ -241,7 +249,7 @@ public class CustomLog {
      * @param args
      */
     public static void printf(final String format, final Object... args) {
-        printf(DEFAULT_LEVEL, String.format(format, args));
+        printf(DEFAULT_LEVEL, format, args);
     }
 
     /**
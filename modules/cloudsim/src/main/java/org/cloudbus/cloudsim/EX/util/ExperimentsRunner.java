@@ -1,11 +1,14 @@
 package org.cloudbus.cloudsim.EX.util;
 
 import org.apache.commons.lang3.SystemUtils;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -13,11 +16,19 @@ import java.util.concurrent.Future;
 
 /**
  * 
- * A utility that runs a set of experiments in different JVM processes. Since
- * CloudSim makes heavy use of static data, experiments can not be run in
- * multiple threads within the same JVM. With this utility class one can spawn
- * multiple independent JVM process, redirect their standard outputs to a single
- * place and synchronize with their ends.
+ * A utility that runs a set of experiments in different JVM processes. With
+ * this utility class one can spawn multiple independent JVM process, redirect
+ * their standard outputs to a single place and synchronize with their ends.
+ * 
+ * <br>
+ * <br>
+ * Experiments that only depend on the simulation kernel state can instead be
+ * run in the current JVM with
+ * {@link #runExperimentsInProcess(List, int)}, where each experiment gets its
+ * own {@link SimulationContext} and all of them share one thread pool. This
+ * avoids paying the JVM startup and JIT warm-up for each experiment. Note that
+ * other static facilities (e.g. {@link CustomLog}) are still shared by all
+ * the experiments of the JVM.
  * 
  * <br>
  * <br>
@@ -99,6 +110,76 @@ public class ExperimentsRunner {
         System.err.println("All experiments are finished");
     }
 
+    /**
+     * Runs a set of experiments in the current JVM, each one in its own
+     * {@link SimulationContext}, on a shared pool of threads. The main method
+     * of each experiment is invoked with the experiment's arguments; JVM
+     * arguments (starting with -X or -D) and the memory settings of the
+     * definitions are ignored.
+     * 
+     * @param experimentsDefs
+     *            - the experiments' definitions.
+     * @param numFreeCPUs
+     *            - number of processors to leave unused. See
+     *            {@link #runExperiments(List, int)}.
+     * 
+     * @throws Exception
+     *             - if something goes wrong.
+     */
+    public static void runExperimentsInProcess(final List<ExperimentDefinition> experimentsDefs,
+            final int numFreeCPUs) throws Exception {
+
+        if (!experimentsDefs.isEmpty()) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            int coresToUse = cores <= numFreeCPUs ? 1 : cores - numFreeCPUs;
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(coresToUse, experimentsDefs.size()));
+            Collection<Future<?>> futures = new ArrayList<>();
+
+            for (final ExperimentDefinition def : experimentsDefs) {
+                Runnable runnable = () -> {
+                    try {
+                        new SimulationContext().call(() -> invokeMain(def));
+                    } catch (Exception e) {
+                        System.err.println("!!! Experiment " + def.getMainClass().getCanonicalName()
+                                + " has failed!!!");
+                        e.printStackTrace();
+                    }
+                };
+                futures.add(pool.submit(runnable));
+            }
+
+            // Wait until all are finished
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            pool.shutdown();
+        }
+        System.err.println();
+        System.err.println("All experiments are finished");
+    }
+
+    private static Void invokeMain(final ExperimentDefinition def) throws Exception {
+        List<String> appParams = new ArrayList<>();
+        for (String param : def.getArguements()) {
+            if (!param.startsWith("-X") && !param.startsWith("-D")) {
+                appParams.add(param);
+            }
+        }
+
+        Method main = def.getMainClass().getMethod("main", String[].class);
+        try {
+            main.invoke(null, (Object) appParams.toArray(new String[0]));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return null;
+    }
+
     private static int[] getHeapArgs() {
         RuntimeMXBean runtimeMxBean = ManagementFactory.getRuntimeMXBean();
         List<String> arguments = runtimeMxBean.getInputArguments();
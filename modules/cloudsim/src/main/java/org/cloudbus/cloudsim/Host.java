@@ -12,6 +12,7 @@ import java.util.*;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 import org.cloudbus.cloudsim.core.VirtualEntity;
+import org.cloudbus.cloudsim.lists.IdIndexedList;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
@@ -45,7 +46,7 @@ public class Host implements HostEntity {
 	private VmScheduler vmScheduler;
 
 	/** The list of VMs assigned to the host. */
-	private final List<? extends GuestEntity> guestList = new ArrayList<>();
+	private final List<? extends GuestEntity> guestList = new IdIndexedList<>(GuestEntity::getId);
 
 	/** The Processing Elements (PEs) of the host, that
          * represent the CPU cores of it, and thus, its processing capacity. */
@@ -0,0 +1,348 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * An index over a list of hosts to find, in logarithmic time, the best ranked host suitable for a
+ * guest, instead of scanning the whole list.
+ * <p>
+ * The index is a segment tree over the positions in the host list. Each node keeps the best rank
+ * of its hosts (the leftmost one on ties, as a scan of the list would) and the largest PE capacity,
+ * available MIPS, RAM and bandwidth among them. A query descends towards the best rank, skipping
+ * the subtrees that can't hold the guest or can't beat the best host found so far; the host
+ * returned is then confirmed with {@link HostEntity#isSuitableForGuest(GuestEntity)}, and the
+ * query goes on if it is not suitable after all.
+ * <p>
+ * The capacities are only used to skip hosts when they are necessary conditions of suitability,
+ * i.e. for hosts with the default {@link HostEntity#isSuitableForGuest(GuestEntity)} and the simple
+ * RAM and bandwidth provisioners, and for guests that are not placed yet (a guest being migrated
+ * holds resources on its current host). Otherwise the hosts are only ordered by rank.
+ * <p>
+ * The index listens to the VM scheduler and the RAM and bandwidth provisioners of the hosts, and
+ * refreshes a host before the next query whenever its available MIPS, RAM or bandwidth changes,
+ * whoever changes it (guest creation or destruction, migration, utilization update...). A rank
+ * that depends on other state is not observed: {@link #update(HostEntity)} or {@link #updateAll()}
+ * must then be called when it changes. {@link #release()} stops the listening once the index is
+ * no longer used.
+ *
+ * @param <T> the type of hosts
+ * @since CloudSim Toolkit 7.0
+ */
+public class HostCapacityIndex<T extends HostEntity> {
+
+	/** The indexed hosts. */
+	private final List<T> hosts;
+
+	/** The rank of a host, <tt>NaN</tt> if it can't be selected. */
+	private final ToDoubleFunction<? super T> ranking;
+
+	/** The position of each host in the list. */
+	private final Map<HostEntity, Integer> positions;
+
+	/** Whether the capacities of each host are necessary conditions of suitability. */
+	private final boolean[] prunable;
+
+	/** The listener registered on the resources of each host. */
+	private final Runnable[] listeners;
+
+	/** The positions of the hosts whose capacity changed since they were last refreshed. */
+	private final BitSet dirty = new BitSet();
+
+	/** The number of leaves, a power of 2; node i has children 2i and 2i+1, leaves start at {@link #leaves}. */
+	private final int leaves;
+
+	/** The best rank in each subtree, negative infinity if no host can be selected. */
+	private final double[] rank;
+
+	/** The position of the best ranked host in each subtree, -1 if none. */
+	private final int[] best;
+
+	/** The largest capacities in each subtree. */
+	private final double[] peCapacity;
+	private final double[] availableMips;
+	private final double[] availableRam;
+	private final double[] availableBw;
+
+	/**
+	 * Creates an index over a host list. The list must not change while the index is used.
+	 *
+	 * @param hosts the hosts
+	 * @param ranking the rank of a host: the host with the highest rank is selected, and hosts with
+	 *            a <tt>NaN</tt> rank are never selected
+	 */
+	public HostCapacityIndex(List<T> hosts, ToDoubleFunction<? super T> ranking) {
+		this.hosts = hosts;
+		this.ranking = ranking;
+		int n = hosts.size();
+		int size = 1;
+		while (size < n) {
+			size <<= 1;
+		}
+		leaves = size;
+		rank = new double[2 * size];
+		best = new int[2 * size];
+		peCapacity = new double[2 * size];
+		availableMips = new double[2 * size];
+		availableRam = new double[2 * size];
+		availableBw = new double[2 * size];
+		Arrays.fill(rank, Double.NEGATIVE_INFINITY);
+		Arrays.fill(best, -1);
+		Arrays.fill(peCapacity, Double.NEGATIVE_INFINITY);
+		Arrays.fill(availableMips, Double.NEGATIVE_INFINITY);
+		Arrays.fill(availableRam, Double.NEGATIVE_INFINITY);
+		Arrays.fill(availableBw, Double.NEGATIVE_INFINITY);
+
+		positions = new IdentityHashMap<>(2 * n);
+		prunable = new boolean[n];
+		listeners = new Runnable[n];
+		for (int i = 0; i < n; i++) {
+			T host = hosts.get(i);
+			positions.put(host, i);
+			prunable[i] = hasDefaultSuitability(host);
+			int position = i;
+			listeners[i] = () -> dirty.set(position);
+			listen(host, listeners[i]);
+		}
+		updateAll();
+	}
+
+	/**
+	 * @return the number of indexed hosts
+	 */
+	public int size() {
+		return listeners.length;
+	}
+
+	/**
+	 * Checks whether this index is over a given host list, as it was when the index was built.
+	 *
+	 * @param hosts the host list
+	 * @return <tt>true</tt> if the list is the indexed one and has the same size
+	 */
+	public boolean isIndexOf(List<? extends HostEntity> hosts) {
+		return this.hosts == hosts && hosts.size() == size();
+	}
+
+	/**
+	 * Stops listening to the resources of the hosts. The index must not be used afterwards.
+	 */
+	public void release() {
+		for (int i = 0; i < listeners.length; i++) {
+			unlisten(hosts.get(i), listeners[i]);
+		}
+	}
+
+	/**
+	 * Refreshes the rank and capacities of every host, in linear time.
+	 */
+	public void updateAll() {
+		for (int i = 0; i < size(); i++) {
+			setLeaf(i);
+		}
+		dirty.clear();
+		for (int node = leaves - 1; node >= 1; node--) {
+			pull(node);
+		}
+	}
+
+	/**
+	 * Refreshes the rank and capacities of a host, in logarithmic time.
+	 *
+	 * @param host the host
+	 * @return <tt>false</tt> if the host is not indexed
+	 */
+	public boolean update(HostEntity host) {
+		Integer position = positions.get(host);
+		if (position == null) {
+			return false;
+		}
+		refresh(position);
+		return true;
+	}
+
+	private void refresh(int position) {
+		dirty.clear(position);
+		setLeaf(position);
+		for (int node = (leaves + position) >> 1; node >= 1; node >>= 1) {
+			pull(node);
+		}
+	}
+
+	/**
+	 * Finds the best ranked host suitable for a guest, the first one in the list on ties. This is
+	 * the host a scan of the list in rank order would pick, checking each host's suitability.
+	 *
+	 * @param guest the guest
+	 * @return the host, or <tt>null</tt> if no host can be selected for the guest
+	 */
+	public T findBestHost(GuestEntity guest) {
+		for (int position = dirty.nextSetBit(0); position >= 0; position = dirty.nextSetBit(position + 1)) {
+			refresh(position);
+		}
+
+		boolean placed = guest.getHost() != null;
+		double maxMips = placed ? Double.NEGATIVE_INFINITY : guest.getCurrentRequestedMaxMips();
+		double totalMips = placed ? Double.NEGATIVE_INFINITY : guest.getCurrentRequestedTotalMips();
+		double ram = placed ? Double.NEGATIVE_INFINITY : Math.min(guest.getCurrentRequestedRam(), guest.getRam());
+		double bw = placed ? Double.NEGATIVE_INFINITY : guest.getCurrentRequestedBw();
+
+		int[] rejected = null;
+		int rejectedCount = 0;
+		T found = null;
+		while (found == null) {
+			int position = search(1, 0, leaves, Double.NEGATIVE_INFINITY, -1, maxMips, totalMips, ram, bw);
+			if (position < 0) {
+				break;
+			}
+			T host = hosts.get(position);
+			if (host.isSuitableForGuest(guest)) {
+				found = host;
+			} else {
+				// Hide the host until the end of the query
+				if (rejected == null) {
+					rejected = new int[8];
+				} else if (rejectedCount == rejected.length) {
+					rejected = Arrays.copyOf(rejected, 2 * rejectedCount);
+				}
+				rejected[rejectedCount++] = position;
+				rank[leaves + position] = Double.NEGATIVE_INFINITY;
+				best[leaves + position] = -1;
+				for (int node = (leaves + position) >> 1; node >= 1; node >>= 1) {
+					pull(node);
+				}
+			}
+		}
+		for (int i = 0; i < rejectedCount; i++) {
+			update(hosts.get(rejected[i]));
+		}
+		return found;
+	}
+
+	/**
+	 * Searches a subtree, covering the positions from <tt>lo</tt> (inclusive) to <tt>hi</tt>
+	 * (exclusive), for a host that could hold the guest and beats the best one found so far: a
+	 * higher rank, or the same rank and a lower position.
+	 *
+	 * @return the position of the best host, <tt>bestPosition</tt> if the subtree has no better one
+	 */
+	private int search(int node, int lo, int hi, double bestRank, int bestPosition,
+			double maxMips, double totalMips, double ram, double bw) {
+		double nodeRank = rank[node];
+		if (nodeRank == Double.NEGATIVE_INFINITY
+				|| nodeRank < bestRank || (nodeRank == bestRank && lo >= bestPosition)
+				|| peCapacity[node] < maxMips || availableMips[node] < totalMips
+				|| availableRam[node] < ram || availableBw[node] < bw) {
+			return bestPosition;
+		}
+		if (node >= leaves) {
+			return lo;
+		}
+		int mid = (lo + hi) >>> 1;
+		// Search the subtree holding the best rank first, so that the other one is usually skipped
+		boolean rightFirst = best[node] != best[2 * node];
+		int position = rightFirst
+				? search(2 * node + 1, mid, hi, bestRank, bestPosition, maxMips, totalMips, ram, bw)
+				: search(2 * node, lo, mid, bestRank, bestPosition, maxMips, totalMips, ram, bw);
+		if (position != bestPosition) {
+			bestRank = rank[leaves + position];
+			bestPosition = position;
+		}
+		return rightFirst
+				? search(2 * node, lo, mid, bestRank, bestPosition, maxMips, totalMips, ram, bw)
+				: search(2 * node + 1, mid, hi, bestRank, bestPosition, maxMips, totalMips, ram, bw);
+	}
+
+	private void setLeaf(int position) {
+		T host = hosts.get(position);
+		int leaf = leaves + position;
+		double hostRank = ranking.applyAsDouble(host);
+		rank[leaf] = Double.isNaN(hostRank) ? Double.NEGATIVE_INFINITY : hostRank;
+		best[leaf] = Double.isNaN(hostRank) ? -1 : position;
+		if (prunable[position]) {
+			peCapacity[leaf] = host.getGuestScheduler().getPeCapacity();
+			availableMips[leaf] = host.getGuestScheduler().getAvailableMips();
+			availableRam[leaf] = host.getGuestRamProvisioner().getAvailableRam();
+			availableBw[leaf] = host.getGuestBwProvisioner().getAvailableBw();
+		} else {
+			peCapacity[leaf] = Double.POSITIVE_INFINITY;
+			availableMips[leaf] = Double.POSITIVE_INFINITY;
+			availableRam[leaf] = Double.POSITIVE_INFINITY;
+			availableBw[leaf] = Double.POSITIVE_INFINITY;
+		}
+	}
+
+	private void pull(int node) {
+		int left = 2 * node;
+		int right = left + 1;
+		// Ties go to the left, i.e. to the first host in the list
+		int from = rank[right] > rank[left] ? right : left;
+		rank[node] = rank[from];
+		best[node] = best[from];
+		peCapacity[node] = Math.max(peCapacity[left], peCapacity[right]);
+		availableMips[node] = Math.max(availableMips[left], availableMips[right]);
+		availableRam[node] = Math.max(availableRam[left], availableRam[right]);
+		availableBw[node] = Math.max(availableBw[left], availableBw[right]);
+	}
+
+	/**
+	 * Registers a listener on the VM scheduler and the RAM and bandwidth provisioners of a host.
+	 */
+	private static void listen(HostEntity host, Runnable listener) {
+		if (host.getGuestScheduler() != null) {
+			host.getGuestScheduler().addCapacityListener(listener);
+		}
+		if (host.getGuestRamProvisioner() != null) {
+			host.getGuestRamProvisioner().addCapacityListener(listener);
+		}
+		if (host.getGuestBwProvisioner() != null) {
+			host.getGuestBwProvisioner().addCapacityListener(listener);
+		}
+	}
+
+	/**
+	 * Unregisters a listener added with {@link #listen(HostEntity, Runnable)}.
+	 */
+	private static void unlisten(HostEntity host, Runnable listener) {
+		if (host.getGuestScheduler() != null) {
+			host.getGuestScheduler().removeCapacityListener(listener);
+		}
+		if (host.getGuestRamProvisioner() != null) {
+			host.getGuestRamProvisioner().removeCapacityListener(listener);
+		}
+		if (host.getGuestBwProvisioner() != null) {
+			host.getGuestBwProvisioner().removeCapacityListener(listener);
+		}
+	}
+
+	/**
+	 * Checks whether a host decides suitability with the default rule, on the simple provisioners.
+	 */
+	private static boolean hasDefaultSuitability(HostEntity host) {
+		try {
+			return host.getClass().getMethod("isSuitableForGuest", GuestEntity.class).getDeclaringClass() == HostEntity.class
+					&& host.getGuestRamProvisioner() != null && host.getGuestRamProvisioner().getClass() == RamProvisionerSimple.class
+					&& host.getGuestBwProvisioner() != null && host.getGuestBwProvisioner().getClass() == BwProvisionerSimple.class
+					&& host.getGuestScheduler() != null;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+}
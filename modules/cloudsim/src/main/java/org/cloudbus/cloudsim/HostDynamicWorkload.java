@@ -9,15 +9,17 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.core.VirtualEntity;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.HostStateMetrics;
+import org.cloudbus.cloudsim.util.StateHistoryStore;
 
 /**
  * A host supporting dynamic workloads and performance degradation.
@@ -35,7 +37,10 @@ public class HostDynamicWorkload extends Host {
 	private double previousUtilizationMips;
 
 	/** The host utilization state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<>();
+	private final StateHistoryStore stateHistory = SimulationContext.current().newStateHistory();
+
+	/** The SLA metrics of the host utilization state history. */
+	private final HostStateMetrics stateMetrics = new HostStateMetrics();
 
 	/**
 	 * Instantiates a new host.
@@ -98,12 +103,16 @@ public class HostDynamicWorkload extends Host {
 			}
 
 			if (getGuestsMigratingIn().contains(vm)) {
-				Log.printlnConcat(CloudSim.clock(), ": [Host #", getId(), "] VM #" + vm.getId()
-						, " is being migrated to Host #", getId());
+				if (!Log.isDisabled()) {
+					Log.printlnConcat(CloudSim.clock(), ": [Host #", getId(), "] VM #" + vm.getId()
+							, " is being migrated to Host #", getId());
+				}
 			} else {
 				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
-					Log.printlnConcat(CloudSim.clock(), ": [Host #", getId(), "] Under allocated MIPS for VM #", vm.getId()
-							, ": ", totalRequestedMips - totalAllocatedMips);
+					if (!Log.isDisabled()) {
+						Log.printlnConcat(CloudSim.clock(), ": [Host #", getId(), "] Under allocated MIPS for VM #", vm.getId()
+								, ": ", totalRequestedMips - totalAllocatedMips);
+					}
 				}
 
 				vm.addStateHistoryEntry(
@@ -170,8 +179,10 @@ public class HostDynamicWorkload extends Host {
 		for (GuestEntity guest : getGuestList()) {
 			if (guest instanceof VirtualEntity vm) {
 				numberofContainers += vm.getNumberOfGuests();
-				Log.print("The number of containers in VM# " + vm.getId() + "is: " + vm.getNumberOfGuests());
-				Log.println();
+				if (!Log.isDisabled()) {
+					Log.print("The number of containers in VM# " + vm.getId() + "is: " + vm.getNumberOfGuests());
+					Log.println();
+				}
 			}
 		}
 		return numberofContainers;
@@ -282,10 +293,20 @@ public class HostDynamicWorkload extends Host {
 	 * 
 	 * @return the state history
 	 */
-	public List<HostStateHistoryEntry> getStateHistory() {
+	public StateHistoryStore getStateHistoryStore() {
 		return stateHistory;
 	}
 
+	/**
+	 * Gets the host state history as a list of entries.
+	 * 
+	 * @return a read-only view of the state history
+	 * @see #getStateHistoryStore()
+	 */
+	public List<HostStateHistoryEntry> getStateHistory() {
+		return stateHistory.asList(HostStateHistoryEntry::new);
+	}
+
 	/**
 	 * Adds a host state history entry.
 	 *
@@ -294,22 +315,17 @@ public class HostDynamicWorkload extends Host {
 	 * @param requestedMips the requested mips
 	 * @param isActive the is active
 	 */
-	public
-			void
-			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
-
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().getLast();
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+	public void addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
+		getStateHistoryStore().add(time, allocatedMips, requestedMips, isActive);
+		getStateMetrics().add(time, allocatedMips, requestedMips, isActive);
+	}
+
+	/**
+	 * Gets the SLA metrics of the host state history, updated as its entries are added.
+	 *
+	 * @return the state metrics
+	 */
+	public HostStateMetrics getStateMetrics() {
+		return stateMetrics;
 	}
 }
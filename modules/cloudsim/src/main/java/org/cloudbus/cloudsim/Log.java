@@ -11,9 +11,20 @@ package org.cloudbus.cloudsim;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.cloudbus.cloudsim.core.SimulationContext;
+
 /**
  * Logger used for performing logging of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ * <p>
+ * The output stream and the disabled flag belong to the {@link SimulationContext} current on the
+ * calling thread, so that simulations running concurrently in their own contexts log
+ * independently.
+ * <p>
+ * The print methods check whether the logger is disabled, but their arguments are built
+ * before: on hot paths, the messages are only built after checking {@link #isDisabled()}.
+ * When {@link #ENABLED} is set to false at compile time, {@link #isDisabled()} is constant
+ * and the JIT compiler removes the guarded logging code entirely.
  * 
  * @author Anton Beloglazov
  * @author Remo Andreoli
@@ -21,18 +32,18 @@ import java.io.OutputStream;
  */
 public class Log {
 
+	/**
+	 * Kill switch of the logging, for this logger and for
+	 * {@link org.cloudbus.cloudsim.EX.util.CustomLog}: set it to false and rebuild to
+	 * compile the logging out, whatever {@link #setDisabled(boolean)} is given.
+	 */
+	public static final boolean ENABLED = true;
+
 	/** The Constant LINE_SEPARATOR. */
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
-	/** The stream where the log will the outputted. */
-	private static OutputStream output;
-
-	/** Indicates if the logger is disabled or not. If set to true,
-         the call for any print method has no effect. */
-	private static boolean disabled;
-	
-	/** Buffer to avoid creating new string builder upon every print. */
-	private static final StringBuilder buffer = new StringBuilder();
+	/** Per-thread buffer to avoid creating new string builder upon every print. */
+	private static final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(StringBuilder::new);
 
 	/**
 	 * Prints a message.
@@ -94,6 +105,7 @@ public class Log {
 	 */
 	public static void printConcat(Object... messages) {
 		if (!isDisabled()) {
+			StringBuilder buffer = Log.buffer.get();
 			buffer.setLength(0); // Clear the buffer		    
             for (Object message : messages) {
                 buffer.append(message);
@@ -109,6 +121,7 @@ public class Log {
 	 */
 	public static void printlnConcat(Object... messages) {
 		if (!isDisabled()) {
+			StringBuilder buffer = Log.buffer.get();
 			buffer.setLength(0); // Clear the buffer		    
             for (Object message : messages) {
                 buffer.append(message);
@@ -161,42 +174,41 @@ public class Log {
 	}
 
 	/**
-	 * Sets the output stream.
+	 * Sets the output stream of the current simulation context.
 	 * 
 	 * @param _output the new output
+	 * @see SimulationContext#setLogOutput(OutputStream)
 	 */
 	public static void setOutput(OutputStream _output) {
-		output = _output;
+		SimulationContext.current().setLogOutput(_output);
 	}
 
 	/**
-	 * Gets the output stream.
+	 * Gets the output stream of the current simulation context.
 	 * 
 	 * @return the output
 	 */
 	public static OutputStream getOutput() {
-		if (output == null) {
-			setOutput(System.out);
-		}
-		return output;
+		return SimulationContext.current().getLogOutput();
 	}
 
 	/**
-	 * Sets the disable output flag.
+	 * Sets the disable output flag of the current simulation context.
 	 * 
 	 * @param _disabled the new disabled
+	 * @see SimulationContext#setLogDisabled(boolean)
 	 */
 	public static void setDisabled(boolean _disabled) {
-		disabled = _disabled;
+		SimulationContext.current().setLogDisabled(_disabled);
 	}
 
 	/**
-	 * Checks if the output is disabled.
+	 * Checks if the output is disabled in the current simulation context.
 	 * 
 	 * @return true, if is disable
 	 */
 	public static boolean isDisabled() {
-		return disabled;
+		return !ENABLED || SimulationContext.current().isLogDisabled();
 	}
 
 	/**
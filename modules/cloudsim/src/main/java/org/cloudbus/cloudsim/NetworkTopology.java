@@ -9,10 +9,12 @@
 package org.cloudbus.cloudsim;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.network.DelayGraph;
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
@@ -31,43 +33,47 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  * proper work of the network simulation. Each BRITE node can be mapped to only one entity at a
  * time.
  * 
+ * <p/>
+ * Each {@link org.cloudbus.cloudsim.core.SimulationContext} owns its own topology. The static
+ * methods of this class operate on the topology of the current simulation context.
+ * <p/>
+ * The delays are computed on demand by a {@link DelayGraph}, so links can be added one by one
+ * to a large topology.
+ * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 1.0
- * 
- * //@TODO The class only have static methods, that indicates it doesn't have to be instantiated.
- * In fact, it doesn't appear it is being instantiated anywhere.
- * A private default constructor would be created to avoid instantiation.
  */
 public class NetworkTopology {
         /**
          * The BRITE id to use for the next node to be created in the network.
          */
-	protected static int nextIdx = 0;
+	protected int nextIdx = 0;
 
-	private static boolean networkEnabled = false;
+	private boolean networkEnabled = false;
 
         /**
-         * A matrix containing the delay between every pair of nodes in the network.
+         * The delay and bandwidth between the nodes in the network.
          */
-	protected static DelayMatrix_Float delayMatrix = null;
-
-        /**
-         * A matrix containing the bandwidth between every pair of nodes in the network.
-         */
-	protected static double[][] bwMatrix = null;
+	protected DelayGraph delayGraph = null;
 
         /**
          * The Topological Graph of the network.
          */
-	protected static TopologicalGraph graph = null;
+	protected TopologicalGraph graph = null;
 
 	/**
          * The map between CloudSim entities and BRITE entities.
-         * Each key is a CloudSim entity ID and each value the corresponding
-         * BRITE entity ID.
+         * Each index is a CloudSim entity ID and each value the corresponding
+         * BRITE entity ID, -1 if the entity is not mapped.
          */
-        protected static Map<Integer, Integer> map = null;
+        protected int[] briteIds = new int[0];
+
+	/**
+         * The reverse map between BRITE entities and CloudSim entities, -1 for
+         * the BRITE entities not mapped.
+         */
+        protected int[] entityIds = new int[0];
 
 	/**
 	 * Creates the network topology if the file exists and can be successfully parsed. File is
@@ -77,7 +83,7 @@ public class NetworkTopology {
 	 * @pre fileName != null
 	 * @post $none
 	 */
-	public static void buildNetworkTopology(String fileName) {
+	public void buildTopology(String fileName) {
 		Log.printlnConcat("Topology file: ", fileName);
 
 		// try to find the file
@@ -85,8 +91,10 @@ public class NetworkTopology {
 
 		try {
 			graph = reader.readGraphFile(fileName);
-			map = new HashMap<>();
-			generateMatrices();
+			briteIds = new int[0];
+			entityIds = new int[0];
+			delayGraph = new DelayGraph(graph);
+			networkEnabled = true;
 		} catch (IOException e) {
 			// problem with the file. Does not simulate network
 			Log.printlnConcat("Problem in processing BRITE file. Network simulation is disabled. Error: ",
@@ -95,19 +103,6 @@ public class NetworkTopology {
 
 	}
 
-	/**
-	 * Generates the matrices used internally to set latency and bandwidth between elements.
-	 */
-	private static void generateMatrices() {
-		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
-
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
-
-		networkEnabled = true;
-	}
-
 	/**
 	 * Adds a new link in the network topology.
          * The CloudSim entities that represent the source and destination of the link
@@ -121,67 +116,33 @@ public class NetworkTopology {
 	 * @pre destId > 0
 	 * @post $none
 	 */
-	public static void addLink(int srcId, int destId, double bw, double lat) {
+	public void addTopologyLink(int srcId, int destId, double bw, double lat) {
 
 		if (graph == null) {
 			graph = new TopologicalGraph();
-		}
-
-		if (map == null) {
-			map = new HashMap<>();
+			delayGraph = new DelayGraph();
 		}
 
 		// maybe add the nodes
-		if (!map.containsKey(srcId)) {
+		if (getBriteId(srcId) < 0) {
 			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(srcId, nextIdx);
+			delayGraph.addNodes(1);
+			putMapping(srcId, nextIdx);
 			nextIdx++;
 		}
 
-		if (!map.containsKey(destId)) {
+		if (getBriteId(destId) < 0) {
 			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(destId, nextIdx);
+			delayGraph.addNodes(1);
+			putMapping(destId, nextIdx);
 			nextIdx++;
 		}
 
 		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
+		graph.addLink(new TopologicalLink(getBriteId(srcId), getBriteId(destId), (float) lat, (float) bw));
+		delayGraph.addLink(getBriteId(srcId), getBriteId(destId), (float) lat, (float) bw);
 
-		generateMatrices();
-
-	}
-
-	/**
-	 * Creates the matrix containing the available bandwidth between every pair of nodes.
-	 * 
-	 * @param graph topological graph describing the topology
-	 * @param directed true if the graph is directed; false otherwise
-	 * @return the bandwidth graph
-	 */
-	private static double[][] createBwMatrix(TopologicalGraph graph, boolean directed) {
-		int nodes = graph.getNumberOfNodes();
-
-		double[][] mtx = new double[nodes][nodes];
-
-		// cleanup matrix
-		for (int i = 0; i < nodes; i++) {
-			for (int j = 0; j < nodes; j++) {
-				mtx[i][j] = 0.0;
-			}
-		}
-
-		Iterator<TopologicalLink> iter = graph.getLinkIterator();
-		while (iter.hasNext()) {
-			TopologicalLink edge = iter.next();
-
-			mtx[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkBw();
-
-			if (!directed) {
-				mtx[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkBw();
-			}
-		}
-
-		return mtx;
+		networkEnabled = true;
 	}
 
 	/**
@@ -193,13 +154,13 @@ public class NetworkTopology {
 	 * @pre briteID >= 0
 	 * @post $none
 	 */
-	public static void mapNode(int cloudSimEntityID, int briteID) {
+	public void mapEntity(int cloudSimEntityID, int briteID) {
 		if (networkEnabled) {
 			try {
 				// this CloudSim entity was already mapped?
-				if (!map.containsKey(cloudSimEntityID)) {
-					if (!map.containsValue(briteID)) { // this BRITE node was already mapped?
-						map.put(cloudSimEntityID, briteID);
+				if (getBriteId(cloudSimEntityID) < 0) {
+					if (getEntityId(briteID) < 0) { // this BRITE node was already mapped?
+						putMapping(cloudSimEntityID, briteID);
 					} else {
 						Log.printlnConcat("Error in network mapping. BRITE node ", briteID, " already in use.");
 					}
@@ -221,10 +182,14 @@ public class NetworkTopology {
 	 * @pre cloudSimEntityID >= 0
 	 * @post $none
 	 */
-	public static void unmapNode(int cloudSimEntityID) {
+	public void unmapEntity(int cloudSimEntityID) {
 		if (networkEnabled) {
 			try {
-				map.remove(cloudSimEntityID);
+				int briteID = getBriteId(cloudSimEntityID);
+				if (briteID >= 0) {
+					briteIds[cloudSimEntityID] = -1;
+					entityIds[briteID] = -1;
+				}
 			} catch (Exception e) {
 				Log.printlnConcat("Error in network unmapping. CloudSim node: ", cloudSimEntityID);
 			}
@@ -241,20 +206,139 @@ public class NetworkTopology {
 	 * @pre destID >= 0
 	 * @post $none
 	 */
-	public static double getDelay(int srcID, int destID) {
+	public double delay(int srcID, int destID) {
 		if (networkEnabled) {
-			try {
+			int srcBriteID = getBriteId(srcID);
+			int destBriteID = getBriteId(destID);
+			int nodes = delayGraph.getNumberOfNodes();
+			if (srcBriteID >= 0 && destBriteID >= 0 && srcBriteID < nodes && destBriteID < nodes) {
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				return delayGraph.getDelay(srcBriteID, destBriteID);
+			}
+			// in case of error, just keep running and return 0.0
+		}
+		return 0.0;
+	}
 
-				return delay;
-			} catch (Exception e) {
-				// in case of error, just keep running and return 0.0
+	/**
+	 * Gets the bandwidth of the link between two nodes.
+	 * 
+	 * @param srcID ID of the CloudSim entity that represents the link's source node
+	 * @param destID ID of the CloudSim entity that represents the link's destination node
+	 * @return the bandwidth of the link, 0 if there is no link between the two nodes
+	 * @pre srcID >= 0
+	 * @pre destID >= 0
+	 * @post $none
+	 */
+	public double bandwidth(int srcID, int destID) {
+		if (networkEnabled) {
+			int srcBriteID = getBriteId(srcID);
+			int destBriteID = getBriteId(destID);
+			int nodes = delayGraph.getNumberOfNodes();
+			if (srcBriteID >= 0 && destBriteID >= 0 && srcBriteID < nodes && destBriteID < nodes) {
+				return delayGraph.getBw(srcBriteID, destBriteID);
 			}
 		}
 		return 0.0;
 	}
 
+	/**
+	 * Gets the BRITE node a CloudSim entity is mapped to.
+	 * 
+	 * @param cloudSimEntityID ID of the entity
+	 * @return the ID of the BRITE node, -1 if the entity is not mapped
+	 */
+	public int getBriteId(int cloudSimEntityID) {
+		return cloudSimEntityID >= 0 && cloudSimEntityID < briteIds.length ? briteIds[cloudSimEntityID] : -1;
+	}
+
+	/**
+	 * Gets the CloudSim entity mapped to a BRITE node.
+	 * 
+	 * @param briteID ID of the BRITE node
+	 * @return the ID of the entity, -1 if no entity is mapped to the node
+	 */
+	private int getEntityId(int briteID) {
+		return briteID >= 0 && briteID < entityIds.length ? entityIds[briteID] : -1;
+	}
+
+	private void putMapping(int cloudSimEntityID, int briteID) {
+		if (cloudSimEntityID >= briteIds.length) {
+			int length = briteIds.length;
+			briteIds = Arrays.copyOf(briteIds, Math.max(cloudSimEntityID + 1, 2 * length));
+			Arrays.fill(briteIds, length, briteIds.length, -1);
+		}
+		if (briteID >= entityIds.length) {
+			int length = entityIds.length;
+			entityIds = Arrays.copyOf(entityIds, Math.max(briteID + 1, 2 * length));
+			Arrays.fill(entityIds, length, entityIds.length, -1);
+		}
+		briteIds[cloudSimEntityID] = briteID;
+		entityIds[briteID] = cloudSimEntityID;
+	}
+
+	/**
+	 * Gets the graph computing the delays between the nodes of the network, e.g. to tune its cache.
+	 * 
+	 * @return the delay graph, <tt>null</tt> if the network is not enabled
+	 */
+	public DelayGraph getDelayGraph() {
+		return delayGraph;
+	}
+
+	/**
+	 * Gets a matrix containing the delay between every pair of nodes in the network.
+	 * 
+	 * @return a new matrix computed from the topological graph, <tt>null</tt> if the network is not enabled
+	 * @deprecated the delays are computed on demand by the {@link #getDelayGraph() delay graph};
+	 *             use {@link #delay(int, int)} instead
+	 */
+	@Deprecated
+	protected DelayMatrix_Float getDelayMatrix() {
+		return graph == null ? null : new DelayMatrix_Float(graph, false);
+	}
+
+	/**
+	 * Gets a matrix containing the bandwidth between every pair of nodes in the network.
+	 * 
+	 * @return a new matrix indexed by BRITE ids, <tt>null</tt> if the network is not enabled
+	 * @deprecated the bandwidths are kept by the {@link #getDelayGraph() delay graph};
+	 *             use {@link #bandwidth(int, int)} instead
+	 */
+	@Deprecated
+	protected double[][] getBwMatrix() {
+		if (delayGraph == null) {
+			return null;
+		}
+		int nodes = delayGraph.getNumberOfNodes();
+		double[][] mtx = new double[nodes][nodes];
+		for (int i = 0; i < nodes; i++) {
+			for (int j = 0; j < nodes; j++) {
+				mtx[i][j] = delayGraph.getBw(i, j);
+			}
+		}
+		return mtx;
+	}
+
+	/**
+	 * Gets the map between CloudSim entities and BRITE entities.
+	 * 
+	 * @return a copy of the map, where each key is a CloudSim entity ID and each value the
+	 *         corresponding BRITE entity ID
+	 * @deprecated the mapping is held in {@link #briteIds} and {@link #entityIds};
+	 *             use {@link #getBriteId(int)} instead
+	 */
+	@Deprecated
+	protected Map<Integer, Integer> getMap() {
+		Map<Integer, Integer> map = new HashMap<>();
+		for (int i = 0; i < briteIds.length; i++) {
+			if (briteIds[i] >= 0) {
+				map.put(i, briteIds[i]);
+			}
+		}
+		return map;
+	}
+
 	/**
 	 * Checks if the network simulation is working. If there were some problem during
 	 * creation of network (e.g., during parsing of BRITE file) that does not allow a proper
@@ -264,8 +348,88 @@ public class NetworkTopology {
 	 * @pre $none
 	 * @post $none
 	 */
-	public static boolean isNetworkEnabled() {
+	public boolean isEnabled() {
 		return networkEnabled;
 	}
 
+	// --------------- STATIC FACADE OVER THE CURRENT SIMULATION CONTEXT ------------------
+
+	/**
+	 * Creates the network topology of the current simulation from a BRITE file.
+	 * 
+	 * @param fileName name of the BRITE file
+	 * @see #buildTopology(String)
+	 */
+	public static void buildNetworkTopology(String fileName) {
+		CloudSim.getNetworkTopology().buildTopology(fileName);
+	}
+
+	/**
+	 * Adds a new link in the network topology of the current simulation.
+	 * 
+	 * @param srcId ID of the CloudSim entity that represents the link's source node
+	 * @param destId ID of the CloudSim entity that represents the link's destination node
+	 * @param bw Link's bandwidth
+	 * @param lat link's latency
+	 * @see #addTopologyLink(int, int, double, double)
+	 */
+	public static void addLink(int srcId, int destId, double bw, double lat) {
+		CloudSim.getNetworkTopology().addTopologyLink(srcId, destId, bw, lat);
+	}
+
+	/**
+	 * Maps a CloudSim entity to a BRITE node in the network topology of the current simulation.
+	 * 
+	 * @param cloudSimEntityID ID of the entity being mapped
+	 * @param briteID ID of the BRITE node that corresponds to the CloudSim entity
+	 * @see #mapEntity(int, int)
+	 */
+	public static void mapNode(int cloudSimEntityID, int briteID) {
+		CloudSim.getNetworkTopology().mapEntity(cloudSimEntityID, briteID);
+	}
+
+	/**
+	 * Unmaps a CloudSim entity from the network topology of the current simulation.
+	 * 
+	 * @param cloudSimEntityID ID of the entity being unmapped
+	 * @see #unmapEntity(int)
+	 */
+	public static void unmapNode(int cloudSimEntityID) {
+		CloudSim.getNetworkTopology().unmapEntity(cloudSimEntityID);
+	}
+
+	/**
+	 * Calculates the delay between two nodes of the current simulation.
+	 * 
+	 * @param srcID ID of the CloudSim entity that represents the link's source node
+	 * @param destID ID of the CloudSim entity that represents the link's destination node
+	 * @return communication delay between the two nodes
+	 * @see #delay(int, int)
+	 */
+	public static double getDelay(int srcID, int destID) {
+		return CloudSim.getNetworkTopology().delay(srcID, destID);
+	}
+
+	/**
+	 * Gets the bandwidth of the link between two nodes of the current simulation.
+	 * 
+	 * @param srcID ID of the CloudSim entity that represents the link's source node
+	 * @param destID ID of the CloudSim entity that represents the link's destination node
+	 * @return the bandwidth of the link, 0 if there is no link between the two nodes
+	 * @see #bandwidth(int, int)
+	 */
+	public static double getBw(int srcID, int destID) {
+		return CloudSim.getNetworkTopology().bandwidth(srcID, destID);
+	}
+
+	/**
+	 * Checks if the network simulation of the current simulation is working.
+	 * 
+	 * @return $true if network simulation is working, $false otherwise
+	 * @see #isEnabled()
+	 */
+	public static boolean isNetworkEnabled() {
+		return CloudSim.getNetworkTopology().isEnabled();
+	}
+
 }
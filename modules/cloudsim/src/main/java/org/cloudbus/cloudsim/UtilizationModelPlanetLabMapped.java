@@ -0,0 +1,111 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.nio.ByteBuffer;
+
+import org.cloudbus.cloudsim.util.UtilizationTraceStore;
+
+/**
+ * Defines the resource utilization model based on a <a href="https://www.planet-lab.org">PlanetLab</a>
+ * datacenter trace packed in a {@link UtilizationTraceStore}. It reads the samples straight from
+ * the mapped store and gives the same utilization as {@link UtilizationModelPlanetLabInMemory} does
+ * for the original trace file, without parsing it nor keeping a copy of its samples.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class UtilizationModelPlanetLabMapped implements UtilizationModel {
+
+	/** The scheduling interval. */
+	private double schedulingInterval;
+
+	/** The samples of the trace, as integer percents. */
+	private final ByteBuffer samples;
+
+	/** The number of samples of the trace. */
+	private final int sampleCount;
+
+	/**
+	 * Instantiates a new PlanetLab resource utilization model from a packed trace.
+	 *
+	 * @param store the store holding the trace
+	 * @param traceIndex the index of the trace in the store
+	 * @param schedulingInterval the scheduling interval
+	 */
+	public UtilizationModelPlanetLabMapped(UtilizationTraceStore store, int traceIndex, double schedulingInterval) {
+		setSchedulingInterval(schedulingInterval);
+		samples = store.getTrace(traceIndex);
+		sampleCount = samples.capacity();
+	}
+
+	/**
+	 * Instantiates a new PlanetLab resource utilization model from a packed trace.
+	 *
+	 * @param store the store holding the trace
+	 * @param traceName the name of the trace file packed in the store
+	 * @param schedulingInterval the scheduling interval
+	 * @throws IllegalArgumentException if the store has no such trace
+	 */
+	public UtilizationModelPlanetLabMapped(UtilizationTraceStore store, String traceName, double schedulingInterval) {
+		this(store, checkedIndexOf(store, traceName), schedulingInterval);
+	}
+
+	private static int checkedIndexOf(UtilizationTraceStore store, String traceName) {
+		int index = store.indexOf(traceName);
+		if (index < 0) {
+			throw new IllegalArgumentException("No trace named " + traceName);
+		}
+		return index;
+	}
+
+	@Override
+	public double getUtilization(double time) {
+		if (time % getSchedulingInterval() == 0) {
+			return getSample((int) time / (int) getSchedulingInterval());
+		}
+		int time1 = (int) Math.floor(time / getSchedulingInterval());
+		int time2 = (int) Math.ceil(time / getSchedulingInterval());
+		double utilization1 = getSample(time1);
+		double utilization2 = getSample(time2);
+		double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
+		return utilization1 + delta * (time - time1 * getSchedulingInterval());
+	}
+
+	/**
+	 * Gets a sample of the trace, the last one being repeated once past the end as
+	 * {@link UtilizationModelPlanetLabInMemory} does.
+	 *
+	 * @param index the index of the sample
+	 * @return the utilization, between 0 and 1 for a percent
+	 */
+	private double getSample(int index) {
+		if (index == sampleCount) {
+			index--;
+		}
+		return (samples.get(index) & 0xFF) / 100.0;
+	}
+
+	/**
+	 * Sets the scheduling interval.
+	 *
+	 * @param schedulingInterval the new scheduling interval
+	 */
+	public void setSchedulingInterval(double schedulingInterval) {
+		this.schedulingInterval = schedulingInterval;
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 *
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+}
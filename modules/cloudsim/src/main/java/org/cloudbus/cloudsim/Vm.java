@@ -9,13 +9,15 @@ package org.cloudbus.cloudsim;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.core.VirtualEntity;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.GuestStateMetrics;
+import org.cloudbus.cloudsim.util.StateHistoryStore;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -39,6 +41,9 @@ public class Vm implements VirtualEntity {
 	/** A Unique Identifier (UID) for the VM, that is compounded by the user id and VM id. */
 	private String uid;
 
+	/** The dense index of the VM among all the guest entities. */
+	private final int index = GuestEntity.nextIndex();
+
 	/** The size the VM image size (the amount of storage it will use, at least initially). */
 	private long size;
 
@@ -110,15 +115,11 @@ public class Vm implements VirtualEntity {
 	/** Tells whether this VM is working properly (as a host for nested guests) or has failed. */
 	private boolean failed;
 
-	/** The mips allocation history.
-	 * @TODO Instead of using a list, this attribute would be
-	 * a map, where the key can be the history time
-	 * and the value the history itself.
-	 * By this way, if one wants to get the history for a given
-	 * time, he/she doesn't have to iterate over the entire list
-	 * to find the desired entry.
-	 */
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<>();
+	/** The mips allocation history. */
+	private final StateHistoryStore stateHistory = SimulationContext.current().newStateHistory();
+
+	/** The SLA metrics of the mips allocation history. */
+	private final GuestStateMetrics stateMetrics = new GuestStateMetrics();
 
 	private int virtualizationOverhead;
 
@@ -451,6 +452,9 @@ public class Vm implements VirtualEntity {
 	public String getUid() { return uid; }
 	public void setUid(String uid) { this.uid = uid; }
 
+	@Override
+	public int getIndex() { return index; }
+
 	public int getUserId() { return userId; }
 	public void setUserId(int userId) { this.userId = userId; }
 
@@ -577,7 +581,9 @@ public class Vm implements VirtualEntity {
 
 	public HostEntity getHost() { return host; }
 
-	public List<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
+	public StateHistoryStore getStateHistoryStore() { return stateHistory; }
+
+	public GuestStateMetrics getStateMetrics() { return stateMetrics; }
 
 	/**
 	 * DEPRECATED: USE GuestEntity.getUid(userId, vmId) instead!
@@ -1,6 +1,8 @@
 package org.cloudbus.cloudsim;
 
+import org.cloudbus.cloudsim.selectionPolicies.RankedSelectionPolicy;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 
@@ -15,6 +17,13 @@ public class VmAllocationWithSelectionPolicy extends VmAllocationPolicy {
 
     private Set<HostEntity> excludedHostCandidates;
 
+    /** Hosts indexed by rank and free capacity, when the selection policy is a ranked one. */
+    private HostCapacityIndex<HostEntity> hostIndex;
+    private RankedSelectionPolicy<HostEntity> hostIndexPolicy;
+
+    /** The clock at which the ranks in the index were last refreshed. */
+    private double hostIndexClock;
+
     public VmAllocationWithSelectionPolicy(List<? extends HostEntity> list, SelectionPolicy<HostEntity> selectionPolicy) {
         super(list);
         setExcludedHostCandidates(new HashSet<>());
@@ -29,6 +38,11 @@ public class VmAllocationWithSelectionPolicy extends VmAllocationPolicy {
 
     @Override
     public HostEntity findHostForGuest(GuestEntity guest) {
+        // Same host as the scan below, in O(log n) instead of O(n) per try
+        if (getSelectionPolicy() instanceof RankedSelectionPolicy<HostEntity> ranked) {
+            return getHostIndex(ranked).findBestHost(guest);
+        }
+
         clearExcludedHostCandidates();
         int tries = 0;
 
@@ -48,6 +62,27 @@ public class VmAllocationWithSelectionPolicy extends VmAllocationPolicy {
         return null;
     }
 
+    /**
+     * Gets the host index, built on first use and rebuilt when the host list or the policy changes.
+     * The index follows the capacity changes of the hosts by itself, and all ranks are refreshed
+     * when the clock advances, since they can depend on the load (e.g. the CPU utilization of
+     * power hosts).
+     */
+    private HostCapacityIndex<HostEntity> getHostIndex(RankedSelectionPolicy<HostEntity> ranked) {
+        List<HostEntity> hosts = getHostList();
+        if (hostIndex == null || hostIndexPolicy != ranked || !hostIndex.isIndexOf(hosts)) {
+            if (hostIndex != null) {
+                hostIndex.release();
+            }
+            hostIndex = new HostCapacityIndex<>(hosts, ranked::rank);
+            hostIndexPolicy = ranked;
+        } else if (CloudSim.clock() != hostIndexClock) {
+            hostIndex.updateAll();
+        }
+        hostIndexClock = CloudSim.clock();
+        return hostIndex;
+    }
+
     public void clearExcludedHostCandidates() {
         excludedHostCandidates.clear();
     }
@@ -46,6 +46,9 @@ public abstract class VmScheduler {
 	/** The total available MIPS that can be allocated on demand for VMs. */
     private double availableMips;
 
+	/** The listeners notified whenever the available MIPS changes. */
+	private final List<Runnable> capacityListeners = new ArrayList<>(1);
+
 	/** The VMs migrating in the host (arriving). It is the list of VM ids */
 	private List<String> guestsMigratingIn;
 
@@ -221,7 +224,10 @@ public abstract class VmScheduler {
 	protected void setMipsMapAllocated(Map<String, List<Double>> mipsMapAllocated) { this.mipsMapAllocated = mipsMapAllocated; }
 
 	public double getAvailableMips() { return availableMips; }
-	protected void setAvailableMips(double availableMips) { this.availableMips = availableMips; }
+	protected void setAvailableMips(double availableMips) {
+		this.availableMips = availableMips;
+		fireCapacityChanged();
+	}
 
 	public List<String> getGuestsMigratingIn() {
 		return guestsMigratingIn;
@@ -240,4 +246,30 @@ public abstract class VmScheduler {
 
 	@Deprecated
 	public Map<String, List<Double>> getMipsMap() { return mipsMapAllocated; }
+
+	/**
+	 * Registers a listener notified whenever the available MIPS changes, e.g. to keep an index
+	 * of the hosts up to date.
+	 *
+	 * @param listener the listener
+	 */
+	public void addCapacityListener(Runnable listener) {
+		capacityListeners.add(listener);
+	}
+
+	/**
+	 * Unregisters a listener added with {@link #addCapacityListener(Runnable)}.
+	 *
+	 * @param listener the listener
+	 */
+	public void removeCapacityListener(Runnable listener) {
+		capacityListeners.remove(listener);
+	}
+
+	private void fireCapacityChanged() {
+		for (int i = 0; i < capacityListeners.size(); i++) {
+			capacityListeners.get(i).run();
+		}
+	}
+
 }
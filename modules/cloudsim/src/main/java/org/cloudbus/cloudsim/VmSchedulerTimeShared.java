@@ -25,6 +25,12 @@ import org.cloudbus.cloudsim.provisioners.PeProvisioner;
  * 
  * Each host has to use is own instance of a VmScheduler
  * that will so schedule the allocation of host's PEs for VMs running on it.
+ * <p>
+ * Allocations are applied incrementally: a new guest is spread over the free capacity of the PEs,
+ * and a deallocated guest only releases its own share. All the guests are re-allocated and spread
+ * again only when their allocations can't be derived guest by guest, i.e. while a guest is
+ * migrating in (its allocation may fail when re-allocated), after a guest is allocated twice
+ * without being deallocated, or when a subclass calls {@link #invalidateAllocations()}.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -41,6 +47,21 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	/** The number of host's PEs in use. */
 	private int pesInUse;
 
+	/** Whether the next deallocation must re-allocate all the remaining guests. */
+	private boolean rebuildNeeded;
+
+	/** Whether the next PE provisioning must spread all the guests again. */
+	private boolean respreadNeeded = true;
+
+	/** The guests allocated since the last PE provisioning, yet to be spread over the PEs. */
+	private final List<String> guestsToSpread = new ArrayList<>();
+
+	/** The guests allocated through {@link #allocatePesForGuest(GuestEntity, List)}, by uid. */
+	private final Map<String, GuestEntity> guests = new HashMap<>();
+
+	/** The MIPS available on each PE, as in its provisioner. */
+	private final double[] peAvailableMips;
+
 	/**
 	 * Instantiates a new vm time-shared scheduler.
 	 * 
@@ -49,6 +70,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	public VmSchedulerTimeShared(List<? extends Pe> pelist) {
 		super(pelist);
 		setMipsMapRequested(new HashMap<>());
+		peAvailableMips = new double[pelist.size()];
 	}
 
 	@Override
@@ -63,7 +85,17 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		} else {
 			getGuestsMigratingOut().remove(guest.getUid());
 		}
+		if (getMipsMapRequested().containsKey(guest.getUid())) {
+			// The guest was not deallocated: its previous share is still accounted for
+			invalidateAllocations();
+		}
 		boolean result = allocatePesForGuest(guest.getUid(), mipsShareRequested);
+		if (getMipsMapRequested().containsKey(guest.getUid())) {
+			guests.put(guest.getUid(), guest);
+		}
+		if (getMipsMapAllocated().containsKey(guest.getUid())) {
+			guestsToSpread.add(guest.getUid());
+		}
 		updatePeProvisioning();
 		return result;
 	}
@@ -118,11 +150,27 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	}
 
 	/**
-	 * Update allocation of VMs on PEs.
-         * @todo The method is too long and may be refactored to make clearer its
-         * responsibility.
+	 * Update allocation of VMs on PEs: spreads the guests allocated since the last update over the
+	 * free capacity of the PEs, or all the guests if the allocations have been invalidated.
 	 */
 	protected void updatePeProvisioning() {
+		if (respreadNeeded) {
+			respreadAll();
+		} else {
+			for (String vmUid : guestsToSpread) {
+				List<Double> mipsShare = getMipsMapAllocated().get(vmUid);
+				if (mipsShare != null) {
+					spread(vmUid, mipsShare);
+				}
+			}
+		}
+		guestsToSpread.clear();
+	}
+
+	/**
+	 * Spreads the MIPS of every guest over the PEs, filling them one after the other.
+	 */
+	private void respreadAll() {
 		getPeMap().clear();
 		for (Pe pe : getPeList()) {
 			pe.getPeProvisioner().deallocateMipsForAllGuests();
@@ -135,18 +183,19 @@ public class VmSchedulerTimeShared extends VmScheduler {
 
 		for (Map.Entry<String, List<Double>> entry : getMipsMapAllocated().entrySet()) {
 			String vmUid = entry.getKey();
+			GuestEntity guest = guests.get(vmUid);
 			getPeMap().put(vmUid, new LinkedList<>());
 
 			// Spread mips share among the Pes
 			for (double mips : entry.getValue()) {
 				while (mips >= 0.1) { // rounding error
 					if (availableMips >= mips) {
-						peProvisioner.allocateMipsForGuest(vmUid, mips);
+						allocateMips(peProvisioner, guest, vmUid, mips);
 						getPeMap().get(vmUid).add(pe);
 						availableMips -= mips;
 						break;
 					} else { // next pe needed, no more space
-						peProvisioner.allocateMipsForGuest(vmUid, availableMips);
+						allocateMips(peProvisioner, guest, vmUid, availableMips);
 						getPeMap().get(vmUid).add(pe);
 						mips -= availableMips;
 						if (mips <= 0.1) {
@@ -163,10 +212,109 @@ public class VmSchedulerTimeShared extends VmScheduler {
 				}
 			}
 		}
+
+		for (int i = 0; i < peAvailableMips.length; i++) {
+			peAvailableMips[i] = getPeList().get(i).getPeProvisioner().getAvailableMips();
+		}
+		respreadNeeded = false;
+	}
+
+	/**
+	 * Spreads the MIPS of a guest over the free capacity of the PEs, taking for each virtual PE the
+	 * first physical PEs with available MIPS.
+	 */
+	private void spread(String vmUid, List<Double> mipsShare) {
+		GuestEntity guest = guests.get(vmUid);
+		List<Pe> pes = new LinkedList<>();
+		getPeMap().put(vmUid, pes);
+		for (double mips : mipsShare) {
+			int i = 0;
+			while (mips >= 0.1) { // rounding error
+				while (i < peAvailableMips.length && peAvailableMips[i] <= 0) {
+					i++;
+				}
+				if (i == peAvailableMips.length) {
+					Log.printlnConcat("There is no enough MIPS (", mips, ") to accommodate VM ", vmUid);
+					break;
+				}
+				Pe pe = getPeList().get(i);
+				double allocatedMips = Math.min(mips, peAvailableMips[i]);
+				allocateMips(pe.getPeProvisioner(), guest, vmUid, allocatedMips);
+				peAvailableMips[i] = pe.getPeProvisioner().getAvailableMips();
+				pes.add(pe);
+				mips -= allocatedMips;
+				if (mips <= 0.1) {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Allocates MIPS of a PE to a guest, through the guest itself if known, so that the provisioner
+	 * doesn't need to look up its uid.
+	 */
+	private static void allocateMips(PeProvisioner peProvisioner, GuestEntity guest, String vmUid, double mips) {
+		if (guest != null) {
+			peProvisioner.allocateMipsForGuest(guest, mips);
+		} else {
+			peProvisioner.allocateMipsForGuest(vmUid, mips);
+		}
+	}
+
+	/**
+	 * Marks the allocations as not derivable guest by guest, e.g. after all of them have been
+	 * scaled: the next deallocation re-allocates all the remaining guests, and the next PE
+	 * provisioning spreads all of them again.
+	 */
+	protected void invalidateAllocations() {
+		rebuildNeeded = true;
+		respreadNeeded = true;
 	}
 
 	@Override
 	public void deallocatePesForGuest(GuestEntity guest) {
+		if (rebuildNeeded || !getGuestsMigratingIn().isEmpty()) {
+			rebuildAllocations(guest);
+			return;
+		}
+
+		// Every remaining guest would get its current allocation back: only release this one
+		guests.remove(guest.getUid());
+		List<Double> mipsShareRequested = getMipsMapRequested().remove(guest.getUid());
+		guestsToSpread.remove(guest.getUid());
+		if (mipsShareRequested != null) {
+			setPesInUse(getPesInUse() - mipsShareRequested.size());
+			getMipsMapAllocated().remove(guest.getUid());
+			if (getMipsMapAllocated().isEmpty()) {
+				setAvailableMips(PeList.getTotalMips(getPeList()));
+			} else {
+				double peMips = getPeCapacity();
+				double totalRequestedMips = 0;
+				for (double mips : mipsShareRequested) {
+					totalRequestedMips += Math.min(mips, peMips);
+				}
+				setAvailableMips(getAvailableMips() + totalRequestedMips);
+			}
+		}
+
+		if (getPeMap().remove(guest.getUid()) != null) {
+			for (int i = 0; i < peAvailableMips.length; i++) {
+				PeProvisioner peProvisioner = getPeList().get(i).getPeProvisioner();
+				peProvisioner.deallocateMipsForGuest(guest);
+				peAvailableMips[i] = peProvisioner.getAvailableMips();
+			}
+		}
+		updatePeProvisioning();
+	}
+
+	/**
+	 * Deallocates a guest by re-allocating all the remaining ones from their requests.
+	 *
+	 * @param guest the guest to deallocate
+	 */
+	private void rebuildAllocations(GuestEntity guest) {
+		guests.remove(guest.getUid());
 		getMipsMapRequested().remove(guest.getUid());
 		setPesInUse(0);
 		getMipsMapAllocated().clear();
@@ -177,9 +325,15 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		}
 
 		// Re-allocate to remaining guests
+		rebuildNeeded = false;
 		for (Map.Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
 			allocatePesForGuest(entry.getKey(), entry.getValue());
 		}
+		if (getMipsMapAllocated().size() < getMipsMapRequested().size()) {
+			// Some guests could not be re-allocated, and would be retried next time
+			rebuildNeeded = true;
+		}
+		respreadNeeded = true;
 		updatePeProvisioning();
 	}
 
@@ -194,6 +348,10 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		super.deallocatePesForAllGuests();
 		getMipsMapRequested().clear();
 		setPesInUse(0);
+		rebuildNeeded = false;
+		respreadNeeded = true;
+		guestsToSpread.clear();
+		guests.clear();
 	}
 
 	/**
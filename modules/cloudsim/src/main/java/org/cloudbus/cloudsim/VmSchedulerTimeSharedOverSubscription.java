@@ -169,6 +169,9 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 
 		// As the host is oversubscribed, there no more available MIPS
 		setAvailableMips(0);
+
+		// Every allocation depends on the others until the host is no longer oversubscribed
+		invalidateAllocations();
 	}
 
 }
@@ -10,9 +10,11 @@ package org.cloudbus.cloudsim.container.core;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.util.GuestStateMetrics;
+import org.cloudbus.cloudsim.util.StateHistoryStore;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -30,6 +32,9 @@ public class Container implements GuestEntity {
     /** The uid. */
     private String uid;
 
+    /** The dense index of the container among all the guest entities. */
+    private final int index = GuestEntity.nextIndex();
+
     /** The size. */
     private long size;
 
@@ -74,7 +79,10 @@ public class Container implements GuestEntity {
     private boolean beingInstantiated;
 
     /** The mips allocation history. */
-    private final List<VmStateHistoryEntry> stateHistory = new LinkedList<>();
+    private final StateHistoryStore stateHistory = SimulationContext.current().newStateHistory();
+
+    /** The SLA metrics of the mips allocation history. */
+    private final GuestStateMetrics stateMetrics = new GuestStateMetrics();
 
     /** The previous time. */
     private double previousTime;
@@ -247,6 +255,9 @@ public class Container implements GuestEntity {
     public String getUid() { return uid; }
     public void setUid(String uid) { this.uid = uid; }
 
+    @Override
+    public int getIndex() { return index; }
+
     public long getSize() { return size; }
     public void setSize(long size) { this.size = size; }
 
@@ -309,5 +320,7 @@ public class Container implements GuestEntity {
 
     public boolean isBeingInstantiated() { return beingInstantiated; }
 
-    public List<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
+    public StateHistoryStore getStateHistoryStore() { return stateHistory; }
+
+    public GuestStateMetrics getStateMetrics() { return stateMetrics; }
 }
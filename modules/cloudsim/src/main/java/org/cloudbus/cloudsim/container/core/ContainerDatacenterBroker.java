@@ -12,6 +12,7 @@ import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.cloudbus.cloudsim.core.*;
 import org.cloudbus.cloudsim.lists.CloudletList;
+import org.cloudbus.cloudsim.lists.IdIndexedList;
 import org.cloudbus.cloudsim.lists.VmList;
 
 import java.util.ArrayList;
@@ -70,11 +71,11 @@ public class ContainerDatacenterBroker extends DatacenterBroker {
     public ContainerDatacenterBroker(String name, double overBookingfactor) throws Exception {
         super(name);
 
-        setGuestList(new ArrayList<>());
-        setContainerList(new ArrayList<>());
-        setGuestsCreatedList(new ArrayList<>());
-        setContainersCreatedList(new ArrayList<>());
-        setCloudletList(new ArrayList<>());
+        setGuestList(new IdIndexedList<>(GuestEntity::getId));
+        setContainerList(new IdIndexedList<>(GuestEntity::getId));
+        setGuestsCreatedList(new IdIndexedList<>(GuestEntity::getId));
+        setContainersCreatedList(new IdIndexedList<>(GuestEntity::getId));
+        setCloudletList(new IdIndexedList<>(Cloudlet::getCloudletId));
         setCloudletSubmittedList(new ArrayList<>());
         setCloudletReceivedList(new ArrayList<>());
         cloudletsSubmitted = 0;
@@ -345,6 +345,28 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
         setCloudletSubmitted(CloudSim.clock());
     }
 
+    /**
+     * Closes the metric writers, so that their buffered rows reach the log files.
+     */
+    @Override
+    public void shutdownEntity() {
+        super.shutdownEntity();
+        closeWriters(getContainerMigrationWriter(), getVmMigrationWriter(), getDatacenterEnergyWriter());
+    }
+
+    protected static void closeWriters(CustomCSVWriter... writers) {
+        for (CustomCSVWriter writer : writers) {
+            if (writer == null) {
+                continue;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Gets the power.
      *
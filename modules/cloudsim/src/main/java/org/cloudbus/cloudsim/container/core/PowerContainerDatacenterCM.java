@@ -231,6 +231,12 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
     }
 
+    @Override
+    public void shutdownEntity() {
+        super.shutdownEntity();
+        closeWriters(getNewlyCreatedVmWriter());
+    }
+
     @Override
     protected void processVmCreate(SimEvent ev, boolean ack) {
 
@@ -1,21 +1,26 @@
 package org.cloudbus.cloudsim.container.utils;
 
-import com.opencsv.CSVWriter;
-import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.util.AsyncMetricsSink;
+import org.cloudbus.cloudsim.util.CsvMetricsSink;
+import org.cloudbus.cloudsim.util.MetricsSink;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 
 /**
+ * Writes rows to a CSV file through a {@link MetricsSink} kept open until {@link #close()}:
+ * the rows are buffered and written by a background thread, so they are all in the file
+ * only once the writer is flushed or closed. A writer left open is closed when the JVM shuts down.
+ *
  * Created by sareh on 30/07/15.
  * Modified by Remo Andreoli, Jun 2024.
  */
-public class CustomCSVWriter {
+public class CustomCSVWriter implements Closeable {
     String fileAddress;
     boolean newFileCreated = false;
 
-    CSVWriter writer;
+    MetricsSink sink;
 
     public CustomCSVWriter(String fileAddress) throws IOException {
         File f = new File(fileAddress);
@@ -36,22 +41,42 @@ public class CustomCSVWriter {
         writeTofile(entries, true);
     }
 
+    /**
+     * Writes a row.
+     *
+     * @param entries the values of the row
+     * @param appendMode whether the row is appended to the file, rather than replacing its content
+     * @throws IOException if the file cannot be written
+     */
     public void writeTofile(String[] entries, boolean appendMode) throws IOException {
-        // feed in your array (or convert your data to an array)
-        try {
-            writer = new CSVWriter(new FileWriter(fileAddress, appendMode),
-                    ',',
-                    CSVWriter.NO_QUOTE_CHARACTER,
-                    CSVWriter.DEFAULT_ESCAPE_CHARACTER,
-                    CSVWriter.DEFAULT_LINE_END);
+        if (!appendMode) {
+            close();
+        }
+        if (sink == null) {
+            sink = new AsyncMetricsSink(new CsvMetricsSink(fileAddress, appendMode));
+        }
+        sink.write(entries);
+    }
 
-        } catch (IOException e) {
-            Log.printlnConcat("Couldn't find the file to write to: ", fileAddress);
+    /**
+     * Waits until the rows written so far are in the file.
+     */
+    public void flush() throws IOException {
+        if (sink != null) {
+            sink.flush();
         }
+    }
 
-        writer.writeNext(entries);
-        writer.flush();
-        writer.close();
+    /**
+     * Writes the pending rows and closes the file; a later row opens it again, in append mode.
+     */
+    @Override
+    public void close() throws IOException {
+        if (sink != null) {
+            MetricsSink closing = sink;
+            sink = null;
+            closing.close();
+        }
     }
 
     public boolean fileExistedAlready() {
@@ -61,7 +86,3 @@ public class CustomCSVWriter {
     public String getFileAddress() { return fileAddress; }
     public void setFileAddress(String fileAddress) { this.fileAddress = fileAddress; }
 }
-
-
-
-
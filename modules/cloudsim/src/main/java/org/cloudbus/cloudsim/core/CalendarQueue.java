@@ -0,0 +1,462 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A calendar queue (R. Brown, "Calendar queues: a fast O(1) priority queue implementation for the
+ * simulation event set problem", CACM 31(10), 1988) implementing the {@link FutureEventList}.
+ * <p>
+ * Time is divided into "days" of a fixed width and the days are mapped round-robin on an array of
+ * buckets, each one a list sorted by time. Insertion goes to the bucket of the event's day, removal
+ * scans forward from the current day. The number of buckets follows the number of distinct event
+ * times and the day width is re-estimated from the gaps between the first times whenever the
+ * calendar is resized, so both operations take amortised constant time as long as event times are
+ * not wildly skewed.
+ * <p>
+ * Events sharing the same time are common in CloudSim (e.g. all the cloudlets finishing at the same
+ * update): the bucket lists hold one group per distinct time, and the events of a group are kept in
+ * insertion order, so adding an event at an existing time does not depend on how many events share it.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class CalendarQueue implements FutureEventList {
+
+	/** The minimal number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The number of distinct times sampled to estimate the day width. */
+	private static final int WIDTH_SAMPLE = 25;
+
+	/** An event in a group. */
+	private static final class Entry {
+		final SimEvent event;
+		Entry next;
+
+		Entry(SimEvent event) {
+			this.event = event;
+		}
+	}
+
+	/** The events with the same time, in {@link SimEvent#compareTo(SimEvent)} order. */
+	private static final class Group {
+		final double time;
+		long day;
+		Entry head;
+		Entry tail;
+		Group next;
+
+		Group(double time) {
+			this.time = time;
+		}
+	}
+
+	/** The buckets, first and last group of each list sorted by time. */
+	private Group[] heads;
+	private Group[] tails;
+
+	/** The bucket count minus one, the bucket count being a power of 2. */
+	private int mask;
+
+	/** The width of a day. */
+	private double width;
+
+	/** A lower bound on the day of the first event. */
+	private long currentDay;
+
+	/** The number of events. */
+	private int size;
+
+	/** The number of groups, i.e. of distinct event times. */
+	private int groups;
+
+	/** A incremental number used for event attribute */
+	private long serial = 0;
+
+	/** Modification counter for the fail-fast iterator. */
+	private int modCount;
+
+	/**
+	 * Creates an empty calendar queue with a day width of 1 time unit, adapted as events are added.
+	 */
+	public CalendarQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Creates an empty calendar queue.
+	 *
+	 * @param initialWidth the initial day width, in simulation time units
+	 */
+	public CalendarQueue(double initialWidth) {
+		if (!(initialWidth > 0) || Double.isInfinite(initialWidth)) {
+			throw new IllegalArgumentException("The day width must be positive and finite, but is: " + initialWidth);
+		}
+		width = initialWidth;
+		allocate(MIN_BUCKETS);
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		insert(newEvent, false);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(0);
+		insert(newEvent, true);
+	}
+
+	@Override
+	public SimEvent peek() {
+		Group first = findFirst();
+		return first == null ? null : first.head.event;
+	}
+
+	@Override
+	public SimEvent poll() {
+		Group first = findFirst();
+		if (first == null) {
+			return null;
+		}
+		Entry entry = first.head;
+		first.head = entry.next;
+		if (first.head == null) {
+			// The first group is the head of its bucket
+			unlinkGroup((int) (first.day & mask), null, first);
+			if (groups < (mask + 1) / 4 && mask + 1 > MIN_BUCKETS) {
+				resize((mask + 1) / 2);
+			}
+		}
+		size--;
+		modCount++;
+		return entry.event;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		allocate(MIN_BUCKETS);
+		size = 0;
+		groups = 0;
+		modCount++;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<>() {
+			// Position of the next event, and of the nodes preceding it in their lists
+			private int bucket = -1;
+			private Group group;
+			private Group groupPrevious;
+			private Entry entry;
+			private Entry entryPrevious;
+
+			// Position of the event last returned, null once removed
+			private int lastBucket;
+			private Group lastGroup;
+			private Group lastGroupPrevious;
+			private Entry last;
+			private Entry lastPrevious;
+
+			private int expectedModCount = modCount;
+
+			{
+				nextGroup();
+			}
+
+			private void nextGroup() {
+				groupPrevious = group;
+				group = group == null ? null : group.next;
+				while (group == null && ++bucket < heads.length) {
+					groupPrevious = null;
+					group = heads[bucket];
+				}
+				entryPrevious = null;
+				entry = group == null ? null : group.head;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return entry != null;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (entry == null) {
+					throw new NoSuchElementException();
+				}
+				lastBucket = bucket;
+				lastGroup = group;
+				lastGroupPrevious = groupPrevious;
+				last = entry;
+				lastPrevious = entryPrevious;
+				if (entry.next != null) {
+					entryPrevious = entry;
+					entry = entry.next;
+				} else {
+					nextGroup();
+				}
+				return last.event;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (lastPrevious == null) {
+					lastGroup.head = last.next;
+				} else {
+					lastPrevious.next = last.next;
+				}
+				if (lastGroup.tail == last) {
+					lastGroup.tail = lastPrevious;
+				}
+				if (entryPrevious == last) {
+					entryPrevious = lastPrevious;
+				}
+				if (lastGroup.head == null) {
+					unlinkGroup(lastBucket, lastGroupPrevious, lastGroup);
+					if (groupPrevious == lastGroup) {
+						groupPrevious = lastGroupPrevious;
+					}
+				}
+				size--;
+				modCount++;
+				last = null;
+				expectedModCount = modCount;
+			}
+		};
+	}
+
+	/**
+	 * Adds an event to the group of its time, creating the group if needed.
+	 *
+	 * @param first whether the event goes before the other events of the group
+	 */
+	private void insert(SimEvent event, boolean first) {
+		double time = event.eventTime();
+		long day = dayOf(time);
+		int bucket = (int) (day & mask);
+		Group group = tails[bucket];
+		if (group == null || group.time < time) {
+			group = linkGroup(new Group(time), day, bucket);
+		} else if (group.time != time) {
+			group = heads[bucket];
+			while (group.time < time) {
+				group = group.next;
+			}
+			if (group.time != time) {
+				group = linkGroup(new Group(time), day, bucket);
+			}
+		}
+
+		Entry entry = new Entry(event);
+		if (group.head == null) {
+			group.head = entry;
+			group.tail = entry;
+		} else if (first) {
+			entry.next = group.head;
+			group.head = entry;
+		} else {
+			group.tail.next = entry;
+			group.tail = entry;
+		}
+		if (size == 0 || day < currentDay) {
+			currentDay = day;
+		}
+		size++;
+		modCount++;
+		if (groups > 2 * (mask + 1)) {
+			resize(2 * (mask + 1));
+		}
+	}
+
+	/**
+	 * Links a group in a bucket, after the groups with a lower time.
+	 *
+	 * @return the group
+	 */
+	private Group linkGroup(Group group, long day, int bucket) {
+		group.day = day;
+		Group tail = tails[bucket];
+		if (tail == null) {
+			group.next = null;
+			heads[bucket] = group;
+			tails[bucket] = group;
+		} else if (tail.time < group.time) {
+			group.next = null;
+			tail.next = group;
+			tails[bucket] = group;
+		} else {
+			Group previous = null;
+			Group current = heads[bucket];
+			while (current.time < group.time) {
+				previous = current;
+				current = current.next;
+			}
+			group.next = current;
+			if (previous == null) {
+				heads[bucket] = group;
+			} else {
+				previous.next = group;
+			}
+		}
+		groups++;
+		return group;
+	}
+
+	/**
+	 * Unlinks an empty group.
+	 */
+	private void unlinkGroup(int bucket, Group previous, Group group) {
+		if (previous == null) {
+			heads[bucket] = group.next;
+		} else {
+			previous.next = group.next;
+		}
+		if (tails[bucket] == group) {
+			tails[bucket] = previous;
+		}
+		groups--;
+	}
+
+	/**
+	 * Finds the group of the first event: scans at most one year of buckets from the current day,
+	 * then falls back to a direct search among the bucket heads (events far in the future).
+	 */
+	private Group findFirst() {
+		if (size == 0) {
+			return null;
+		}
+		for (int i = 0; i <= mask; i++, currentDay++) {
+			Group head = heads[(int) (currentDay & mask)];
+			if (head != null && head.day == currentDay) {
+				return head;
+			}
+		}
+		Group first = null;
+		for (Group head : heads) {
+			if (head != null && (first == null || head.time < first.time)) {
+				first = head;
+			}
+		}
+		currentDay = first.day;
+		return first;
+	}
+
+	/**
+	 * Rebuilds the calendar with a new bucket count and a day width estimated from the first times.
+	 * Groups are moved as a whole, so the order of their events is kept.
+	 */
+	private void resize(int buckets) {
+		Group[] oldHeads = heads;
+		width = estimateWidth();
+		allocate(buckets);
+		groups = 0;
+		long firstDay = Long.MAX_VALUE;
+		for (Group head : oldHeads) {
+			Group group = head;
+			while (group != null) {
+				Group next = group.next;
+				long day = dayOf(group.time);
+				linkGroup(group, day, (int) (day & mask));
+				firstDay = Math.min(firstDay, day);
+				group = next;
+			}
+		}
+		if (groups > 0) {
+			currentDay = firstDay;
+		}
+	}
+
+	/**
+	 * Estimates the day width as three times the average gap between the first distinct times,
+	 * ignoring gaps larger than twice the average (Brown's heuristic).
+	 */
+	private double estimateWidth() {
+		int samples = Math.min(groups, WIDTH_SAMPLE);
+		if (samples < 2) {
+			return width;
+		}
+		double[] times = new double[samples];
+		int found = 0;
+		long day = currentDay;
+		// Walk the calendar in order without removing anything
+		Group[] cursor = heads.clone();
+		while (found < samples) {
+			Group first = null;
+			int firstBucket = -1;
+			for (int i = 0; i <= mask && first == null; i++, day++) {
+				int bucket = (int) (day & mask);
+				if (cursor[bucket] != null && cursor[bucket].day == day) {
+					first = cursor[bucket];
+					firstBucket = bucket;
+				}
+			}
+			if (first == null) {
+				for (int bucket = 0; bucket <= mask; bucket++) {
+					if (cursor[bucket] != null && (first == null || cursor[bucket].time < first.time)) {
+						first = cursor[bucket];
+						firstBucket = bucket;
+					}
+				}
+			}
+			day = first.day;
+			times[found++] = first.time;
+			cursor[firstBucket] = first.next;
+		}
+
+		double average = (times[samples - 1] - times[0]) / (samples - 1);
+		if (!(average > 0) || Double.isInfinite(average)) {
+			return width;
+		}
+		double sum = 0;
+		int gaps = 0;
+		for (int i = 1; i < samples; i++) {
+			double gap = times[i] - times[i - 1];
+			if (gap <= 2 * average) {
+				sum += gap;
+				gaps++;
+			}
+		}
+		double estimate = 3 * sum / gaps;
+		return estimate > 0 && !Double.isInfinite(estimate) ? estimate : width;
+	}
+
+	private void allocate(int buckets) {
+		heads = new Group[buckets];
+		tails = new Group[buckets];
+		mask = buckets - 1;
+	}
+
+	private long dayOf(double time) {
+		return (long) Math.floor(time / width);
+	}
+}
@@ -8,16 +8,11 @@
 
 package org.cloudbus.cloudsim.core;
 
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 import org.cloudbus.cloudsim.core.predicates.PredicateAny;
 import org.cloudbus.cloudsim.core.predicates.PredicateNone;
@@ -27,6 +22,9 @@ import org.cloudbus.cloudsim.core.predicates.PredicateNone;
  * The main class of the simulation.
  * It provides all the methods to start, pause and stop simulated entities.
  * It stores and dispatches all the discrete events to be processed at run-time by the entities.
+ * <p>
+ * The simulation state is owned by a {@link SimulationContext}; the static methods of this class
+ * operate on the context of the calling thread (see {@link SimulationContext#current()}).
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -38,58 +36,31 @@ public class CloudSim {
 	/** The Constant CLOUDSIM_VERSION_STRING. */
 	private static final String CLOUDSIM_VERSION_STRING = "7.0";
 
-	/** The id of CIS entity. */
-	private static int cisId = -1;
-
-	/** The id of CloudSimShutdown entity. */
-	private static int shutdownId = -1;
-
-	/** The CIS object. */
-	private static CloudInformationService cis = null;
-
-	/** The Constant NOT_FOUND. */
-	private static final int NOT_FOUND = -1;
-
-	/** The trace flag. */
-	private static boolean traceFlag = false;
+	// The two standard predicates
 
-	/** The calendar. */
-	private static Calendar calendar = null;
+	/** A standard predicate that matches any event. */
+	public final static PredicateAny SIM_ANY = new PredicateAny();
 
-	/** The termination time. */
-	private static double terminateAt = -1;
+	/** A standard predicate that does not match any events. */
+	public final static PredicateNone SIM_NONE = new PredicateNone();
 
-	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
-	private static double minTimeBetweenEvents = 0.01;
-	
 	/**
-	 * Initialises all the common attributes.
+	 * Gets the simulation context of the calling thread.
 	 * 
-	 * @param _calendar the _calendar
-	 * @param _traceFlag the _trace flag
-	 * @param numUser number of users
-	 * @throws Exception This happens when creating this entity before initialising CloudSim package
-	 *             or this entity name is <tt>null</tt> or empty
-	 * @pre $none
-	 * @post $none
+	 * @return the current simulation context
+	 * @see SimulationContext#current()
 	 */
-	private static void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
-			throws Exception {
-		initialize();
-		// NOTE: the order for the below 3 lines are important
-		traceFlag = _traceFlag;
-
-		// Set the current Wall clock time as the starting time of
-		// simulation
-		if (_calendar == null) {
-			calendar = Calendar.getInstance();
-		} else {
-			calendar = _calendar;
-		}
+	public static SimulationContext context() {
+		return SimulationContext.current();
+	}
 
-		// creates a CloudSimShutdown object
-		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
-		shutdownId = shutdown.getId();
+	/**
+	 * Gets the network topology of the current simulation.
+	 * 
+	 * @return the network topology
+	 */
+	public static NetworkTopology getNetworkTopology() {
+		return context().getNetworkTopology();
 	}
 
 	/**
@@ -114,18 +85,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void init(int numUser, Calendar cal, boolean traceFlag) {
-		try {
-			initCommonVariable(cal, traceFlag, numUser);
-
-			// create a GIS object
-			cis = new CloudInformationService("CloudInformationService");
-
-			// set all the above entity IDs
-			cisId = cis.getId();
-		} catch (Exception s) {
-			Log.println("CloudSim.init(): The simulation has been terminated due to an unexpected error");
-			Log.println(s.getMessage());
-		}
+		context().init(numUser, cal, traceFlag);
 	}
 
 	/**
@@ -152,16 +112,28 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void init(int numUser, Calendar cal, boolean traceFlag, double minTimeBetweenEvents) {
-	    if (minTimeBetweenEvents <= 0) {
-		throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + minTimeBetweenEvents);
-	    }
-	    
-	    init(numUser, cal, traceFlag);
-	    CloudSim.minTimeBetweenEvents = minTimeBetweenEvents;
+		context().init(numUser, cal, traceFlag, minTimeBetweenEvents);
 	}
-	
-	
-	
+
+	/**
+	 * Initialises CloudSim parameters with a given future event list implementation, e.g. a
+	 * {@link CalendarQueue} for simulations with many pending events. This method should be called
+	 * before creating any entities.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param futureEventList the future event list to use for the run; {@link EventQueue} is the default
+	 * @see #init(int, Calendar, boolean)
+	 * @pre numUser >= 0
+	 * @pre futureEventList != null
+	 * @post $none
+	 */
+	public static void init(int numUser, Calendar cal, boolean traceFlag, FutureEventList futureEventList) {
+		context().init(numUser, cal, traceFlag, futureEventList);
+	}
+
 	/**
 	 * Starts the execution of CloudSim simulation. It waits for complete execution of all entities,
 	 * i.e. until all entities threads reach non-RUNNABLE state or there are no more events in the
@@ -179,16 +151,7 @@ public class CloudSim {
 	public static double startSimulation() throws NullPointerException {
 		Log.printlnConcat("Starting CloudSim version ", CLOUDSIM_VERSION_STRING);
 		try {
-			double clock = run();
-
-			// reset all static variables
-			cisId = -1;
-			shutdownId = -1;
-			cis = null;
-			calendar = null;
-			traceFlag = false;
-
-			return clock;
+			return context().startSimulation();
 		} catch (IllegalArgumentException e) {
 			e.printStackTrace();
 			throw new NullPointerException("CloudSim.startCloudSimulation() :"
@@ -222,8 +185,7 @@ public class CloudSim {
 	 * @return true, if successful; false otherwise.
 	 */
 	public static void terminateSimulation() {
-		running = false;
-		printMessage("Simulation: Reached termination time.");
+		context().terminateSimulation();
 	}
 
 	/**
@@ -233,21 +195,15 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean terminateSimulation(double time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			terminateAt = time;
-		}
-		return true;
+		return context().terminateSimulation(time);
 	}
 
-	
 	/**
 	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded. 
 	 * @return the minimum time between events.
 	 */
 	public static double getMinTimeBetweenEvents() {
-	    return minTimeBetweenEvents;
+		return context().getMinTimeBetweenEvents();
 	}
 
 	/**
@@ -258,13 +214,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static Calendar getSimulationCalendar() {
-		// make a new copy
-		Calendar clone = calendar;
-		if (calendar != null) {
-			clone = (Calendar) calendar.clone();
-		}
-
-		return clone;
+		return context().getSimulationCalendar();
 	}
 
 	/**
@@ -275,7 +225,7 @@ public class CloudSim {
 	 * @post $result >= -1
 	 */
 	public static int getCloudInfoServiceEntityId() {
-		return cisId;
+		return context().getCloudInfoServiceEntityId();
 	}
 
 	/**
@@ -288,77 +238,24 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static List<Integer> getCloudResourceList() {
-		if (cis == null) {
-			return null;
-		}
-
-		return cis.getList();
+		return context().getCloudResourceList();
 	}
 
-	// ======== SIMULATION METHODS ===============//
-
-	/** The entities. */
-	private static List<SimEntity> entities;
-
-	/** The future event queue. */
-	protected static EventQueue future;
-
-
-	/** 
-         * The current simulation clock.
-         */
-	private static double clock;
-
-	/** Flag for checking if the simulation is running. */
-	private static boolean running;
-
-	/** The entities by name. */
-	private static Map<String, SimEntity> entitiesByName;
-
-	// The predicates used in entity wait methods
-	/** The wait predicates. */
-	private static Map<Integer, Predicate> waitPredicates;
-
-	/** The paused. */
-	private static boolean paused = false;
-
-	/** The pause at. */
-	private static long pauseAt = -1;
-
-	/** The abrupt terminate. */
-	private static boolean abruptTerminate = false;
-
 	/**
 	 * Initialise the simulation for stand alone simulations. This function should be called at the
 	 * start of the simulation.
 	 */
 	protected static void initialize() {
-		Log.println("Initialising...");
-		entities = new ArrayList<>();
-		entitiesByName = new LinkedHashMap<>();
-		future = new EventQueue();
-		waitPredicates = new HashMap<>();
-		clock = 0;
-		running = false;
+		context().initialize();
 	}
 
-	// The two standard predicates
-
-	/** A standard predicate that matches any event. */
-	public final static PredicateAny SIM_ANY = new PredicateAny();
-
-	/** A standard predicate that does not match any events. */
-	public final static PredicateNone SIM_NONE = new PredicateNone();
-
-	// Public access methods
-
 	/**
 	 * Get the current simulation time.
 	 * 
 	 * @return the simulation time
 	 */
 	public static double clock() {
-		return clock;
+		return context().clock();
 	}
 
 	/**
@@ -367,7 +264,7 @@ public class CloudSim {
 	 * @return The number of entities
 	 */
 	public static int getNumEntities() {
-		return entities.size();
+		return context().getNumEntities();
 	}
 
 	/**
@@ -377,7 +274,7 @@ public class CloudSim {
 	 * @return The entity, or if it could not be found
 	 */
 	public static SimEntity getEntity(int id) {
-		return entities.get(id);
+		return context().getEntity(id);
 	}
 
 	/**
@@ -387,7 +284,7 @@ public class CloudSim {
 	 * @return The entity
 	 */
 	public static SimEntity getEntity(String name) {
-		return entitiesByName.get(name);
+		return context().getEntity(name);
 	}
 
 	/**
@@ -397,12 +294,7 @@ public class CloudSim {
 	 * @return The entity's unique id number
 	 */
 	public static int getEntityId(String name) {
-		SimEntity obj = entitiesByName.get(name);
-		if (obj == null) {
-			return NOT_FOUND;
-		} else {
-			return obj.getId();
-		}
+		return context().getEntityId(name);
 	}
 
 	/**
@@ -414,11 +306,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static String getEntityName(int entityID) {
-		try {
-			return getEntity(entityID).getName();
-		} catch (Exception e) {
-			return null;
-		}
+		return context().getEntityName(entityID);
 	}
 
 	/**
@@ -442,14 +330,9 @@ public class CloudSim {
 	 * @return the entity iterator
 	 */
 	public static List<SimEntity> getEntityList() {
-		// create a new list to prevent the user from changing
-		// the list of entities used by Simulation
-		List<SimEntity> list = new LinkedList<>(entities);
-		return list;
+		return context().getEntityList();
 	}
 
-	// Public update methods
-
 	/**
 	 * Add a new entity to the simulation. This is present for compatibility with existing
 	 * simulations since entities are automatically added to the simulation upon instantiation.
@@ -457,18 +340,7 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	public static void addEntity(SimEntity e) {
-		SimEvent evt;
-		if (running) {
-			// Post an event to make this entity
-			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, CloudActionTags.BLANK, e);
-			future.addEvent(evt);
-		}
-		if (e.getId() == -1) { // Only add once!
-			int id = entities.size();
-			e.setId(id);
-			entities.add(e);
-			entitiesByName.put(e.getName(), e);
-		}
+		context().addEntity(e);
 	}
 
 	/**
@@ -478,48 +350,14 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	protected static void addEntityDynamically(SimEntity e) {
-		if (e == null) {
-			throw new IllegalArgumentException("Adding null entity.");
-		} else {
-			printMessage("Adding: " + e.getName());
-		}
-		e.startEntity();
-	}
-
-	/**
-	 * Internal method used to run one tick of the simulation. This method should <b>not</b> be
-	 * called in simulations.
-	 * 
-	 * @return true if there are events to be processed, false if event queue is empty
-	 */
-	private static boolean runClockTick() {
-		SimEntity ent;
-		for (int i = 0; i < entities.size(); i++) {
-			ent = entities.get(i);
-			if (ent.getState() == SimEntity.EntityStatus.RUNNABLE) {
-				ent.run();
-			}
-		}
-
-		if (future.isEmpty()) {
-			running = false;
-			printMessage(CloudSim.clock()+": Simulation: No more future events");
-			return false;
-		}
-
-		double clk = future.peek().eventTime();
-		while (!future.isEmpty() && future.peek().eventTime() == clk) {
-			dispatchEvent(future.poll());
-		}
-
-		return true;
+		context().addEntityDynamically(e);
 	}
 
 	/**
 	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
 	 */
 	public static void runStop() {
-		printMessage("Simulation completed.");
+		context().runStop();
 	}
 
 	/**
@@ -529,9 +367,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void pause(int srcId, double delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, srcId);
-		future.addEvent(e);
-		entities.get(srcId).setState(SimEntity.EntityStatus.HOLDING);
+		context().pause(srcId, delay);
 	}
 
 	/**
@@ -542,17 +378,10 @@ public class CloudSim {
 	 * @param delay the delay
 	 * @param tag the tag
 	 * @param data the data
+	 * @return the scheduled event, which can be cancelled with {@link #cancel(SimEvent)}
 	 */
-	public static void send(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-		if(delay >= Double.MAX_VALUE) {
-			throw new RuntimeException("Send delay can't be infinite.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
-		future.addEvent(e);
+	public static SimEvent send(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		return context().send(srcId, dstId, delay, tag, data);
 	}
 
 	/**
@@ -563,14 +392,10 @@ public class CloudSim {
 	 * @param delay the delay
 	 * @param tag the tag
 	 * @param data the data
+	 * @return the scheduled event, which can be cancelled with {@link #cancel(SimEvent)}
 	 */
-	public static void sendFirst(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
-		future.addEventFirst(e);
+	public static SimEvent sendFirst(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		return context().sendFirst(srcId, dstId, delay, tag, data);
 	}
 
 	/**
@@ -582,11 +407,17 @@ public class CloudSim {
 	 * @param p the p
 	 */
 	public static void wait(int srcId, Predicate p) {
-		entities.get(srcId).setState(SimEntity.EntityStatus.WAITING);
-		if (p != SIM_ANY) {
-			// If a predicate has been used store it in order to check it
-			waitPredicates.put(srcId, p);
-		}
+		context().wait(srcId, p);
+	}
+
+	/**
+	 * Cancels an event that has not been dispatched yet, in constant time.
+	 * 
+	 * @param e the event returned by {@link #send} or {@link #sendFirst}
+	 * @return <tt>true</tt> if the event was pending and is now cancelled
+	 */
+	public static boolean cancel(SimEvent e) {
+		return context().cancel(e);
 	}
 
 	/**
@@ -597,16 +428,7 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent cancel(int srcId, Predicate p) {
-		SimEvent ev;
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSourceId() == srcId && p.match(ev)) {
-				iter.remove();
-				return ev;
-			}
-		}
-		return null;
+		return context().cancel(srcId, p);
 	}
 
 	/**
@@ -618,59 +440,7 @@ public class CloudSim {
 	 * @return true, if successful
 	 */
 	public static boolean cancelAll(int srcId, Predicate p) {
-		SimEvent ev;
-		int previousSize = future.size();
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSourceId() == srcId && p.match(ev)) {
-				iter.remove();
-			}
-		}
-		return previousSize < future.size();
-	}
-
-	//
-	// Private internal methods
-	//
-
-	/**
-	 * Dispatch event to destination entity
-	 * 
-	 * @param e the e
-	 */
-	private static void dispatchEvent(SimEvent e) {
-		int dstId = e.getDestinationId();
-		int srcId = e.getSourceId();
-		SimEntity destEnt = entities.get(dstId);
-
-		// Update the system's clock
-		if (e.eventTime() < clock) {
-			throw new IllegalArgumentException("Past event detected.");
-		}
-		clock = e.eventTime();
-
-		// Ok now process it
-		switch (e.getType()) {
-			case SimEvent.ENULL -> throw new IllegalArgumentException("Event has a null type.");
-			case SimEvent.CREATE -> {
-				addEntityDynamically((SimEntity) e.getData());
-			}
-			case SimEvent.SEND -> {
-                if (destEnt.getState() == SimEntity.EntityStatus.WAITING) { // NOTE: this branch is never used
-                    Predicate p = waitPredicates.get(dstId);
-
-                    if ((p == null) || (p.match(e))) {
-                        destEnt.setState(SimEntity.EntityStatus.RUNNABLE);
-                        waitPredicates.remove(dstId);
-                    }
-                }
-				destEnt.getIncomingEvents().add(e);
-            }
-			case SimEvent.HOLD_DONE -> entities.get(srcId).setState(SimEntity.EntityStatus.RUNNABLE);
-			default -> {
-			}
-		}
+		return context().cancelAll(srcId, p);
 	}
 
 	/**
@@ -678,13 +448,7 @@ public class CloudSim {
 	 * simulations.
 	 */
 	public static void runStart() {
-		running = true;
-		// Start all the entities
-		for (SimEntity ent : entities) {
-			ent.startEntity();
-		}
-
-		printMessage("Entities started.");
+		context().runStart();
 	}
 
 	/**
@@ -694,7 +458,7 @@ public class CloudSim {
 	 * @return if the simulation is still running, otherwise
 	 */
 	public static boolean running() {
-		return running;
+		return context().running();
 	}
 
 	/**
@@ -703,8 +467,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation() {
-		paused = true;
-		return paused;
+		return context().pauseSimulation();
 	}
 
 	/**
@@ -714,12 +477,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation(long time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			pauseAt = time;
-		}
-		return true;
+		return context().pauseSimulation(time);
 	}
 
 	/**
@@ -728,13 +486,7 @@ public class CloudSim {
 	 * @return if the simulation has been restarted or or otherwise.
 	 */
 	public static boolean resumeSimulation() {
-		paused = false;
-
-		if (pauseAt <= clock) {
-			pauseAt = -1;
-		}
-
-		return !paused;
+		return context().resumeSimulation();
 	}
 
 	/**
@@ -744,91 +496,14 @@ public class CloudSim {
 	 * @return the last clock value
 	 */
 	public static double run() {
-		if (!running) {
-			runStart();
-		}
-		while (true) {
-			if (!runClockTick() || abruptTerminate) {
-				break;
-			}
-
-			// this block allows termination of simulation at a specific time
-			if (terminateAt > 0.0 && clock >= terminateAt) {
-				terminateSimulation();
-				clock = terminateAt;
-				break;
-			}
-
-			if (pauseAt != -1
-					&& ((!future.isEmpty() && clock <= pauseAt && pauseAt <= future.peek()
-							.eventTime()) || future.isEmpty() && pauseAt <= clock)) {
-				pauseSimulation();
-				clock = pauseAt;
-			}
-
-			while (paused) {
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-		}
-
-		double clock = clock();
-
-		finishSimulation();
-		runStop();
-
-		return clock;
-	}
-
-	/**
-	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
-	 * in user simulations.
-	 */
-	private static void finishSimulation() {
-		// Allow all entities to exit their body method
-		if (!abruptTerminate) {
-			for (SimEntity ent : entities) {
-				if (ent.getState() != SimEntity.EntityStatus.FINISHED) {
-					ent.run();
-				}
-			}
-		}
-
-		for (SimEntity ent : entities) {
-			ent.shutdownEntity();
-		}
-
-		// reset all static variables
-		// Private data members
-		entities = null;
-		entitiesByName = null;
-		future = null;
-		clock = 0L;
-		running = false;
-
-		waitPredicates = null;
-		paused = false;
-		pauseAt = -1;
-		abruptTerminate = false;
+		return context().run();
 	}
 
 	/**
 	 * Abruptally terminate.
 	 */
 	public static void abruptallyTerminate() {
-		abruptTerminate = true;
-	}
-
-	/**
-	 * Prints a message about the progress of the simulation.
-	 * 
-	 * @param message the message
-	 */
-	private static void printMessage(String message) {
-		Log.println(message);
+		context().abruptallyTerminate();
 	}
 
 	/**
@@ -837,7 +512,7 @@ public class CloudSim {
 	 * @return true, if is paused
 	 */
 	public static boolean isPaused() {
-		return paused;
+		return context().isPaused();
 	}
 
 }
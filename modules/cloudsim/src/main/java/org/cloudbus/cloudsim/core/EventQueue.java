@@ -14,22 +14,43 @@ import java.util.Iterator;
 import java.util.PriorityQueue;
 
 /**
- * This class implements the event queue used by {@link CloudSim}.
+ * This class implements the event queue used by {@link CloudSim}: a binary heap, used for the
+ * deferred queue of each entity and, by default, as the {@link FutureEventList}.
  *
  * @author Remo Andreoli
  * @since CloudSim Toolkit 7.0
  *
  */
-public class EventQueue extends PriorityQueue<SimEvent> {
+public class EventQueue extends PriorityQueue<SimEvent> implements FutureEventList {
 	/** A incremental number used for event attribute */
 	private long serial = 0;
 
+	/** The simulation whose running state gates {@link #poll()}. */
+	private final SimulationContext simulation;
+
+	/**
+	 * Creates an event queue bound to the current simulation context.
+	 */
+	public EventQueue() {
+		this(SimulationContext.current());
+	}
+
+	/**
+	 * Creates an event queue bound to a given simulation context.
+	 *
+	 * @param simulation the simulation context the queue belongs to
+	 */
+	public EventQueue(SimulationContext simulation) {
+		this.simulation = simulation;
+	}
+
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order of
 	 * the events in the queue.
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEvent(SimEvent newEvent) {
 		newEvent.setSerial(serial++);
 		this.add(newEvent);
@@ -40,6 +61,7 @@ public class EventQueue extends PriorityQueue<SimEvent> {
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEventFirst(SimEvent newEvent) {
 		newEvent.setSerial(0);
 		this.add(newEvent);
@@ -47,7 +69,7 @@ public class EventQueue extends PriorityQueue<SimEvent> {
 
 	@Override
 	public SimEvent poll() {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return null;
 		}
 		return super.poll();
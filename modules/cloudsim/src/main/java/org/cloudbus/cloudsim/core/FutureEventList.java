@@ -0,0 +1,77 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+
+/**
+ * The future event list of a simulation: the events scheduled but not yet dispatched. Events are
+ * returned in the order defined by {@link SimEvent#compareTo(SimEvent)}, i.e. by time and then by
+ * the serial number assigned when the event is added.
+ * <p>
+ * {@link EventQueue}, a binary heap, is the default implementation. {@link CalendarQueue} gives
+ * amortised constant time insertion and removal for simulations with many pending events. An
+ * implementation is chosen with {@link CloudSim#init(int, java.util.Calendar, boolean, FutureEventList)}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public interface FutureEventList extends Iterable<SimEvent> {
+
+	/**
+	 * Adds an event after all the events already added with the same time.
+	 *
+	 * @param newEvent the event to add
+	 */
+	void addEvent(SimEvent newEvent);
+
+	/**
+	 * Adds an event before all the events already added with the same time.
+	 *
+	 * @param newEvent the event to add
+	 */
+	void addEventFirst(SimEvent newEvent);
+
+	/**
+	 * Gets the first event without removing it.
+	 *
+	 * @return the first event, or <tt>null</tt> if the list is empty
+	 */
+	SimEvent peek();
+
+	/**
+	 * Removes and returns the first event.
+	 *
+	 * @return the first event, or <tt>null</tt> if the list is empty
+	 */
+	SimEvent poll();
+
+	/**
+	 * @return the number of pending events
+	 */
+	int size();
+
+	/**
+	 * @return <tt>true</tt> if there are no pending events
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Removes all the events.
+	 */
+	void clear();
+
+	/**
+	 * Gets an iterator over the pending events, in no particular order. The iterator supports
+	 * {@link Iterator#remove()}.
+	 *
+	 * @return the iterator
+	 */
+	@Override
+	Iterator<SimEvent> iterator();
+}
@@ -2,6 +2,8 @@ package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.VmStateHistoryEntry;
+import org.cloudbus.cloudsim.util.GuestStateMetrics;
+import org.cloudbus.cloudsim.util.StateHistoryStore;
 
 import java.util.List;
 
@@ -93,19 +95,8 @@ public interface GuestEntity extends CoreAttributes {
      * @param isInMigration the is in migration
      */
     default void addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isInMigration) {
-        VmStateHistoryEntry newState = new VmStateHistoryEntry(
-                time,
-                allocatedMips,
-                requestedMips,
-                isInMigration);
-        if (!getStateHistory().isEmpty()) {
-            VmStateHistoryEntry previousState = getStateHistory().getLast();
-            if (previousState.getTime() == time) {
-                getStateHistory().set(getStateHistory().size() - 1, newState);
-                return;
-            }
-        }
-        getStateHistory().add(newState);
+        getStateHistoryStore().add(time, allocatedMips, requestedMips, isInMigration);
+        getStateMetrics().add(time, allocatedMips, requestedMips, isInMigration);
     }
 
     /**
@@ -193,15 +184,48 @@ public interface GuestEntity extends CoreAttributes {
         return userId + "-" + vmId;
     }
 
-    /** The mips allocation history.
-     * @TODO Instead of using a list, this attribute would be
-     * a map, where the key can be the history time
-     * and the value the history itself.
-     * By this way, if one wants to get the history for a given
-     * time, he/she doesn't have to iterate over the entire list
-     * to find the desired entry.
+    /**
+     * Gets the dense index of the guest entity, assigned at creation by the simulation context
+     * current on its thread. Unlike the uid, it is unique among the guest entities of that
+     * context, and it can key primitive tables.
+     *
+     * @return the guest index
+     */
+    int getIndex();
+
+    /**
+     * Assigns the next dense guest index of the current simulation context, to be called once by
+     * each guest entity when created.
+     *
+     * @return the guest index
+     */
+    static int nextIndex() {
+        return SimulationContext.current().nextGuestIndex();
+    }
+
+    /**
+     * Gets the mips allocation history, with the in migration flag of each entry.
+     *
+     * @return the state history
+     */
+    StateHistoryStore getStateHistoryStore();
+
+    /**
+     * Gets the mips allocation history as a list of entries.
+     *
+     * @return a read-only view of the state history
+     * @see #getStateHistoryStore()
+     */
+    default List<VmStateHistoryEntry> getStateHistory() {
+        return getStateHistoryStore().asList(VmStateHistoryEntry::new);
+    }
+
+    /**
+     * Gets the SLA metrics of the state history, updated as its entries are added.
+     *
+     * @return the state metrics
      */
-    List<VmStateHistoryEntry> getStateHistory();
+    GuestStateMetrics getStateMetrics();
 
     /**
      * Gets the Cloudlet scheduler.
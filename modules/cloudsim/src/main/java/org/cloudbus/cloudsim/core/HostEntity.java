@@ -9,6 +9,7 @@ package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
@@ -50,28 +51,36 @@ public interface HostEntity extends CoreAttributes {
      */
     default boolean guestCreate(GuestEntity guest) {
         if (getStorage() < guest.getSize()) {
-            Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
-                    " failed by storage");
+            if (!Log.isDisabled()) {
+                Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
+                        " failed by storage");
+            }
             return false;
         }
 
         if (!getGuestRamProvisioner().allocateRamForGuest(guest, guest.getCurrentRequestedRam())) {
-            Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
-                    " failed by RAM ");
+            if (!Log.isDisabled()) {
+                Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
+                        " failed by RAM ");
+            }
             return false;
         }
 
         if (!getGuestBwProvisioner().allocateBwForGuest(guest, guest.getCurrentRequestedBw())) {
-            Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
-                    " failed by BW");
+            if (!Log.isDisabled()) {
+                Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
+                        " failed by BW");
+            }
             getGuestRamProvisioner().deallocateRamForGuest(guest);
             return false;
         }
 
         // NOTE: this calls peProvisioner.allocateMipsForGuest
         if (!getGuestScheduler().allocatePesForGuest(guest, guest.getCurrentRequestedMips())) {
-            Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
-                    " failed by Number of PEs or MIPS");
+            if (!Log.isDisabled()) {
+                Log.printlnConcat(CloudSim.clock(), "[GuestScheduler.guestCreate] Allocation of ", guest.getClassName(), " #",guest.getId(),
+                        " failed by Number of PEs or MIPS");
+            }
             getGuestRamProvisioner().deallocateRamForGuest(guest);
             getGuestBwProvisioner().deallocateBwForGuest(guest);
             return false;
@@ -178,27 +187,35 @@ public interface HostEntity extends CoreAttributes {
 
         if (!getGuestsMigratingIn().contains(guest)) {
             if (getStorage() < guest.getSize()) {
-                Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
-								  getId(), " failed by storage");
+                if (!Log.isDisabled()) {
+                    Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
+    								  getId(), " failed by storage");
+                }
                 System.exit(0);
             }
 
             if (!getGuestRamProvisioner().allocateRamForGuest(guest, guest.getCurrentRequestedRam())) {
-                Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
-								  getId(), " failed by RAM");
+                if (!Log.isDisabled()) {
+                    Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
+    								  getId(), " failed by RAM");
+                }
                 System.exit(0);
             }
 
             if (!getGuestBwProvisioner().allocateBwForGuest(guest, guest.getCurrentRequestedBw())) {
-                Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
-								  getId(), " failed by BW");
+                if (!Log.isDisabled()) {
+                    Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
+    								  getId(), " failed by BW");
+                }
                 System.exit(0);
             }
 
             getGuestScheduler().getGuestsMigratingIn().add(guest.getUid());
             if (!getGuestScheduler().allocatePesForGuest(guest, guest.getCurrentRequestedMips())) {
-                Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
-								  getId(), " failed by MIPS");
+                if (!Log.isDisabled()) {
+                    Log.printlnConcat("[host.addMigratingInGuest] Allocation of ", guest.getClassName(), " #", guest.getId(), " to ", getClassName(), " #",
+    								  getId(), " failed by MIPS");
+                }
                 System.exit(0);
             }
 
@@ -221,12 +238,7 @@ public interface HostEntity extends CoreAttributes {
      * @post $none
      */
     default GuestEntity getGuest(int guestId, int userId) {
-        for (GuestEntity guest : getGuestList()) {
-            if (guest.getId() == guestId && guest.getUserId() == userId) {
-                return guest;
-            }
-        }
-        return null;
+        return VmList.getByIdAndUserId(getGuestList(), guestId, userId);
     }
 
     /**
@@ -8,7 +8,6 @@
 package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.util.HistoryStat;
-import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * Represents a Virtual Machine (VM), or a container, that stores its CPU utilization percentage history for power
@@ -52,19 +51,7 @@ public interface PowerGuestEntity extends GuestEntity {
      * @return the utilization MAD in MIPS
      */
     default double getUtilizationMad() {
-        double mad = 0;
-        HistoryStat hist = getUtilizationHistory();
-        if (!hist.isEmpty()) {
-            int n = hist.size();
-            double median = hist.getMedian();
-            double[] deviationSum = new double[n];
-            int i = 0;
-            for (double u : hist) {
-                deviationSum[i++] = Math.abs(median - u);
-            }
-            mad = MathUtil.median(deviationSum);
-        }
-        return mad;
+        return getUtilizationHistory().getMad();
     }
 
     /**
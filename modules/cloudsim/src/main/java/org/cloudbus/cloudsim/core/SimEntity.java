@@ -45,6 +45,9 @@ public abstract class SimEntity implements Cloneable {
 	private EntityStatus state;
 	protected EventQueue incomingEvents;
 
+	/** The simulation this entity belongs to. */
+	private final SimulationContext simulation;
+
 	/**
 	 * Creates a new entity.
 	 * 
@@ -57,9 +60,19 @@ public abstract class SimEntity implements Cloneable {
 		this.name = name;
 		id = -1;
 		state = EntityStatus.RUNNABLE;
-		incomingEvents = new EventQueue();
+		simulation = SimulationContext.current();
+		incomingEvents = new EventQueue(simulation);
+
+		simulation.addEntity(this);
+	}
 
-		CloudSim.addEntity(this);
+	/**
+	 * Gets the simulation context this entity is bound to.
+	 *
+	 * @return the simulation context
+	 */
+	public SimulationContext getSimulation() {
+		return simulation;
 	}
 
 	/**
@@ -108,7 +121,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the sim event
 	 */
 	public SimEvent selectEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return null;
 		}
 
@@ -149,12 +162,13 @@ public abstract class SimEntity implements Cloneable {
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void schedule(int dstId, double delay, CloudSimTags tag, Object data) {
-		if (!CloudSim.running()) {
-			return;
+	public SimEvent schedule(int dstId, double delay, CloudSimTags tag, Object data) {
+		if (!simulation.running()) {
+			return null;
 		}
-		CloudSim.send(id, dstId, delay, tag, data);
+		return simulation.send(id, dstId, delay, tag, data);
 	}
 
 	/**
@@ -163,9 +177,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstId The unique id number of the destination entity
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void schedule(int dstId, double delay, CloudSimTags tag) {
-		schedule(dstId, delay, tag, null);
+	public SimEvent schedule(int dstId, double delay, CloudSimTags tag) {
+		return schedule(dstId, delay, tag, null);
 	}
 
 	/**
@@ -175,9 +190,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void schedule(String dstName, double delay, CloudSimTags tag, Object data) {
-		schedule(CloudSim.getEntityId(dstName), delay, tag, data);
+	public SimEvent schedule(String dstName, double delay, CloudSimTags tag, Object data) {
+		return schedule(simulation.getEntityId(dstName), delay, tag, data);
 	}
 
 	/**
@@ -186,9 +202,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstName The name of the port to send the event through
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void schedule(String dstName, double delay, CloudSimTags tag) {
-		schedule(dstName, delay, tag, null);
+	public SimEvent schedule(String dstName, double delay, CloudSimTags tag) {
+		return schedule(dstName, delay, tag, null);
 	}
 
 	/**
@@ -197,9 +214,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstId The unique id number of the destination entity
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleNow(int dstId, CloudSimTags tag, Object data) {
-		schedule(dstId, 0, tag, data);
+	public SimEvent scheduleNow(int dstId, CloudSimTags tag, Object data) {
+		return schedule(dstId, 0, tag, data);
 	}
 
 	/**
@@ -208,9 +226,10 @@ public abstract class SimEntity implements Cloneable {
 	 * 
 	 * @param dstId The unique id number of the destination entity
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleNow(int dstId, CloudSimTags tag) {
-		schedule(dstId, 0, tag, null);
+	public SimEvent scheduleNow(int dstId, CloudSimTags tag) {
+		return schedule(dstId, 0, tag, null);
 	}
 
 	/**
@@ -220,9 +239,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstName The name of the port to send the event through
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleNow(String dstName, CloudSimTags tag, Object data) {
-		schedule(CloudSim.getEntityId(dstName), 0, tag, data);
+	public SimEvent scheduleNow(String dstName, CloudSimTags tag, Object data) {
+		return schedule(simulation.getEntityId(dstName), 0, tag, data);
 	}
 
 	/**
@@ -231,9 +251,10 @@ public abstract class SimEntity implements Cloneable {
 	 * 
 	 * @param dstName The name of the port to send the event through
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleNow(String dstName, CloudSimTags tag) {
-		schedule(dstName, 0, tag, null);
+	public SimEvent scheduleNow(String dstName, CloudSimTags tag) {
+		return schedule(dstName, 0, tag, null);
 	}
 
 	/**
@@ -243,12 +264,13 @@ public abstract class SimEntity implements Cloneable {
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirst(int dstId, double delay, CloudSimTags tag, Object data) {
-		if (!CloudSim.running()) {
-			return;
+	public SimEvent scheduleFirst(int dstId, double delay, CloudSimTags tag, Object data) {
+		if (!simulation.running()) {
+			return null;
 		}
-		CloudSim.sendFirst(id, dstId, delay, tag, data);
+		return simulation.sendFirst(id, dstId, delay, tag, data);
 	}
 
 	/**
@@ -257,9 +279,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstId The unique id number of the destination entity
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirst(int dstId, double delay, CloudSimTags tag) {
-		scheduleFirst(dstId, delay, tag, null);
+	public SimEvent scheduleFirst(int dstId, double delay, CloudSimTags tag) {
+		return scheduleFirst(dstId, delay, tag, null);
 	}
 
 	/**
@@ -269,9 +292,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirst(String dstName, double delay, CloudSimTags tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dstName), delay, tag, data);
+	public SimEvent scheduleFirst(String dstName, double delay, CloudSimTags tag, Object data) {
+		return scheduleFirst(simulation.getEntityId(dstName), delay, tag, data);
 	}
 
 	/**
@@ -281,9 +305,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstName The name of the port to send the event through
 	 * @param delay How long from the current simulation time the event should be sent
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirst(String dstName, double delay, CloudSimTags tag) {
-		scheduleFirst(dstName, delay, tag, null);
+	public SimEvent scheduleFirst(String dstName, double delay, CloudSimTags tag) {
+		return scheduleFirst(dstName, delay, tag, null);
 	}
 
 	/**
@@ -293,9 +318,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstId The unique id number of the destination entity
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirstNow(int dstId, CloudSimTags tag, Object data) {
-		scheduleFirst(dstId, 0, tag, data);
+	public SimEvent scheduleFirstNow(int dstId, CloudSimTags tag, Object data) {
+		return scheduleFirst(dstId, 0, tag, data);
 	}
 
 	/**
@@ -304,9 +330,10 @@ public abstract class SimEntity implements Cloneable {
 	 * 
 	 * @param dstId The unique id number of the destination entity
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirstNow(int dstId, CloudSimTags tag) {
-		scheduleFirst(dstId, 0, tag, null);
+	public SimEvent scheduleFirstNow(int dstId, CloudSimTags tag) {
+		return scheduleFirst(dstId, 0, tag, null);
 	}
 
 	/**
@@ -316,9 +343,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstName The name of the port to send the event through
 	 * @param tag event type.
 	 * @param data The data to be sent with the event.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirstNow(String dstName, CloudSimTags tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dstName), 0, tag, data);
+	public SimEvent scheduleFirstNow(String dstName, CloudSimTags tag, Object data) {
+		return scheduleFirst(simulation.getEntityId(dstName), 0, tag, data);
 	}
 
 	/**
@@ -327,9 +355,10 @@ public abstract class SimEntity implements Cloneable {
 	 * 
 	 * @param dstName The name of the port to send the event through
 	 * @param tag event type.
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 */
-	public void scheduleFirstNow(String dstName, CloudSimTags tag) {
-		scheduleFirst(dstName, 0, tag, null);
+	public SimEvent scheduleFirstNow(String dstName, CloudSimTags tag) {
+		return scheduleFirst(dstName, 0, tag, null);
 	}
 
 	/**
@@ -341,10 +370,10 @@ public abstract class SimEntity implements Cloneable {
 		if (delay < 0) {
 			throw new IllegalArgumentException("Negative delay supplied.");
 		}
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return;
 		}
-		CloudSim.pause(id, delay);
+		simulation.pause(id, delay);
 	}
 
 	/**
@@ -375,11 +404,25 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The number of events cancelled (0 or 1)
 	 */
 	public SimEvent cancelEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return null;
 		}
 
-		return CloudSim.cancel(id, p);
+		return simulation.cancel(id, p);
+	}
+
+	/**
+	 * Cancels an event scheduled by this entity, if it has not been dispatched yet. The event is
+	 * dropped when it reaches the head of the future queue, so this takes constant time.
+	 *
+	 * @param ev the event returned when it was scheduled
+	 * @return <tt>true</tt> if the event was pending and is now cancelled
+	 */
+	public boolean cancelEvent(SimEvent ev) {
+		if (!simulation.running() || ev == null || ev.getSourceId() != id) {
+			return false;
+		}
+		return simulation.cancel(ev);
 	}
 
 	/**
@@ -390,7 +433,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent getNextEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return null;
 		}
 		return selectEvent(p);
@@ -403,11 +446,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @param p The predicate to match
 	 */
 	public void waitForEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return;
 		}
 
-		CloudSim.wait(id, p);
+		simulation.wait(id, p);
 		state = EntityStatus.WAITING;
 	}
 
@@ -416,7 +459,7 @@ public abstract class SimEntity implements Cloneable {
 	 * It should be responsible for starting the entity up.
 	 */
 	public void startEntity() {
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), " is starting...");
+		Log.printlnConcat(simulation.clock(), ": ", getName(), " is starting...");
 	}
 
 	/**
@@ -434,7 +477,7 @@ public abstract class SimEntity implements Cloneable {
 	 * to save data in log files this is the method in which the corresponding code would be placed.
 	 */
 	public void shutdownEntity() {
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), " is shutting down...");
+		Log.printlnConcat(simulation.clock(), ": ", getName(), " is shutting down...");
 		incomingEvents = null;
 		state = EntityStatus.FINISHED;
 	}
@@ -524,14 +567,15 @@ public abstract class SimEntity implements Cloneable {
 	 *            a negative number, then it will be changed to 0
 	 * @param cloudSimTag an user-defined number representing the type of an event/message
 	 * @param data A reference to data to be sent with the event
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre dstId > 0
 	 * @pre delay >= 0.0
 	 * @pre data != null
 	 * @post $none
 	 */
-	protected void send(int dstId, double delay, CloudSimTags cloudSimTag, Object data) {
+	protected SimEvent send(int dstId, double delay, CloudSimTags cloudSimTag, Object data) {
 		if (dstId < 0) {
-			return;
+			return null;
 		}
 
 		// if delay is -ve, then it doesn't make sense. So resets to 0.0
@@ -545,7 +589,7 @@ public abstract class SimEntity implements Cloneable {
 
 		if (dstId < 0) {
 			Log.printlnConcat(getName(), ".send(): Error - invalid entity id ", dstId);
-			return;
+			return null;
 		}
 
 		int srcId = getId();
@@ -553,7 +597,7 @@ public abstract class SimEntity implements Cloneable {
 			delay += getNetworkDelay(srcId, dstId);
 		}
 
-		schedule(dstId, delay, cloudSimTag, data);
+		return schedule(dstId, delay, cloudSimTag, data);
 	}
 
 	/**
@@ -564,12 +608,13 @@ public abstract class SimEntity implements Cloneable {
 	 * @param delay    how long from the current simulation time the event should be sent. If delay is
 	 *                 a negative number, then it will be changed to 0
 	 * @param tag      an user-defined number representing the type of an event/message
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre dstId > 0
 	 * @pre delay >= 0.0
 	 * @post $none
 	 */
-	protected void send(int dstId, double delay, CloudSimTags tag) {
-		send(dstId, delay, tag, null);
+	protected SimEvent send(int dstId, double delay, CloudSimTags tag) {
+		return send(dstId, delay, tag, null);
 	}
 
 	/**
@@ -581,13 +626,14 @@ public abstract class SimEntity implements Cloneable {
 	 *                   a negative number, then it will be changed to 0
 	 * @param tag        an user-defined number representing the type of an event/message
 	 * @param data       A reference to data to be sent with the event
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre entityName != null
 	 * @pre delay >= 0.0
 	 * @pre data != null
 	 * @post $none
 	 */
-	protected void send(String dstName, double delay, CloudSimTags tag, Object data) {
-		send(CloudSim.getEntityId(dstName), delay, tag, data);
+	protected SimEvent send(String dstName, double delay, CloudSimTags tag, Object data) {
+		return send(simulation.getEntityId(dstName), delay, tag, data);
 	}
 
 	/**
@@ -598,12 +644,13 @@ public abstract class SimEntity implements Cloneable {
 	 * @param delay      how long from the current simulation time the event should be sent. If delay is
 	 *                   a negative number, then it will be changed to 0
 	 * @param tag        an user-defined number representing the type of an event/message
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre entityName != null
 	 * @pre delay >= 0.0
 	 * @post $none
 	 */
-	protected void send(String dstName, double delay, CloudSimTags tag) {
-		send(dstName, delay, tag, null);
+	protected SimEvent send(String dstName, double delay, CloudSimTags tag) {
+		return send(dstName, delay, tag, null);
 	}
 
 	/**
@@ -612,13 +659,14 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstId the id number of the destination entity
 	 * @param tag      an user-defined number representing the type of an event/message
 	 * @param data     A reference to data to be sent with the event
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre dstId > 0
 	 * @pre delay >= 0.0
 	 * @pre data != null
 	 * @post $none
 	 */
-	protected void sendNow(int dstId, CloudSimTags tag, Object data) {
-		send(dstId, 0, tag, data);
+	protected SimEvent sendNow(int dstId, CloudSimTags tag, Object data) {
+		return send(dstId, 0, tag, data);
 	}
 
 	/**
@@ -626,12 +674,13 @@ public abstract class SimEntity implements Cloneable {
 	 *
 	 * @param dstId the id number of the destination entity
 	 * @param tag      an user-defined number representing the type of an event/message
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre dstId > 0
 	 * @pre delay >= 0.0
 	 * @post $none
 	 */
-	protected void sendNow(int dstId, CloudSimTags tag) {
-		send(dstId, 0, tag, null);
+	protected SimEvent sendNow(int dstId, CloudSimTags tag) {
+		return send(dstId, 0, tag, null);
 	}
 
 	/**
@@ -640,13 +689,14 @@ public abstract class SimEntity implements Cloneable {
 	 * @param dstId the name of the destination entity
 	 * @param tag        an user-defined number representing the type of an event/message
 	 * @param data       A reference to data to be sent with the event
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre entityName != null
 	 * @pre delay >= 0.0
 	 * @pre data != null
 	 * @post $none
 	 */
-	protected void sendNow(String dstId, CloudSimTags tag, Object data) {
-		send(CloudSim.getEntityId(dstId), 0, tag, data);
+	protected SimEvent sendNow(String dstId, CloudSimTags tag, Object data) {
+		return send(simulation.getEntityId(dstId), 0, tag, data);
 	}
 
 	/**
@@ -654,12 +704,13 @@ public abstract class SimEntity implements Cloneable {
 	 *
 	 * @param dstName the name of the destination entity
 	 * @param tag        an user-defined number representing the type of an event/message
+	 * @return the scheduled event (see {@link #cancelEvent(SimEvent)}), or <tt>null</tt> if none
 	 * @pre entityName != null
 	 * @pre delay >= 0.0
 	 * @post $none
 	 */
-	protected void sendNow(String dstName, CloudSimTags tag) {
-		send(dstName, 0, tag, null);
+	protected SimEvent sendNow(String dstName, CloudSimTags tag) {
+		return send(dstName, 0, tag, null);
 	}
 
 	/**
@@ -673,8 +724,9 @@ public abstract class SimEntity implements Cloneable {
 	 * @pre dst >= 0
 	 */
 	private double getNetworkDelay(int src, int dst) {
-		if (NetworkTopology.isNetworkEnabled()) {
-			return NetworkTopology.getDelay(src, dst);
+		NetworkTopology topology = simulation.getNetworkTopology();
+		if (topology.isEnabled()) {
+			return topology.delay(src, dst);
 		}
 		return 0.0;
 	}
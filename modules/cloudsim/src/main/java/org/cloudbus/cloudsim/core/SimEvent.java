@@ -52,6 +52,15 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
          */
 	private long serial = -1;
 
+	/** Whether the event is in the future queue, waiting to be dispatched. **/
+	private boolean pending;
+
+	/** Whether the event has been cancelled: it stays in the future queue and is dropped when it reaches the head. **/
+	private boolean cancelled;
+
+	/** Whether the event is referenced by the cancellation index of the simulation. **/
+	private boolean indexed;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -81,6 +90,30 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	void setPending(boolean pending) {
+		this.pending = pending;
+	}
+
+	boolean isPending() {
+		return pending;
+	}
+
+	/**
+	 * Marks a pending event as cancelled.
+	 */
+	void markCancelled() {
+		pending = false;
+		cancelled = true;
+	}
+
+	void setIndexed(boolean indexed) {
+		this.indexed = indexed;
+	}
+
+	boolean isIndexed() {
+		return indexed;
+	}
+
 	/**
 	 * Sets the time that the event was removed from the queue to start service. 
 	 * 
@@ -98,6 +131,16 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 				+ CloudSim.getEntity(entDst).getName();
 	}
 
+	/**
+	 * Checks whether the event has been cancelled before being dispatched.
+	 *
+	 * @return <tt>true</tt> if the event was cancelled
+	 * @see SimEntity#cancelEvent(SimEvent)
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
 	/**
 	 * Gets the internal type
 	 * 
@@ -200,6 +243,17 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		return data;
 	}
 
+	/**
+	 * Creates a copy of this event carrying other data, e.g. to process one by one the items
+	 * of an event that batches them.
+	 *
+	 * @param data the data of the copy
+	 * @return the copy
+	 */
+	public SimEvent withData(Object data) {
+		return new SimEvent(etype, time, entSrc, entDst, tag, data);
+	}
+
 	@Override
 	public Object clone() {
 		return new SimEvent(etype, time, entSrc, entDst, tag, data);
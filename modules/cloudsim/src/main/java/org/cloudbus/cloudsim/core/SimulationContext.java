@@ -0,0 +1,1252 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.cloudbus.cloudsim.util.StateHistoryStore;
+import org.cloudbus.cloudsim.util.StateHistoryStore.Retention;
+
+/**
+ * Holds the whole state of one simulation run: the clock, the future event queue, the entities,
+ * the wait predicates, the Cloud Information Service, the network topology, the settings of
+ * the {@link Log}, the indexes of the guest entities and the retention of their state histories.
+ * <p>
+ * Every {@link SimEntity} is bound to the context that was current on its thread when it was
+ * created, and sends all of its events through it. The static methods of {@link CloudSim} are
+ * a thin facade over the context returned by {@link #current()}, so existing simulations keep
+ * working unchanged.
+ * <p>
+ * Independent simulations can run concurrently in the same JVM, one per thread, as long as
+ * each one is executed inside its own context:
+ * <pre>
+ * SimulationContext ctx = new SimulationContext();
+ * ctx.call(() -&gt; {
+ *     CloudSim.init(1, null, false);
+ *     // create datacenters, brokers, ...
+ *     return CloudSim.startSimulation();
+ * });
+ * </pre>
+ * Threads without a bound context share a single default context, which reproduces the
+ * behaviour of the former static kernel.
+ *
+ * @since CloudSim Toolkit 7.0
+ * @see CloudSim
+ */
+public class SimulationContext {
+
+	/** The context bound to the current thread, if any. */
+	private static final ThreadLocal<SimulationContext> BOUND_CONTEXT = new ThreadLocal<>();
+
+	/** The context shared by all the threads that did not bind one. */
+	private static final SimulationContext DEFAULT_CONTEXT = new SimulationContext();
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The trace flag. */
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	private double minTimeBetweenEvents = 0.01;
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The future event queue. */
+	private FutureEventList future;
+
+	/**
+	 * The pending events by source entity and tag, for the (source, tag) pairs that have been
+	 * cancelled with a {@link PredicateType} at least once: entities that keep rescheduling a
+	 * timer can then cancel it without scanning the whole future queue.
+	 */
+	private Map<Integer, Map<CloudSimTags, Set<SimEvent>>> cancellationIndex;
+
+	/**
+	 * The number of cancelled events still in {@link #future}, which are only dropped when they
+	 * reach its head or when they make up half of it.
+	 */
+	private int cancelledEvents;
+
+	/** The current simulation clock. */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	/** The predicates used in entity wait methods. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/**
+	 * The ids of the entities with work to do at the next tick, i.e. that received an event or
+	 * ended a hold while runnable, in no particular order; the other array is a spare buffer.
+	 */
+	private int[] readyIds = new int[16];
+	private int[] runningIds = new int[16];
+	private int readyCount;
+
+	/** The ids present in {@link #readyIds}. */
+	private final BitSet readyFlags = new BitSet();
+
+	/** The number of clock ticks run. */
+	private long ticks;
+
+	/** The number of entity runs, over all the ticks. */
+	private long entitiesRun;
+
+	/** The number of events dispatched, over all the ticks. */
+	private long eventsDispatched;
+
+	/** The number of entities run during the last tick. */
+	private int lastTickEntitiesRun;
+
+	/** The number of events dispatched during the last tick. */
+	private int lastTickEventsDispatched;
+
+	/** The paused. */
+	private boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private boolean abruptTerminate = false;
+
+	/** The network topology used to delay messages between the entities of this simulation. */
+	private NetworkTopology networkTopology = new NetworkTopology();
+
+	/** The stream {@link Log} writes to in this context, <tt>null</tt> for <tt>System.out</tt>. */
+	private OutputStream logOutput;
+
+	/** Whether {@link Log} is disabled in this context. */
+	private boolean logDisabled;
+
+	/** What the state histories of the hosts and guests created in this context keep. */
+	private Retention stateHistoryRetention = Retention.FULL;
+
+	/** The maximum number of entries of those state histories. */
+	private int stateHistoryCapacity = Integer.MAX_VALUE;
+
+	/** The next {@link GuestEntity#getIndex() guest index} to assign in this context. */
+	private int nextGuestIndex;
+
+	/**
+	 * Creates a context. It starts with the {@link Log} and state history settings of the context
+	 * current on the calling thread, so that logging disabled or redirected before creating a
+	 * context stays so; they can then be changed for this context only.
+	 */
+	public SimulationContext() {
+		// DEFAULT_CONTEXT is null while the default context itself is created
+		SimulationContext creator = BOUND_CONTEXT.get() != null ? BOUND_CONTEXT.get() : DEFAULT_CONTEXT;
+		if (creator != null) {
+			logOutput = creator.logOutput;
+			logDisabled = creator.logDisabled;
+			stateHistoryRetention = creator.stateHistoryRetention;
+			stateHistoryCapacity = creator.stateHistoryCapacity;
+		}
+	}
+
+	/**
+	 * Gets the context of the calling thread: the one bound with {@link #call(Callable)} or
+	 * {@link #run(Runnable)}, or the default shared context otherwise.
+	 *
+	 * @return the current simulation context
+	 */
+	public static SimulationContext current() {
+		SimulationContext ctx = BOUND_CONTEXT.get();
+		return ctx != null ? ctx : DEFAULT_CONTEXT;
+	}
+
+	/**
+	 * Executes a task with this context bound to the calling thread. The previously bound
+	 * context, if any, is restored afterwards.
+	 *
+	 * @param task the task to execute, typically a complete simulation
+	 * @param <T> the type of the task result
+	 * @return the task result
+	 * @throws Exception the exception thrown by the task
+	 */
+	public <T> T call(Callable<T> task) throws Exception {
+		SimulationContext previous = BOUND_CONTEXT.get();
+		BOUND_CONTEXT.set(this);
+		try {
+			return task.call();
+		} finally {
+			if (previous == null) {
+				BOUND_CONTEXT.remove();
+			} else {
+				BOUND_CONTEXT.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Executes a task with this context bound to the calling thread.
+	 *
+	 * @param task the task to execute, typically a complete simulation
+	 * @see #call(Callable)
+	 */
+	public void run(Runnable task) {
+		try {
+			call(() -> {
+				task.run();
+				return null;
+			});
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			// Runnable cannot throw checked exceptions
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Initialises the context. This method should be called before creating any entities.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @see CloudSim#init(int, Calendar, boolean)
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag) {
+		SimulationContext previous = BOUND_CONTEXT.get();
+		// the kernel entities have to be registered in this context
+		BOUND_CONTEXT.set(this);
+		try {
+			initCommonVariable(cal, traceFlag, numUser);
+
+			// create a GIS object
+			cis = new CloudInformationService("CloudInformationService");
+
+			// set all the above entity IDs
+			cisId = cis.getId();
+		} catch (Exception s) {
+			Log.println("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.println(s.getMessage());
+		} finally {
+			if (previous == null) {
+				BOUND_CONTEXT.remove();
+			} else {
+				BOUND_CONTEXT.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Initialises the context with a given future event list implementation.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param futureEventList the (empty) future event list to use for this run
+	 * @see CloudSim#init(int, Calendar, boolean, FutureEventList)
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, FutureEventList futureEventList) {
+		if (futureEventList == null) {
+			throw new IllegalArgumentException("The future event list can't be null.");
+		}
+
+		init(numUser, cal, traceFlag);
+		// No event has been scheduled yet: entities only post events once the simulation runs
+		futureEventList.clear();
+		future = futureEventList;
+		cancelledEvents = 0;
+	}
+
+	/**
+	 * Initialises the context with a minimal time between events.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param minTimeBetweenEvents the minimal period between events
+	 * @see CloudSim#init(int, Calendar, boolean, double)
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double minTimeBetweenEvents) {
+		if (minTimeBetweenEvents <= 0) {
+			throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + minTimeBetweenEvents);
+		}
+
+		init(numUser, cal, traceFlag);
+		this.minTimeBetweenEvents = minTimeBetweenEvents;
+	}
+
+	/**
+	 * Initialises all the common attributes.
+	 *
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 */
+	private void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
+			throws Exception {
+		initialize();
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * Initialise the simulation for stand alone simulations.
+	 */
+	protected void initialize() {
+		Log.println("Initialising...");
+		entities = new ArrayList<>();
+		entitiesByName = new LinkedHashMap<>();
+		future = new EventQueue(this);
+		waitPredicates = new HashMap<>();
+		cancellationIndex = new HashMap<>();
+		cancelledEvents = 0;
+		readyCount = 0;
+		readyFlags.clear();
+		ticks = 0;
+		entitiesRun = 0;
+		eventsDispatched = 0;
+		lastTickEntitiesRun = 0;
+		lastTickEventsDispatched = 0;
+		networkTopology = new NetworkTopology();
+		clock = 0;
+		running = false;
+	}
+
+	/**
+	 * Starts the execution of the simulation.
+	 *
+	 * @return the last clock time
+	 * @see CloudSim#startSimulation()
+	 */
+	public double startSimulation() {
+		double clock = run();
+
+		// reset all the per-run variables
+		cisId = -1;
+		shutdownId = -1;
+		cis = null;
+		calendar = null;
+		traceFlag = false;
+
+		return clock;
+	}
+
+	/**
+	 * Terminates the simulation at the end of the current clock tick.
+	 */
+	public void terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+	}
+
+	/**
+	 * Terminates the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded.
+	 *
+	 * @return the minimum time between events.
+	 */
+	public double getMinTimeBetweenEvents() {
+		return minTimeBetweenEvents;
+	}
+
+	/**
+	 * Gets a new copy of initial simulation Calendar.
+	 *
+	 * @return a new copy of Calendar object or if CloudSim hasn't been initialized
+	 */
+	public Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	/**
+	 * Gets the entity ID of <tt>CloudInformationService</tt>.
+	 *
+	 * @return the Entity ID or if it is not found
+	 */
+	public int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	/**
+	 * Gets the list of all Cloud resources registered at the CIS entity.
+	 *
+	 * @return A List containing CloudResource ID or null if a CIS entity hasn't been created before
+	 */
+	public List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	/**
+	 * Gets the network topology of this simulation.
+	 *
+	 * @return the network topology
+	 */
+	public NetworkTopology getNetworkTopology() {
+		return networkTopology;
+	}
+
+	/**
+	 * Gets the stream {@link Log} writes to in this context.
+	 *
+	 * @return the stream, <tt>System.out</tt> unless set otherwise
+	 */
+	public OutputStream getLogOutput() {
+		return logOutput != null ? logOutput : System.out;
+	}
+
+	/**
+	 * Sets the stream {@link Log} writes to in this context.
+	 *
+	 * @param logOutput the stream, <tt>null</tt> for <tt>System.out</tt>
+	 */
+	public void setLogOutput(OutputStream logOutput) {
+		this.logOutput = logOutput;
+	}
+
+	/**
+	 * Checks whether {@link Log} is disabled in this context.
+	 *
+	 * @return <tt>true</tt> if the log output is disabled
+	 */
+	public boolean isLogDisabled() {
+		return logDisabled;
+	}
+
+	/**
+	 * Disables or enables {@link Log} in this context.
+	 *
+	 * @param logDisabled whether the log output is disabled
+	 */
+	public void setLogDisabled(boolean logDisabled) {
+		this.logDisabled = logDisabled;
+	}
+
+	/**
+	 * Sets the retention policy of the state histories of the hosts and guests created from now on
+	 * in this context. A window of 1 entry keeps no history: long runs can then rely on the SLA
+	 * metrics computed as the history grows, such as
+	 * {@link org.cloudbus.cloudsim.power.PowerDatacenter#getHostStateMetrics()}.
+	 *
+	 * @param retention what the state histories keep of their entries
+	 * @param capacity the maximum number of entries, ignored for {@link Retention#FULL}
+	 * @see StateHistoryStore#setRetention(Retention, int)
+	 */
+	public void setStateHistoryRetention(Retention retention, int capacity) {
+		StateHistoryStore.checkRetention(retention, capacity);
+		stateHistoryRetention = retention;
+		stateHistoryCapacity = capacity;
+	}
+
+	/**
+	 * Gets what the state histories created in this context keep.
+	 *
+	 * @return the retention policy, {@link Retention#FULL} unless set otherwise
+	 */
+	public Retention getStateHistoryRetention() {
+		return stateHistoryRetention;
+	}
+
+	/**
+	 * Creates a state history with the retention policy of this context.
+	 *
+	 * @return the empty state history
+	 */
+	public StateHistoryStore newStateHistory() {
+		return new StateHistoryStore(stateHistoryRetention, stateHistoryCapacity);
+	}
+
+	/**
+	 * Assigns the next dense guest index of this context.
+	 *
+	 * @return the guest index
+	 * @see GuestEntity#nextIndex()
+	 */
+	int nextGuestIndex() {
+		return nextGuestIndex++;
+	}
+
+	/**
+	 * Get the current simulation time.
+	 *
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 *
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 *
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 *
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 */
+	public String getEntityName(int entityID) {
+		try {
+			return getEntity(entityID).getName();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 *
+	 * @return the entity iterator
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		return new LinkedList<>(entities);
+	}
+
+	/**
+	 * Add a new entity to the simulation.
+	 *
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (running) {
+			// Post an event to make this entity
+			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, CloudActionTags.BLANK, e);
+			enqueue(evt, false);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+		}
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running.
+	 *
+	 * @param e The new entity
+	 */
+	protected void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	/**
+	 * Internal method used to run one tick of the simulation.
+	 *
+	 * @return true if there are events to be processed, false if event queue is empty
+	 */
+	private boolean runClockTick() {
+		ticks++;
+		lastTickEntitiesRun = runReadyEntities();
+		lastTickEventsDispatched = 0;
+		entitiesRun += lastTickEntitiesRun;
+
+		if (!hasPendingEvents()) {
+			running = false;
+			printMessage(clock + ": Simulation: No more future events");
+			return false;
+		}
+
+		double clk = future.peek().eventTime();
+		while (running && hasPendingEvents() && future.peek().eventTime() == clk) {
+			dispatchEvent(future.poll());
+			lastTickEventsDispatched++;
+		}
+		eventsDispatched += lastTickEventsDispatched;
+
+		// terminateSimulation() may have been called by an entity during this tick
+		return running;
+	}
+
+	/**
+	 * Runs the entities that have work to do, in id order like a scan of all the entities would,
+	 * so that the events they send are numbered in the same order.
+	 *
+	 * @return the number of entities run
+	 */
+	private int runReadyEntities() {
+		int count = readyCount;
+		if (count == 0) {
+			return 0;
+		}
+		// Swap the buffers: entities marked ready from now on run at the next tick
+		int[] ids = readyIds;
+		readyIds = runningIds;
+		runningIds = ids;
+		readyCount = 0;
+		Arrays.sort(ids, 0, count);
+
+		int run = 0;
+		for (int i = 0; i < count; i++) {
+			readyFlags.clear(ids[i]);
+			SimEntity ent = entities.get(ids[i]);
+			if (ent.getState() == SimEntity.EntityStatus.RUNNABLE) {
+				ent.run();
+				run++;
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * Schedules an entity to run at the next tick.
+	 *
+	 * @param ent the entity
+	 */
+	private void markReady(SimEntity ent) {
+		int id = ent.getId();
+		if (!readyFlags.get(id)) {
+			readyFlags.set(id);
+			if (readyCount == readyIds.length) {
+				readyIds = Arrays.copyOf(readyIds, 2 * readyCount);
+				runningIds = new int[readyIds.length];
+			}
+			readyIds[readyCount++] = id;
+		}
+	}
+
+	/**
+	 * Gets the number of clock ticks run since the simulation started.
+	 *
+	 * @return the tick count
+	 */
+	public long getTickCount() {
+		return ticks;
+	}
+
+	/**
+	 * Gets the number of times an entity was run to process its incoming events. Only the
+	 * entities that received events (or ended a hold) are run at each tick.
+	 *
+	 * @return the entity run count, over all the ticks
+	 */
+	public long getEntitiesRunCount() {
+		return entitiesRun;
+	}
+
+	/**
+	 * Gets the number of events dispatched to entities, cancelled events excluded.
+	 *
+	 * @return the dispatched event count, over all the ticks
+	 */
+	public long getEventsDispatchedCount() {
+		return eventsDispatched;
+	}
+
+	/**
+	 * @return the number of entities run during the last tick
+	 */
+	public int getLastTickEntitiesRun() {
+		return lastTickEntitiesRun;
+	}
+
+	/**
+	 * @return the number of events dispatched during the last tick
+	 */
+	public int getLastTickEventsDispatched() {
+		return lastTickEventsDispatched;
+	}
+
+	/**
+	 * Internal method used to stop the simulation.
+	 */
+	public void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	/**
+	 * Used to pause an entity for some time.
+	 *
+	 * @param srcId the entity source id
+	 * @param delay the delay
+	 */
+	public void pause(int srcId, double delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, srcId);
+		enqueue(e, false);
+		entities.get(srcId).setState(SimEntity.EntityStatus.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 *
+	 * @param srcId the src
+	 * @param dstId the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 * @return the scheduled event, which can be cancelled with {@link #cancel(SimEvent)}
+	 */
+	public SimEvent send(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+		if (delay >= Double.MAX_VALUE) {
+			throw new RuntimeException("Send delay can't be infinite.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
+		enqueue(e, false);
+		return e;
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 *
+	 * @param srcId the src
+	 * @param dstId the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 * @return the scheduled event, which can be cancelled with {@link #cancel(SimEvent)}
+	 */
+	public SimEvent sendFirst(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
+		enqueue(e, true);
+		return e;
+	}
+
+	/**
+	 * Adds an event to the future queue, and to the cancellation index if its source and tag are
+	 * tracked.
+	 *
+	 * @param e the event
+	 * @param first whether the event goes before the events with the same time
+	 */
+	private void enqueue(SimEvent e, boolean first) {
+		if (first) {
+			future.addEventFirst(e);
+		} else {
+			future.addEvent(e);
+		}
+		e.setPending(true);
+		if (!cancellationIndex.isEmpty()) {
+			Map<CloudSimTags, Set<SimEvent>> byTag = cancellationIndex.get(e.getSourceId());
+			Set<SimEvent> events = byTag == null ? null : byTag.get(e.getTag());
+			if (events != null) {
+				events.add(e);
+				e.setIndexed(true);
+			}
+		}
+	}
+
+	/**
+	 * Removes an event from the cancellation index, if it is there.
+	 *
+	 * @param e the event
+	 */
+	private void unindex(SimEvent e) {
+		if (e.isIndexed()) {
+			cancellationIndex.get(e.getSourceId()).get(e.getTag()).remove(e);
+			e.setIndexed(false);
+		}
+	}
+
+	/**
+	 * Gets the pending events with a given source and tag, starting to track the pair if needed
+	 * (which costs a single scan of the future queue).
+	 *
+	 * @param srcId the entity source id
+	 * @param tag the tag
+	 * @return the live set of indexed events
+	 */
+	private Set<SimEvent> indexedEvents(int srcId, CloudSimTags tag) {
+		Map<CloudSimTags, Set<SimEvent>> byTag = cancellationIndex.computeIfAbsent(srcId, id -> new HashMap<>());
+		Set<SimEvent> events = byTag.get(tag);
+		if (events == null) {
+			events = new LinkedHashSet<>();
+			byTag.put(tag, events);
+			for (SimEvent e : future) {
+				if (e.isPending() && e.getSourceId() == srcId && e.getTag() == tag) {
+					events.add(e);
+					e.setIndexed(true);
+				}
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * Drops the cancelled events at the head of the future queue. Only called while running, since
+	 * the default queue does not poll otherwise.
+	 *
+	 * @return <tt>true</tt> if there are events left to dispatch
+	 */
+	private boolean hasPendingEvents() {
+		while (cancelledEvents > 0 && future.peek().isCancelled()) {
+			future.poll();
+			cancelledEvents--;
+		}
+		return !future.isEmpty();
+	}
+
+	/**
+	 * Counts an event marked as cancelled but left in the future queue, and removes all such events
+	 * once they make up half of the queue, so that it holds at most twice the pending events.
+	 */
+	private void addCancelledEvent() {
+		if (++cancelledEvents > future.size() / 2) {
+			Iterator<SimEvent> iter = future.iterator();
+			while (iter.hasNext()) {
+				if (iter.next().isCancelled()) {
+					iter.remove();
+				}
+			}
+			cancelledEvents = 0;
+		}
+	}
+
+	/**
+	 * Gets the number of events waiting to be dispatched, cancelled events excluded.
+	 *
+	 * @return the pending event count
+	 */
+	public int getPendingEventCount() {
+		return future == null ? 0 : future.size() - cancelledEvents;
+	}
+
+	/**
+	 * Sets an entity's state to be waiting for an event matching a predicate.
+	 *
+	 * @param srcId the src
+	 * @param p the p
+	 */
+	public void wait(int srcId, Predicate p) {
+		entities.get(srcId).setState(SimEntity.EntityStatus.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			waitPredicates.put(srcId, p);
+		}
+	}
+
+	/**
+	 * Cancels an event that has not been dispatched yet. The event is only marked: it is dropped
+	 * when it reaches the head of the future queue, so this takes constant time.
+	 *
+	 * @param e the event, as returned by {@link #send} or {@link #sendFirst}
+	 * @return <tt>true</tt> if the event was pending and is now cancelled
+	 */
+	public boolean cancel(SimEvent e) {
+		if (e == null || !e.isPending()) {
+			return false;
+		}
+		e.markCancelled();
+		unindex(e);
+		addCancelledEvent();
+		return true;
+	}
+
+	/**
+	 * Removes an event from the event queue. Events selected by tag ({@link PredicateType}) are
+	 * found through the cancellation index, other predicates are matched against every event.
+	 *
+	 * @param srcId the entity source id
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent cancel(int srcId, Predicate p) {
+		if (p instanceof PredicateType type) {
+			for (CloudSimTags tag : type.getTagList()) {
+				Iterator<SimEvent> iter = indexedEvents(srcId, tag).iterator();
+				if (iter.hasNext()) {
+					SimEvent ev = iter.next();
+					cancel(ev);
+					return ev;
+				}
+			}
+			return null;
+		}
+
+		SimEvent ev;
+		Iterator<SimEvent> iter = future.iterator();
+		while (iter.hasNext()) {
+			ev = iter.next();
+			if (ev.isPending() && ev.getSourceId() == srcId && p.match(ev)) {
+				iter.remove();
+				ev.setPending(false);
+				unindex(ev);
+				return ev;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue. Events selected
+	 * by tag ({@link PredicateType}) are found through the cancellation index, other predicates are
+	 * matched against every event.
+	 *
+	 * @param srcId the entity source id
+	 * @param p the p
+	 * @return true, if successful
+	 */
+	public boolean cancelAll(int srcId, Predicate p) {
+		boolean cancelled = false;
+		if (p instanceof PredicateType type) {
+			for (CloudSimTags tag : type.getTagList()) {
+				Set<SimEvent> events = indexedEvents(srcId, tag);
+				for (SimEvent ev : events) {
+					ev.markCancelled();
+					ev.setIndexed(false);
+					addCancelledEvent();
+					cancelled = true;
+				}
+				events.clear();
+			}
+			return cancelled;
+		}
+
+		SimEvent ev;
+		Iterator<SimEvent> iter = future.iterator();
+		while (iter.hasNext()) {
+			ev = iter.next();
+			if (ev.isPending() && ev.getSourceId() == srcId && p.match(ev)) {
+				iter.remove();
+				ev.setPending(false);
+				unindex(ev);
+				cancelled = true;
+			}
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Dispatch event to destination entity
+	 *
+	 * @param e the e
+	 */
+	private void dispatchEvent(SimEvent e) {
+		int dstId = e.getDestinationId();
+		int srcId = e.getSourceId();
+		SimEntity destEnt = entities.get(dstId);
+		e.setPending(false);
+		unindex(e);
+
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL -> throw new IllegalArgumentException("Event has a null type.");
+			case SimEvent.CREATE -> {
+				addEntityDynamically((SimEntity) e.getData());
+			}
+			case SimEvent.SEND -> {
+				if (destEnt.getState() == SimEntity.EntityStatus.WAITING) { // NOTE: this branch is never used
+					Predicate p = waitPredicates.get(dstId);
+
+					if ((p == null) || (p.match(e))) {
+						destEnt.setState(SimEntity.EntityStatus.RUNNABLE);
+						waitPredicates.remove(dstId);
+					}
+				}
+				destEnt.getIncomingEvents().add(e);
+				if (destEnt.getState() == SimEntity.EntityStatus.RUNNABLE) {
+					markReady(destEnt);
+				}
+			}
+			case SimEvent.HOLD_DONE -> {
+				SimEntity ent = entities.get(srcId);
+				ent.setState(SimEntity.EntityStatus.RUNNABLE);
+				markReady(ent);
+			}
+			default -> {
+			}
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	/**
+	 * Check if the simulation is still running.
+	 *
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * Pauses the simulation.
+	 *
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * Pauses the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Resumes the simulation that has previously been paused.
+	 *
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		return !paused;
+	}
+
+	/**
+	 * Start the simulation running. This should be called after all the entities have been setup
+	 * and added, and their ports linked.
+	 *
+	 * @return the last clock value
+	 */
+	public double run() {
+		if (!running) {
+			runStart();
+		}
+		while (true) {
+			if (!runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			if (pauseAt != -1
+					&& ((hasPendingEvents() && clock <= pauseAt && pauseAt <= future.peek()
+							.eventTime()) || !hasPendingEvents() && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			while (paused) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		double clock = clock();
+
+		finishSimulation();
+		runStop();
+
+		return clock;
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate.
+	 */
+	private void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.EntityStatus.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+		}
+
+		// reset all the per-run variables
+		entities = null;
+		entitiesByName = null;
+		future = null;
+		cancellationIndex = null;
+		cancelledEvents = 0;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 *
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.println(message);
+	}
+
+	/**
+	 * Checks if is paused.
+	 *
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+}
@@ -8,6 +8,10 @@
 
 package org.cloudbus.cloudsim.core.predicates;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 
@@ -24,6 +28,9 @@ public class PredicateType extends Predicate {
 	/** Array of tags to verify if the tag of received events correspond to. */
 	private final CloudSimTags[] tags;
 
+	/** A read-only view of {@link #tags}. */
+	private final List<CloudSimTags> tagList;
+
 	/**
 	 * Constructor used to select events with the given tag value.
 	 * 
@@ -31,6 +38,7 @@ public class PredicateType extends Predicate {
 	 */
 	public PredicateType(CloudSimTags t1) {
 		tags = new CloudSimTags[] { t1 };
+		tagList = Collections.unmodifiableList(Arrays.asList(tags));
 	}
 
 	/**
@@ -40,6 +48,25 @@ public class PredicateType extends Predicate {
 	 */
 	public PredicateType(CloudSimTags[] tags) {
 		this.tags = tags.clone();
+		tagList = Collections.unmodifiableList(Arrays.asList(this.tags));
+	}
+
+	/**
+	 * Gets the tags selected by this predicate.
+	 *
+	 * @return a copy of the tags
+	 */
+	public CloudSimTags[] getTags() {
+		return tags.clone();
+	}
+
+	/**
+	 * Gets the tags selected by this predicate, without copying them.
+	 *
+	 * @return a read-only view of the tags
+	 */
+	public List<CloudSimTags> getTagList() {
+		return tagList;
 	}
 
 	/**
@@ -27,4 +27,35 @@ public class IPUtil {
         return String.format("%d.%d.%d.%d", i1, i2, i3, i4);
     }
 
+    /**
+     * Parses the canonical String representation of an IPv4 to its integer
+     * representation, as an unsigned value.
+     * 
+     * @param ip
+     *            - the IP in the dotted decimal format.
+     * @return the IP as an unsigned integer, or -1 if the provided string is
+     *         not an IPv4 in the dotted decimal format.
+     */
+    public static long parseIPv4(final String ip) {
+        long result = 0;
+        int octet = -1;
+        int octets = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + c - '0';
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                result = result << 8 | octet;
+                octet = -1;
+                octets++;
+            } else {
+                return -1;
+            }
+        }
+        return octet >= 0 && octets == 3 ? result << 8 | octet : -1;
+    }
+
 }
@@ -3,7 +3,6 @@ package org.cloudbus.cloudsim.geolocation.geoip2;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.MinMaxPriorityQueue;
 import com.maxmind.geoip2.DatabaseReader;
 import com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.maxmind.geoip2.model.CityResponse;
@@ -14,6 +13,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.cloudbus.cloudsim.geolocation.BaseGeolocationService;
 import org.cloudbus.cloudsim.geolocation.IGeolocationService;
 import org.cloudbus.cloudsim.geolocation.IPMetadata;
+import org.cloudbus.cloudsim.geolocation.IPUtil;
 import org.cloudbus.cloudsim.EX.util.CustomLog;
 
 import java.io.*;
@@ -47,8 +47,11 @@ public class GeoIP2PingERService extends BaseGeolocationService implements IGeol
     private final Cache<String, double[]> coordinatesCache = CacheBuilder.newBuilder().concurrencyLevel(1)
             .initialCapacity(INITIAL_CACHE_SIZE).maximumSize(CACHE_SIZE).build();
 
-    /** In order to minimise the number of created instances, we keep a cache. */
-    private final Cache<String, Double> ipDistanceCache = CacheBuilder.newBuilder().concurrencyLevel(1)
+    /**
+     * In order to minimise the number of created instances, we keep a cache.
+     * The key packs the two IPv4 addresses in a long.
+     */
+    private final Cache<Long, Double> ipDistanceCache = CacheBuilder.newBuilder().concurrencyLevel(1)
             .initialCapacity(INITIAL_CACHE_SIZE).maximumSize(CACHE_SIZE).build();
 
     // @TODO Extract these TSV/CSV constants elsewhere as they can be reused ...
@@ -75,6 +78,8 @@ public class GeoIP2PingERService extends BaseGeolocationService implements IGeol
 
     private final Map<String, double[]> nodesTable = new HashMap<>();
     private final Map<Pair<String, String>, Double> latencyTable = new HashMap<>();
+    /** The measurements of the latency table, indexed by the locations of their nodes. */
+    private PingERLatencyIndex latencyIndex;
 
     /**
      * Constructor.
@@ -180,6 +185,29 @@ public class GeoIP2PingERService extends BaseGeolocationService implements IGeol
         }
         CustomLog.printf(Level.FINER, "Total %d ping measurments definitions parsed", latencyTable.size());
         CustomLog.print(Level.FINER, "The definitions of the following nodes are missing." + unknownNodes);
+        buildLatencyIndex();
+    }
+
+    private void buildLatencyIndex() {
+        String[] nodeNames = nodesTable.keySet().toArray(new String[0]);
+        double[][] nodeCoords = new double[nodeNames.length][];
+        Map<String, Integer> nodeIndexes = new HashMap<>();
+        for (int i = 0; i < nodeNames.length; i++) {
+            nodeCoords[i] = nodesTable.get(nodeNames[i]);
+            nodeIndexes.put(nodeNames[i], i);
+        }
+
+        int[] nodes1 = new int[latencyTable.size()];
+        int[] nodes2 = new int[latencyTable.size()];
+        double[] latencies = new double[latencyTable.size()];
+        int i = 0;
+        for (Map.Entry<Pair<String, String>, Double> el : latencyTable.entrySet()) {
+            nodes1[i] = nodeIndexes.get(el.getKey().getLeft());
+            nodes2[i] = nodeIndexes.get(el.getKey().getRight());
+            latencies[i] = el.getValue();
+            i++;
+        }
+        latencyIndex = new PingERLatencyIndex(nodeNames, nodeCoords, nodes1, nodes2, latencies);
     }
 
     private void parseNodesDefitions(final BufferedReader defs) throws Exception {
@@ -276,8 +304,11 @@ public class GeoIP2PingERService extends BaseGeolocationService implements IGeol
 
     @Override
     public final double latency(final String ip1, final String ip2) {
-        String key = ip1 + ip2;
-        Double cached = ipDistanceCache.getIfPresent(key);
+        long ipv41 = IPUtil.parseIPv4(ip1);
+        long ipv42 = IPUtil.parseIPv4(ip2);
+        // Only the pairs of IPv4 addresses are cached
+        Long key = ipv41 >= 0 && ipv42 >= 0 ? ipv41 << 32 | ipv42 : null;
+        Double cached = key != null ? ipDistanceCache.getIfPresent(key) : null;
         if (cached != null) {
             return cached;
         }
@@ -286,165 +317,50 @@ public class GeoIP2PingERService extends BaseGeolocationService implements IGeol
         final double[] reqCoord2 = getCoordinates(ip2);
 
         double result = latency(reqCoord1, reqCoord2);
-        CustomLog.print(Level.FINEST, String.format("Latency betweeen %s and %s is %.2f", ip1, ip2, result));
+        if (CustomLog.isLevelHighEnough(Level.FINEST)) {
+            CustomLog.print(Level.FINEST, String.format("Latency betweeen %s and %s is %.2f", ip1, ip2, result));
+        }
 
-        ipDistanceCache.put(key, result);
+        if (key != null) {
+            ipDistanceCache.put(key, result);
+        }
         return result;
     }
 
+    /**
+     * Estimates the latency between two locations from the PingER measurements
+     * whose nodes are the closest to them. The best
+     * {@value #NUM_APPROX_FOR_LATENCY_ESTIMATION} measurements, in terms of the
+     * accumulated distance between their nodes and the requested locations,
+     * are averaged, weighted by their distance relatively to the best one.
+     * Measurements having a node in common with a better one are skipped, so
+     * as to maintain "diversity", in terms of the used nodes.
+     */
     @Override
     public double latency(final double[] reqCoord1, final double[] reqCoord2) {
-		// Set up the heap...
-        @SuppressWarnings("rawtypes")
-        MinMaxPriorityQueue.Builder builderRaw = MinMaxPriorityQueue.maximumSize(NUM_APPROX_FOR_LATENCY_ESTIMATION);
-        @SuppressWarnings({ "unchecked" })
-        MinMaxPriorityQueue.Builder<PingERLatencyEntry> builder = builderRaw;
-        builder.expectedSize(NUM_APPROX_FOR_LATENCY_ESTIMATION);
-
-        // We keep all latencies within a priority queue with a fixed size N. At
-        // the end we compute the average of the best N elements, which are kept
-        // in the queue.
-        MinMaxPriorityQueue<PingERLatencyEntry> heap = builder.create();
-
-
-        // Loop through the latencies and put them in the priority queue.
-        for (Map.Entry<Pair<String, String>, Double> el : latencyTable.entrySet()) {
-            // The coordinates and names of the two nodes of the latency entry.
-            String node1 = el.getKey().getLeft();
-            String node2 = el.getKey().getRight();
-            double[] nodeCoord1 = nodesTable.get(node1);
-            double[] nodeCoord2 = nodesTable.get(node2);
-            double latency = el.getValue();
-
-            // If the nodes are missing from the table of nodes'
-            // definitions - skip
-            if (nodeCoord1 == null || nodeCoord2 == null) {
-                continue;
-            }
-
-            // Compute the sum of the difference between the nodes
-            // and requested locations
-            double distance1 = distance(reqCoord1, nodeCoord1);
-            double distance2 = distance(reqCoord2, nodeCoord2);
-            double distanceSum = distance1 + distance2;
-
-            // Now do it inversely ...
-            double distance1Inverse = distance(reqCoord1, nodeCoord2);
-            double distance2Inverse = distance(reqCoord2, nodeCoord1);
-            double distanceSumInverse = distance1Inverse + distance2Inverse;
-
-            // Update the heap/queue...
-            PingERLatencyEntry qEntry = null;
-            if (distanceSum < distanceSumInverse) {
-                qEntry = new PingERLatencyEntry(node1, nodeCoord1, node2, nodeCoord2, distanceSum, latency);
-            } else {
-                qEntry = new PingERLatencyEntry(node1, nodeCoord2, node2, nodeCoord1, distanceSumInverse, latency);
-            }
-            updateHeap(heap, qEntry);
+        int count = latencyIndex.nearest(reqCoord1, reqCoord2, NUM_APPROX_FOR_LATENCY_ESTIMATION, this::distance);
+        if (count == 0) {
+            return Double.NaN;
         }
 
-        double result = weigthedAverage(heap);
-		return result;
-	}
-
-    public double weigthedAverage(final MinMaxPriorityQueue<PingERLatencyEntry> heap) {
         double sumLatencies = 0;
         double weigthedCount = 0;
-        double bestDistance = heap.peekFirst().accumDistance;
-        while (!heap.isEmpty()) {
-            PingERLatencyEntry e = heap.pollFirst();
-            double eWeigthedCount = bestDistance / e.accumDistance;
+        double bestDistance = latencyIndex.getSelectedDistance(0);
+        for (int i = 0; i < count; i++) {
+            int e = latencyIndex.getSelected(i);
+            double accumDistance = latencyIndex.getSelectedDistance(i);
+            double latency = latencyIndex.getLatency(e);
+            double eWeigthedCount = bestDistance / accumDistance;
             weigthedCount += eWeigthedCount;
-            sumLatencies += e.latency * eWeigthedCount;
-            CustomLog.print(Level.FINEST, String.format(
-                    "Used nodes %s, %s; Accum Distance %.2f, Latency %.2f, Weigth %.2f ", e.node1, e.node2,
-                    e.accumDistance / 1000, e.latency, eWeigthedCount));
-        }
-        return sumLatencies / weigthedCount;
-    }
-
-    /**
-     * Performance optimisation! Use this variable instead of creating a new
-     * ArrayList in every call to updateHeap! <strong>NOTE:<\strong> do not
-     * modify from other methods!
-     */
-    private final List<PingERLatencyEntry> elemsWithMatchingNodes = new ArrayList<>();
-
-    /**
-     * Adds the new entry to the heap, only if there is no other entry with less
-     * distance to the requested point and having a common node. If in the heap
-     * there is an element with a common node and greater distance, it is
-     * replaced with the new entry.
-     * 
-     * <br>
-     * <br>
-     * 
-     * The main idea of this method is to maintain "diversity", in terms of the
-     * used nodes in the heap.
-     * 
-     * @param heap
-     *            - the heap.
-     * @param qEntry
-     *            - the new entry.
-     */
-    public void updateHeap(final MinMaxPriorityQueue<PingERLatencyEntry> heap, final PingERLatencyEntry qEntry) {
-        elemsWithMatchingNodes.clear();
-        for (PingERLatencyEntry e : heap) {
-            if (qEntry.node1.equals(e.node1) || qEntry.node1.equals(e.node2) || qEntry.node2.equals(e.node1)
-                    || qEntry.node2.equals(e.node2)) {
-                elemsWithMatchingNodes.add(e);
-            }
-        }
-
-        if (elemsWithMatchingNodes.isEmpty()) {
-            heap.offer(qEntry);
-        } else {
-            boolean replaceMatches = true;
-            for (PingERLatencyEntry m : elemsWithMatchingNodes) {
-                if (m.accumDistance < qEntry.accumDistance) {
-                    replaceMatches = false;
-                    break;
-                }
-            }
-
-            if (replaceMatches) {
-                heap.removeAll(elemsWithMatchingNodes);
-                heap.offer(qEntry);
+            sumLatencies += latency * eWeigthedCount;
+            if (CustomLog.isLevelHighEnough(Level.FINEST)) {
+                CustomLog.print(Level.FINEST, String.format(
+                        "Used nodes %s, %s; Accum Distance %.2f, Latency %.2f, Weigth %.2f ",
+                        latencyIndex.getSiteName1(e), latencyIndex.getSiteName2(e), accumDistance / 1000, latency,
+                        eWeigthedCount));
             }
         }
-    }
-
-    private static class PingERLatencyEntry implements Comparable<PingERLatencyEntry> {
-
-        public PingERLatencyEntry(final String node1, final double[] coord1, final String node2, final double[] coord2,
-                final double distance, final double latency) {
-            super();
-            this.node1 = node1;
-            this.coord1 = coord1;
-            this.node2 = node2;
-            this.coord2 = coord2;
-            this.accumDistance = distance;
-            this.latency = latency;
-        }
-
-        final String node1;
-        final double[] coord1;
-        final String node2;
-        final double[] coord2;
-        final double accumDistance;
-        final double latency;
-
-        @Override
-        public int compareTo(PingERLatencyEntry o) {
-            return Double.compare(accumDistance, o.accumDistance);
-        }
-
-        @Override
-        public String toString() {
-            return String.format(
-                    "Node1: %s, (%.2f, %.2f), Node2: %s, (%.2f, %.2f), Accum Distance: %.2f, Latency: %.2f", node1,
-                    coord1[0], coord1[1], node2, coord2[0], coord2[1], accumDistance, latency);
-        }
+        return sumLatencies / weigthedCount;
     }
 
     public static void main(String[] args) throws IOException {
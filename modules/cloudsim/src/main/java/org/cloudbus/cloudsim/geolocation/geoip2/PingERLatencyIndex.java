@@ -0,0 +1,392 @@
+package org.cloudbus.cloudsim.geolocation.geoip2;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * A spatial index over the PingER latency measurements, used to find the measurements whose
+ * monitoring sites are the closest to a pair of requested locations.
+ *
+ * <br>
+ * <br>
+ *
+ * Each measurement between two sites is a point of a 6-dimensional k-d tree: the Earth-centred
+ * coordinates (in meters, on the WGS-84 ellipsoid) of its first site followed by those of its
+ * second site. The straight line between two points of the ellipsoid is never longer than the
+ * geodesic between them, so the distance from a requested location to the bounding box of a tree
+ * node bounds from below the geodesic distance to any of the node's sites. The measurements are
+ * then visited in increasing accumulated distance, best-first, and only the few nodes close to
+ * the requested locations are opened.
+ *
+ * <br>
+ * <br>
+ *
+ * This class is not thread-safe: its search buffers are reused from a query to the next.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+final class PingERLatencyIndex {
+
+    /**
+     * How much shorter than the straight line a distance may be, in meters. The distances are
+     * cached by coordinates rounded to 0.1 degree, so the cached distance between two points can
+     * be the one of two points up to ~0.14 degree (~16 km) away from each.
+     */
+    private static final double DISTANCE_SLACK = 35_000;
+    /** The maximum number of measurements in a leaf of the tree. */
+    private static final int LEAF_SIZE = 8;
+    /** The dimensions of a measurement point: the coordinates of its two sites. */
+    private static final int DIMS = 6;
+    /** The semi-major axis of the WGS-84 ellipsoid. */
+    private static final double WGS84_A = 6378137;
+    /** The squared eccentricity of the WGS-84 ellipsoid. */
+    private static final double WGS84_E2 = (2 - 1 / 298.257223563) / 298.257223563;
+
+    private final String[] siteNames;
+    private final double[][] siteCoords;
+
+    /** The two sites and the latency of each measurement. */
+    private final int[] sites1;
+    private final int[] sites2;
+    private final double[] latencies;
+    /** The point of each measurement, {@link #DIMS} coordinates each. */
+    private final double[] points;
+
+    /** The measurements, ordered so that each tree node covers a contiguous range. */
+    private final int[] order;
+
+    /** The range of measurements, the children (-1 for leaves) and the bounding box of each node. */
+    private int[] nodeFrom = new int[16];
+    private int[] nodeTo = new int[16];
+    private int[] nodeLeft = new int[16];
+    private int[] nodeRight = new int[16];
+    private double[] nodeBoxes = new double[16 * 2 * DIMS];
+    private int nodeCount;
+
+    /** The search queue, a binary min-heap of nodes (ids >= 0) and measurements (ids < 0). */
+    private double[] queueKeys = new double[64];
+    private int[] queueIds = new int[64];
+    private int queueSize;
+
+    /** The measurements selected by the last query and their accumulated distances. */
+    private int[] selected = new int[0];
+    private double[] selectedDistances = new double[0];
+
+    /**
+     * Builds the index.
+     *
+     * @param siteNames
+     *            - the names of the monitoring sites.
+     * @param siteCoords
+     *            - the latitude and longitude of each monitoring site.
+     * @param sites1
+     *            - the first site of each measurement.
+     * @param sites2
+     *            - the second site of each measurement.
+     * @param latencies
+     *            - the latency of each measurement.
+     */
+    PingERLatencyIndex(final String[] siteNames, final double[][] siteCoords, final int[] sites1, final int[] sites2,
+            final double[] latencies) {
+        this.siteNames = siteNames;
+        this.siteCoords = siteCoords;
+        this.sites1 = sites1;
+        this.sites2 = sites2;
+        this.latencies = latencies;
+
+        int size = latencies.length;
+        double[] siteXyz = new double[3 * siteCoords.length];
+        for (int s = 0; s < siteCoords.length; s++) {
+            toXyz(siteCoords[s], siteXyz, 3 * s);
+        }
+        points = new double[DIMS * size];
+        order = new int[size];
+        for (int e = 0; e < size; e++) {
+            System.arraycopy(siteXyz, 3 * sites1[e], points, DIMS * e, 3);
+            System.arraycopy(siteXyz, 3 * sites2[e], points, DIMS * e + 3, 3);
+            order[e] = e;
+        }
+        if (size > 0) {
+            build(0, size);
+        }
+    }
+
+    /**
+     * @return the number of measurements.
+     */
+    int size() {
+        return latencies.length;
+    }
+
+    /**
+     * Finds the measurements with the least accumulated distance to two requested locations, taken
+     * greedily in increasing distance and skipping those that share a site with one already taken,
+     * so as to maintain diversity in the used sites. The accumulated distance of a measurement is
+     * the distance from the first location to one of its sites plus the distance from the second
+     * location to the other site, whichever way round is shorter.
+     *
+     * @param reqCoord1
+     *            - the latitude and longitude of the first location.
+     * @param reqCoord2
+     *            - the latitude and longitude of the second location.
+     * @param count
+     *            - the maximum number of measurements to select.
+     * @param distance
+     *            - the distance, in meters, between two coordinates.
+     * @return the number of selected measurements, see {@link #getSelected(int)}.
+     */
+    int nearest(final double[] reqCoord1, final double[] reqCoord2, final int count,
+            final ToDoubleBiFunction<double[], double[]> distance) {
+        if (selected.length < count) {
+            selected = new int[count];
+            selectedDistances = new double[count];
+        }
+        if (nodeCount == 0 || Double.isNaN(reqCoord1[0] + reqCoord1[1] + reqCoord2[0] + reqCoord2[1])) {
+            return 0;
+        }
+        double[] req = new double[DIMS];
+        toXyz(reqCoord1, req, 0);
+        toXyz(reqCoord2, req, 3);
+
+        int found = 0;
+        queueSize = 0;
+        offer(lowerBound(0, req), 0);
+        while (queueSize > 0 && found < count) {
+            double key = queueKeys[0];
+            int id = poll();
+            if (id >= 0) {
+                if (nodeLeft[id] < 0) {
+                    for (int i = nodeFrom[id]; i < nodeTo[id]; i++) {
+                        int e = order[i];
+                        offer(accumulatedDistance(e, reqCoord1, reqCoord2, distance), -1 - e);
+                    }
+                } else {
+                    offer(lowerBound(nodeLeft[id], req), nodeLeft[id]);
+                    offer(lowerBound(nodeRight[id], req), nodeRight[id]);
+                }
+            } else if (sharesNoSite(-1 - id, found)) {
+                selected[found] = -1 - id;
+                selectedDistances[found] = key;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param i
+     *            - the rank of a measurement selected by the last query.
+     * @return the measurement.
+     */
+    int getSelected(final int i) {
+        return selected[i];
+    }
+
+    /**
+     * @param i
+     *            - the rank of a measurement selected by the last query.
+     * @return its accumulated distance to the requested locations.
+     */
+    double getSelectedDistance(final int i) {
+        return selectedDistances[i];
+    }
+
+    double getLatency(final int e) {
+        return latencies[e];
+    }
+
+    String getSiteName1(final int e) {
+        return siteNames[sites1[e]];
+    }
+
+    String getSiteName2(final int e) {
+        return siteNames[sites2[e]];
+    }
+
+    private double accumulatedDistance(final int e, final double[] reqCoord1, final double[] reqCoord2,
+            final ToDoubleBiFunction<double[], double[]> distance) {
+        double[] siteCoord1 = siteCoords[sites1[e]];
+        double[] siteCoord2 = siteCoords[sites2[e]];
+        double distanceSum = distance.applyAsDouble(reqCoord1, siteCoord1)
+                + distance.applyAsDouble(reqCoord2, siteCoord2);
+        // Now do it inversely ...
+        double distanceSumInverse = distance.applyAsDouble(reqCoord1, siteCoord2)
+                + distance.applyAsDouble(reqCoord2, siteCoord1);
+        double result = Math.min(distanceSum, distanceSumInverse);
+        // Measurements whose distance can't be computed come last
+        return result < Double.POSITIVE_INFINITY ? result : Double.POSITIVE_INFINITY;
+    }
+
+    private boolean sharesNoSite(final int e, final int found) {
+        for (int i = 0; i < found; i++) {
+            int other = selected[i];
+            if (sites1[e] == sites1[other] || sites1[e] == sites2[other] || sites2[e] == sites1[other]
+                    || sites2[e] == sites2[other]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A lower bound of the accumulated distance of the measurements of a node, either way round.
+     */
+    private double lowerBound(final int node, final double[] req) {
+        int box = 2 * DIMS * node;
+        double direct = boxDistance(req, 0, box, 0) + boxDistance(req, 3, box, 3);
+        double inverse = boxDistance(req, 0, box, 3) + boxDistance(req, 3, box, 0);
+        return Math.min(direct, inverse);
+    }
+
+    /**
+     * The distance from a requested location to the box of one of the sites of a node, less the
+     * slack of the distances.
+     */
+    private double boxDistance(final double[] req, final int reqOffset, final int box, final int boxOffset) {
+        double sum = 0;
+        for (int d = 0; d < 3; d++) {
+            double q = req[reqOffset + d];
+            double min = nodeBoxes[box + boxOffset + d];
+            double max = nodeBoxes[box + DIMS + boxOffset + d];
+            double gap = q < min ? min - q : q > max ? q - max : 0;
+            sum += gap * gap;
+        }
+        return Math.max(0, Math.sqrt(sum) - DISTANCE_SLACK);
+    }
+
+    private int build(final int from, final int to) {
+        int node = nodeCount++;
+        if (node == nodeFrom.length) {
+            int capacity = 2 * node;
+            nodeFrom = Arrays.copyOf(nodeFrom, capacity);
+            nodeTo = Arrays.copyOf(nodeTo, capacity);
+            nodeLeft = Arrays.copyOf(nodeLeft, capacity);
+            nodeRight = Arrays.copyOf(nodeRight, capacity);
+            nodeBoxes = Arrays.copyOf(nodeBoxes, capacity * 2 * DIMS);
+        }
+        nodeFrom[node] = from;
+        nodeTo[node] = to;
+
+        int box = 2 * DIMS * node;
+        Arrays.fill(nodeBoxes, box, box + DIMS, Double.POSITIVE_INFINITY);
+        Arrays.fill(nodeBoxes, box + DIMS, box + 2 * DIMS, Double.NEGATIVE_INFINITY);
+        for (int i = from; i < to; i++) {
+            int point = DIMS * order[i];
+            for (int d = 0; d < DIMS; d++) {
+                nodeBoxes[box + d] = Math.min(nodeBoxes[box + d], points[point + d]);
+                nodeBoxes[box + DIMS + d] = Math.max(nodeBoxes[box + DIMS + d], points[point + d]);
+            }
+        }
+
+        if (to - from <= LEAF_SIZE) {
+            nodeLeft[node] = -1;
+            nodeRight[node] = -1;
+            return node;
+        }
+        // Split at the median of the widest dimension
+        int widest = 0;
+        for (int d = 1; d < DIMS; d++) {
+            if (nodeBoxes[box + DIMS + d] - nodeBoxes[box + d] > nodeBoxes[box + DIMS + widest]
+                    - nodeBoxes[box + widest]) {
+                widest = d;
+            }
+        }
+        int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, widest);
+        int left = build(from, middle);
+        int right = build(middle, to);
+        nodeLeft[node] = left;
+        nodeRight[node] = right;
+        return node;
+    }
+
+    /**
+     * Partially sorts a range of measurements on a dimension, so that the k-th one is in place.
+     */
+    private void select(int left, int right, final int k, final int dim) {
+        while (right > left) {
+            double pivot = points[DIMS * order[(left + right) >>> 1] + dim];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (points[DIMS * order[i] + dim] < pivot) {
+                    i++;
+                }
+                while (points[DIMS * order[j] + dim] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void offer(final double key, final int id) {
+        if (queueSize == queueKeys.length) {
+            queueKeys = Arrays.copyOf(queueKeys, 2 * queueSize);
+            queueIds = Arrays.copyOf(queueIds, 2 * queueSize);
+        }
+        int i = queueSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (queueKeys[parent] <= key) {
+                break;
+            }
+            queueKeys[i] = queueKeys[parent];
+            queueIds[i] = queueIds[parent];
+            i = parent;
+        }
+        queueKeys[i] = key;
+        queueIds[i] = id;
+    }
+
+    private int poll() {
+        int top = queueIds[0];
+        double key = queueKeys[--queueSize];
+        int id = queueIds[queueSize];
+        int i = 0;
+        int half = queueSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < queueSize && queueKeys[child + 1] < queueKeys[child]) {
+                child++;
+            }
+            if (key <= queueKeys[child]) {
+                break;
+            }
+            queueKeys[i] = queueKeys[child];
+            queueIds[i] = queueIds[child];
+            i = child;
+        }
+        queueKeys[i] = key;
+        queueIds[i] = id;
+        return top;
+    }
+
+    /**
+     * Converts a latitude and longitude, in degrees, to Earth-centred coordinates on the WGS-84
+     * ellipsoid.
+     */
+    private static void toXyz(final double[] coord, final double[] xyz, final int offset) {
+        double lat = Math.toRadians(coord[0]);
+        double lon = Math.toRadians(coord[1]);
+        double sinLat = Math.sin(lat);
+        double cosLat = Math.cos(lat);
+        double n = WGS84_A / Math.sqrt(1 - WGS84_E2 * sinLat * sinLat);
+        xyz[offset] = n * cosLat * Math.cos(lon);
+        xyz[offset + 1] = n * cosLat * Math.sin(lon);
+        xyz[offset + 2] = n * (1 - WGS84_E2) * sinLat;
+    }
+}
@@ -23,13 +23,17 @@ import org.cloudbus.cloudsim.Cloudlet;
 public class CloudletList {
 
 	/**
-	 * Gets a {@link Cloudlet} with a given id.
+	 * Gets a {@link Cloudlet} with a given id. An {@link IdIndexedList} is searched through
+	 * its index, other lists are scanned.
 	 * 
 	 * @param cloudletList the list of existing Cloudlets
 	 * @param id the Cloudlet id
 	 * @return a Cloudlet with the given ID or $null if not found
 	 */
 	public static <T extends Cloudlet> T getById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof IdIndexedList<T> indexed) {
+			return indexed.getById(id);
+		}
 		for (T cl : cloudletList) {
 			if (cl.getCloudletId() == id) {
 				return cl;
@@ -57,6 +61,12 @@ public class CloudletList {
 			List<T> list,
 			int cloudletId,
 			int userId) {
+		if (list instanceof IdIndexedList<T> indexed) {
+			T cl = indexed.getById(cloudletId);
+			if (cl == null || cl.getUserId() == userId) {
+				return cl;
+			}
+		}
 		for (T cl : list) {
 			if (cl.getCloudletId() == cloudletId && cl.getUserId() == userId) {
 				return cl;
@@ -73,6 +83,9 @@ public class CloudletList {
 	 * @return the position of the cloudlet with the given id or -1 if not found
 	 */
 	public static <T extends Cloudlet> int getPositionById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof IdIndexedList<T> indexed) {
+			return indexed.indexOfId(id);
+		}
 		int i = 0 ;
 	        for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
@@ -25,7 +25,8 @@ import org.cloudbus.cloudsim.power.PowerHost;
 public class HostList {
 
 	/**
-	 * Gets a {@link HostEntity} with a given id.
+	 * Gets a {@link HostEntity} with a given id. An {@link IdIndexedList} is searched
+	 * through its index, other lists are scanned.
 	 * 
 	 * @param <T> the generic type
 	 * @param hostList the list of existing hosts
@@ -36,6 +37,9 @@ public class HostList {
 	 * @post $none
 	 */
 	public static <T extends HostEntity> T getById(List<T> hostList, int id) {
+		if (hostList instanceof IdIndexedList<T> indexed) {
+			return indexed.getById(id);
+		}
 		for (T host : hostList) {
 			if (host.getId() == id) {
 				return host;
@@ -0,0 +1,191 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.ToIntFunction;
+
+/**
+ * An {@link ArrayList} that indexes its elements by id, so that {@link VmList#getById(java.util.List, int)},
+ * {@link CloudletList#getById(java.util.List, int)}, {@link CloudletList#getPositionById(java.util.List, int)}
+ * and {@link HostList#getById(java.util.List, int)} find an element in constant time instead of scanning
+ * the list. Several elements may share an id: as with a scan, the first one is found.
+ * <p>
+ * Appending keeps the index up to date; any other change of the list (removal, insertion, sort, ...)
+ * makes it rebuilt by the next lookup. The id of an element must not change while it is in the list.
+ *
+ * @param <T> the type of the elements
+ * @since CloudSim Toolkit 7.0
+ */
+public class IdIndexedList<T> extends ArrayList<T> {
+
+	/** Gets the id of an element. */
+	private final ToIntFunction<? super T> idFunction;
+
+	/** The position of the first element with each id. */
+	private Map<Integer, Integer> positions = new HashMap<>();
+
+	/** Whether {@link #positions} reflects the list, as of {@link #indexedModCount}. */
+	private boolean indexed;
+
+	/** The modification count of the list when it was last indexed. */
+	private int indexedModCount;
+
+	/**
+	 * Creates an empty list.
+	 *
+	 * @param idFunction gets the id of an element
+	 */
+	public IdIndexedList(ToIntFunction<? super T> idFunction) {
+		this.idFunction = idFunction;
+	}
+
+	/**
+	 * Creates a list holding the elements of a collection.
+	 *
+	 * @param idFunction gets the id of an element
+	 * @param c the elements
+	 */
+	public IdIndexedList(ToIntFunction<? super T> idFunction, Collection<? extends T> c) {
+		super(c);
+		this.idFunction = idFunction;
+	}
+
+	@Override
+	public boolean add(T element) {
+		boolean current = isIndexCurrent();
+		super.add(element);
+		if (current) {
+			positions.putIfAbsent(idFunction.applyAsInt(element), size() - 1);
+			indexedModCount = modCount;
+		}
+		return true;
+	}
+
+	@Override
+	public T set(int index, T element) {
+		// Not a structural modification, so it does not change modCount
+		indexed = false;
+		return super.set(index, element);
+	}
+
+	/**
+	 * Gets a view of a range of the list. Replacing an element through the view makes the index
+	 * rebuilt, as {@link #set(int, Object)} does.
+	 */
+	@Override
+	public List<T> subList(int fromIndex, int toIndex) {
+		return new IndexedSubList(super.subList(fromIndex, toIndex));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		IdIndexedList<T> clone = (IdIndexedList<T>) super.clone();
+		clone.positions = new HashMap<>();
+		clone.indexed = false;
+		return clone;
+	}
+
+	/**
+	 * Gets the position of the first element with a given id.
+	 *
+	 * @param id the id
+	 * @return the position of the element, -1 if not found
+	 */
+	public int indexOfId(int id) {
+		if (!isIndexCurrent()) {
+			reindex();
+		}
+		Integer position = positions.get(id);
+		if (position != null && idFunction.applyAsInt(get(position)) != id) {
+			// An id changed while the element was in the list
+			reindex();
+			position = positions.get(id);
+		}
+		return position == null ? -1 : position;
+	}
+
+	/**
+	 * Gets the first element with a given id.
+	 *
+	 * @param id the id
+	 * @return the element, $null if not found
+	 */
+	public T getById(int id) {
+		int position = indexOfId(id);
+		return position < 0 ? null : get(position);
+	}
+
+	private boolean isIndexCurrent() {
+		return indexed && indexedModCount == modCount;
+	}
+
+	private void reindex() {
+		positions.clear();
+		for (int i = 0; i < size(); i++) {
+			positions.putIfAbsent(idFunction.applyAsInt(get(i)), i);
+		}
+		indexed = true;
+		indexedModCount = modCount;
+	}
+
+	/**
+	 * A range of the list. The structural changes go through the sub list of {@link ArrayList},
+	 * which counts them in the list; the replacements, which it does not count, mark the index stale.
+	 */
+	private final class IndexedSubList extends AbstractList<T> implements RandomAccess {
+		private final List<T> range;
+
+		IndexedSubList(List<T> range) {
+			this.range = range;
+		}
+
+		@Override
+		public T get(int index) {
+			return range.get(index);
+		}
+
+		@Override
+		public int size() {
+			return range.size();
+		}
+
+		@Override
+		public T set(int index, T element) {
+			indexed = false;
+			return range.set(index, element);
+		}
+
+		@Override
+		public void add(int index, T element) {
+			range.add(index, element);
+			modCount++;
+		}
+
+		@Override
+		public T remove(int index) {
+			T removed = range.remove(index);
+			modCount++;
+			return removed;
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			range.subList(fromIndex, toIndex).clear();
+			modCount++;
+		}
+	}
+}
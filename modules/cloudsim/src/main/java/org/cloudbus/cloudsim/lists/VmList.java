@@ -24,32 +24,19 @@ import org.cloudbus.cloudsim.core.GuestEntity;
 public class VmList {
 
 	/**
-	 * Gets a {@link Vm} with a given id.
+	 * Gets a {@link Vm} with a given id. An {@link IdIndexedList} is searched through
+	 * its index, other lists are scanned.
 	 * 
 	 * @param id ID of required VM
 	 * @param vmList list of existing VMs
 	 * @return a Vm with the given ID or $null if not found
 	 * @pre $none
 	 * @post $none
-         * 
-         * //@TODO It may be considered the use of a HashMap in order to improve
-         * VM search, instead of a List. The map key can be the vm id
-         * and the value the VM itself. However, it has to be assessed
-         * the feasibility to have VMs with the same ID and the need
-         * to find VMs by its id and user id, as in the method
-         * {@link #getByIdAndUserId(java.util.List, int, int)}.
-         * The first concern could be dealt by ensuring that all
-         * VMs have different ID (in fact, I don't know if 
-         * VM id uniqueness is a CloudSim requirement)
-         * and creating a map by VM id.
-         * The second concern could be dealt by creating 
-         * a HashMap<UserID, List<VmIDs>>.
-         * The third concern is, that changing 
-         * the class of these lists may have a potential
-         * effect on the entire project and in the creation of simulations
-         * that has to be priorly assessed.
 	 */
 	public static <T extends GuestEntity> T getById(List<T> vmList, int id) {
+		if (vmList instanceof IdIndexedList<T> indexed) {
+			return indexed.getById(id);
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id) {
 				return vm;
@@ -69,6 +56,12 @@ public class VmList {
 	 * @post $none
 	 */
 	public static <T extends GuestEntity> T getByIdAndUserId(List<T> vmList, int id, int userId) {
+		if (vmList instanceof IdIndexedList<T> indexed) {
+			T vm = indexed.getById(id);
+			if (vm == null || vm.getUserId() == userId) {
+				return vm;
+			}
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id && vm.getUserId() == userId) {
 				return vm;
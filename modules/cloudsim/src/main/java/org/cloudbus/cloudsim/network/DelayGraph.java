@@ -0,0 +1,562 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+/**
+ * The delays between the nodes of an undirected network topology, computed on demand.
+ * <p>
+ * Unlike {@link DelayMatrix_Float}, which builds the whole delay matrix with a dense Floyd-Warshall
+ * and has to be rebuilt after every new link, the links are kept in adjacency lists and the delays
+ * from a source node are only computed, with Dijkstra's algorithm, when first asked for. The rows
+ * of delays computed so far are kept in a least-recently-used cache of bounded size.
+ * <p>
+ * Links added between two queries form a batch, applied at the next query: a new link, or a link
+ * getting a shorter delay, only shortens paths, so the cached rows are repaired by propagating the
+ * shorter delays from its ends. A link getting a longer delay, or too large a batch, drops the
+ * cached rows instead.
+ * <p>
+ * For dense graphs where most pairs are queried, {@link #setAllPairs(boolean)} computes all the
+ * delays at once, with a blocked Floyd-Warshall whose blocks are relaxed in parallel.
+ * <p>
+ * As in {@link DelayMatrix_Float}, a link with no delay is not a path, a new link between two
+ * nodes replaces the previous one, and the delay between two nodes with no path is
+ * {@link Float#MAX_VALUE}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class DelayGraph {
+
+	/** The default maximum number of cached rows of delays. */
+	public static final int DEFAULT_CACHED_ROWS = 1024;
+
+	/** From this number of links added since the last query, the cached rows are dropped rather than repaired. */
+	private static final int MAX_REPAIRED_LINKS = 64;
+
+	/** The side of the blocks of the Floyd-Warshall. */
+	private static final int BLOCK = 64;
+
+	/** The number of nodes. */
+	private int nodeCount;
+
+	/** The neighbours of each node. */
+	private int[][] neighbors = new int[0][];
+
+	/** The delay of the link to each neighbour of each node. */
+	private float[][] linkDelays = new float[0][];
+
+	/** The bandwidth of the link to each neighbour of each node. */
+	private float[][] linkBws = new float[0][];
+
+	/** The number of neighbours of each node. */
+	private int[] degrees = new int[0];
+
+	/** The ends of the links added since the last query, in pairs. */
+	private int[] pendingLinks = new int[16];
+
+	/** The number of links added since the last query. */
+	private int pendingCount;
+
+	/** Whether a link got a longer delay since the last query, so that the cached rows are wrong. */
+	private boolean rowsStale;
+
+	/** The cached delays from each source node, <tt>null</tt> if not cached. */
+	private float[][] rows = new float[0][];
+
+	/** The next more recently used cached row of each source, -1 for the newest. */
+	private int[] newer = new int[0];
+
+	/** The next less recently used cached row of each source, -1 for the oldest. */
+	private int[] older = new int[0];
+
+	/** The source of the most recently used cached row, -1 if none. */
+	private int newest = -1;
+
+	/** The source of the least recently used cached row, -1 if none. */
+	private int oldest = -1;
+
+	/** The number of cached rows. */
+	private int cachedRows;
+
+	/** The maximum number of cached rows. */
+	private int maxCachedRows = DEFAULT_CACHED_ROWS;
+
+	/** Whether all the delays are computed at once. */
+	private boolean allPairs;
+
+	/** All the delays when computed at once, <tt>null</tt> until the next query. */
+	private float[][] matrix;
+
+	/** The binary min-heap of nodes of Dijkstra's algorithm. */
+	private int[] heap = new int[0];
+
+	/** The position of each node in the heap, -1 if not in it. */
+	private int[] heapPositions = new int[0];
+
+	/** The number of nodes in the heap. */
+	private int heapSize;
+
+	/**
+	 * Creates a graph with no node.
+	 */
+	public DelayGraph() {
+	}
+
+	/**
+	 * Creates the undirected graph of a topology, whose node IDs are taken as the indexes of the
+	 * nodes.
+	 *
+	 * @param graph the network topological graph
+	 */
+	public DelayGraph(TopologicalGraph graph) {
+		addNodes(graph.getNumberOfNodes());
+		Iterator<TopologicalLink> iter = graph.getLinkIterator();
+		while (iter.hasNext()) {
+			TopologicalLink link = iter.next();
+			int nodes = Math.max(link.getSrcNodeID(), link.getDestNodeID()) + 1;
+			if (nodes > nodeCount) {
+				addNodes(nodes - nodeCount);
+			}
+			addLink(link.getSrcNodeID(), link.getDestNodeID(), link.getLinkDelay(), link.getLinkBw());
+		}
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return nodeCount;
+	}
+
+	/**
+	 * Adds nodes to the graph, with the next indexes.
+	 *
+	 * @param count the number of nodes to add
+	 */
+	public void addNodes(int count) {
+		int capacity = degrees.length;
+		if (nodeCount + count > capacity) {
+			capacity = Math.max(nodeCount + count, 2 * capacity);
+			neighbors = Arrays.copyOf(neighbors, capacity);
+			linkDelays = Arrays.copyOf(linkDelays, capacity);
+			linkBws = Arrays.copyOf(linkBws, capacity);
+			degrees = Arrays.copyOf(degrees, capacity);
+			rows = Arrays.copyOf(rows, capacity);
+			newer = Arrays.copyOf(newer, capacity);
+			older = Arrays.copyOf(older, capacity);
+			heap = Arrays.copyOf(heap, capacity);
+			heapPositions = Arrays.copyOf(heapPositions, capacity);
+		}
+		Arrays.fill(heapPositions, nodeCount, nodeCount + count, -1);
+		// The new nodes are not linked yet: no cached source reaches them
+		for (int source = newest; source != -1; source = older[source]) {
+			rows[source] = Arrays.copyOf(rows[source], nodeCount + count);
+			Arrays.fill(rows[source], nodeCount, nodeCount + count, Float.MAX_VALUE);
+		}
+		nodeCount += count;
+		matrix = null;
+	}
+
+	/**
+	 * Adds an undirected link between two nodes, replacing the link between them if any. The
+	 * delays are updated at the next query.
+	 *
+	 * @param src the index of a node
+	 * @param dest the index of the other node
+	 * @param delay the delay of the link
+	 * @param bw the bandwidth of the link
+	 */
+	public void addLink(int src, int dest, float delay, float bw) {
+		checkNode(src);
+		checkNode(dest);
+		boolean longer = setLink(src, dest, delay, bw);
+		if (src != dest) {
+			setLink(dest, src, delay, bw);
+		}
+		matrix = null;
+		if (longer || pendingCount == MAX_REPAIRED_LINKS) {
+			rowsStale = true;
+		} else if (!rowsStale && cachedRows > 0) {
+			if (2 * pendingCount == pendingLinks.length) {
+				pendingLinks = Arrays.copyOf(pendingLinks, 2 * pendingLinks.length);
+			}
+			pendingLinks[2 * pendingCount] = src;
+			pendingLinks[2 * pendingCount + 1] = dest;
+			pendingCount++;
+		}
+	}
+
+	/**
+	 * Sets the link from a node to another.
+	 *
+	 * @return whether a path through the link got longer
+	 */
+	private boolean setLink(int src, int dest, float delay, float bw) {
+		int degree = degrees[src];
+		for (int i = 0; i < degree; i++) {
+			if (neighbors[src][i] == dest) {
+				float previous = linkDelays[src][i];
+				linkDelays[src][i] = delay;
+				linkBws[src][i] = bw;
+				return previous > 0 && (delay <= 0 || delay > previous);
+			}
+		}
+		if (neighbors[src] == null) {
+			neighbors[src] = new int[4];
+			linkDelays[src] = new float[4];
+			linkBws[src] = new float[4];
+		} else if (degree == neighbors[src].length) {
+			neighbors[src] = Arrays.copyOf(neighbors[src], 2 * degree);
+			linkDelays[src] = Arrays.copyOf(linkDelays[src], 2 * degree);
+			linkBws[src] = Arrays.copyOf(linkBws[src], 2 * degree);
+		}
+		neighbors[src][degree] = dest;
+		linkDelays[src][degree] = delay;
+		linkBws[src][degree] = bw;
+		degrees[src]++;
+		return false;
+	}
+
+	/**
+	 * Gets the bandwidth of the link between two nodes.
+	 *
+	 * @param src the index of a node
+	 * @param dest the index of the other node
+	 * @return the bandwidth, 0 if there is no link between the nodes
+	 */
+	public float getBw(int src, int dest) {
+		checkNode(src);
+		checkNode(dest);
+		for (int i = 0; i < degrees[src]; i++) {
+			if (neighbors[src][i] == dest) {
+				return linkBws[src][i];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the delay of the shortest path between two nodes.
+	 *
+	 * @param src the index of the source node
+	 * @param dest the index of the destination node
+	 * @return the delay, {@link Float#MAX_VALUE} if there is no path between the nodes
+	 */
+	public float getDelay(int src, int dest) {
+		checkNode(src);
+		checkNode(dest);
+		if (allPairs) {
+			if (matrix == null) {
+				matrix = allPairsShortestPaths();
+			}
+			return matrix[src][dest];
+		}
+		applyPendingLinks();
+		return getRow(src)[dest];
+	}
+
+	/**
+	 * Sets the maximum number of rows of delays, i.e. of source nodes, kept in the cache.
+	 *
+	 * @param maxCachedRows the maximum number of cached rows, at least 1
+	 */
+	public void setMaxCachedRows(int maxCachedRows) {
+		if (maxCachedRows < 1) {
+			throw new IllegalArgumentException("At least one row must be cached");
+		}
+		this.maxCachedRows = maxCachedRows;
+		while (cachedRows > maxCachedRows) {
+			evictOldest();
+		}
+	}
+
+	/**
+	 * @return the maximum number of rows of delays kept in the cache
+	 */
+	public int getMaxCachedRows() {
+		return maxCachedRows;
+	}
+
+	/**
+	 * Sets whether all the delays are computed at once at the first query following a change,
+	 * with a parallel blocked Floyd-Warshall, rather than per source node.
+	 *
+	 * @param allPairs whether to compute all the delays at once
+	 */
+	public void setAllPairs(boolean allPairs) {
+		this.allPairs = allPairs;
+		matrix = null;
+		while (cachedRows > 0) {
+			evictOldest();
+		}
+		rowsStale = false;
+		pendingCount = 0;
+	}
+
+	/**
+	 * @return whether all the delays are computed at once
+	 */
+	public boolean isAllPairs() {
+		return allPairs;
+	}
+
+	private void checkNode(int node) {
+		if (node < 0 || node >= nodeCount) {
+			throw new IndexOutOfBoundsException("Node " + node + " out of " + nodeCount);
+		}
+	}
+
+	/**
+	 * Brings the cached rows up to date with the links added since the last query.
+	 */
+	private void applyPendingLinks() {
+		if (rowsStale) {
+			while (cachedRows > 0) {
+				evictOldest();
+			}
+		} else if (pendingCount > 0) {
+			for (int source = newest; source != -1; source = older[source]) {
+				float[] row = rows[source];
+				for (int i = 0; i < pendingCount; i++) {
+					int src = pendingLinks[2 * i];
+					int dest = pendingLinks[2 * i + 1];
+					float delay = getLinkDelay(src, dest);
+					if (delay > 0) {
+						relax(row, dest, row[src], delay);
+						relax(row, src, row[dest], delay);
+						propagate(row);
+					}
+				}
+			}
+		}
+		rowsStale = false;
+		pendingCount = 0;
+	}
+
+	private float getLinkDelay(int src, int dest) {
+		for (int i = 0; i < degrees[src]; i++) {
+			if (neighbors[src][i] == dest) {
+				return linkDelays[src][i];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the delays from a source node, computing them if they are not cached.
+	 */
+	private float[] getRow(int source) {
+		float[] row = rows[source];
+		if (row != null) {
+			if (source != newest) {
+				unlink(source);
+				linkNewest(source);
+			}
+			return row;
+		}
+
+		if (cachedRows == maxCachedRows) {
+			row = evictOldest();
+		}
+		if (row == null || row.length != nodeCount) {
+			row = new float[nodeCount];
+		}
+		Arrays.fill(row, Float.MAX_VALUE);
+		row[source] = 0;
+		push(row, source);
+		propagate(row);
+
+		rows[source] = row;
+		cachedRows++;
+		linkNewest(source);
+		return row;
+	}
+
+	/**
+	 * Lowers the delay to a node through a link, if shorter, and queues the node.
+	 */
+	private void relax(float[] row, int node, float delayToLink, float linkDelay) {
+		if (delayToLink == Float.MAX_VALUE) {
+			return;
+		}
+		float delay = delayToLink + linkDelay;
+		if (delay < row[node]) {
+			row[node] = delay;
+			push(row, node);
+		}
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from the queued nodes, lowering the delays of the others.
+	 */
+	private void propagate(float[] row) {
+		while (heapSize > 0) {
+			int node = pop(row);
+			int[] nodeNeighbors = neighbors[node];
+			float[] nodeDelays = linkDelays[node];
+			for (int i = 0; i < degrees[node]; i++) {
+				if (nodeDelays[i] > 0) {
+					relax(row, nodeNeighbors[i], row[node], nodeDelays[i]);
+				}
+			}
+		}
+	}
+
+	private void push(float[] row, int node) {
+		int position = heapPositions[node];
+		if (position < 0) {
+			position = heapSize++;
+		}
+		// The delay of a queued node only decreases: sift it up
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (row[heap[parent]] <= row[node]) {
+				break;
+			}
+			heap[position] = heap[parent];
+			heapPositions[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = node;
+		heapPositions[node] = position;
+	}
+
+	private int pop(float[] row) {
+		int top = heap[0];
+		heapPositions[top] = -1;
+		int last = heap[--heapSize];
+		if (heapSize > 0) {
+			int position = 0;
+			int half = heapSize >>> 1;
+			while (position < half) {
+				int child = 2 * position + 1;
+				if (child + 1 < heapSize && row[heap[child + 1]] < row[heap[child]]) {
+					child++;
+				}
+				if (row[last] <= row[heap[child]]) {
+					break;
+				}
+				heap[position] = heap[child];
+				heapPositions[heap[position]] = position;
+				position = child;
+			}
+			heap[position] = last;
+			heapPositions[last] = position;
+		}
+		return top;
+	}
+
+	private void linkNewest(int source) {
+		older[source] = newest;
+		newer[source] = -1;
+		if (newest != -1) {
+			newer[newest] = source;
+		} else {
+			oldest = source;
+		}
+		newest = source;
+	}
+
+	private void unlink(int source) {
+		if (newer[source] != -1) {
+			older[newer[source]] = older[source];
+		} else {
+			newest = older[source];
+		}
+		if (older[source] != -1) {
+			newer[older[source]] = newer[source];
+		} else {
+			oldest = newer[source];
+		}
+	}
+
+	/**
+	 * Drops the least recently used cached row.
+	 *
+	 * @return the dropped row, for reuse
+	 */
+	private float[] evictOldest() {
+		int source = oldest;
+		unlink(source);
+		float[] row = rows[source];
+		rows[source] = null;
+		cachedRows--;
+		return row;
+	}
+
+	/**
+	 * Computes the delays between all pairs of nodes with a blocked Floyd-Warshall: for each
+	 * diagonal block, the block itself is relaxed first, then the blocks of its row and column,
+	 * then all the others, each step in parallel.
+	 *
+	 * @return the delay matrix
+	 */
+	private float[][] allPairsShortestPaths() {
+		int n = nodeCount;
+		float[][] delays = new float[n][n];
+		for (int i = 0; i < n; i++) {
+			Arrays.fill(delays[i], Float.MAX_VALUE);
+			delays[i][i] = 0;
+			for (int j = 0; j < degrees[i]; j++) {
+				if (linkDelays[i][j] > 0 && neighbors[i][j] != i) {
+					delays[i][neighbors[i][j]] = linkDelays[i][j];
+				}
+			}
+		}
+
+		int blocks = (n + BLOCK - 1) / BLOCK;
+		for (int k = 0; k < blocks; k++) {
+			int diagonal = k;
+			relaxBlock(delays, diagonal, diagonal, diagonal);
+			IntStream.range(0, blocks).parallel().filter(b -> b != diagonal).forEach(b -> {
+				relaxBlock(delays, diagonal, b, diagonal);
+				relaxBlock(delays, b, diagonal, diagonal);
+			});
+			IntStream.range(0, blocks).parallel().filter(a -> a != diagonal).forEach(a -> {
+				for (int b = 0; b < blocks; b++) {
+					if (b != diagonal) {
+						relaxBlock(delays, a, b, diagonal);
+					}
+				}
+			});
+		}
+		return delays;
+	}
+
+	/**
+	 * Relaxes the paths from the nodes of a block row to the nodes of a block column through the
+	 * nodes of another block.
+	 */
+	private static void relaxBlock(float[][] delays, int rowBlock, int columnBlock, int throughBlock) {
+		int n = delays.length;
+		int rowEnd = Math.min(n, (rowBlock + 1) * BLOCK);
+		int columnStart = columnBlock * BLOCK;
+		int columnEnd = Math.min(n, columnStart + BLOCK);
+		int throughEnd = Math.min(n, (throughBlock + 1) * BLOCK);
+		for (int k = throughBlock * BLOCK; k < throughEnd; k++) {
+			float[] through = delays[k];
+			for (int i = rowBlock * BLOCK; i < rowEnd; i++) {
+				float[] row = delays[i];
+				float toThrough = row[k];
+				if (toThrough == Float.MAX_VALUE) {
+					continue;
+				}
+				for (int j = columnStart; j < columnEnd; j++) {
+					float delay = toThrough + through[j];
+					if (delay < row[j]) {
+						row[j] = delay;
+					}
+				}
+			}
+		}
+	}
+}
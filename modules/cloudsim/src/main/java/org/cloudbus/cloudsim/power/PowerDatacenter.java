@@ -8,10 +8,12 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
@@ -20,8 +22,11 @@ import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
 import org.cloudbus.cloudsim.core.CloudActionTags;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.HostEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.cloudbus.cloudsim.util.GuestStateMetrics;
+import org.cloudbus.cloudsim.util.HostStateMetrics;
 
 /**
  * PowerDatacenter is a class that enables simulation of power-aware data centers.
@@ -53,6 +58,9 @@ public class PowerDatacenter extends Datacenter {
 	/** The VM migration count. */
 	private int migrationCount;
 
+	/** The guests ever created in the datacenter, whose SLA metrics make the datacenter ones. */
+	private final List<GuestEntity> createdGuests = new ArrayList<>();
+
 	/**
 	 * Instantiates a new PowerDatacenter.
 	 * 
@@ -88,7 +96,9 @@ public class PowerDatacenter extends Datacenter {
 
 		// if some time passed since last processing
 		if (currentTime > getLastProcessTime()) {
-			Log.print(currentTime + " ");
+			if (!Log.isDisabled()) {
+				Log.print(currentTime + " ");
+			}
 
 			double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
@@ -102,19 +112,21 @@ public class PowerDatacenter extends Datacenter {
 						PowerHost targetHost = (PowerHost) migrate.host();
 						PowerHost oldHost = (PowerHost) vm.getHost();
 
-						if (oldHost == null) {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d to Host #%d is started",
-									currentTime,
-									vm.getId(),
-									targetHost.getId());
-						} else {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									currentTime,
-									vm.getId(),
-									oldHost.getId(),
-									targetHost.getId());
+						if (!Log.isDisabled()) {
+							if (oldHost == null) {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d to Host #%d is started",
+										currentTime,
+										vm.getId(),
+										targetHost.getId());
+							} else {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
+										currentTime,
+										vm.getId(),
+										oldHost.getId(),
+										targetHost.getId());
+							}
 						}
 
 						targetHost.addMigratingInGuest(vm);
@@ -173,29 +185,38 @@ public class PowerDatacenter extends Datacenter {
 		double timeDiff = currentTime - getLastProcessTime();
 		double timeFrameDatacenterEnergy = 0.0;
 
-		Log.println("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		boolean log = !Log.isDisabled();
+		if (log) {
+			Log.println("\n\n--------------------------------------------------------------\n\n");
+			Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		}
 
 		for (PowerHost host : this.<PowerHost> getHostList()) {
-			Log.println();
+			if (log) {
+				Log.println();
+			}
 
 			double time = host.updateCloudletsProcessing(currentTime); // inform VMs to update processing
 			if (time < minTime) {
 				minTime = time;
 			}
 
-			Log.formatLine(
-					"%.2f: [Host #%d] utilization is %.2f%%",
-					currentTime,
-					host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			if (log) {
+				Log.formatLine(
+						"%.2f: [Host #%d] utilization is %.2f%%",
+						currentTime,
+						host.getId(),
+						host.getUtilizationOfCpu() * 100);
+			}
 		}
 
 		if (timeDiff > 0) {
-			Log.formatLine(
-					"\nEnergy consumption for the last time frame from %.2f to %.2f:",
-					getLastProcessTime(),
-					currentTime);
+			if (log) {
+				Log.formatLine(
+						"\nEnergy consumption for the last time frame from %.2f to %.2f:",
+						getLastProcessTime(),
+						currentTime);
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
 				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
@@ -206,25 +227,29 @@ public class PowerDatacenter extends Datacenter {
 						timeDiff);
 				timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
-				Log.println();
-				Log.formatLine(
-						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-						currentTime,
-						host.getId(),
-						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
+				if (log) {
+					Log.println();
+					Log.formatLine(
+							"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+							currentTime,
+							host.getId(),
+							getLastProcessTime(),
+							previousUtilizationOfCpu * 100,
+							utilizationOfCpu * 100);
+					Log.formatLine(
+							"%.2f: [Host #%d] energy is %.2f W*sec",
+							currentTime,
+							host.getId(),
+							timeFrameHostEnergy);
+				}
+			}
+
+			if (log) {
 				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
+						"\n%.2f: Data center's energy is %.2f W*sec\n",
 						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+						timeFrameDatacenterEnergy);
 			}
-
-			Log.formatLine(
-					"\n%.2f: Data center's energy is %.2f W*sec\n",
-					currentTime,
-					timeFrameDatacenterEnergy);
 		}
 
 		setPower(getPower() + timeFrameDatacenterEnergy);
@@ -236,11 +261,15 @@ public class PowerDatacenter extends Datacenter {
 			for (GuestEntity vm : host.getCompletedVms()) {
 				getVmAllocationPolicy().deallocateHostForGuest(vm);
 				getVmList().remove(vm);
-				Log.println("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				if (log) {
+					Log.println("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				}
 			}
 		}
 
-		Log.println();
+		if (log) {
+			Log.println();
+		}
 
 		setLastProcessTime(currentTime);
 		return minTime;
@@ -256,6 +285,15 @@ public class PowerDatacenter extends Datacenter {
 		}
 	}
 
+	@Override
+	protected void processVmCreate(SimEvent ev, boolean ack) {
+		int guests = getVmList().size();
+		super.processVmCreate(ev, ack);
+		if (getVmList().size() > guests) {
+			createdGuests.add((GuestEntity) ev.getData());
+		}
+	}
+
 	@Override
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
 		super.processCloudletSubmit(ev, ack);
@@ -357,4 +395,45 @@ public class PowerDatacenter extends Datacenter {
 		setMigrationCount(getMigrationCount() + 1);
 	}
 
+	/**
+	 * Gets the SLA metrics of the hosts so far, computed as their state history grows: they don't
+	 * need the history to be kept.
+	 * 
+	 * @return the merged metrics of the hosts
+	 */
+	public HostStateMetrics getHostStateMetrics() {
+		HostStateMetrics metrics = new HostStateMetrics();
+		for (HostEntity host : getHostList()) {
+			if (host instanceof HostDynamicWorkload) {
+				metrics.merge(((HostDynamicWorkload) host).getStateMetrics());
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * Gets the SLA metrics of the guests created so far, including those destroyed since, computed
+	 * as their state history grows: they don't need the history to be kept.
+	 * 
+	 * @return the merged metrics of the guests
+	 */
+	public GuestStateMetrics getGuestStateMetrics() {
+		GuestStateMetrics metrics = new GuestStateMetrics();
+		for (GuestEntity guest : createdGuests) {
+			metrics.merge(guest.getStateMetrics());
+		}
+		return metrics;
+	}
+
+	/**
+	 * Gets the SLA violation metric so far: the SLA violation time per active host (SLATAH) times
+	 * the performance degradation due to migration (PDM).
+	 * 
+	 * @return the SLA violation metric
+	 */
+	public double getSlaViolation() {
+		return getHostStateMetrics().getSlaTimePerActiveHost()
+				* getGuestStateMetrics().getSlaDegradationDueToMigration();
+	}
+
 }
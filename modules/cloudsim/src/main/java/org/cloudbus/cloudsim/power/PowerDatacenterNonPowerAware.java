@@ -75,10 +75,15 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 			double timeDiff = currentTime - getLastProcessTime();
 			double minTime = Double.MAX_VALUE;
 
-			Log.println("\n");
+			boolean log = !Log.isDisabled();
+			if (log) {
+				Log.println("\n");
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("%.2f: Host #%d", CloudSim.clock(), host.getId());
+				if (log) {
+					Log.formatLine("%.2f: Host #%d", CloudSim.clock(), host.getId());
+				}
 
 				double hostPower = 0.0;
 
@@ -89,24 +94,30 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 					e.printStackTrace();
 				}
 
-				Log.formatLine(
-						"%.2f: Host #%d utilization is %.2f%%",
-						CloudSim.clock(),
-						host.getId(),
-						host.getUtilizationOfCpu() * 100);
-				Log.formatLine(
-						"%.2f: Host #%d energy is %.2f W*sec",
-						CloudSim.clock(),
-						host.getId(),
-						hostPower);
+				if (log) {
+					Log.formatLine(
+							"%.2f: Host #%d utilization is %.2f%%",
+							CloudSim.clock(),
+							host.getId(),
+							host.getUtilizationOfCpu() * 100);
+					Log.formatLine(
+							"%.2f: Host #%d energy is %.2f W*sec",
+							CloudSim.clock(),
+							host.getId(),
+							hostPower);
+				}
 			}
 
-			Log.formatLine("\n%.2f: Consumed energy is %.2f W*sec\n", CloudSim.clock(), timeframePower);
+			if (log) {
+				Log.formatLine("\n%.2f: Consumed energy is %.2f W*sec\n", CloudSim.clock(), timeframePower);
 
-			Log.println("\n\n--------------------------------------------------------------\n\n");
+				Log.println("\n\n--------------------------------------------------------------\n\n");
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
+				if (log) {
+					Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
+				}
 
 				double time = host.updateCloudletsProcessing(currentTime); // inform VMs to update
 																		// processing
@@ -124,11 +135,15 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 				for (GuestEntity vm : host.getCompletedVms()) {
 					getVmAllocationPolicy().deallocateHostForGuest(vm);
 					getVmList().remove(vm);
-					Log.println("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+					if (log) {
+						Log.println("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+					}
 				}
 			}
 
-			Log.println();
+			if (log) {
+				Log.println();
+			}
 
 			if (!isDisableMigrations()) {
 				List<GuestMapping> migrationMap = getVmAllocationPolicy().optimizeAllocation(
@@ -140,19 +155,21 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 						PowerHost targetHost = (PowerHost) migrate.host();
 						PowerHost oldHost = (PowerHost) vm.getHost();
 
-						if (oldHost == null) {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d to Host #%d is started",
-									CloudSim.clock(),
-									vm.getId(),
-									targetHost.getId());
-						} else {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									CloudSim.clock(),
-									vm.getId(),
-									oldHost.getId(),
-									targetHost.getId());
+						if (log) {
+							if (oldHost == null) {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d to Host #%d is started",
+										CloudSim.clock(),
+										vm.getId(),
+										targetHost.getId());
+							} else {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
+										CloudSim.clock(),
+										vm.getId(),
+										oldHost.getId(),
+										targetHost.getId());
+							}
 						}
 
 						targetHost.addMigratingInGuest(vm);
@@ -118,6 +118,19 @@ public class PowerHost extends HostDynamicWorkload implements PowerHostEntity {
 	 */
 	public double[] getUtilizationHistory() {
 		double[] utilizationHistory = new double[PowerHostEntity.HISTORY_LENGTH];
+		return Arrays.copyOf(utilizationHistory, getUtilizationHistory(utilizationHistory));
+	}
+
+	/**
+	 * Gets the host CPU utilization percentage history into an array, so that a caller reading it
+	 * periodically can reuse the same array.
+	 *
+	 * @param utilizationHistory the array receiving the history, of at least
+	 *            {@link PowerHostEntity#HISTORY_LENGTH} values
+	 * @return the length of the history
+	 */
+	public int getUtilizationHistory(double[] utilizationHistory) {
+		Arrays.fill(utilizationHistory, 0);
 		double hostMips = getTotalMips();
 		int maxlen = 0;
 		for (PowerVm vm : this.<PowerVm>getGuestList()) {
@@ -129,6 +142,6 @@ public class PowerHost extends HostDynamicWorkload implements PowerHostEntity {
 			if (i > maxlen)
 				maxlen = i;
 		}
-		return Arrays.copyOf(utilizationHistory, maxlen);
+		return maxlen;
 	}
 }
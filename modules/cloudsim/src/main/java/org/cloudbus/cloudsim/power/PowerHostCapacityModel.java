@@ -0,0 +1,310 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * A what-if model of the resources of a set of power hosts, for the policies that try out VM
+ * placements before deciding on a migration map.
+ * <p>
+ * Creating or destroying a guest on a real host re-runs the provisioning of its PEs, RAM and
+ * bandwidth, and the tentative placements then have to be undone on every host. The model instead
+ * keeps, for each host that is changed, a copy of its guest list along with its available MIPS,
+ * RAM, bandwidth and storage, and applies the same rules as
+ * {@link HostEntity#guestCreate(GuestEntity)}, {@link HostEntity#guestDestroy(GuestEntity)} and
+ * {@link HostEntity#isSuitableForGuest(GuestEntity)}. Every change is logged, so that any number of
+ * them can be rolled back with {@link #mark()} and {@link #rollback(int)}. The real hosts are never
+ * modified: hosts that were not changed are read directly.
+ * <p>
+ * Guests keep the MIPS allocated to them on the real host. Guests placed in the model get the MIPS
+ * they request (10% of it if they are migrating in, 90% if they are migrating out), as they would
+ * on a host that is not oversubscribed. The model only applies to hosts that use the default
+ * placement rules on a {@link VmSchedulerTimeShared} or {@link VmSchedulerTimeSharedOverSubscription}
+ * and the simple RAM and bandwidth provisioners, see {@link #isSupported(HostEntity)}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class PowerHostCapacityModel {
+
+	/** Whether the hosts of a class use the default placement rules. */
+	private static final Map<Class<?>, Boolean> DEFAULT_RULES = new HashMap<>();
+
+	/** The what-if state of a host, created the first time the host is changed. */
+	private static final class Shadow {
+		final List<GuestEntity> guests;
+		final Map<GuestEntity, Allocation> placed = new IdentityHashMap<>();
+		double availableMips;
+		int availableRam;
+		long availableBw;
+		long storage;
+
+		Shadow(HostEntity host) {
+			guests = new ArrayList<>(host.getGuestList());
+			availableMips = host.getGuestScheduler().getAvailableMips();
+			availableRam = host.getGuestRamProvisioner().getAvailableRam();
+			availableBw = host.getGuestBwProvisioner().getAvailableBw();
+			storage = host.getStorage();
+		}
+	}
+
+	/** The resources allocated to a guest. */
+	private record Allocation(double mips, int ram, long bw) {
+	}
+
+	/** A logged change: the state of a host before a guest was added to it or removed from it. */
+	private record Change(Shadow shadow, GuestEntity guest, int position, boolean added, Allocation allocation,
+			double availableMips, int availableRam, long availableBw, long storage) {
+	}
+
+	/** The state of the changed hosts. */
+	private final Map<HostEntity, Shadow> shadows = new IdentityHashMap<>();
+
+	/** The changes, in order. */
+	private final List<Change> changes = new ArrayList<>();
+
+	/**
+	 * Checks whether a host can be modelled: it must use the default rules to create, destroy and
+	 * check guests, a time-shared VM scheduler and the simple RAM and bandwidth provisioners.
+	 *
+	 * @param host the host
+	 * @return <tt>true</tt> if the model gives the same result as the host
+	 */
+	public static boolean isSupported(HostEntity host) {
+		VmScheduler scheduler = host.getGuestScheduler();
+		return scheduler != null
+				&& (scheduler.getClass() == VmSchedulerTimeShared.class
+						|| scheduler.getClass() == VmSchedulerTimeSharedOverSubscription.class)
+				&& host.getGuestRamProvisioner() != null && host.getGuestRamProvisioner().getClass() == RamProvisionerSimple.class
+				&& host.getGuestBwProvisioner() != null && host.getGuestBwProvisioner().getClass() == BwProvisionerSimple.class
+				&& hasDefaultRules(host.getClass());
+	}
+
+	private static synchronized boolean hasDefaultRules(Class<?> hostClass) {
+		return DEFAULT_RULES.computeIfAbsent(hostClass, c -> {
+			try {
+				return c.getMethod("guestCreate", GuestEntity.class).getDeclaringClass() == HostEntity.class
+						&& c.getMethod("guestDestroy", GuestEntity.class).getDeclaringClass() == HostEntity.class
+						&& c.getMethod("guestDeallocate", GuestEntity.class).getDeclaringClass() == HostEntity.class
+						&& c.getMethod("isSuitableForGuest", GuestEntity.class).getDeclaringClass() == HostEntity.class;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * Gets the guests of a host, including the ones placed in the model. The list must not be modified.
+	 *
+	 * @param host the host
+	 * @return the guests
+	 */
+	public List<GuestEntity> getGuestList(HostEntity host) {
+		Shadow shadow = shadows.get(host);
+		return shadow == null ? host.getGuestList() : shadow.guests;
+	}
+
+	/**
+	 * Gets the total MIPS allocated to a guest on a host.
+	 *
+	 * @param host the host
+	 * @param guest the guest
+	 * @return the allocated MIPS
+	 */
+	public double getTotalAllocatedMipsForGuest(HostEntity host, GuestEntity guest) {
+		Shadow shadow = shadows.get(host);
+		Allocation allocation = shadow == null ? null : shadow.placed.get(guest);
+		return allocation == null ? host.getGuestScheduler().getTotalAllocatedMipsForGuest(guest) : allocation.mips();
+	}
+
+	/**
+	 * Gets the MIPS of a host that are not allocated.
+	 *
+	 * @param host the host
+	 * @return the available MIPS
+	 */
+	public double getAvailableMips(HostEntity host) {
+		Shadow shadow = shadows.get(host);
+		return shadow == null ? host.getGuestScheduler().getAvailableMips() : shadow.availableMips;
+	}
+
+	/**
+	 * Checks whether a host has enough resources for a guest that is not on it, as
+	 * {@link HostEntity#isSuitableForGuest(GuestEntity)} does.
+	 *
+	 * @param host the host
+	 * @param guest the guest
+	 * @return <tt>true</tt> if the guest fits on the host
+	 */
+	public boolean isSuitableForGuest(HostEntity host, GuestEntity guest) {
+		Shadow shadow = shadows.get(host);
+		double availableMips = shadow == null ? host.getGuestScheduler().getAvailableMips() : shadow.availableMips;
+		int availableRam = shadow == null ? host.getGuestRamProvisioner().getAvailableRam() : shadow.availableRam;
+		long availableBw = shadow == null ? host.getGuestBwProvisioner().getAvailableBw() : shadow.availableBw;
+		return host.getGuestScheduler().getPeCapacity() >= guest.getCurrentRequestedMaxMips()
+				&& availableMips >= guest.getCurrentRequestedTotalMips()
+				&& availableRam >= Math.min(guest.getCurrentRequestedRam(), guest.getRam())
+				&& availableBw >= guest.getCurrentRequestedBw();
+	}
+
+	/**
+	 * Places a guest on a host, as {@link HostEntity#guestCreate(GuestEntity)} does.
+	 *
+	 * @param host the host
+	 * @param guest the guest
+	 * @return <tt>true</tt> if the guest was placed, <tt>false</tt> if the host lacks resources
+	 */
+	public boolean guestCreate(HostEntity host, GuestEntity guest) {
+		Shadow shadow = shadows.computeIfAbsent(host, Shadow::new);
+		if (shadow.storage < guest.getSize()) {
+			return false;
+		}
+		int ram = Math.min(guest.getCurrentRequestedRam(), guest.getRam());
+		long bw = guest.getCurrentRequestedBw();
+		if (shadow.availableRam < ram || shadow.availableBw < bw) {
+			return false;
+		}
+
+		VmScheduler scheduler = host.getGuestScheduler();
+		boolean migratingIn = scheduler.getGuestsMigratingIn().contains(guest.getUid());
+		boolean migratingOut = !migratingIn && guest.isInMigration();
+		boolean overSubscription = scheduler instanceof VmSchedulerTimeSharedOverSubscription;
+		double peMips = scheduler.getPeCapacity();
+		double requestedMips = 0;
+		double allocatedMips = 0;
+		for (double mips : guest.getCurrentRequestedMips()) {
+			if (mips > peMips) {
+				if (!overSubscription) {
+					return false;
+				}
+				mips = peMips;
+			}
+			requestedMips += mips;
+			allocatedMips += migratingOut ? mips * 0.9 : migratingIn ? mips * 0.1 : mips;
+		}
+		if (!overSubscription && shadow.availableMips < requestedMips) {
+			return false;
+		}
+		if (migratingIn) {
+			requestedMips *= 0.1;
+		}
+
+		log(shadow, guest, shadow.guests.size(), true, null);
+		// An oversubscribed host has no MIPS left
+		shadow.availableMips = Math.max(shadow.availableMips - requestedMips, 0);
+		shadow.availableRam -= ram;
+		shadow.availableBw -= bw;
+		shadow.storage -= guest.getSize();
+		shadow.guests.add(guest);
+		shadow.placed.put(guest, new Allocation(allocatedMips, ram, bw));
+		return true;
+	}
+
+	/**
+	 * Removes a guest from a host, as {@link HostEntity#guestDestroy(GuestEntity)} does. The MIPS
+	 * available on the host are those not requested by the remaining guests.
+	 *
+	 * @param host the host
+	 * @param guest the guest
+	 */
+	public void guestDestroy(HostEntity host, GuestEntity guest) {
+		Shadow shadow = shadows.computeIfAbsent(host, Shadow::new);
+		int position = shadow.guests.indexOf(guest);
+		if (position < 0) {
+			return;
+		}
+		Allocation allocation = shadow.placed.get(guest);
+		log(shadow, guest, position, false, allocation);
+		shadow.guests.remove(position);
+		shadow.placed.remove(guest);
+		if (allocation == null) {
+			shadow.availableRam += host.getGuestRamProvisioner().getAllocatedRamForGuest(guest);
+			shadow.availableBw += host.getGuestBwProvisioner().getAllocatedBwForGuest(guest);
+		} else {
+			shadow.availableRam += allocation.ram();
+			shadow.availableBw += allocation.bw();
+		}
+		shadow.storage += guest.getSize();
+
+		VmScheduler scheduler = host.getGuestScheduler();
+		double peMips = scheduler.getPeCapacity();
+		double availableMips = PeList.getTotalMips(scheduler.getPeList());
+		for (GuestEntity remaining : shadow.guests) {
+			double requestedMips = 0;
+			for (double mips : remaining.getCurrentRequestedMips()) {
+				requestedMips += Math.min(mips, peMips);
+			}
+			if (scheduler.getGuestsMigratingIn().contains(remaining.getUid())) {
+				requestedMips *= 0.1;
+			}
+			availableMips -= requestedMips;
+		}
+		shadow.availableMips = Math.max(availableMips, 0);
+	}
+
+	/**
+	 * Marks the current state of the model, to roll back to it later.
+	 *
+	 * @return the mark
+	 */
+	public int mark() {
+		return changes.size();
+	}
+
+	/**
+	 * Undoes the changes made since a mark, restoring the exact state of each host.
+	 *
+	 * @param mark the mark, as returned by {@link #mark()}
+	 */
+	public void rollback(int mark) {
+		for (int i = changes.size() - 1; i >= mark; i--) {
+			Change change = changes.remove(i);
+			Shadow shadow = change.shadow();
+			if (change.added()) {
+				shadow.guests.remove(change.position());
+				shadow.placed.remove(change.guest());
+			} else {
+				shadow.guests.add(change.position(), change.guest());
+				if (change.allocation() != null) {
+					shadow.placed.put(change.guest(), change.allocation());
+				}
+			}
+			shadow.availableMips = change.availableMips();
+			shadow.availableRam = change.availableRam();
+			shadow.availableBw = change.availableBw();
+			shadow.storage = change.storage();
+		}
+	}
+
+	/**
+	 * Drops all the changes: every host is read directly again.
+	 */
+	public void clear() {
+		shadows.clear();
+		changes.clear();
+	}
+
+	private void log(Shadow shadow, GuestEntity guest, int position, boolean added, Allocation allocation) {
+		changes.add(new Change(shadow, guest, position, added, allocation,
+				shadow.availableMips, shadow.availableRam, shadow.availableBw, shadow.storage));
+	}
+}
@@ -49,6 +49,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	/** A list of maps between a VM and the host where it is place. */
 	private final List<GuestMapping> savedAllocation = new ArrayList<>();
 
+	/** The what-if model of the hosts while the allocation is optimized, <tt>null</tt> otherwise. */
+	private PowerHostCapacityModel capacityModel;
+
+	/** Whether all the hosts can be modelled, <tt>null</tt> until checked. */
+	private Boolean capacityModelSupported;
+
 	private void growIfNeeded(List<List<Double>> l, int idx) {
 		for (int i = l.size(); i <= idx; i++)
 			l.add(null);
@@ -110,6 +116,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 
 	/**
 	 * Optimize allocation of the VMs according to current utilization.
+	 * <p>
+	 * The tentative placements are made on a {@link PowerHostCapacityModel} when all the hosts
+	 * support it, so that only the returned migrations affect the hosts. Otherwise they are made on
+	 * the hosts themselves and undone with {@link #restoreAllocation()}.
 	 * 
 	 * @param vmList the vm list
 	 * 
@@ -126,7 +136,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 
 		printOverUtilizedHosts(overUtilizedHosts);
 
-		saveAllocation();
+		boolean whatIf = isCapacityModelSupported();
+		if (whatIf) {
+			setCapacityModel(new PowerHostCapacityModel());
+		} else {
+			saveAllocation();
+		}
 
 		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
 		List<GuestEntity> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
@@ -141,7 +156,11 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 
 		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
 
-		restoreAllocation();
+		if (whatIf) {
+			setCapacityModel(null);
+		} else {
+			restoreAllocation();
+		}
 
 		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
 
@@ -182,7 +201,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 				break;
 			}
 
-			Log.printlnConcat("Under-utilized host: host #", underUtilizedHost.getId(), "\n");
+			if (!Log.isDisabled()) {
+				Log.printlnConcat("Under-utilized host: host #", underUtilizedHost.getId(), "\n");
+			}
 
 			excludedHostsForFindingUnderUtilizedHost.add(underUtilizedHost);
 			excludedHostsForFindingNewVmPlacement.add(underUtilizedHost);
@@ -248,7 +269,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 			if (excludedHosts.contains(host)) {
 				continue;
 			}
-			if (host.isSuitableForGuest(vm)) {
+			if (isSuitableForGuest(host, vm)) {
 				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
 					continue;
 				}
@@ -278,7 +299,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, GuestEntity vm) {
 		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.guestCreate(vm)) {
+		if (getCapacityModel() != null) {
+			int mark = getCapacityModel().mark();
+			if (getCapacityModel().guestCreate(host, vm)) {
+				isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
+			}
+			getCapacityModel().rollback(mark);
+		} else if (host.guestCreate(vm)) {
 			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
 			host.guestDestroy(vm);
 		}
@@ -323,8 +350,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		for (GuestEntity vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForGuest(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.guestCreate(vm);
-				Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				guestCreate(allocatedHost, vm);
+				if (!Log.isDisabled()) {
+					Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				}
 				migrationMap.add(new GuestMapping(vm, allocatedHost));
 			}
 		}
@@ -346,13 +375,15 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		for (GuestEntity vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForGuest(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.guestCreate(vm);
-				Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				guestCreate(allocatedHost, vm);
+				if (!Log.isDisabled()) {
+					Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				}
 				migrationMap.add(new GuestMapping(vm, allocatedHost));
 			} else {
 				Log.println("Not all VMs can be reallocated from the host, reallocation cancelled");
 				for (GuestMapping map : migrationMap) {
-					(map.host()).guestDestroy(map.vm());
+					guestDestroy((PowerHost) map.host(), map.vm());
 				}
 				migrationMap.clear();
 				break;
@@ -372,12 +403,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		List<GuestEntity> vmsToMigrate = new LinkedList<>();
 		for (PowerHost host : overUtilizedHosts) {
 			while (true) {
-				GuestEntity vm = getVmSelectionPolicy().select(host.getMigrableVms(), host, new HashSet<>());
+				GuestEntity vm = getVmSelectionPolicy().select(getMigrableVms(host), host, new HashSet<>());
 				if (vm == null) {
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.guestDestroy(vm);
+				guestDestroy(host, vm);
 				if (!isHostOverUtilized(host)) {
 					break;
 				}
@@ -394,7 +425,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 */
 	protected List<? extends GuestEntity> getVmsToMigrateFromUnderUtilizedHost(PowerHost host) {
 		List<GuestEntity> vmsToMigrate = new LinkedList<>();
-		for (GuestEntity vm : host.getGuestList()) {
+		for (GuestEntity vm : getGuestsOnHost(host)) {
 			if (!vm.isInMigration()) {
 				vmsToMigrate.add(vm);
 			}
@@ -462,7 +493,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @return true, if successful
 	 */
 	protected boolean areAllVmsMigratingOutOrAnyVmMigratingIn(PowerHost host) {
-		for (PowerVm vm : host.<PowerVm>getGuestList()) {
+		for (GuestEntity vm : getGuestsOnHost(host)) {
 			if (!vm.isInMigration()) {
 				return false;
 			}
@@ -537,7 +568,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 			Vm vm = (Vm) map.vm();
 			PowerHost host = (PowerHost) map.host();
 			if (!host.guestCreate(vm)) {
-				Log.printlnConcat("Couldn't restore VM #", vm.getId(), " on host #", host.getId());
+				if (!Log.isDisabled()) {
+					Log.printlnConcat("Couldn't restore VM #", vm.getId(), " on host #", host.getId());
+				}
 				System.exit(0);
 			}
 			getGuestTable().put(vm.getUid(), host);
@@ -591,16 +624,122 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 */
 	protected double getUtilizationOfCpuMips(PowerHost host) {
 		double hostUtilizationMips = 0;
-		for (GuestEntity vm2 : host.getGuestList()) {
+		for (GuestEntity vm2 : getGuestsOnHost(host)) {
+			double allocatedMips = getCapacityModel() == null
+					? host.getTotalAllocatedMipsForGuest(vm2)
+					: getCapacityModel().getTotalAllocatedMipsForGuest(host, vm2);
 			if (host.getGuestsMigratingIn().contains(vm2)) {
 				// calculate additional potential CPU usage of a migrating in VM
-				hostUtilizationMips += host.getTotalAllocatedMipsForGuest(vm2) * 0.9 / 0.1;
+				hostUtilizationMips += allocatedMips * 0.9 / 0.1;
 			}
-			hostUtilizationMips += host.getTotalAllocatedMipsForGuest(vm2);
+			hostUtilizationMips += allocatedMips;
 		}
 		return hostUtilizationMips;
 	}
 
+	/**
+	 * Gets the guests of a host as seen by the policy: while the allocation is optimized, these
+	 * include the tentative placements. Policies must use it instead of {@link HostEntity#getGuestList()}.
+	 *
+	 * @param host the host
+	 * @return the guests, not to be modified
+	 */
+	protected List<? extends GuestEntity> getGuestsOnHost(PowerHost host) {
+		return getCapacityModel() == null ? host.getGuestList() : getCapacityModel().getGuestList(host);
+	}
+
+	/**
+	 * Gets the guests of a host that are not in migration.
+	 *
+	 * @param host the host
+	 * @return the migrable guests
+	 */
+	protected List<GuestEntity> getMigrableVms(PowerHost host) {
+		if (getCapacityModel() == null) {
+			return host.getMigrableVms();
+		}
+		List<GuestEntity> migrableVms = new ArrayList<>();
+		for (GuestEntity vm : getGuestsOnHost(host)) {
+			if (!vm.isInMigration()) {
+				migrableVms.add(vm);
+			}
+		}
+		return migrableVms;
+	}
+
+	/**
+	 * Checks whether a host has enough resources for a guest, on the what-if model while the
+	 * allocation is optimized.
+	 *
+	 * @param host the host
+	 * @param vm the guest
+	 * @return true, if the guest fits on the host
+	 */
+	protected boolean isSuitableForGuest(PowerHost host, GuestEntity vm) {
+		return getCapacityModel() == null ? host.isSuitableForGuest(vm) : getCapacityModel().isSuitableForGuest(host, vm);
+	}
+
+	/**
+	 * Places a guest on a host, on the what-if model while the allocation is optimized.
+	 *
+	 * @param host the host
+	 * @param vm the guest
+	 * @return true, if the guest was placed
+	 */
+	protected boolean guestCreate(PowerHost host, GuestEntity vm) {
+		return getCapacityModel() == null ? host.guestCreate(vm) : getCapacityModel().guestCreate(host, vm);
+	}
+
+	/**
+	 * Removes a guest from a host, on the what-if model while the allocation is optimized.
+	 *
+	 * @param host the host
+	 * @param vm the guest
+	 */
+	protected void guestDestroy(PowerHost host, GuestEntity vm) {
+		if (getCapacityModel() == null) {
+			host.guestDestroy(vm);
+		} else {
+			getCapacityModel().guestDestroy(host, vm);
+		}
+	}
+
+	/**
+	 * Checks whether all the hosts can be modelled by a {@link PowerHostCapacityModel}.
+	 *
+	 * @return true, if the allocation can be optimized on the what-if model
+	 */
+	protected boolean isCapacityModelSupported() {
+		if (capacityModelSupported == null) {
+			capacityModelSupported = true;
+			for (HostEntity host : getHostList()) {
+				if (!(host instanceof PowerHost) || !PowerHostCapacityModel.isSupported(host)) {
+					capacityModelSupported = false;
+					break;
+				}
+			}
+		}
+		return capacityModelSupported;
+	}
+
+	/**
+	 * Gets the what-if model of the hosts.
+	 *
+	 * @return the model while the allocation is optimized, <tt>null</tt> otherwise
+	 */
+	protected PowerHostCapacityModel getCapacityModel() {
+		return capacityModel;
+	}
+
+	/**
+	 * Sets the what-if model of the hosts.
+	 *
+	 * @param capacityModel the model, <tt>null</tt> to use the hosts themselves
+	 */
+	protected void setCapacityModel(PowerHostCapacityModel capacityModel) {
+		this.capacityModel = capacityModel;
+	}
+
 	/**
 	 * Gets the saved allocation.
 	 * 
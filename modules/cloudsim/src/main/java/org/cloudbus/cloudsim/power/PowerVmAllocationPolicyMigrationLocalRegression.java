@@ -12,8 +12,9 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.PowerHostEntity;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.LocalRegression;
 
 /**
  * A VM allocation policy that uses Local Regression (LR) to predict host utilization (load)
@@ -58,6 +59,15 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
          * data to be computed. */
 	private PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy;
 
+	/** The local regression computing the utilization estimates, reused from a host to the next. */
+	private final LocalRegression regression = new LocalRegression();
+
+	/** The host utilization history being read. */
+	private final double[] utilizationHistory = new double[PowerHostEntity.HISTORY_LENGTH];
+
+	/** The utilization estimates being computed. */
+	private final double[] estimates = new double[2];
+
 	/**
 	 * Instantiates a new PowerVmAllocationPolicyMigrationLocalRegression.
 	 * 
@@ -108,18 +118,13 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 */
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
-        double[] utilizationHistory = host.getUtilizationHistory();
+		int historyLength = host.getUtilizationHistory(utilizationHistory);
 		int length = 10; // we use 10 to make the regression responsive enough to latest values
-		if (utilizationHistory.length < length) {
+		if (historyLength < length) {
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
-		double[] utilizationHistoryReversed = new double[length];
-		for (int i = 0; i < length; i++) {
-			utilizationHistoryReversed[i] = utilizationHistory[length - i - 1];
-		}
-		double[] estimates = null;
 		try {
-			estimates = getParameterEstimates(utilizationHistoryReversed);
+			estimateParameters(utilizationHistory, length, estimates);
 		} catch (IllegalArgumentException e) {
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
@@ -133,13 +138,24 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	}
 
 	/**
-	 * Gets utilization estimates.
+	 * Gets the utilization estimates of the first values of a utilization history, read in
+	 * reverse order.
+	 * 
+	 * @param utilizationHistory the utilization history
+	 * @param length the number of values to use
+	 * @param estimates the array receiving the utilization estimates
+	 */
+	protected void estimateParameters(double[] utilizationHistory, int length, double[] estimates) {
+		getRegression().loess(utilizationHistory, length, true, estimates);
+	}
+
+	/**
+	 * Gets the local regression computing the utilization estimates.
 	 * 
-	 * @param utilizationHistoryReversed the utilization history in reverse order
-	 * @return the utilization estimates
+	 * @return the local regression
 	 */
-	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getLoessParameterEstimates(utilizationHistoryReversed);
+	protected LocalRegression getRegression() {
+		return regression;
 	}
 
 	/**
@@ -150,7 +166,7 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 */
 	protected double getMaximumVmMigrationTime(PowerHost host) {
 		int maxRam = Integer.MIN_VALUE;
-		for (GuestEntity vm : host.getGuestList()) {
+		for (GuestEntity vm : getGuestsOnHost(host)) {
 			int ram = vm.getRam();
 			if (ram > maxRam) {
 				maxRam = ram;
@@ -196,6 +212,19 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return fallbackVmAllocationPolicy;
 	}
 
+	/**
+	 * Sets the what-if model of the hosts, shared with the fallback policy.
+	 * 
+	 * @param capacityModel the model, <tt>null</tt> to use the hosts themselves
+	 */
+	@Override
+	protected void setCapacityModel(PowerHostCapacityModel capacityModel) {
+		super.setCapacityModel(capacityModel);
+		if (getFallbackVmAllocationPolicy() != null) {
+			getFallbackVmAllocationPolicy().setCapacityModel(capacityModel);
+		}
+	}
+
 	public double getSafetyParameter() {
 		return safetyParameter;
 	}
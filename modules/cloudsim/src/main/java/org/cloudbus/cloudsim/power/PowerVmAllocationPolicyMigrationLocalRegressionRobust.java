@@ -13,7 +13,6 @@ import java.util.List;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
-import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * A VM allocation policy that uses Local Regression Robust (LRR) to predict host utilization (load)
@@ -78,14 +77,15 @@ public class PowerVmAllocationPolicyMigrationLocalRegressionRobust extends
 	}
 
 	/**
-	 * Gets the utilization estimates.
+	 * Gets the robust utilization estimates.
 	 * 
-	 * @param utilizationHistoryReversed the utilization history reversed
-	 * @return the utilization estimates
+	 * @param utilizationHistory the utilization history
+	 * @param length the number of values to use
+	 * @param estimates the array receiving the utilization estimates
 	 */
 	@Override
-	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getRobustLoessParameterEstimates(utilizationHistoryReversed);
+	protected void estimateParameters(double[] utilizationHistory, int length, double[] estimates) {
+		getRegression().robustLoess(utilizationHistory, length, true, estimates);
 	}
 
 }
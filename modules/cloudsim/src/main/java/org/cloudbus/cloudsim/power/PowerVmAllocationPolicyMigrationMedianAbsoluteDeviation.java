@@ -119,7 +119,7 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 		}
 		addHistoryEntry(host, upperThreshold);
 		double totalRequestedMips = 0;
-		for (GuestEntity vm : host.getGuestList()) {
+		for (GuestEntity vm : getGuestsOnHost(host)) {
 			totalRequestedMips += vm.getCurrentRequestedTotalMips();
 		}
 		double utilization = totalRequestedMips / host.getTotalMips();
@@ -183,4 +183,17 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 		return fallbackVmAllocationPolicy;
 	}
 
+	/**
+	 * Sets the what-if model of the hosts, shared with the fallback policy.
+	 * 
+	 * @param capacityModel the model, <tt>null</tt> to use the hosts themselves
+	 */
+	@Override
+	protected void setCapacityModel(PowerHostCapacityModel capacityModel) {
+		super.setCapacityModel(capacityModel);
+		if (getFallbackVmAllocationPolicy() != null) {
+			getFallbackVmAllocationPolicy().setCapacityModel(capacityModel);
+		}
+	}
+
 }
@@ -64,7 +64,7 @@ public class PowerVmAllocationPolicyMigrationStaticThreshold extends PowerVmAllo
 	protected boolean isHostOverUtilized(PowerHost host) {
 		addHistoryEntry(host, getUtilizationThreshold());
 		double totalRequestedMips = 0;
-		for (GuestEntity vm : host.getGuestList()) {
+		for (GuestEntity vm : getGuestsOnHost(host)) {
 			totalRequestedMips += vm.getCurrentRequestedTotalMips();
 		}
 		double utilization = totalRequestedMips / host.getTotalMips();
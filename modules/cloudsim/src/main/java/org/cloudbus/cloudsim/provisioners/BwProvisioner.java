@@ -8,6 +8,9 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.GuestEntity;
 
@@ -32,6 +35,9 @@ public abstract class BwProvisioner {
 	/** The available bandwidth. */
 	private long availableBw;
 
+	/** The listeners notified whenever the available bandwidth changes. */
+	private final List<Runnable> capacityListeners = new ArrayList<>(1);
+
 	/**
 	 * Creates the new BwProvisioner.
 	 * 
@@ -158,6 +164,32 @@ public abstract class BwProvisioner {
 	 */
 	protected void setAvailableBw(long availableBw) {
 		this.availableBw = availableBw;
+		fireCapacityChanged();
+	}
+
+	/**
+	 * Registers a listener notified whenever the available bandwidth changes, e.g. to keep an index
+	 * of the hosts up to date.
+	 *
+	 * @param listener the listener
+	 */
+	public void addCapacityListener(Runnable listener) {
+		capacityListeners.add(listener);
+	}
+
+	/**
+	 * Unregisters a listener added with {@link #addCapacityListener(Runnable)}.
+	 *
+	 * @param listener the listener
+	 */
+	public void removeCapacityListener(Runnable listener) {
+		capacityListeners.remove(listener);
+	}
+
+	private void fireCapacityChanged() {
+		for (int i = 0; i < capacityListeners.size(); i++) {
+			capacityListeners.get(i).run();
+		}
 	}
 
 }
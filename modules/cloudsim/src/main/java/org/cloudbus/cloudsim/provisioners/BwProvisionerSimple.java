@@ -8,10 +8,14 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.util.IntIndexMap;
 
 /**
  * BwProvisionerSimple is an extension of {@link BwProvisioner} which uses a best-effort policy to
@@ -25,9 +29,20 @@ import org.cloudbus.cloudsim.core.GuestEntity;
  */
 public class BwProvisionerSimple extends BwProvisioner {
 
-	/** The BW map, where each key is a VM id and each value
-         * is the amount of BW allocated to that VM. */
-	private Map<String, Long> bwTable;
+	/** The slot of each VM with allocated bw, keyed by {@link GuestEntity#getIndex()}. */
+	private final IntIndexMap bwSlots = new IntIndexMap();
+
+	/** The amount of bw allocated to the VM in each slot. */
+	private long[] bwTable = new long[4];
+
+	/** The uid of the VM in each slot. */
+	private String[] guestUids = new String[4];
+
+	/** The negative keys given to the VMs loaded by uid through {@link #setBwTable(Map)}. */
+	private final Map<String, Integer> uidKeys = new HashMap<>();
+
+	/** The next negative key to give to a VM loaded by uid. */
+	private int nextUidKey = -1;
 
 	/**
 	 * Instantiates a new bw provisioner simple.
@@ -36,7 +51,6 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	public BwProvisionerSimple(long bw) {
 		super(bw);
-		setBwTable(new HashMap<>());
 	}
 
 	@Override
@@ -45,7 +59,14 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 		if (getAvailableBw() + old_bw >= bw) {
 			setAvailableBw(getAvailableBw() + old_bw - bw);
-			bwTable.put(guest.getUid(), bw);
+			if (!uidKeys.isEmpty()) {
+				// The bw loaded by uid moves to the slot of the VM
+				Integer key = uidKeys.remove(guest.getUid());
+				if (key != null) {
+					removeSlot(key);
+				}
+			}
+			addSlot(guest.getIndex(), guest.getUid(), bw);
 			guest.setCurrentAllocatedBw(bw);
 			return true;
 		}
@@ -53,27 +74,73 @@ public class BwProvisionerSimple extends BwProvisioner {
 		return false;
 	}
 
+	private void addSlot(int key, String uid, long bw) {
+		int slot = bwSlots.add(key);
+		if (slot == bwTable.length) {
+			bwTable = Arrays.copyOf(bwTable, 2 * slot);
+			guestUids = Arrays.copyOf(guestUids, 2 * slot);
+		}
+		bwTable[slot] = bw;
+		guestUids[slot] = uid;
+	}
+
+	/**
+	 * Frees the slot of a key, if any.
+	 *
+	 * @return the bw that was allocated in the slot
+	 */
+	private long removeSlot(int key) {
+		int slot = bwSlots.remove(key);
+		if (slot < 0) {
+			return 0;
+		}
+		long bw = bwTable[slot];
+		// The last slot moves to the freed one
+		int last = bwSlots.size();
+		bwTable[slot] = bwTable[last];
+		guestUids[slot] = guestUids[last];
+		guestUids[last] = null;
+		return bw;
+	}
+
+	/**
+	 * Gets the key of a VM: its index, unless it has been loaded by uid.
+	 */
+	private int keyOf(GuestEntity guest) {
+		if (!uidKeys.isEmpty()) {
+			Integer key = uidKeys.get(guest.getUid());
+			if (key != null) {
+				return key;
+			}
+		}
+		return guest.getIndex();
+	}
+
 	@Override
 	public long getAllocatedBwForGuest(GuestEntity guest) {
-		Long bw = bwTable.get(guest.getUid());
-		if (bw != null)
-			return bw;
-		else
-			return 0;
+		int slot = bwSlots.get(keyOf(guest));
+		return slot < 0 ? 0 : bwTable[slot];
 	}
 
 	@Override
 	public void deallocateBwForGuest(GuestEntity guest) {
-		Long allocatedBw = bwTable.remove(guest.getUid());
-		if (allocatedBw != null)
-			setAvailableBw(getAvailableBw() + allocatedBw);
+		long bw = removeSlot(guest.getIndex());
+		if (!uidKeys.isEmpty()) {
+			Integer key = uidKeys.remove(guest.getUid());
+			if (key != null) {
+				bw += removeSlot(key);
+			}
+		}
+		setAvailableBw(getAvailableBw() + bw);
 		guest.setCurrentAllocatedBw(0);
 	}
 
 	@Override
 	public void deallocateBwForAllGuests() {
 		super.deallocateBwForAllGuests();
-		getBwTable().clear();
+		bwSlots.clear();
+		Arrays.fill(guestUids, null);
+		uidKeys.clear();
 	}
 
 	@Override
@@ -89,20 +156,36 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 	/**
 	 * Gets the map between VMs and allocated bw.
-	 * 
-	 * @return the bw map
+	 *
+	 * @return a read-only copy of the bw map, where each key is a VM uid
+	 * @deprecated the allocations are kept in primitive tables keyed by {@link GuestEntity#getIndex()};
+	 *             use {@link #getAllocatedBwForGuest(GuestEntity)}
 	 */
+	@Deprecated
 	protected Map<String, Long> getBwTable() {
-		return bwTable;
+		Map<String, Long> table = new LinkedHashMap<>();
+		for (int slot = 0; slot < bwSlots.size(); slot++) {
+			table.put(guestUids[slot], bwTable[slot]);
+		}
+		return Collections.unmodifiableMap(table);
 	}
 
 	/**
-	 * Sets the map between VMs and allocated bw.
-	 * 
-	 * @param bwTable the bw map
+	 * Sets the map between VMs and allocated bw, replacing all the allocations. The available bw
+	 * becomes what the allocations of the map leave.
+	 *
+	 * @param bwTable the bw map, where each key is a VM uid
+	 * @deprecated use {@link #allocateBwForGuest(GuestEntity, long)} and {@link #deallocateBwForAllGuests()}
 	 */
+	@Deprecated
 	protected void setBwTable(Map<String, Long> bwTable) {
-		this.bwTable = bwTable;
+		deallocateBwForAllGuests();
+		for (Map.Entry<String, Long> entry : bwTable.entrySet()) {
+			int key = nextUidKey--;
+			uidKeys.put(entry.getKey(), key);
+			addSlot(key, entry.getKey(), entry.getValue());
+			setAvailableBw(getAvailableBw() - entry.getValue());
+		}
 	}
 
 }
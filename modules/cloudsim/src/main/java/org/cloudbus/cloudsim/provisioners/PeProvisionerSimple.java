@@ -8,27 +8,51 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.util.IntIndexMap;
 
 /**
  * PeProvisionerSimple is an extension of {@link PeProvisioner} which uses a best-effort policy to
  * allocate virtual PEs to VMs: 
  * if there is available mips on the physical PE, it allocates to a virtual PE; otherwise, it fails. 
  * Each host's PE has to have its own instance of a PeProvisioner.
+ * <p>
+ * The MIPS allocated to each VM are kept in primitive arrays, keyed by
+ * {@link GuestEntity#getIndex()}. VMs provisioned by uid only, through
+ * {@link #allocateMipsForGuest(String, double)}, get a key of their own until deallocated.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
 public class PeProvisionerSimple extends PeProvisioner {
 
-	/** The PE map, where each key is a VM id and each value
-         * is the list of in terms of their allocated amount of MIPS to that VM. */
-	private Map<String, List<Double>> peTable;
+	/** The slot of each VM with allocated MIPS, keyed by {@link GuestEntity#getIndex()}. */
+	private final IntIndexMap mipsSlots = new IntIndexMap();
+
+	/** The MIPS allocated to the VM in each slot, one value per allocation. */
+	private double[][] mipsTable = new double[4][];
+
+	/** The number of MIPS values of the VM in each slot. */
+	private int[] mipsCount = new int[4];
+
+	/** The uid of the VM in each slot. */
+	private String[] guestUids = new String[4];
+
+	/** The negative keys given to the VMs provisioned by uid only. */
+	private final Map<String, Integer> uidKeys = new HashMap<>();
+
+	/** The next negative key to give to a VM provisioned by uid only. */
+	private int nextUidKey = -1;
 
 	/**
 	 * Instantiates a new pe provisioner simple.
@@ -40,33 +64,58 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	public PeProvisionerSimple(double availableMips) {
 		super(availableMips);
-		setPeTable(new HashMap<String, ArrayList<Double>>());
 	}
 
 	@Override
 	public boolean allocateMipsForGuest(GuestEntity guest, double mips) {
-		return allocateMipsForGuest(guest.getUid(), mips);
+		return allocateMips(keyOf(guest), guest.getUid(), mips);
 	}
 
 	@Override
 	public boolean allocateMipsForGuest(String vmUid, double mips) {
+		Integer key = uidKeys.get(vmUid);
+		if (key == null) {
+			key = nextUidKey--;
+			uidKeys.put(vmUid, key);
+		}
+		return allocateMips(key, vmUid, mips);
+	}
+
+	private boolean allocateMips(int key, String uid, double mips) {
 		if (getAvailableMips() < mips) {
 			return false;
 		}
 
-        List<Double> allocatedMips = getPeTable().computeIfAbsent(vmUid, k -> new ArrayList<>());
-
-        allocatedMips.add(mips);
+		addMips(key, uid, mips);
 		setAvailableMips(getAvailableMips() - mips);
 
 		return true;
 	}
 
+	private void addMips(int key, String uid, double mips) {
+		int slot = mipsSlots.add(key);
+		if (slot == mipsCount.length) {
+			mipsTable = Arrays.copyOf(mipsTable, 2 * slot);
+			mipsCount = Arrays.copyOf(mipsCount, 2 * slot);
+			guestUids = Arrays.copyOf(guestUids, 2 * slot);
+		}
+		guestUids[slot] = uid;
+		double[] allocatedMips = mipsTable[slot];
+		int count = mipsCount[slot];
+		if (allocatedMips == null) {
+			allocatedMips = mipsTable[slot] = new double[2];
+		} else if (count == allocatedMips.length) {
+			allocatedMips = mipsTable[slot] = Arrays.copyOf(allocatedMips, 2 * count);
+		}
+		allocatedMips[count] = mips;
+		mipsCount[slot] = count + 1;
+	}
+
 	@Override
 	public boolean allocateMipsForGuest(GuestEntity guest, List<Double> mips) {
 		deallocateMipsForGuest(guest);
 		for (double _mips : mips) {
-			if (!allocateMipsForGuest(guest.getUid(), _mips)) {
+			if (!allocateMipsForGuest(guest, _mips)) {
 				return false;
 			}
 		}
@@ -77,68 +126,153 @@ public class PeProvisionerSimple extends PeProvisioner {
 	@Override
 	public void deallocateMipsForAllGuests() {
 		super.deallocateMipsForAllGuests();
-		getPeTable().clear();
+		mipsSlots.clear();
+		Arrays.fill(mipsCount, 0);
+		Arrays.fill(guestUids, null);
+		uidKeys.clear();
 	}
 
 	@Override
 	public double getAllocatedMipsForGuestByVirtualPeId(GuestEntity guest, int peId) {
-		List<Double> allocatedMips = getAllocatedMipsForGuest(guest);
-		if (allocatedMips != null && peId < allocatedMips.size()) {
-			return allocatedMips.get(peId);
+		int slot = slotOf(guest);
+		if (slot >= 0 && peId < mipsCount[slot]) {
+			return mipsTable[slot][peId];
 		}
 		return 0;
 	}
 
+	/**
+	 * Gets the MIPS allocated to a VM, as a read-only view of the allocation table: it follows the
+	 * later allocations of the VM, and is empty once the VM is deallocated.
+	 */
 	@Override
 	public List<Double> getAllocatedMipsForGuest(GuestEntity guest) {
-		if (getPeTable().containsKey(guest.getUid())) {
-			return getPeTable().get(guest.getUid());
-		}
-		return null;
+		int key = keyOf(guest);
+		return mipsSlots.get(key) < 0 ? null : new AllocatedMips(key);
 	}
 
 	@Override
 	public double getTotalAllocatedMipsForGuest(GuestEntity guest) {
-		List<Double> allocatedMips = getAllocatedMipsForGuest(guest);
-
-		if (allocatedMips != null) {
-			double totalAllocatedMips = 0.0;
-			for (double mips : allocatedMips) {
-				totalAllocatedMips += mips;
+		int slot = slotOf(guest);
+		double totalAllocatedMips = 0.0;
+		if (slot >= 0) {
+			for (int i = 0; i < mipsCount[slot]; i++) {
+				totalAllocatedMips += mipsTable[slot][i];
 			}
-			return totalAllocatedMips;
 		}
-		return 0;
+		return totalAllocatedMips;
 	}
 
 	@Override
 	public void deallocateMipsForGuest(GuestEntity guest) {
-		List<Double> allocatedMips = getAllocatedMipsForGuest(guest);
+		deallocateMips(guest.getIndex());
+		if (!uidKeys.isEmpty()) {
+			Integer key = uidKeys.remove(guest.getUid());
+			if (key != null) {
+				deallocateMips(key);
+			}
+		}
+	}
+
+	private void deallocateMips(int key) {
+		int slot = mipsSlots.remove(key);
+		if (slot >= 0) {
+			double[] allocatedMips = mipsTable[slot];
+			for (int i = 0; i < mipsCount[slot]; i++) {
+				setAvailableMips(getAvailableMips() + allocatedMips[i]);
+			}
+			// The last slot moves to the freed one
+			int last = mipsSlots.size();
+			mipsTable[slot] = mipsTable[last];
+			mipsCount[slot] = mipsCount[last];
+			guestUids[slot] = guestUids[last];
+			mipsTable[last] = allocatedMips;
+			mipsCount[last] = 0;
+			guestUids[last] = null;
+		}
+	}
 
-		if (allocatedMips != null) {
-			for (double mips : allocatedMips) {
-				setAvailableMips(getAvailableMips() + mips);
+	/**
+	 * Gets the key of a VM: its index, unless it has been provisioned by uid.
+	 */
+	private int keyOf(GuestEntity guest) {
+		if (!uidKeys.isEmpty()) {
+			Integer key = uidKeys.get(guest.getUid());
+			if (key != null) {
+				return key;
 			}
-			getPeTable().remove(guest.getUid());
 		}
+		return guest.getIndex();
+	}
+
+	private int slotOf(GuestEntity guest) {
+		return mipsSlots.get(keyOf(guest));
 	}
 
 	/**
 	 * Gets the pe map.
-	 * 
-	 * @return the pe map
+	 *
+	 * @return a read-only copy of the pe map, where each key is a VM uid and each value is the
+	 *         list of MIPS allocated to that VM
+	 * @deprecated the allocations are kept in primitive tables keyed by {@link GuestEntity#getIndex()};
+	 *             use {@link #getAllocatedMipsForGuest(GuestEntity)}
 	 */
+	@Deprecated
 	protected Map<String, List<Double>> getPeTable() {
-		return peTable;
+		Map<String, List<Double>> table = new LinkedHashMap<>();
+		for (int slot = 0; slot < mipsSlots.size(); slot++) {
+			List<Double> allocatedMips = new ArrayList<>(mipsCount[slot]);
+			for (int i = 0; i < mipsCount[slot]; i++) {
+				allocatedMips.add(mipsTable[slot][i]);
+			}
+			table.put(guestUids[slot], Collections.unmodifiableList(allocatedMips));
+		}
+		return Collections.unmodifiableMap(table);
 	}
 
 	/**
-	 * Sets the pe map.
-	 * 
-	 * @param peTable the peTable to set
+	 * Sets the pe map, replacing all the allocations. The VMs of the map are provisioned by uid, as
+	 * through {@link #allocateMipsForGuest(String, double)}, and the available MIPS become what
+	 * their allocations leave.
+	 *
+	 * @param peTable the pe map, where each key is a VM uid and each value is the list of MIPS
+	 *            allocated to that VM
+	 * @deprecated use {@link #allocateMipsForGuest(GuestEntity, double)} and {@link #deallocateMipsForAllGuests()}
 	 */
-	@SuppressWarnings("unchecked")
+	@Deprecated
 	protected void setPeTable(Map<String, ? extends List<Double>> peTable) {
-		this.peTable = (Map<String, List<Double>>) peTable;
+		deallocateMipsForAllGuests();
+		for (Map.Entry<String, ? extends List<Double>> entry : peTable.entrySet()) {
+			int key = nextUidKey--;
+			uidKeys.put(entry.getKey(), key);
+			for (double mips : entry.getValue()) {
+				addMips(key, entry.getKey(), mips);
+				setAvailableMips(getAvailableMips() - mips);
+			}
+		}
+	}
+
+	/** The MIPS allocated to the VM with a given key, read from the allocation table. */
+	private final class AllocatedMips extends AbstractList<Double> implements RandomAccess {
+		private final int key;
+
+		AllocatedMips(int key) {
+			this.key = key;
+		}
+
+		@Override
+		public Double get(int index) {
+			int slot = mipsSlots.get(key);
+			if (slot < 0 || index < 0 || index >= mipsCount[slot]) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+			return mipsTable[slot][index];
+		}
+
+		@Override
+		public int size() {
+			int slot = mipsSlots.get(key);
+			return slot < 0 ? 0 : mipsCount[slot];
+		}
 	}
 }
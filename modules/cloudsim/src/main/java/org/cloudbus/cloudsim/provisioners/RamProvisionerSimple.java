@@ -8,11 +8,15 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.util.IntIndexMap;
 
 /**
  * RamProvisionerSimple is an extension of {@link RamProvisioner} which uses a best-effort policy to
@@ -25,9 +29,20 @@ import org.cloudbus.cloudsim.core.GuestEntity;
  */
 public class RamProvisionerSimple extends RamProvisioner {
 
-	/** The RAM map, where each key is a VM id and each value
-         * is the amount of RAM allocated to that VM. */
-	private Map<String, Integer> ramTable;
+	/** The slot of each VM with allocated RAM, keyed by {@link GuestEntity#getIndex()}. */
+	private final IntIndexMap ramSlots = new IntIndexMap();
+
+	/** The amount of RAM allocated to the VM in each slot. */
+	private int[] ramTable = new int[4];
+
+	/** The uid of the VM in each slot. */
+	private String[] guestUids = new String[4];
+
+	/** The negative keys given to the VMs loaded by uid through {@link #setRamTable(Map)}. */
+	private final Map<String, Integer> uidKeys = new HashMap<>();
+
+	/** The next negative key to give to a VM loaded by uid. */
+	private int nextUidKey = -1;
 
 	/**
 	 * Instantiates a new ram provisioner simple.
@@ -36,7 +51,6 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	public RamProvisionerSimple(int availableRam) {
 		super(availableRam);
-		setRamTable(new HashMap<>());
 	}
 
 	@Override
@@ -53,7 +67,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 
 		if (getAvailableRam() >= ram) {
 			setAvailableRam(getAvailableRam() - ram);
-			getRamTable().put(guest.getUid(), ram);
+			addSlot(guest.getIndex(), guest.getUid(), ram);
 			guest.setCurrentAllocatedRam(getAllocatedRamForGuest(guest));
 			return true;
 		}
@@ -63,20 +77,65 @@ public class RamProvisionerSimple extends RamProvisioner {
 		return false;
 	}
 
+	private void addSlot(int key, String uid, int ram) {
+		int slot = ramSlots.add(key);
+		if (slot == ramTable.length) {
+			ramTable = Arrays.copyOf(ramTable, 2 * slot);
+			guestUids = Arrays.copyOf(guestUids, 2 * slot);
+		}
+		ramTable[slot] = ram;
+		guestUids[slot] = uid;
+	}
+
+	/**
+	 * Frees the slot of a key, if any.
+	 *
+	 * @return the ram that was allocated in the slot
+	 */
+	private int removeSlot(int key) {
+		int slot = ramSlots.remove(key);
+		if (slot < 0) {
+			return 0;
+		}
+		int ram = ramTable[slot];
+		// The last slot moves to the freed one
+		int last = ramSlots.size();
+		ramTable[slot] = ramTable[last];
+		guestUids[slot] = guestUids[last];
+		guestUids[last] = null;
+		return ram;
+	}
+
+	/**
+	 * Gets the key of a VM: its index, unless it has been loaded by uid.
+	 */
+	private int keyOf(GuestEntity guest) {
+		if (!uidKeys.isEmpty()) {
+			Integer key = uidKeys.get(guest.getUid());
+			if (key != null) {
+				return key;
+			}
+		}
+		return guest.getIndex();
+	}
+
 	@Override
 	public int getAllocatedRamForGuest(GuestEntity guest) {
-		if (getRamTable().containsKey(guest.getUid())) {
-			return getRamTable().get(guest.getUid());
-		}
-		return 0;
+		int slot = ramSlots.get(keyOf(guest));
+		return slot < 0 ? 0 : ramTable[slot];
 	}
 
 	@Override
 	public void deallocateRamForGuest(GuestEntity guest) {
-		int allocatedRam = getAllocatedRamForGuest(guest);
+		int allocatedRam = removeSlot(guest.getIndex());
+		if (!uidKeys.isEmpty()) {
+			Integer key = uidKeys.remove(guest.getUid());
+			if (key != null) {
+				allocatedRam += removeSlot(key);
+			}
+		}
 		if (allocatedRam > 0) {
-			int amountFreed = getRamTable().remove(guest.getUid());
-			setAvailableRam(getAvailableRam() + amountFreed);
+			setAvailableRam(getAvailableRam() + allocatedRam);
 			guest.setCurrentAllocatedRam(0);
 		}
 	}
@@ -84,7 +143,9 @@ public class RamProvisionerSimple extends RamProvisioner {
 	@Override
 	public void deallocateRamForAllGuests() {
 		super.deallocateRamForAllGuests();
-		getRamTable().clear();
+		ramSlots.clear();
+		Arrays.fill(guestUids, null);
+		uidKeys.clear();
 	}
 
 	@Override
@@ -100,20 +161,36 @@ public class RamProvisionerSimple extends RamProvisioner {
 
 	/**
 	 * Gets the map between VMs and allocated ram.
-	 * 
-	 * @return the ram map
+	 *
+	 * @return a read-only copy of the ram map, where each key is a VM uid
+	 * @deprecated the allocations are kept in primitive tables keyed by {@link GuestEntity#getIndex()};
+	 *             use {@link #getAllocatedRamForGuest(GuestEntity)}
 	 */
+	@Deprecated
 	protected Map<String, Integer> getRamTable() {
-		return ramTable;
+		Map<String, Integer> table = new LinkedHashMap<>();
+		for (int slot = 0; slot < ramSlots.size(); slot++) {
+			table.put(guestUids[slot], ramTable[slot]);
+		}
+		return Collections.unmodifiableMap(table);
 	}
 
 	/**
-	 * Sets the map between VMs and allocated ram.
-	 * 
-	 * @param ramTable the ram map
+	 * Sets the map between VMs and allocated ram, replacing all the allocations. The available ram
+	 * becomes what the allocations of the map leave.
+	 *
+	 * @param ramTable the ram map, where each key is a VM uid
+	 * @deprecated use {@link #allocateRamForGuest(GuestEntity, int)} and {@link #deallocateRamForAllGuests()}
 	 */
+	@Deprecated
 	protected void setRamTable(Map<String, Integer> ramTable) {
-		this.ramTable = ramTable;
+		deallocateRamForAllGuests();
+		for (Map.Entry<String, Integer> entry : ramTable.entrySet()) {
+			int key = nextUidKey--;
+			uidKeys.put(entry.getKey(), key);
+			addSlot(key, entry.getKey(), entry.getValue());
+			setAvailableRam(getAvailableRam() - entry.getValue());
+		}
 	}
 
 }
@@ -8,14 +8,14 @@
 
 package org.cloudbus.cloudsim.selectionPolicies;
 
-import java.util.ArrayDeque;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.cloudbus.cloudsim.core.PowerGuestEntity;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.HistoryStat;
+import org.cloudbus.cloudsim.util.MultipleCorrelation;
 
 /**
  * A VM selection policy that selects for migration the VM with the Maximum Correlation Coefficient (MCC) among 
@@ -41,6 +41,15 @@ public class PowerSelectionPolicyMaximumCorrelation implements SelectionPolicy<P
          * the  Maximum Correlation policy doesn't have data to be computed. */
 	private SelectionPolicy<PowerGuestEntity> fallbackPolicy;
 
+	/** The correlation engine, reused from a selection to the next. */
+	private final MultipleCorrelation correlation = new MultipleCorrelation();
+
+	/** The utilization matrix of the candidates being selected, row-major. */
+	private double[] utilization = new double[0];
+
+	/** The correlation coefficients of the candidates being selected. */
+	private double[] metrics = new double[0];
+
 	/**
 	 * Instantiates a new PowerSelectionPolicyMaximumCorrelation.
 	 * 
@@ -57,16 +66,24 @@ public class PowerSelectionPolicyMaximumCorrelation implements SelectionPolicy<P
 			return null;
 		}
 
-		List<Double> metrics = null;
+		int n = candidates.size();
+		int m = getMinUtilizationHistorySize(candidates);
+		if (utilization.length < n * m) {
+			utilization = new double[n * m];
+		}
+		if (metrics.length < n) {
+			metrics = new double[n];
+		}
+		fillUtilizationMatrix(candidates, m, utilization);
 		try {
-			metrics = getCorrelationCoefficients(getUtilizationMatrix(candidates));
+			correlation.compute(utilization, n, m, metrics);
 		} catch (IllegalArgumentException e) { // the degrees of freedom must be greater than zero
 			return getFallbackPolicy().select(candidates, host, excludedCandidates);
 		}
 		double maxMetric = Double.MIN_VALUE;
 		int maxIndex = 0;
-		for (int i = 0; i < metrics.size(); i++) {
-			double metric = metrics.get(i);
+		for (int i = 0; i < n; i++) {
+			double metric = metrics[i];
 			if (metric > maxMetric) {
 				maxMetric = metric;
 				maxIndex = i;
@@ -84,23 +101,35 @@ public class PowerSelectionPolicyMaximumCorrelation implements SelectionPolicy<P
 	 */
 	protected double[][] getUtilizationMatrix(final List<PowerGuestEntity> vmList) {
 		int n = vmList.size();
-                /*//@TODO It gets the min size of the history among all VMs considering
-                that different VMs can have different history sizes.
-                However, the j loop is not using the m variable
-                but the size of the vm list. If a VM list has 
-                a size greater than m, it will thow an exception.
-                It as to be included a test case for that.*/
 		int m = getMinUtilizationHistorySize(vmList);
-		double[][] utilization = new double[n][m];
+		double[] data = new double[n * m];
+		fillUtilizationMatrix(vmList, m, data);
+		double[][] utilization = new double[n][];
 		for (int i = 0; i < n; i++) {
-			ArrayDeque<Double> vmUtilization = vmList.get(i).getUtilizationHistory();
-			int j = 0;
-			for (double u : vmUtilization)
-				utilization[i][j++] = u;
+			utilization[i] = Arrays.copyOfRange(data, i * m, (i + 1) * m);
 		}
 		return utilization;
 	}
 
+	/**
+	 * Fills a row-major CPU utilization percentage matrix for a given list of VMs, with the
+	 * <tt>m</tt> latest values of each VM history, so that the histories line up when some VMs
+	 * have a longer one.
+	 * 
+	 * @param vmList the VM list
+	 * @param m the number of values of each VM, at most the min history size
+	 * @param utilization the array receiving the matrix: value j of VM i is at <tt>i * m + j</tt>
+	 */
+	protected void fillUtilizationMatrix(final List<PowerGuestEntity> vmList, final int m, final double[] utilization) {
+		for (int i = 0; i < vmList.size(); i++) {
+			HistoryStat vmUtilization = vmList.get(i).getUtilizationHistory();
+			int offset = vmUtilization.size() - m;
+			for (int j = 0; j < m; j++) {
+				utilization[i * m + j] = vmUtilization.get(offset + j);
+			}
+		}
+	}
+
 	/**
 	 * Gets the min CPU utilization percentage history size among a list of VMs.
 	 * 
@@ -124,25 +153,20 @@ public class PowerSelectionPolicyMaximumCorrelation implements SelectionPolicy<P
 	 * @param data the data
 	 * @return the correlation coefficients
 	 */
-    public List<Double> getCorrelationCoefficients(final double[][] data) {
+	public List<Double> getCorrelationCoefficients(final double[][] data) {
 		int n = data.length;
-		int m = data[0].length;
-		List<Double> correlationCoefficients = new LinkedList<>();
+		int m = n == 0 ? 0 : data[0].length;
+		double[] flat = new double[n * m];
 		for (int i = 0; i < n; i++) {
-			double[][] x = new double[n - 1][m];
-			int k = 0;
-			for (int j = 0; j < n; j++) {
-				if (j != i) {
-					x[k++] = data[j];
-				}
-			}
-
-			// Transpose the matrix so that it fits the linear model
-			double[][] xT = new Array2DRowRealMatrix(x).transpose().getData();
+			System.arraycopy(data[i], 0, flat, i * m, m);
+		}
 
-			// RSquare is the "coefficient of determination"
-			correlationCoefficients.add(MathUtil.createLinearRegression(xT,
-					data[i]).calculateRSquared());
+		// RSquare is the "coefficient of determination" of each VM against the others
+		double[] rSquared = new double[n];
+		new MultipleCorrelation().compute(flat, n, m, rSquared);
+		List<Double> correlationCoefficients = new ArrayList<>(n);
+		for (double r : rSquared) {
+			correlationCoefficients.add(r);
 		}
 		return correlationCoefficients;
 	}
@@ -0,0 +1,26 @@
+/*
+ * Title: CloudSim Toolkit Description: CloudSim (Cloud Simulation) Toolkit for Modeling and
+ * Simulation of Clouds Licence: GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.selectionPolicies;
+
+/**
+ * A selection policy that selects the candidate with the highest rank, the first one in the list
+ * on ties. The rank of a candidate depends only on the candidate itself, which lets placement
+ * policies keep the candidates in an index instead of scanning them
+ * (see {@link org.cloudbus.cloudsim.HostCapacityIndex}).
+ *
+ * @since CloudSim toolkit 7.0
+ */
+public interface RankedSelectionPolicy<T> extends SelectionPolicy<T> {
+    /**
+     * Gets the rank of a candidate. {@link #select} returns the candidate with the highest rank.
+     *
+     * @param candidate the candidate
+     * @return the rank, or <tt>NaN</tt> if the candidate is never selected
+     */
+    double rank(T candidate);
+}
@@ -19,7 +19,7 @@ import java.util.Set;
  *
  * @since CloudSim toolkit 7.0
  */
-public class SelectionPolicyLeastFull<T extends HostEntity> implements SelectionPolicy<T> {
+public class SelectionPolicyLeastFull<T extends HostEntity> implements RankedSelectionPolicy<T> {
     @Override
     public T select(List<T> candidates, Object obj, Set<T> excludedCandidates) {
         double maxAvailable = Double.MIN_VALUE;
@@ -44,4 +44,16 @@ public class SelectionPolicyLeastFull<T extends HostEntity> implements Selection
         }
         return selectedHost;
     }
+
+    @Override
+    public double rank(T candidate) {
+        double hostAvailable;
+        if (candidate instanceof PowerHost powerHost) {
+            hostAvailable = powerHost.getUtilizationOfCpu();
+        } else {
+            hostAvailable = candidate.getGuestScheduler().getAvailableMips();
+        }
+        // Same threshold as select()
+        return hostAvailable > Double.MIN_VALUE ? hostAvailable : Double.NaN;
+    }
 }
@@ -19,7 +19,7 @@ import java.util.Set;
  *
  * @since CloudSim toolkit 7.0
  */
-public class SelectionPolicyMostFull<T extends HostEntity> implements SelectionPolicy<T> {
+public class SelectionPolicyMostFull<T extends HostEntity> implements RankedSelectionPolicy<T> {
     @Override
     public T select(List<T> candidates, Object obj, Set<T> excludedCandidates) {
         double minAvailable = Double.MAX_VALUE;
@@ -44,4 +44,16 @@ public class SelectionPolicyMostFull<T extends HostEntity> implements SelectionP
         }
         return selectedHost;
     }
+
+    @Override
+    public double rank(T candidate) {
+        double hostAvailable;
+        if (candidate instanceof PowerHost powerHost) {
+            hostAvailable = powerHost.getUtilizationOfCpu();
+        } else {
+            hostAvailable = candidate.getGuestScheduler().getAvailableMips();
+        }
+        // The least available is the best, with the same threshold as select()
+        return hostAvailable < Double.MAX_VALUE ? -hostAvailable : Double.NaN;
+    }
 }
@@ -0,0 +1,265 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@link MetricsSink} handing the rows to another sink through a background thread, so that the
+ * simulation does not wait for the file system.
+ * <p>
+ * The rows are queued, and the thread takes all the queued rows at each wake-up and writes them to
+ * the other sink as one batch. The queue is bounded: if the rows are reported faster than they are
+ * written, {@link #write(String...)} waits for room instead of the queue growing without limit.
+ * <p>
+ * An error of the other sink is reported by the next call to the sink after it happened, and the
+ * rows reported after it are dropped. {@link #close()} writes all the queued rows, closes the
+ * other sink and stops the thread. The thread is a daemon, so a sink left open does not keep the
+ * JVM alive: the sinks still open when the JVM shuts down are closed by a shutdown hook, so that
+ * their last rows are written all the same.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class AsyncMetricsSink implements MetricsSink {
+
+	/** The default number of rows the queue holds. */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	/** Queued to stop the thread. */
+	private static final Object CLOSE = new Object();
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	/** The sinks not closed yet, closed when the JVM shuts down. */
+	private static final Set<AsyncMetricsSink> OPEN_SINKS = ConcurrentHashMap.newKeySet();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(AsyncMetricsSink::closeAll, "MetricsSink-shutdown"));
+	}
+
+	/** The sink the rows are written to, used by the thread only. */
+	private final MetricsSink sink;
+
+	/** The rows (<tt>String[]</tt> or <tt>double[]</tt>), flush requests and close request to process. */
+	private final BlockingQueue<Object> queue;
+
+	private final Thread thread;
+
+	/** The first error of {@link #sink}, if any. */
+	private volatile IOException failure;
+
+	/**
+	 * Held for reading while queueing and for writing while closing, so that nothing is queued
+	 * after the close request.
+	 */
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+	private volatile boolean closed;
+
+	/**
+	 * Writes to a sink through a queue of {@link #DEFAULT_QUEUE_CAPACITY} rows.
+	 *
+	 * @param sink the sink the rows are written to
+	 */
+	public AsyncMetricsSink(MetricsSink sink) {
+		this(sink, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Writes to a sink through a bounded queue, and starts the writing thread.
+	 *
+	 * @param sink the sink the rows are written to
+	 * @param queueCapacity the number of rows the queue holds
+	 */
+	public AsyncMetricsSink(MetricsSink sink, int queueCapacity) {
+		this.sink = sink;
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		thread = new Thread(this::run, "MetricsSink-" + THREAD_COUNT.incrementAndGet());
+		thread.setDaemon(true);
+		thread.start();
+		OPEN_SINKS.add(this);
+	}
+
+	/**
+	 * Queues a row. The row is copied, so the array can be reused.
+	 */
+	@Override
+	public void write(String... row) throws IOException {
+		put(row.clone());
+	}
+
+	/**
+	 * Queues a row. The row is copied, so the array can be reused.
+	 */
+	@Override
+	public void write(double... row) throws IOException {
+		put(row.clone());
+	}
+
+	/**
+	 * Waits until all the rows queued so far are written, and flushes the other sink.
+	 */
+	@Override
+	public void flush() throws IOException {
+		CountDownLatch flushed = new CountDownLatch(1);
+		put(flushed);
+		try {
+			flushed.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while flushing metrics");
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Writes all the queued rows, closes the other sink and stops the thread.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			closeLock.writeLock().lock();
+			try {
+				closed = true;
+				queue.put(CLOSE);
+			} finally {
+				closeLock.writeLock().unlock();
+			}
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while closing metrics");
+		} finally {
+			OPEN_SINKS.remove(this);
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Closes all the sinks not closed yet, writing their queued rows. It is run when the JVM shuts
+	 * down; the errors of the sinks are printed, since nobody is left to report them to.
+	 */
+	static void closeAll() {
+		for (AsyncMetricsSink sink : OPEN_SINKS) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void put(Object item) throws IOException {
+		Lock lock = closeLock.readLock();
+		lock.lock();
+		try {
+			if (closed) {
+				throw new IOException("Metrics sink closed");
+			}
+			checkFailure();
+			queue.put(item);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while queueing metrics");
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw new IOException("Metrics could not be written", failure);
+		}
+	}
+
+	private void run() {
+		List<Object> items = new ArrayList<>();
+		List<String[]> rows = new ArrayList<>();
+		boolean running = true;
+		while (running) {
+			try {
+				items.add(queue.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			queue.drainTo(items);
+
+			for (Object item : items) {
+				if (item instanceof String[] row) {
+					rows.add(row);
+					continue;
+				}
+				writeRows(rows);
+				if (item instanceof double[] row) {
+					attempt(() -> sink.write(row));
+				} else if (item instanceof CountDownLatch flushed) {
+					attempt(sink::flush);
+					flushed.countDown();
+				} else if (item == CLOSE) {
+					running = false;
+				}
+			}
+			writeRows(rows);
+			items.clear();
+		}
+		try {
+			sink.close();
+		} catch (IOException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+		// Release the flushes still waiting, if any got queued behind the close request
+		queue.drainTo(items);
+		for (Object item : items) {
+			if (item instanceof CountDownLatch flushed) {
+				flushed.countDown();
+			}
+		}
+	}
+
+	/** Writes the gathered rows as a batch. */
+	private void writeRows(List<String[]> rows) {
+		if (!rows.isEmpty()) {
+			attempt(() -> sink.writeAll(rows));
+			rows.clear();
+		}
+	}
+
+	/** Runs an operation of the other sink, unless it failed already, and records its error. */
+	private void attempt(SinkOperation operation) {
+		if (failure == null) {
+			try {
+				operation.run();
+			} catch (IOException | RuntimeException e) {
+				failure = e instanceof IOException io ? io : new IOException(e);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface SinkOperation {
+		void run() throws IOException;
+	}
+}
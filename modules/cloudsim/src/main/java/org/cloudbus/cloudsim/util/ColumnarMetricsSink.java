@@ -0,0 +1,233 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link MetricsSink} writing numeric rows to a compact binary file, column by column.
+ * <p>
+ * The rows are gathered in blocks, kept as one <tt>double</tt> array per column, and each full
+ * block is written at once: the values of a metric are stored next to each other, eight bytes
+ * each, without being formatted as text. {@link #read(String)} loads such a file back.
+ * <p>
+ * The file holds, in big-endian order:
+ * <ul>
+ * <li>the magic number <tt>0x43534D53</tt> and the format version, as <tt>int</tt>s;
+ * <li>the number of columns, as an <tt>int</tt>;
+ * <li>the name of each column, as an unsigned <tt>short</tt> length followed by its UTF-8 bytes;
+ * <li>the blocks, each as its number of rows, as an <tt>int</tt>, followed by the values of each
+ * column, as <tt>double</tt>s, column after column.
+ * </ul>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class ColumnarMetricsSink implements MetricsSink {
+
+	/** The magic number opening a columnar metrics file, "CSMS". */
+	public static final int MAGIC = 0x43534D53;
+
+	/** The version of the file format. */
+	public static final int VERSION = 1;
+
+	/** The default number of rows of a block. */
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	private final DataOutputStream output;
+
+	/** The values of the current block, by column. */
+	private final double[][] block;
+
+	/** The number of rows of the current block. */
+	private int rows;
+
+	/**
+	 * Creates a columnar metrics file, with blocks of {@link #DEFAULT_BLOCK_SIZE} rows.
+	 *
+	 * @param path the path of the file, replaced if it exists
+	 * @param columnNames the names of the columns
+	 * @throws IOException if the file cannot be created
+	 */
+	public ColumnarMetricsSink(String path, String... columnNames) throws IOException {
+		this(path, DEFAULT_BLOCK_SIZE, columnNames);
+	}
+
+	/**
+	 * Creates a columnar metrics file, creating its parent directories if needed.
+	 *
+	 * @param path the path of the file, replaced if it exists
+	 * @param blockSize the number of rows of a block
+	 * @param columnNames the names of the columns, all different
+	 * @throws IOException if the file cannot be created
+	 */
+	public ColumnarMetricsSink(String path, int blockSize, String... columnNames) throws IOException {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("A block holds at least 1 row");
+		}
+		if (columnNames.length == 0) {
+			throw new IllegalArgumentException("A metrics file has at least 1 column");
+		}
+		if (new HashSet<>(Arrays.asList(columnNames)).size() != columnNames.length) {
+			throw new IllegalArgumentException("Duplicate column names: " + Arrays.toString(columnNames));
+		}
+		File parent = new File(path).getAbsoluteFile().getParentFile();
+		if (!parent.exists() && !parent.mkdirs()) {
+			throw new IllegalStateException("Couldn't create dir: " + parent);
+		}
+
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), CsvMetricsSink.BUFFER_SIZE));
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeInt(columnNames.length);
+		for (String columnName : columnNames) {
+			byte[] name = columnName.getBytes(StandardCharsets.UTF_8);
+			output.writeShort(name.length);
+			output.write(name);
+		}
+		block = new double[columnNames.length][blockSize];
+	}
+
+	/**
+	 * Writes a row, whose values are parsed as <tt>double</tt>s.
+	 *
+	 * @throws NumberFormatException if a value is not a number
+	 */
+	@Override
+	public void write(String... row) throws IOException {
+		checkRowLength(row.length);
+		for (int i = 0; i < row.length; i++) {
+			block[i][rows] = Double.parseDouble(row[i]);
+		}
+		endRow();
+	}
+
+	@Override
+	public void write(double... row) throws IOException {
+		checkRowLength(row.length);
+		for (int i = 0; i < row.length; i++) {
+			block[i][rows] = row[i];
+		}
+		endRow();
+	}
+
+	private void checkRowLength(int length) {
+		if (length != block.length) {
+			throw new IllegalArgumentException("Row of " + length + " values for " + block.length + " columns");
+		}
+	}
+
+	private void endRow() throws IOException {
+		if (++rows == block[0].length) {
+			writeBlock();
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		if (rows == 0) {
+			return;
+		}
+		output.writeInt(rows);
+		for (double[] column : block) {
+			for (int i = 0; i < rows; i++) {
+				output.writeDouble(column[i]);
+			}
+		}
+		rows = 0;
+	}
+
+	/**
+	 * Writes the rows of the current block, even if it is not full, and flushes the file.
+	 */
+	@Override
+	public void flush() throws IOException {
+		writeBlock();
+		output.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			writeBlock();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Reads a columnar metrics file.
+	 *
+	 * @param path the path of the file
+	 * @return the values of each column, by column name, in the order of the columns
+	 * @throws IOException if the file can't be read
+	 * @throws IllegalArgumentException if the file is not a columnar metrics file
+	 */
+	public static Map<String, double[]> read(String path) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+			if (input.readInt() != MAGIC) {
+				throw new IllegalArgumentException("Not a columnar metrics file");
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported columnar metrics file version: " + version);
+			}
+			String[] names = new String[input.readInt()];
+			for (int i = 0; i < names.length; i++) {
+				byte[] name = new byte[input.readUnsignedShort()];
+				input.readFully(name);
+				names[i] = new String(name, StandardCharsets.UTF_8);
+			}
+
+			double[][] columns = new double[names.length][16];
+			int size = 0;
+			int rowCount;
+			while ((rowCount = readBlockSize(input)) >= 0) {
+				if (size + rowCount > columns[0].length) {
+					int capacity = Math.max(2 * columns[0].length, size + rowCount);
+					for (int c = 0; c < columns.length; c++) {
+						columns[c] = Arrays.copyOf(columns[c], capacity);
+					}
+				}
+				for (double[] column : columns) {
+					for (int i = 0; i < rowCount; i++) {
+						column[size + i] = input.readDouble();
+					}
+				}
+				size += rowCount;
+			}
+
+			Map<String, double[]> result = new LinkedHashMap<>();
+			for (int c = 0; c < names.length; c++) {
+				result.put(names[c], Arrays.copyOf(columns[c], size));
+			}
+			return result;
+		}
+	}
+
+	/** Reads the number of rows of the next block, -1 at the end of the file. */
+	private static int readBlockSize(DataInputStream input) throws IOException {
+		try {
+			return input.readInt();
+		} catch (EOFException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A {@link MetricsSink} writing the rows to a CSV file, comma-separated and unquoted, one per line.
+ * <p>
+ * The file is opened once, and the rows go through a large buffer: they reach the file when the
+ * buffer fills up, or when the sink is flushed or closed, instead of the file being opened and
+ * closed for each row.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class CsvMetricsSink implements MetricsSink {
+
+	/** The size of the buffer, in characters. */
+	public static final int BUFFER_SIZE = 1 << 16;
+
+	private final ICSVWriter writer;
+
+	/**
+	 * Opens a CSV file, creating it and its parent directories if needed.
+	 *
+	 * @param path the path of the file
+	 * @param append whether the rows are appended to the file, rather than replacing its content
+	 * @throws IOException if the file cannot be opened
+	 */
+	public CsvMetricsSink(String path, boolean append) throws IOException {
+		File parent = new File(path).getAbsoluteFile().getParentFile();
+		if (!parent.exists() && !parent.mkdirs()) {
+			throw new IllegalStateException("Couldn't create dir: " + parent);
+		}
+		writer = new CSVWriter(new BufferedWriter(new FileWriter(path, append), BUFFER_SIZE),
+				',',
+				ICSVWriter.NO_QUOTE_CHARACTER,
+				ICSVWriter.DEFAULT_ESCAPE_CHARACTER,
+				ICSVWriter.DEFAULT_LINE_END);
+	}
+
+	@Override
+	public void write(String... row) throws IOException {
+		writer.writeNext(row, false);
+		checkError();
+	}
+
+	@Override
+	public void writeAll(List<String[]> rows) throws IOException {
+		writer.writeAll(rows, false);
+		checkError();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	/** The writer of opencsv swallows the errors of the file, so they are checked here. */
+	private void checkError() throws IOException {
+		IOException exception = writer.getException();
+		if (exception != null) {
+			throw exception;
+		}
+	}
+}
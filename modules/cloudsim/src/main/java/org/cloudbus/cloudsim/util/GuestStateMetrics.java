@@ -0,0 +1,145 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * The SLA metrics of the state history of a guest, or of several merged: the integrals over time
+ * of the MIPS allocated and requested, the MIPS under-allocated during migrations (the performance
+ * degradation due to migration, PDM), the SLA violation of the periods without the MIPS requested,
+ * and the time a guest stays put before a migration.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class GuestStateMetrics extends StateHistoryMetrics<GuestStateMetrics> {
+
+	private double totalAllocatedMips;
+
+	private double totalRequestedMips;
+
+	private double underAllocatedMipsDueToMigration;
+
+	/** The sum and the number of the SLA violations of each period without the MIPS requested. */
+	private double slaViolationSum;
+
+	private long slaViolationCount;
+
+	/** The time each guest stays put before a migration. */
+	private RunningStat timeBeforeMigration = new RunningStat();
+
+	private double previousTime = -1;
+
+	private double previousAllocatedMips;
+
+	private double previousRequestedMips;
+
+	private boolean previousIsInMigration;
+
+	private double lastTimeMigrationFinished;
+
+	@Override
+	protected void step(final double time, final double allocatedMips, final double requestedMips, final boolean isInMigration) {
+		if (previousTime != -1) {
+			double timeDiff = time - previousTime;
+			totalAllocatedMips += previousAllocatedMips * timeDiff;
+			totalRequestedMips += previousRequestedMips * timeDiff;
+
+			if (previousAllocatedMips < previousRequestedMips) {
+				slaViolationSum += (previousRequestedMips - previousAllocatedMips) / previousRequestedMips;
+				slaViolationCount++;
+				if (previousIsInMigration) {
+					underAllocatedMipsDueToMigration += (previousRequestedMips - previousAllocatedMips) * timeDiff;
+				}
+			}
+		}
+
+		if (previousIsInMigration && !isInMigration) {
+			timeBeforeMigration.add(time - lastTimeMigrationFinished);
+		}
+		if (!previousIsInMigration && isInMigration) {
+			lastTimeMigrationFinished = time;
+		}
+
+		previousAllocatedMips = allocatedMips;
+		previousRequestedMips = requestedMips;
+		previousTime = time;
+		previousIsInMigration = isInMigration;
+	}
+
+	@Override
+	protected GuestStateMetrics copy() {
+		GuestStateMetrics copy = new GuestStateMetrics();
+		copy.addTotals(this);
+		copy.previousTime = previousTime;
+		copy.previousAllocatedMips = previousAllocatedMips;
+		copy.previousRequestedMips = previousRequestedMips;
+		copy.previousIsInMigration = previousIsInMigration;
+		copy.lastTimeMigrationFinished = lastTimeMigrationFinished;
+		return copy;
+	}
+
+	@Override
+	public void merge(final GuestStateMetrics other) {
+		addTotals(other.settled());
+	}
+
+	private void addTotals(final GuestStateMetrics settled) {
+		totalAllocatedMips += settled.totalAllocatedMips;
+		totalRequestedMips += settled.totalRequestedMips;
+		underAllocatedMipsDueToMigration += settled.underAllocatedMipsDueToMigration;
+		slaViolationSum += settled.slaViolationSum;
+		slaViolationCount += settled.slaViolationCount;
+		timeBeforeMigration.merge(settled.timeBeforeMigration);
+	}
+
+	/**
+	 * @return the MIPS allocated, integrated over time
+	 */
+	public double getTotalAllocatedMips() {
+		return settled().totalAllocatedMips;
+	}
+
+	/**
+	 * @return the MIPS requested, integrated over time
+	 */
+	public double getTotalRequestedMips() {
+		return settled().totalRequestedMips;
+	}
+
+	/**
+	 * @return the overall SLA violation: the MIPS requested but not allocated, over the MIPS requested
+	 */
+	public double getOverallSlaViolation() {
+		GuestStateMetrics settled = settled();
+		return (settled.totalRequestedMips - settled.totalAllocatedMips) / settled.totalRequestedMips;
+	}
+
+	/**
+	 * @return the mean SLA violation of the periods without the MIPS requested, 0 if there are none
+	 */
+	public double getAverageSlaViolation() {
+		GuestStateMetrics settled = settled();
+		return settled.slaViolationCount == 0 ? 0 : settled.slaViolationSum / settled.slaViolationCount;
+	}
+
+	/**
+	 * @return the performance degradation due to migration (PDM): the MIPS not allocated during
+	 *         migrations, over the MIPS requested
+	 */
+	public double getSlaDegradationDueToMigration() {
+		GuestStateMetrics settled = settled();
+		return settled.underAllocatedMipsDueToMigration / settled.totalRequestedMips;
+	}
+
+	/**
+	 * @return the statistics of the time the guests stay put before a migration
+	 */
+	public RunningStat getTimeBeforeMigration() {
+		return new RunningStat(settled().timeBeforeMigration);
+	}
+}
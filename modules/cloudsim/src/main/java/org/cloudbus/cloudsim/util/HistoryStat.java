@@ -1,54 +1,24 @@
 package org.cloudbus.cloudsim.util;
 
 import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.PriorityQueue;
 
 /**
- * Variant of ArrayDeque that provides fast computation of the mean and median of a moving window of last offer()ed samples.
- * The median uses two heaps that are not used until the first invocation of the getMedian() method.
+ * Variant of ArrayDeque that provides fast computation of the mean, median and median absolute deviation
+ * of a moving window of last offer()ed samples. The order statistics come from an {@link OrderStatisticsWindow}
+ * that keeps the samples unboxed and sorted, so that sliding the window neither boxes nor scans the samples.
  * 
  * @TODO The implementation needs to be completed with all methods from the ArrayDeque interface.
  */
 public class HistoryStat extends ArrayDeque<Double> {
     private final int max_size;
     private double sum = 0.0;
-    private PriorityQueue<Double> lower;
-    private PriorityQueue<Double> higher;
+    private final OrderStatisticsWindow window;
 
     public HistoryStat(int max_size) {
         super(max_size);
         assert(max_size >= 2);
         this.max_size = max_size;
-    }
-
-    private void enableFastMedian() {
-        lower = new PriorityQueue<>((max_size + 1) / 2, Comparator.reverseOrder());
-        higher  = new PriorityQueue<>((max_size + 1) / 2, Comparator.naturalOrder());
-        for (double val : this)
-            addHeaps(val);
-    }
-
-    private void addHeaps(double val) {
-        double low = Double.MAX_VALUE;
-        if (!lower.isEmpty())
-            low = lower.peek();
-        if (val <= low) {
-            lower.add(val);
-            if (lower.size() > higher.size() + 1)
-                higher.add(lower.poll());
-        } else {
-            higher.add(val);
-            if (higher.size() > lower.size() + 1)
-                lower.add(higher.poll());
-        }
-    }
-
-    private void delHeaps(double val) {
-        if (!lower.isEmpty() && val <= lower.peek())
-            lower.remove(val);
-        else
-            higher.remove(val);
+        this.window = new OrderStatisticsWindow(max_size);
     }
 
     @Override
@@ -56,30 +26,45 @@ public class HistoryStat extends ArrayDeque<Double> {
         if (size() == max_size) {
             double oldest = poll();
             sum -= oldest;
-            if (lower != null)
-                delHeaps(oldest);
         }
+        window.add(val);
         boolean rv = super.offer(val);
         sum += val;
-        if (lower != null)
-            addHeaps(val);
         return rv;
     }
 
+    /**
+     * Gets a sample without unboxing it, the oldest one being at index 0.
+     *
+     * @param index the index of the sample, from 0 to size() - 1
+     * @return the sample
+     */
+    public double get(int index) {
+        return window.get(index);
+    }
+
+    /**
+     * Gets the median of the samples, the mean of the two middle ones if their number is even.
+     *
+     * @return the median, 0 if there are no samples
+     */
     public double getMedian() {
-        if (lower == null) {
-            enableFastMedian();
-        }
-        if (lower.isEmpty() && higher.isEmpty())
+        int n = window.size();
+        if (n == 0)
             return 0.0;
-        if (lower.isEmpty() || lower.size() < higher.size())
-            return higher.peek();
-        if (higher.isEmpty() || higher.size() < lower.size())
-            return lower.peek();
-        if (lower.size() == higher.size())
-            return (lower.peek() + higher.peek()) / 2.0;
-        assert(false);
-        return 0.0;
+        if (n % 2 == 1)
+            return window.getSorted(n / 2);
+        return (window.getSorted(n / 2 - 1) + window.getSorted(n / 2)) / 2.0;
+    }
+
+    /**
+     * Gets the median absolute deviation of the samples from {@link #getMedian()}, as
+     * {@link MathUtil#median(double[])} of the deviations.
+     *
+     * @return the median absolute deviation, 0 if there are no samples
+     */
+    public double getMad() {
+        return window.getMad(getMedian());
     }
 
     public double getMean() {
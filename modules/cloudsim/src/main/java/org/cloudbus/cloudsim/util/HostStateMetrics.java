@@ -0,0 +1,118 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * The SLA metrics of the state history of a host, or of several merged: the SLA violation time
+ * per host and per active host (SLATAH), i.e. the fraction of the time during which the host
+ * didn't get the MIPS requested, and the time a host stays active before being shut down.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class HostStateMetrics extends StateHistoryMetrics<HostStateMetrics> {
+
+	private double slaViolationTime;
+
+	private double totalTime;
+
+	private double activeSlaViolationTime;
+
+	private double activeTotalTime;
+
+	/** The time each host stays active before a shutdown. */
+	private RunningStat timeBeforeShutdown = new RunningStat();
+
+	private double previousTime = -1;
+
+	private double previousAllocatedMips;
+
+	private double previousRequestedMips;
+
+	private boolean previousIsActive = true;
+
+	private double lastTimeSwitchedOn;
+
+	@Override
+	protected void step(final double time, final double allocatedMips, final double requestedMips, final boolean isActive) {
+		if (previousTime != -1) {
+			double timeDiff = time - previousTime;
+			boolean violation = previousAllocatedMips < previousRequestedMips;
+			totalTime += timeDiff;
+			if (violation) {
+				slaViolationTime += timeDiff;
+			}
+			if (previousIsActive) {
+				activeTotalTime += timeDiff;
+				if (violation) {
+					activeSlaViolationTime += timeDiff;
+				}
+			}
+		}
+
+		if (previousIsActive && !isActive) {
+			timeBeforeShutdown.add(time - lastTimeSwitchedOn);
+		}
+		if (!previousIsActive && isActive) {
+			lastTimeSwitchedOn = time;
+		}
+
+		previousAllocatedMips = allocatedMips;
+		previousRequestedMips = requestedMips;
+		previousTime = time;
+		previousIsActive = isActive;
+	}
+
+	@Override
+	protected HostStateMetrics copy() {
+		HostStateMetrics copy = new HostStateMetrics();
+		copy.addTotals(this);
+		copy.previousTime = previousTime;
+		copy.previousAllocatedMips = previousAllocatedMips;
+		copy.previousRequestedMips = previousRequestedMips;
+		copy.previousIsActive = previousIsActive;
+		copy.lastTimeSwitchedOn = lastTimeSwitchedOn;
+		return copy;
+	}
+
+	@Override
+	public void merge(final HostStateMetrics other) {
+		addTotals(other.settled());
+	}
+
+	private void addTotals(final HostStateMetrics settled) {
+		slaViolationTime += settled.slaViolationTime;
+		totalTime += settled.totalTime;
+		activeSlaViolationTime += settled.activeSlaViolationTime;
+		activeTotalTime += settled.activeTotalTime;
+		timeBeforeShutdown.merge(settled.timeBeforeShutdown);
+	}
+
+	/**
+	 * @return the SLA violation time per active host (SLATAH)
+	 */
+	public double getSlaTimePerActiveHost() {
+		HostStateMetrics settled = settled();
+		return settled.activeSlaViolationTime / settled.activeTotalTime;
+	}
+
+	/**
+	 * @return the SLA violation time per host, whether active or not
+	 */
+	public double getSlaTimePerHost() {
+		HostStateMetrics settled = settled();
+		return settled.slaViolationTime / settled.totalTime;
+	}
+
+	/**
+	 * @return the statistics of the time the hosts stay active before a shutdown
+	 */
+	public RunningStat getTimeBeforeShutdown() {
+		return new RunningStat(settled().timeBeforeShutdown);
+	}
+}
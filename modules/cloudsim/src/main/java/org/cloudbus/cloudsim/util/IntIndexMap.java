@@ -0,0 +1,185 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing map from <tt>int</tt> keys to dense slots <tt>0 .. size()-1</tt>, so that
+ * the values of each key can be kept in primitive arrays indexed by slot, without boxing.
+ * <p>
+ * Removing a key frees its slot, and the key in the last slot moves to the freed one: the owner of
+ * the arrays must move the values of slot {@link #size()} to the slot returned by
+ * {@link #remove(int)}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class IntIndexMap {
+
+	/** The keys of the hash table. */
+	private int[] keys;
+
+	/** The slot of each key of the hash table plus one, 0 for free positions. */
+	private int[] slots;
+
+	/** The key of each slot. */
+	private int[] keyBySlot;
+
+	/** The number of keys. */
+	private int size;
+
+	/**
+	 * Creates an empty map.
+	 */
+	public IntIndexMap() {
+		keys = new int[8];
+		slots = new int[8];
+		keyBySlot = new int[4];
+	}
+
+	/**
+	 * @return the number of keys, i.e. of slots in use
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return <tt>true</tt> if the map has no keys
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the slot of a key.
+	 *
+	 * @param key the key
+	 * @return the slot, or -1 if the key is not in the map
+	 */
+	public int get(int key) {
+		int mask = keys.length - 1;
+		for (int i = hash(key) & mask; slots[i] != 0; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return slots[i] - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds a key to the map, in the next free slot.
+	 *
+	 * @param key the key
+	 * @return the slot of the key: {@link #size()} - 1 if it has just been added
+	 */
+	public int add(int key) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		for (; slots[i] != 0; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return slots[i] - 1;
+			}
+		}
+		if (2 * (size + 1) > keys.length) {
+			rehash(2 * keys.length);
+			return add(key);
+		}
+		keys[i] = key;
+		slots[i] = size + 1;
+		if (size == keyBySlot.length) {
+			keyBySlot = Arrays.copyOf(keyBySlot, 2 * size);
+		}
+		keyBySlot[size] = key;
+		return size++;
+	}
+
+	/**
+	 * Removes a key from the map. The key in the last slot, which is {@link #size()} after the
+	 * call, moves to the freed slot.
+	 *
+	 * @param key the key
+	 * @return the freed slot, or -1 if the key is not in the map
+	 */
+	public int remove(int key) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (slots[i] != 0 && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		if (slots[i] == 0) {
+			return -1;
+		}
+		int slot = slots[i] - 1;
+
+		// Shift back the following keys of the cluster that can't be found past the hole otherwise
+		int hole = i;
+		for (int j = (i + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+			int home = hash(keys[j]) & mask;
+			if (((j - home) & mask) >= ((j - hole) & mask)) {
+				keys[hole] = keys[j];
+				slots[hole] = slots[j];
+				hole = j;
+			}
+		}
+		slots[hole] = 0;
+
+		size--;
+		if (slot != size) {
+			int moved = keyBySlot[size];
+			keyBySlot[slot] = moved;
+			for (int j = hash(moved) & mask; ; j = (j + 1) & mask) {
+				if (keys[j] == moved && slots[j] != 0) {
+					slots[j] = slot + 1;
+					break;
+				}
+			}
+		}
+		return slot;
+	}
+
+	/**
+	 * Gets the key in a slot.
+	 *
+	 * @param slot the slot, between 0 and {@link #size()} - 1
+	 * @return the key
+	 */
+	public int keyAt(int slot) {
+		return keyBySlot[slot];
+	}
+
+	/**
+	 * Removes all the keys.
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(slots, 0);
+			size = 0;
+		}
+	}
+
+	private void rehash(int capacity) {
+		keys = new int[capacity];
+		slots = new int[capacity];
+		int mask = capacity - 1;
+		for (int slot = 0; slot < size; slot++) {
+			int i = hash(keyBySlot[slot]) & mask;
+			while (slots[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = keyBySlot[slot];
+			slots[i] = slot + 1;
+		}
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * Computes the Local Regression (Loess) parameter estimates of
+ * {@link MathUtil#getLoessParameterEstimates(double[])} and
+ * {@link MathUtil#getRobustLoessParameterEstimates(double[])} in closed form, without
+ * allocating: the tricube weights are computed once per length, and the working arrays are kept
+ * from a call to the next. The estimates match the ones of commons-math's
+ * {@link org.apache.commons.math3.stat.regression.SimpleRegression} up to rounding.
+ * <p>
+ * The data are read from an array of at least <tt>n</tt> values, in order or in reverse order, so
+ * that a history to be read backwards needs no reversed copy.
+ * <p>
+ * An instance is not thread-safe.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class LocalRegression {
+
+	/** The tricube weights of each number of points computed so far, <tt>null</tt> if not yet. */
+	private static volatile double[][] tricubeWeights = new double[16][];
+
+	/** The points, in regression order. */
+	private double[] y = new double[0];
+
+	/** The residuals of the tricube regression. */
+	private double[] residuals = new double[0];
+
+	/** The absolute residuals, sorted. */
+	private double[] sortedResiduals = new double[0];
+
+	/** The tricube bisquare weights. */
+	private double[] bisquareWeights = new double[0];
+
+	/**
+	 * Gets the Loess parameter estimates of some data, as
+	 * {@link MathUtil#getLoessParameterEstimates(double[])} does.
+	 *
+	 * @param data the array holding the data
+	 * @param n the number of points, read from the start of the array
+	 * @param reversed whether the points are read from the n-th value down to the first
+	 * @param estimates the array receiving the intercept and the slope
+	 * @throws IllegalArgumentException if there are less than 3 points
+	 */
+	public void loess(final double[] data, final int n, final boolean reversed, final double[] estimates) {
+		load(data, n, reversed);
+		regress(n, getTricubeWeights(n), estimates);
+	}
+
+	/**
+	 * Gets the robust Loess parameter estimates of some data, as
+	 * {@link MathUtil#getRobustLoessParameterEstimates(double[])} does.
+	 *
+	 * @param data the array holding the data
+	 * @param n the number of points, read from the start of the array
+	 * @param reversed whether the points are read from the n-th value down to the first
+	 * @param estimates the array receiving the intercept and the slope
+	 * @throws IllegalArgumentException if there are less than 3 points
+	 */
+	public void robustLoess(final double[] data, final int n, final boolean reversed, final double[] estimates) {
+		load(data, n, reversed);
+		double[] weights = getTricubeWeights(n);
+		regress(n, weights, estimates);
+		double intercept = estimates[0];
+		double slope = estimates[1];
+
+		for (int i = 0; i < n; i++) {
+			residuals[i] = y[i] - (intercept + slope * (i + 1));
+			sortedResiduals[i] = Math.abs(residuals[i]);
+		}
+		Arrays.sort(sortedResiduals, 0, n);
+		double s6 = median(sortedResiduals, n) * 6;
+		for (int i = 2; i < n; i++) {
+			double k = Math.pow(1 - Math.pow(residuals[i] / s6, 2), 2);
+			if (k > 0) {
+				bisquareWeights[i] = (1 / k) * weights[i];
+			} else {
+				bisquareWeights[i] = Double.MAX_VALUE;
+			}
+		}
+		bisquareWeights[0] = bisquareWeights[1] = bisquareWeights[2];
+
+		regress(n, bisquareWeights, estimates);
+		if (Double.isNaN(estimates[0]) || Double.isNaN(estimates[1])) {
+			estimates[0] = intercept;
+			estimates[1] = slope;
+		}
+	}
+
+	private void load(final double[] data, final int n, final boolean reversed) {
+		if (n < 3) {
+			throw new IllegalArgumentException("Not enough data (" + n + " points) for a regression");
+		}
+		if (y.length < n) {
+			y = new double[n];
+			residuals = new double[n];
+			sortedResiduals = new double[n];
+			bisquareWeights = new double[n];
+		}
+		for (int i = 0; i < n; i++) {
+			y[i] = reversed ? data[n - i - 1] : data[i];
+		}
+	}
+
+	/**
+	 * Fits a line through the points <tt>(i + 1, y[i])</tt>, as
+	 * {@link MathUtil#createWeigthedLinearRegression(double[], double[], double[])} does: the
+	 * weights only apply when at least 40% of them are not positive.
+	 */
+	private void regress(final int n, final double[] weights, final double[] estimates) {
+		int numZeroWeights = 0;
+		for (int i = 0; i < n; i++) {
+			if (weights[i] <= 0) {
+				numZeroWeights++;
+			}
+		}
+		boolean weighted = numZeroWeights >= 0.4 * n;
+
+		double sumX = 0;
+		double sumY = 0;
+		for (int i = 0; i < n; i++) {
+			double w = weighted ? Math.sqrt(weights[i]) : 1;
+			sumX += w * (i + 1);
+			sumY += w * y[i];
+		}
+		double meanX = sumX / n;
+		double meanY = sumY / n;
+		double sumXX = 0;
+		double sumXY = 0;
+		for (int i = 0; i < n; i++) {
+			double w = weighted ? Math.sqrt(weights[i]) : 1;
+			double dx = w * (i + 1) - meanX;
+			sumXX += dx * dx;
+			sumXY += dx * (w * y[i] - meanY);
+		}
+
+		// As SimpleRegression, no slope when the abscissae don't vary
+		if (Math.abs(sumXX) < 10 * Double.MIN_VALUE) {
+			estimates[0] = meanY;
+			estimates[1] = Double.NaN;
+		} else {
+			double slope = sumXY / sumXX;
+			estimates[0] = (sumY - slope * sumX) / n;
+			estimates[1] = slope;
+		}
+	}
+
+	/**
+	 * Gets the median of sorted values, as the default percentile estimation of commons-math.
+	 */
+	private static double median(final double[] sorted, final int n) {
+		double position = 0.5 * (n + 1);
+		int lower = (int) position;
+		if (lower >= n) {
+			return sorted[n - 1];
+		}
+		return sorted[lower - 1] + (position - lower) * (sorted[lower] - sorted[lower - 1]);
+	}
+
+	/**
+	 * Gets the tricube weights of {@link MathUtil#getTricubeWeigts(int)}, computing them on the
+	 * first call for a number of points. The returned array must not be modified.
+	 *
+	 * @param n the number of weights
+	 * @return the weights
+	 */
+	public static double[] getTricubeWeights(final int n) {
+		double[][] cache = tricubeWeights;
+		if (n < cache.length && cache[n] != null) {
+			return cache[n];
+		}
+		synchronized (LocalRegression.class) {
+			cache = tricubeWeights;
+			if (n >= cache.length) {
+				cache = Arrays.copyOf(cache, Math.max(n + 1, 2 * cache.length));
+			}
+			if (cache[n] == null) {
+				cache[n] = MathUtil.getTricubeWeigts(n);
+			}
+			tricubeWeights = cache;
+			return cache[n];
+		}
+	}
+}
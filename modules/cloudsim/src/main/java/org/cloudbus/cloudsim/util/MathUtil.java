@@ -165,12 +165,9 @@ public class MathUtil {
 	public static double mad(final double[] data) {
 		double mad = 0;
 		if (data.length > 0) {
-			double median = median(data);
-			double[] deviationSum = new double[data.length];
-			for (int i = 0; i < data.length; i++) {
-				deviationSum[i] = Math.abs(median - data[i]);
-			}
-			mad = median(deviationSum);
+			double[] sorted = data.clone();
+			Arrays.sort(sorted);
+			mad = OrderStatisticsWindow.mad(sorted, sorted.length, OrderStatisticsWindow.median(sorted, sorted.length));
 		}
 		return mad;
 	}
@@ -183,9 +180,7 @@ public class MathUtil {
 	 */
 	public static double iqr(final double[] data) {
 		Arrays.sort(data);
-		int q1 = (int) Math.round(0.25 * (data.length + 1)) - 1;
-		int q3 = (int) Math.round(0.75 * (data.length + 1)) - 1;
-		return data[q3] - data[q1];
+		return OrderStatisticsWindow.iqr(data, data.length);
 	}
 
 	/**
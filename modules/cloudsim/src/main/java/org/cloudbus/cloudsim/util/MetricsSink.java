@@ -0,0 +1,62 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination of the rows of metrics reported by a simulation, such as the energy consumption or
+ * the number of migrations at each scheduling interval.
+ * <p>
+ * A sink stays open for the whole simulation and may buffer the rows: they are guaranteed to be
+ * stored only once the sink is flushed or closed. The rows can be stored as text
+ * ({@link CsvMetricsSink}) or as binary columns ({@link ColumnarMetricsSink}), and written by a
+ * background thread ({@link AsyncMetricsSink}).
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public interface MetricsSink extends Closeable, Flushable {
+
+	/**
+	 * Writes a row.
+	 *
+	 * @param row the values of the row
+	 * @throws IOException if the row cannot be written
+	 */
+	void write(String... row) throws IOException;
+
+	/**
+	 * Writes a row of numbers, formatted as {@link Double#toString(double)} by default.
+	 *
+	 * @param row the values of the row
+	 * @throws IOException if the row cannot be written
+	 */
+	default void write(double... row) throws IOException {
+		String[] values = new String[row.length];
+		for (int i = 0; i < row.length; i++) {
+			values[i] = Double.toString(row[i]);
+		}
+		write(values);
+	}
+
+	/**
+	 * Writes a batch of rows.
+	 *
+	 * @param rows the rows
+	 * @throws IOException if the rows cannot be written
+	 */
+	default void writeAll(List<String[]> rows) throws IOException {
+		for (String[] row : rows) {
+			write(row);
+		}
+	}
+}
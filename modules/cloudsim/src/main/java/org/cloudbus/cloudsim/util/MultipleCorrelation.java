@@ -0,0 +1,127 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * Computes, for each of <tt>n</tt> series of <tt>m</tt> values, the coefficient of determination
+ * (multiple R<sup>2</sup>) of the regression of that series on all the others with an intercept,
+ * i.e. the R<sup>2</sup> of an {@link org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression}
+ * per series.
+ * <p>
+ * All the regressions share one Gram matrix <tt>S</tt> of the centered series: the R<sup>2</sup> of
+ * series <tt>i</tt> is <tt>1 - 1 / (S<sub>ii</sub> (S<sup>-1</sup>)<sub>ii</sub>)</tt>, and the diagonal
+ * of <tt>S<sup>-1</sup></tt> comes from a single Cholesky factorisation. This costs
+ * <tt>O(n<sup>2</sup>m + n<sup>3</sup>)</tt> instead of <tt>O(n<sup>2</sup>m + nm<sup>3</sup>)</tt> for
+ * the <tt>n</tt> separate regressions, and the working arrays are kept from a call to the next.
+ * <p>
+ * An instance is not thread-safe.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class MultipleCorrelation {
+
+	/** The relative size under which a Cholesky pivot makes the Gram matrix singular. */
+	private static final double SINGULARITY_THRESHOLD = 1e-12;
+
+	/** The mean of each series. */
+	private double[] means = new double[0];
+
+	/** The Gram matrix, then its Cholesky factor, then the inverse of the factor (row-major). */
+	private double[] gram = new double[0];
+
+	/** The diagonal of the Gram matrix. */
+	private double[] variations = new double[0];
+
+	/**
+	 * Computes the coefficients of determination of some series.
+	 *
+	 * @param data the series, row-major: value <tt>k</tt> of series <tt>i</tt> is at <tt>i * m + k</tt>
+	 * @param n the number of series
+	 * @param m the number of values of each series
+	 * @param rSquared the array receiving the coefficient of determination of each series
+	 * @throws IllegalArgumentException if there are less than 2 series, not enough values for the
+	 *             number of regressors (<tt>m &lt;= n</tt>), or if a series is constant or a linear
+	 *             combination of the others
+	 */
+	public void compute(final double[] data, final int n, final int m, final double[] rSquared) {
+		if (n < 2 || m <= n) {
+			throw new IllegalArgumentException("Not enough data (" + m + " values) for " + n + " series");
+		}
+		if (means.length < n) {
+			means = new double[n];
+			variations = new double[n];
+			gram = new double[n * n];
+		}
+
+		for (int i = 0; i < n; i++) {
+			double sum = 0;
+			for (int k = i * m, end = k + m; k < end; k++) {
+				sum += data[k];
+			}
+			means[i] = sum / m;
+		}
+
+		// Lower triangle of the Gram matrix of the centered series
+		for (int i = 0; i < n; i++) {
+			int rowI = i * m;
+			double meanI = means[i];
+			for (int j = 0; j <= i; j++) {
+				int rowJ = j * m;
+				double meanJ = means[j];
+				double sum = 0;
+				for (int k = 0; k < m; k++) {
+					sum += (data[rowI + k] - meanI) * (data[rowJ + k] - meanJ);
+				}
+				gram[i * n + j] = sum;
+			}
+			variations[i] = gram[i * n + i];
+		}
+
+		// Cholesky factorisation S = L L', in place
+		for (int j = 0; j < n; j++) {
+			double pivot = gram[j * n + j];
+			for (int k = 0; k < j; k++) {
+				pivot -= gram[j * n + k] * gram[j * n + k];
+			}
+			if (!(pivot > SINGULARITY_THRESHOLD * variations[j])) {
+				throw new IllegalArgumentException("Series " + j + " is constant or a linear combination of the others");
+			}
+			pivot = Math.sqrt(pivot);
+			gram[j * n + j] = pivot;
+			for (int i = j + 1; i < n; i++) {
+				double sum = gram[i * n + j];
+				for (int k = 0; k < j; k++) {
+					sum -= gram[i * n + k] * gram[j * n + k];
+				}
+				gram[i * n + j] = sum / pivot;
+			}
+		}
+
+		// Inverse of L, in place, column by column
+		for (int j = 0; j < n; j++) {
+			gram[j * n + j] = 1 / gram[j * n + j];
+			for (int i = j + 1; i < n; i++) {
+				double sum = 0;
+				for (int k = j; k < i; k++) {
+					sum -= gram[i * n + k] * gram[k * n + j];
+				}
+				gram[i * n + j] = sum / gram[i * n + i];
+			}
+		}
+
+		// (S^-1)_ii = sum over k >= i of (L^-1)_ki^2
+		for (int i = 0; i < n; i++) {
+			double inverse = 0;
+			for (int k = i; k < n; k++) {
+				inverse += gram[k * n + i] * gram[k * n + i];
+			}
+			rSquared[i] = 1 - 1 / (variations[i] * inverse);
+		}
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * A sliding window over the latest values of a stream, which keeps them both in arrival order and
+ * sorted, in primitive arrays, to give their order statistics without sorting copies: the median
+ * and the quartiles in constant time, and the median absolute deviation (MAD) in logarithmic
+ * time, by selecting in the two sorted runs of deviations on each side of the median.
+ * <p>
+ * A value is placed by binary search, and the sorted array is shifted in place: for the short
+ * windows of the utilization histories, this shift is a small memory move, cheaper than the
+ * rebalancing of a tree.
+ * <p>
+ * The static methods give the same statistics for an array already sorted.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class OrderStatisticsWindow {
+
+	/** The values in arrival order, as a ring whose oldest value is at {@link #first}. */
+	private final double[] values;
+
+	/** The values sorted. */
+	private final double[] sorted;
+
+	private int first;
+
+	private int size;
+
+	/**
+	 * Creates an empty window.
+	 *
+	 * @param capacity the number of latest values kept
+	 */
+	public OrderStatisticsWindow(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("A window keeps at least 1 value");
+		}
+		values = new double[capacity];
+		sorted = new double[capacity];
+	}
+
+	/**
+	 * Adds a value, evicting the oldest one if the window is full.
+	 *
+	 * @param value the value
+	 */
+	public void add(final double value) {
+		int capacity = values.length;
+		int last;
+		if (size == capacity) {
+			remove(values[first]);
+			last = first;
+			first = first + 1 == capacity ? 0 : first + 1;
+		} else {
+			last = first + size < capacity ? first + size : first + size - capacity;
+		}
+		values[last] = value;
+
+		int position = Arrays.binarySearch(sorted, 0, size, value);
+		if (position < 0) {
+			position = -position - 1;
+		}
+		System.arraycopy(sorted, position, sorted, position + 1, size - position);
+		sorted[position] = value;
+		size++;
+	}
+
+	private void remove(final double value) {
+		int position = Arrays.binarySearch(sorted, 0, size, value);
+		System.arraycopy(sorted, position + 1, sorted, position, size - position - 1);
+		size--;
+	}
+
+	/**
+	 * Removes all the values.
+	 */
+	public void clear() {
+		first = size = 0;
+	}
+
+	/**
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the maximum number of values
+	 */
+	public int getCapacity() {
+		return values.length;
+	}
+
+	/**
+	 * Gets a value by arrival order.
+	 *
+	 * @param index the index of the value, the oldest being 0
+	 * @return the value
+	 */
+	public double get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+		int i = first + index;
+		return values[i < values.length ? i : i - values.length];
+	}
+
+	/**
+	 * Gets a value by rank.
+	 *
+	 * @param rank the rank of the value, the smallest being 0
+	 * @return the value
+	 */
+	public double getSorted(final int rank) {
+		if (rank < 0 || rank >= size) {
+			throw new IndexOutOfBoundsException("Rank " + rank + " out of bounds for size " + size);
+		}
+		return sorted[rank];
+	}
+
+	/**
+	 * @return the median of the values, as {@link MathUtil#median(double[])}
+	 */
+	public double getMedian() {
+		return median(sorted, size);
+	}
+
+	/**
+	 * @return the median absolute deviation of the values, as {@link MathUtil#mad(double[])}
+	 */
+	public double getMad() {
+		return size == 0 ? 0 : mad(sorted, size, median(sorted, size));
+	}
+
+	/**
+	 * Gets the median absolute deviation of the values around a given center.
+	 *
+	 * @param center the value the deviations are taken from
+	 * @return the median of the absolute deviations from the center
+	 */
+	public double getMad(final double center) {
+		return size == 0 ? 0 : mad(sorted, size, center);
+	}
+
+	/**
+	 * @return the interquartile range of the values, as {@link MathUtil#iqr(double[])}
+	 */
+	public double getIqr() {
+		return iqr(sorted, size);
+	}
+
+	/**
+	 * Gets the median of sorted values, as the default percentile estimation of commons-math.
+	 *
+	 * @param sorted the sorted values
+	 * @param n the number of values
+	 * @return the median, NaN if there are no values
+	 */
+	public static double median(final double[] sorted, final int n) {
+		if (n == 0) {
+			return Double.NaN;
+		}
+		double position = 0.5 * (n + 1);
+		int lower = (int) position;
+		if (lower >= n) {
+			return sorted[n - 1];
+		}
+		return sorted[lower - 1] + (position - lower) * (sorted[lower] - sorted[lower - 1]);
+	}
+
+	/**
+	 * Gets the interquartile range of sorted values, as {@link MathUtil#iqr(double[])}.
+	 *
+	 * @param sorted the sorted values
+	 * @param n the number of values
+	 * @return the interquartile range
+	 */
+	public static double iqr(final double[] sorted, final int n) {
+		int q1 = (int) Math.round(0.25 * (n + 1)) - 1;
+		int q3 = (int) Math.round(0.75 * (n + 1)) - 1;
+		return sorted[q3] - sorted[q1];
+	}
+
+	/**
+	 * Gets the median absolute deviation of sorted values around a center, as the median of
+	 * commons-math of the deviations: those of the values up to the center and those of the values
+	 * above form two sorted runs, in which the middle deviations are selected by binary search
+	 * without the deviations being computed for all the values.
+	 *
+	 * @param sorted the sorted values
+	 * @param n the number of values, at least 1
+	 * @param center the value the deviations are taken from
+	 * @return the median of the absolute deviations
+	 */
+	public static double mad(final double[] sorted, final int n, final double center) {
+		// The values before the split are not above the center
+		int split = 0;
+		int high = n;
+		while (split < high) {
+			int middle = (split + high) >>> 1;
+			if (sorted[middle] <= center) {
+				split = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		double position = 0.5 * (n + 1);
+		int lower = (int) position;
+		double lowerValue = kthDeviation(sorted, n, split, center, lower - 1);
+		if (lower >= n) {
+			return lowerValue;
+		}
+		double upperValue = kthDeviation(sorted, n, split, center, lower);
+		return lowerValue + (position - lower) * (upperValue - lowerValue);
+	}
+
+	/**
+	 * Selects the k-th smallest (from 0) absolute deviation from the center. The i-th deviation of
+	 * the run below is the one of value <tt>split - 1 - i</tt>, the j-th of the run above the one
+	 * of value <tt>split + j</tt>, and the k + 1 smallest are the first i of the run below and the
+	 * first k + 1 - i of the run above, for the i found by binary search.
+	 */
+	private static double kthDeviation(final double[] sorted, final int n, final int split, final double center, final int k) {
+		int low = Math.max(0, k + 1 - (n - split));
+		int high = Math.min(k + 1, split);
+		while (low < high) {
+			int i = (low + high) >>> 1;
+			if (below(sorted, split, center, i) < above(sorted, split, center, k - i)) {
+				low = i + 1;
+			} else {
+				high = i;
+			}
+		}
+		double kth = Double.NEGATIVE_INFINITY;
+		if (low > 0) {
+			kth = below(sorted, split, center, low - 1);
+		}
+		if (low < k + 1) {
+			kth = Math.max(kth, above(sorted, split, center, k - low));
+		}
+		return kth;
+	}
+
+	private static double below(final double[] sorted, final int split, final double center, final int i) {
+		return Math.abs(center - sorted[split - 1 - i]);
+	}
+
+	private static double above(final double[] sorted, final int split, final double center, final int j) {
+		return Math.abs(center - sorted[split + j]);
+	}
+}
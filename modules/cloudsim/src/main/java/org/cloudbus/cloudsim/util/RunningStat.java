@@ -0,0 +1,105 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * The count, mean and sample standard deviation of a stream of values, updated with Welford's
+ * algorithm as the values come, so that the values need not be kept. Two of them merge into the
+ * statistics of both streams.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class RunningStat {
+
+	private long count;
+
+	private double sum;
+
+	/** The running mean of Welford's algorithm, the mean returned being the sum over the count. */
+	private double mean;
+
+	/** The sum of the squared deviations from the mean. */
+	private double m2;
+
+	/**
+	 * Creates the statistics of no values.
+	 */
+	public RunningStat() {
+	}
+
+	/**
+	 * Creates a copy of some statistics.
+	 *
+	 * @param other the statistics to copy
+	 */
+	public RunningStat(final RunningStat other) {
+		count = other.count;
+		sum = other.sum;
+		mean = other.mean;
+		m2 = other.m2;
+	}
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value the value
+	 */
+	public void add(final double value) {
+		count++;
+		sum += value;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+	}
+
+	/**
+	 * Adds the values of other statistics.
+	 *
+	 * @param other the statistics to merge
+	 */
+	public void merge(final RunningStat other) {
+		if (other.count == 0) {
+			return;
+		}
+		long total = count + other.count;
+		double delta = other.mean - mean;
+		m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+		mean += delta * other.count / total;
+		sum += other.sum;
+		count = total;
+	}
+
+	/**
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the mean of the values, NaN if there are none
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	/**
+	 * @return the sample variance of the values, as {@link MathUtil#variance(java.util.List)}
+	 */
+	public double getVariance() {
+		return count == 0 ? Double.NaN : m2 / (count - 1);
+	}
+
+	/**
+	 * @return the sample standard deviation of the values, as {@link MathUtil#stDev(java.util.List)}
+	 */
+	public double getStDev() {
+		return Math.sqrt(getVariance());
+	}
+}
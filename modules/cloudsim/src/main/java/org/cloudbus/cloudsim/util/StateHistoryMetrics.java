@@ -0,0 +1,90 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * Metrics computed from a state history as its entries are added, so that they are known at any
+ * time without keeping the history (see {@link StateHistoryStore}).
+ * <p>
+ * As in the history, an entry at the same time as the latest one replaces it: the latest entry is
+ * only accounted for when a later one comes, and the getters of the subclasses account for it as
+ * it is when they are called.
+ *
+ * @param <T> the type of the metrics
+ * @since CloudSim Toolkit 7.0
+ */
+public abstract class StateHistoryMetrics<T extends StateHistoryMetrics<T>> {
+
+	/** Whether there is a latest entry not accounted for yet. */
+	private boolean pending;
+
+	private double pendingTime;
+
+	private double pendingAllocatedMips;
+
+	private double pendingRequestedMips;
+
+	private boolean pendingFlag;
+
+	/**
+	 * Adds an entry of the state history.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated MIPS
+	 * @param requestedMips the requested MIPS
+	 * @param flag whether the host is active, or whether the guest is in migration
+	 */
+	public void add(final double time, final double allocatedMips, final double requestedMips, final boolean flag) {
+		if (pending && pendingTime != time) {
+			step(pendingTime, pendingAllocatedMips, pendingRequestedMips, pendingFlag);
+		}
+		pending = true;
+		pendingTime = time;
+		pendingAllocatedMips = allocatedMips;
+		pendingRequestedMips = requestedMips;
+		pendingFlag = flag;
+	}
+
+	/**
+	 * Accounts for an entry, following the previous one.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated MIPS
+	 * @param requestedMips the requested MIPS
+	 * @param flag whether the host is active, or whether the guest is in migration
+	 */
+	protected abstract void step(double time, double allocatedMips, double requestedMips, boolean flag);
+
+	/**
+	 * @return a copy of these metrics, latest entry excluded
+	 */
+	protected abstract T copy();
+
+	/**
+	 * Adds other metrics to these ones, for the metrics of several hosts or guests.
+	 *
+	 * @param other the metrics to add
+	 */
+	public abstract void merge(T other);
+
+	/**
+	 * Gets the metrics with the latest entry accounted for.
+	 *
+	 * @return these metrics if there is no latest entry to account for, a copy otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	protected T settled() {
+		if (!pending) {
+			return (T) this;
+		}
+		T settled = copy();
+		settled.step(pendingTime, pendingAllocatedMips, pendingRequestedMips, pendingFlag);
+		return settled;
+	}
+}
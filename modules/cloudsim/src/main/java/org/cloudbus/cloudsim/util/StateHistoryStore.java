@@ -0,0 +1,612 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * The state history of a host or of a guest: one entry per time at which the state was recorded,
+ * made of the allocated MIPS, the requested MIPS and a flag, which is whether the host is active
+ * or whether the guest is in migration. It replaces lists of
+ * {@link org.cloudbus.cloudsim.HostStateHistoryEntry} and
+ * {@link org.cloudbus.cloudsim.VmStateHistoryEntry} objects.
+ * <p>
+ * The entries are stored by column, in primitive arrays of {@link #CHUNK_SIZE} entries allocated as
+ * the history grows, and are read in order through a {@link Cursor}. The history keeps all the
+ * entries by default; it can instead be bounded with a {@link Retention} policy, or spill its
+ * older entries to a memory-mapped file with {@link #spillTo(Path)}. The hosts and guests take the
+ * retention policy of their {@link org.cloudbus.cloudsim.core.SimulationContext}.
+ * <p>
+ * {@link #asList(EntryFactory)} reads the entries as a list of entry objects, created as they are
+ * read.
+ * <p>
+ * A store is not thread-safe, and its cursors must not be used across a modification.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class StateHistoryStore implements Closeable {
+
+	/** What a store keeps of its entries. */
+	public enum Retention {
+		/** All the entries. */
+		FULL,
+		/** The latest entries only, up to the capacity. */
+		WINDOW,
+		/**
+		 * Up to the capacity: when it is reached, every other entry is dropped except the first
+		 * and the last, so that older entries get sparser while recent ones keep full resolution.
+		 */
+		DOWNSAMPLED
+	}
+
+	/** The number of entries of a chunk. */
+	public static final int CHUNK_SIZE = 1 << 10;
+
+	private static final int CHUNK_SHIFT = 10;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** The size of a spilled chunk: the times, allocated and requested MIPS, then the flags. */
+	private static final int CHUNK_BYTES = CHUNK_SIZE * (3 * Double.BYTES + 1);
+
+	private Retention retention = Retention.FULL;
+
+	private int capacity = Integer.MAX_VALUE;
+
+	/** The chunks of each column, <tt>null</tt> for the spilled ones. */
+	private double[][] times = new double[0][];
+
+	private double[][] allocatedMips = new double[0][];
+
+	private double[][] requestedMips = new double[0][];
+
+	private boolean[][] flags = new boolean[0][];
+
+	/** The number of chunks in use. */
+	private int chunkCount;
+
+	/** The position of the first entry in the first chunk. */
+	private int start;
+
+	/** The number of entries. */
+	private int size;
+
+	/** The file the older chunks are spilled to, <tt>null</tt> if they stay in memory. */
+	private FileChannel spillChannel;
+
+	/** The number of chunks spilled, the first ones. */
+	private int spilledChunks;
+
+	/** The mapping of the spilled chunks, remapped as more of them are spilled. */
+	private MappedByteBuffer spilled;
+
+	/** The buffer a chunk is written through when spilled. */
+	private ByteBuffer spillBuffer;
+
+	/**
+	 * Creates an empty store keeping all the entries.
+	 */
+	public StateHistoryStore() {
+	}
+
+	/**
+	 * Creates an empty store with a retention policy.
+	 *
+	 * @param retention what the store keeps of its entries
+	 * @param capacity the maximum number of entries, ignored for {@link Retention#FULL}
+	 */
+	public StateHistoryStore(final Retention retention, final int capacity) {
+		setRetention(retention, capacity);
+	}
+
+	/**
+	 * Sets the retention policy, before the first entry is added.
+	 *
+	 * @param retention what the store keeps of its entries
+	 * @param capacity the maximum number of entries, ignored for {@link Retention#FULL}; at least 1
+	 *            for a window, 3 when downsampled
+	 * @throws IllegalStateException if the store has entries or spills them
+	 */
+	public void setRetention(final Retention retention, final int capacity) {
+		if (size > 0 || spillChannel != null) {
+			throw new IllegalStateException("The retention of a state history is set before its first entry");
+		}
+		checkRetention(retention, capacity);
+		this.retention = retention;
+		this.capacity = retention == Retention.FULL ? Integer.MAX_VALUE : capacity;
+	}
+
+	/**
+	 * Checks a retention policy.
+	 *
+	 * @param retention what a store keeps of its entries
+	 * @param capacity the maximum number of entries, ignored for {@link Retention#FULL}
+	 * @throws IllegalArgumentException if the capacity is too small for the policy
+	 */
+	public static void checkRetention(final Retention retention, final int capacity) {
+		if (retention == Retention.WINDOW && capacity < 1 || retention == Retention.DOWNSAMPLED && capacity < 3) {
+			throw new IllegalArgumentException("A state history window keeps at least 1 entry, a downsampled one 3");
+		}
+	}
+
+	/**
+	 * @return what the store keeps of its entries
+	 */
+	public Retention getRetention() {
+		return retention;
+	}
+
+	/**
+	 * Spills the full chunks of entries to a file, truncated first, and reads them back by mapping
+	 * the file: only the chunk of the latest entries stays in the heap. Only a store keeping all
+	 * its entries may spill.
+	 *
+	 * @param file the file to spill to
+	 * @throws IOException if the file can't be opened or written
+	 * @throws IllegalStateException if the store has a bounded retention or already spills
+	 */
+	public void spillTo(final Path file) throws IOException {
+		if (retention != Retention.FULL || spillChannel != null) {
+			throw new IllegalStateException("Only a full state history can spill, once");
+		}
+		spillChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		spillBuffer = ByteBuffer.allocate(CHUNK_BYTES);
+		spillFullChunks();
+	}
+
+	/**
+	 * Adds an entry. An entry at the same time as the latest one replaces it.
+	 *
+	 * @param time the time
+	 * @param allocated the allocated MIPS
+	 * @param requested the requested MIPS
+	 * @param flag whether the host is active, or whether the guest is in migration
+	 */
+	public void add(final double time, final double allocated, final double requested, final boolean flag) {
+		if (size > 0 && getTime(size - 1) == time) {
+			set(size - 1, time, allocated, requested, flag);
+			return;
+		}
+		if (size == capacity) {
+			if (retention == Retention.WINDOW) {
+				removeFirst();
+			} else {
+				downsample();
+			}
+		}
+
+		int position = start + size;
+		int chunk = position >>> CHUNK_SHIFT;
+		if (chunk == chunkCount) {
+			addChunk();
+		}
+		int offset = position & CHUNK_MASK;
+		times[chunk][offset] = time;
+		allocatedMips[chunk][offset] = allocated;
+		requestedMips[chunk][offset] = requested;
+		flags[chunk][offset] = flag;
+		size++;
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return <tt>true</tt> if the store has no entries
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the time of an entry.
+	 *
+	 * @param index the index of the entry, the oldest kept being 0
+	 * @return the time
+	 */
+	public double getTime(final int index) {
+		int position = position(index);
+		double[] chunk = times[position >>> CHUNK_SHIFT];
+		return chunk != null ? chunk[position & CHUNK_MASK] : readSpilled(position, 0);
+	}
+
+	/**
+	 * Gets the allocated MIPS of an entry.
+	 *
+	 * @param index the index of the entry, the oldest kept being 0
+	 * @return the allocated MIPS
+	 */
+	public double getAllocatedMips(final int index) {
+		int position = position(index);
+		double[] chunk = allocatedMips[position >>> CHUNK_SHIFT];
+		return chunk != null ? chunk[position & CHUNK_MASK] : readSpilled(position, 1);
+	}
+
+	/**
+	 * Gets the requested MIPS of an entry.
+	 *
+	 * @param index the index of the entry, the oldest kept being 0
+	 * @return the requested MIPS
+	 */
+	public double getRequestedMips(final int index) {
+		int position = position(index);
+		double[] chunk = requestedMips[position >>> CHUNK_SHIFT];
+		return chunk != null ? chunk[position & CHUNK_MASK] : readSpilled(position, 2);
+	}
+
+	/**
+	 * Gets the flag of an entry.
+	 *
+	 * @param index the index of the entry, the oldest kept being 0
+	 * @return whether the host is active, or whether the guest is in migration
+	 */
+	public boolean getFlag(final int index) {
+		int position = position(index);
+		boolean[] chunk = flags[position >>> CHUNK_SHIFT];
+		if (chunk != null) {
+			return chunk[position & CHUNK_MASK];
+		}
+		mapSpilled();
+		return spilled.get((position >>> CHUNK_SHIFT) * CHUNK_BYTES + 3 * CHUNK_SIZE * Double.BYTES
+				+ (position & CHUNK_MASK)) != 0;
+	}
+
+	/**
+	 * Gets a cursor over the entries, from the oldest kept to the latest.
+	 *
+	 * @return a cursor placed before the first entry
+	 */
+	public Cursor cursor() {
+		if (spilledChunks > 0) {
+			mapSpilled();
+		}
+		return new Cursor();
+	}
+
+	/**
+	 * Gets a read-only view of the entries as a list, from the oldest kept to the latest. Each
+	 * entry object is created when read, from the columns of the store.
+	 *
+	 * @param factory creates an entry object from its values
+	 * @param <T> the type of the entry objects
+	 * @return the list view
+	 */
+	public <T> List<T> asList(final EntryFactory<T> factory) {
+		return new EntryList<>(factory);
+	}
+
+	/**
+	 * Removes all the entries, and truncates the spill file.
+	 */
+	public void clear() {
+		Arrays.fill(times, null);
+		Arrays.fill(allocatedMips, null);
+		Arrays.fill(requestedMips, null);
+		Arrays.fill(flags, null);
+		chunkCount = start = size = spilledChunks = 0;
+		spilled = null;
+		if (spillChannel != null) {
+			try {
+				spillChannel.truncate(0);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Closes the spill file, if any. The spilled entries can't be read any more.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (spillChannel != null) {
+			spillChannel.close();
+		}
+	}
+
+	private int position(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+		return start + index;
+	}
+
+	private void set(final int index, final double time, final double allocated, final double requested, final boolean flag) {
+		// The latest entries are never spilled
+		int position = start + index;
+		int chunk = position >>> CHUNK_SHIFT;
+		int offset = position & CHUNK_MASK;
+		times[chunk][offset] = time;
+		allocatedMips[chunk][offset] = allocated;
+		requestedMips[chunk][offset] = requested;
+		flags[chunk][offset] = flag;
+	}
+
+	private void addChunk() {
+		if (chunkCount == times.length) {
+			int length = Math.max(4, 2 * chunkCount);
+			times = Arrays.copyOf(times, length);
+			allocatedMips = Arrays.copyOf(allocatedMips, length);
+			requestedMips = Arrays.copyOf(requestedMips, length);
+			flags = Arrays.copyOf(flags, length);
+		}
+		// A chunk recycled by the window is kept past the ones in use
+		if (times[chunkCount] == null) {
+			times[chunkCount] = new double[CHUNK_SIZE];
+			allocatedMips[chunkCount] = new double[CHUNK_SIZE];
+			requestedMips[chunkCount] = new double[CHUNK_SIZE];
+			flags[chunkCount] = new boolean[CHUNK_SIZE];
+		}
+		chunkCount++;
+		if (spillChannel != null) {
+			spillFullChunks();
+		}
+	}
+
+	/**
+	 * Spills the chunks before the latest one.
+	 */
+	private void spillFullChunks() {
+		try {
+			for (; spilledChunks < chunkCount - 1; spilledChunks++) {
+				int chunk = spilledChunks;
+				spillBuffer.clear();
+				spillBuffer.asDoubleBuffer().put(times[chunk]).put(allocatedMips[chunk]).put(requestedMips[chunk]);
+				spillBuffer.position(3 * CHUNK_SIZE * Double.BYTES);
+				for (boolean flag : flags[chunk]) {
+					spillBuffer.put((byte) (flag ? 1 : 0));
+				}
+				spillBuffer.flip();
+				long offset = (long) chunk * CHUNK_BYTES;
+				while (spillBuffer.hasRemaining()) {
+					offset += spillChannel.write(spillBuffer, offset);
+				}
+				times[chunk] = allocatedMips[chunk] = requestedMips[chunk] = null;
+				flags[chunk] = null;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Can't spill the state history", e);
+		}
+	}
+
+	private void mapSpilled() {
+		long length = (long) spilledChunks * CHUNK_BYTES;
+		if (spilled != null && spilled.capacity() == length) {
+			return;
+		}
+		try {
+			spilled = spillChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Can't map the spilled state history", e);
+		}
+	}
+
+	private double readSpilled(final int position, final int column) {
+		mapSpilled();
+		return spilled.getDouble((position >>> CHUNK_SHIFT) * CHUNK_BYTES
+				+ (column * CHUNK_SIZE + (position & CHUNK_MASK)) * Double.BYTES);
+	}
+
+	/**
+	 * Removes the oldest entry, recycling its chunk when it becomes empty.
+	 */
+	private void removeFirst() {
+		start++;
+		size--;
+		if (start == CHUNK_SIZE) {
+			start = 0;
+			chunkCount--;
+			rotate(times);
+			rotate(allocatedMips);
+			rotate(requestedMips);
+			rotate(flags);
+		}
+	}
+
+	/**
+	 * Moves the first chunk after the ones in use.
+	 */
+	private <T> void rotate(final T[] chunks) {
+		T first = chunks[0];
+		System.arraycopy(chunks, 1, chunks, 0, chunkCount);
+		chunks[chunkCount] = first;
+	}
+
+	/**
+	 * Keeps every other entry, the first and the last.
+	 */
+	private void downsample() {
+		int last = size - 1;
+		int kept = 0;
+		for (int i = 0; i < last; i += 2) {
+			copy(i, kept++);
+		}
+		copy(last, kept++);
+		size = kept;
+	}
+
+	private void copy(final int from, final int to) {
+		int source = start + from;
+		int target = start + to;
+		int sourceChunk = source >>> CHUNK_SHIFT;
+		int targetChunk = target >>> CHUNK_SHIFT;
+		times[targetChunk][target & CHUNK_MASK] = times[sourceChunk][source & CHUNK_MASK];
+		allocatedMips[targetChunk][target & CHUNK_MASK] = allocatedMips[sourceChunk][source & CHUNK_MASK];
+		requestedMips[targetChunk][target & CHUNK_MASK] = requestedMips[sourceChunk][source & CHUNK_MASK];
+		flags[targetChunk][target & CHUNK_MASK] = flags[sourceChunk][source & CHUNK_MASK];
+	}
+
+	/**
+	 * Creates the entry objects of {@link #asList(EntryFactory)}, such as the constructor of
+	 * {@link org.cloudbus.cloudsim.HostStateHistoryEntry} or
+	 * {@link org.cloudbus.cloudsim.VmStateHistoryEntry}.
+	 *
+	 * @param <T> the type of the entry objects
+	 */
+	@FunctionalInterface
+	public interface EntryFactory<T> {
+		/**
+		 * Creates an entry object.
+		 *
+		 * @param time the time
+		 * @param allocated the allocated MIPS
+		 * @param requested the requested MIPS
+		 * @param flag whether the host is active, or whether the guest is in migration
+		 * @return the entry
+		 */
+		T create(double time, double allocated, double requested, boolean flag);
+	}
+
+	/** The list view of {@link #asList(EntryFactory)}. */
+	private final class EntryList<T> extends AbstractList<T> implements RandomAccess {
+
+		private final EntryFactory<T> factory;
+
+		private EntryList(final EntryFactory<T> factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public T get(final int index) {
+			return factory.create(getTime(index), getAllocatedMips(index), getRequestedMips(index), getFlag(index));
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Reads the entries of the store in order, without copying them: {@link #next()} moves to the
+	 * next entry, whose fields the getters return.
+	 */
+	public final class Cursor {
+
+		/** The index of the current entry. */
+		private int index = -1;
+
+		/** The position of the current entry in its chunk. */
+		private int offset;
+
+		/** The chunk of the current entry, <tt>-1</tt> if not yet read. */
+		private int chunk = -1;
+
+		/** The columns of the current chunk, <tt>null</tt> if spilled. */
+		private double[] chunkTimes;
+
+		private double[] chunkAllocated;
+
+		private double[] chunkRequested;
+
+		private boolean[] chunkFlags;
+
+		/** The position of the current chunk in the spill file. */
+		private int spilledBase;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Moves to the next entry.
+		 *
+		 * @return <tt>true</tt> if there is one, <tt>false</tt> if the cursor is past the last entry
+		 */
+		public boolean next() {
+			if (index + 1 >= size) {
+				index = size;
+				return false;
+			}
+			index++;
+			int position = start + index;
+			offset = position & CHUNK_MASK;
+			if (position >>> CHUNK_SHIFT != chunk) {
+				chunk = position >>> CHUNK_SHIFT;
+				chunkTimes = times[chunk];
+				chunkAllocated = allocatedMips[chunk];
+				chunkRequested = requestedMips[chunk];
+				chunkFlags = flags[chunk];
+				spilledBase = chunk * CHUNK_BYTES;
+			}
+			return true;
+		}
+
+		/**
+		 * @return the index of the current entry
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return the time of the current entry
+		 */
+		public double getTime() {
+			check();
+			return chunkTimes != null ? chunkTimes[offset] : spilled.getDouble(spilledBase + offset * Double.BYTES);
+		}
+
+		/**
+		 * @return the allocated MIPS of the current entry
+		 */
+		public double getAllocatedMips() {
+			check();
+			return chunkAllocated != null ? chunkAllocated[offset]
+					: spilled.getDouble(spilledBase + (CHUNK_SIZE + offset) * Double.BYTES);
+		}
+
+		/**
+		 * @return the requested MIPS of the current entry
+		 */
+		public double getRequestedMips() {
+			check();
+			return chunkRequested != null ? chunkRequested[offset]
+					: spilled.getDouble(spilledBase + (2 * CHUNK_SIZE + offset) * Double.BYTES);
+		}
+
+		/**
+		 * @return whether the host of the current entry is active
+		 */
+		public boolean isActive() {
+			check();
+			return chunkFlags != null ? chunkFlags[offset]
+					: spilled.get(spilledBase + 3 * CHUNK_SIZE * Double.BYTES + offset) != 0;
+		}
+
+		/**
+		 * @return whether the guest of the current entry is in migration
+		 */
+		public boolean isInMigration() {
+			return isActive();
+		}
+
+		private void check() {
+			if (index < 0 || index >= size) {
+				throw new NoSuchElementException("The cursor is not on an entry");
+			}
+		}
+	}
+}
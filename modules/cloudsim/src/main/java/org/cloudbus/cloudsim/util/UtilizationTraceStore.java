@@ -0,0 +1,267 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A packed store of utilization traces, such as the <a href="https://www.planet-lab.org">PlanetLab</a>
+ * ones, mapped read-only in memory.
+ * <p>
+ * A PlanetLab trace is a text file with one integer utilization percent per line. Parsing a folder
+ * of them for every simulation is slow and keeps a <tt>double</tt> per sample on the heap of each
+ * simulation. {@link #convert(String, String)} packs a whole folder once into a single binary file,
+ * with one byte per sample; {@link #open(String)} maps that file, and each trace is then read
+ * through a slice of the mapping (see {@link #getTrace(int)}). All the simulations of a JVM that
+ * open the same file share one mapping, and the operating system shares its pages with the other
+ * JVMs. {@link #close(String)} forgets the mapping of a file, which is then unmapped once no model
+ * reads it anymore.
+ * <p>
+ * Converting to a file replaces it at once rather than rewriting it in place, so a store already
+ * opened on it keeps reading the former traces, and opening the file again maps the new ones.
+ * <p>
+ * The file holds, in big-endian order:
+ * <ul>
+ * <li>the magic number <tt>0x43535554</tt> and the format version, as <tt>int</tt>s;
+ * <li>the number of traces and the number of samples of each trace, as <tt>int</tt>s;
+ * <li>the name of each trace, as an unsigned <tt>short</tt> length followed by its UTF-8 bytes;
+ * <li>the samples of each trace, one unsigned byte each, trace after trace.
+ * </ul>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class UtilizationTraceStore {
+
+	/** The magic number opening a store file, "CSUT". */
+	public static final int MAGIC = 0x43535554;
+
+	/** The version of the file format. */
+	public static final int VERSION = 1;
+
+	/** The number of samples of a PlanetLab trace (5 min * 288 = 24 hours). */
+	public static final int PLANETLAB_SAMPLES = 288;
+
+	/** The stores opened so far, by canonical path; guarded by the class lock. */
+	private static final Map<String, UtilizationTraceStore> OPEN_STORES = new HashMap<>();
+
+	/** The mapped file, positioned at the first sample. */
+	private final ByteBuffer samples;
+
+	/** The number of samples of each trace. */
+	private final int sampleCount;
+
+	/** The name of each trace. */
+	private final String[] names;
+
+	/** The index of each trace, by name. */
+	private final Map<String, Integer> indexes;
+
+	private UtilizationTraceStore(ByteBuffer buffer) {
+		if (buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a utilization trace store");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported utilization trace store version: " + version);
+		}
+		int traceCount = buffer.getInt();
+		sampleCount = buffer.getInt();
+		names = new String[traceCount];
+		indexes = new HashMap<>(2 * traceCount);
+		for (int i = 0; i < traceCount; i++) {
+			byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+			buffer.get(name);
+			names[i] = new String(name, StandardCharsets.UTF_8);
+			indexes.put(names[i], i);
+		}
+		samples = buffer.slice();
+		if ((long) traceCount * sampleCount > samples.capacity()) {
+			throw new IllegalArgumentException("Truncated utilization trace store");
+		}
+	}
+
+	/**
+	 * Opens a store file, or gets the store already opened for it.
+	 *
+	 * @param path the path of the store file
+	 * @return the store
+	 * @throws IOException if the file can't be read
+	 * @throws IllegalArgumentException if the file is not a store
+	 */
+	public static synchronized UtilizationTraceStore open(String path) throws IOException {
+		String canonicalPath = new File(path).getCanonicalPath();
+		UtilizationTraceStore store = OPEN_STORES.get(canonicalPath);
+		if (store == null) {
+			try (FileChannel channel = FileChannel.open(Path.of(canonicalPath), StandardOpenOption.READ)) {
+				store = new UtilizationTraceStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			}
+			OPEN_STORES.put(canonicalPath, store);
+		}
+		return store;
+	}
+
+	/**
+	 * Forgets the store opened for a file, if any: the next {@link #open(String)} maps the file
+	 * again. The models reading the store keep working, and its mapping is released once they are
+	 * all gone.
+	 *
+	 * @param path the path of the store file
+	 * @return whether a store was opened for the file
+	 * @throws IOException if the path can't be resolved
+	 */
+	public static synchronized boolean close(String path) throws IOException {
+		return OPEN_STORES.remove(new File(path).getCanonicalPath()) != null;
+	}
+
+	/**
+	 * Forgets all the stores opened so far.
+	 *
+	 * @see #close(String)
+	 */
+	public static synchronized void closeAll() {
+		OPEN_STORES.clear();
+	}
+
+	/**
+	 * Packs a folder of PlanetLab traces into a store file.
+	 *
+	 * @param inputFolderName the folder of the traces
+	 * @param outputPath the path of the store file to write
+	 * @throws IOException if a trace can't be read or the store file can't be written
+	 * @see #convert(String, String, int)
+	 */
+	public static void convert(String inputFolderName, String outputPath) throws IOException {
+		convert(inputFolderName, outputPath, PLANETLAB_SAMPLES);
+	}
+
+	/**
+	 * Packs a folder of traces into a store file. The traces keep the order in which the folder
+	 * lists them, which is the order the PlanetLab examples assign them to cloudlets.
+	 * <p>
+	 * The store is written to a temporary file next to the output, which then replaces the output
+	 * atomically; a store opened on the former output is {@linkplain #close(String) closed}.
+	 *
+	 * @param inputFolderName the folder of the traces, with one integer percent per line
+	 * @param outputPath the path of the store file to write
+	 * @param sampleCount the number of samples to read from each trace
+	 * @throws IOException if a trace can't be read or the store file can't be written
+	 * @throws NumberFormatException if a trace has a malformed or missing sample
+	 * @throws IllegalArgumentException if a sample is not between 0 and 255
+	 */
+	public static void convert(String inputFolderName, String outputPath, int sampleCount) throws IOException {
+		File[] files = new File(inputFolderName).listFiles();
+		if (files == null) {
+			throw new FileNotFoundException(inputFolderName);
+		}
+
+		Path output = Path.of(outputPath).toAbsolutePath();
+		Path temporary = Files.createTempFile(output.getParent(), output.getFileName().toString(), ".tmp");
+		try {
+			write(files, temporary, sampleCount);
+			Files.move(temporary, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+		close(outputPath);
+	}
+
+	/** Writes the store of some traces to a file. */
+	private static void write(File[] files, Path path, int sampleCount) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile())))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(files.length);
+			output.writeInt(sampleCount);
+			for (File file : files) {
+				byte[] name = file.getName().getBytes(StandardCharsets.UTF_8);
+				output.writeShort(name.length);
+				output.write(name);
+			}
+
+			byte[] trace = new byte[sampleCount];
+			for (File file : files) {
+				try (BufferedReader input = new BufferedReader(new FileReader(file))) {
+					for (int i = 0; i < sampleCount; i++) {
+						int sample = Integer.parseInt(input.readLine());
+						if (sample < 0 || sample > 255) {
+							throw new IllegalArgumentException("Sample " + i + " of " + file + " out of range: " + sample);
+						}
+						trace[i] = (byte) sample;
+					}
+				}
+				output.write(trace);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of traces
+	 */
+	public int getTraceCount() {
+		return names.length;
+	}
+
+	/**
+	 * @return the number of samples of each trace
+	 */
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	/**
+	 * Gets the name of a trace, i.e. the name of the file it was packed from.
+	 *
+	 * @param index the index of the trace
+	 * @return the name
+	 */
+	public String getTraceName(int index) {
+		return names[index];
+	}
+
+	/**
+	 * Gets the index of a trace.
+	 *
+	 * @param name the name of the trace
+	 * @return the index, or -1 if the store has no such trace
+	 */
+	public int indexOf(String name) {
+		Integer index = indexes.get(name);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Gets the samples of a trace, as a read-only view of the mapped file with one unsigned byte per
+	 * sample. The view has its own position, so each user can take its own.
+	 *
+	 * @param index the index of the trace
+	 * @return the samples
+	 */
+	public ByteBuffer getTrace(int index) {
+		if (index < 0 || index >= names.length) {
+			throw new IndexOutOfBoundsException("Trace " + index + " out of " + names.length);
+		}
+		return samples.slice(index * sampleCount, sampleCount).asReadOnlyBuffer();
+	}
+}
@@ -182,7 +182,7 @@ public class WebSession {
         boolean dbServerNextReady = !dbServerCloudLets.isEmpty()
                 && getEarliestIdealStartTime(dbServerCloudLets.peek()) <= currTime;
 
-        if (cloudletsLeft != 0 && appCloudletFinished && !dbCloudletFinished) {
+        if (cloudletsLeft != 0 && appCloudletFinished && !dbCloudletFinished && CustomLog.isLevelHighEnough(Level.FINE)) {
             CustomLog.printf(Level.FINE, "Session %d in AS VM %d blocked in DB layer", getSessionId(), appVmId);
         }
 
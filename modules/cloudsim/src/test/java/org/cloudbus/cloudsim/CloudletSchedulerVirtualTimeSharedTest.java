@@ -0,0 +1,201 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link CloudletSchedulerVirtualTimeShared} runs cloudlets as
+ * {@link CloudletSchedulerTimeShared} does.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class CloudletSchedulerVirtualTimeSharedTest {
+
+	private static final double MIPS = 1000;
+	private static final int PES_NUMBER = 4;
+
+	@Test
+	public void testMatchesTimeShared() {
+		for (long seed = 0; seed < 10; seed++) {
+			Random random = new Random(seed);
+			CloudletScheduler expected = new CloudletSchedulerTimeShared();
+			CloudletScheduler actual = new CloudletSchedulerVirtualTimeShared();
+			List<Double> mipsShare = mipsShare(PES_NUMBER);
+
+			double time = 0;
+			int id = 0;
+			for (int step = 0; step < 300; step++) {
+				if (random.nextInt(3) == 0) {
+					// Vary the capacity the VM gets from its host
+					mipsShare = mipsShare(1 + random.nextInt(PES_NUMBER));
+				}
+				double expectedNext = expected.updateCloudletsProcessing(time, mipsShare);
+				double actualNext = actual.updateCloudletsProcessing(time, mipsShare);
+				// The list-based scheduler rounds the remaining length down to the MI in its estimate
+				assertEquals(expectedNext, actualNext, 1 / actual.getCurrentCapacity() + 1e-6, "seed " + seed + " step " + step);
+				assertEquals(finishedIds(expected), finishedIds(actual), "seed " + seed + " step " + step);
+				assertEquals(expected.runningCloudlets(), actual.runningCloudlets());
+				assertEquals(expected.getCurrentCapacity(), actual.getCurrentCapacity(), 0);
+
+				for (int i = random.nextInt(4); i > 0; i--) {
+					long length = 1000 + random.nextInt(50000);
+					int pes = 1 + random.nextInt(2);
+					double transfer = random.nextInt(3);
+					assertEquals(expected.cloudletSubmit(cloudlet(id, length, pes), transfer),
+							actual.cloudletSubmit(cloudlet(id, length, pes), transfer), 0);
+					id++;
+				}
+				// Go to the next finish time or somewhere before it
+				double next = expected.updateCloudletsProcessing(time, mipsShare);
+				actual.updateCloudletsProcessing(time, mipsShare);
+				time = next > 0 && random.nextBoolean() ? next : time + 0.1 + random.nextDouble() * 5;
+			}
+			assertTrue(expected.getCloudletFinishedList().size() > 100);
+		}
+	}
+
+	@Test
+	public void testPauseResumeCancelKeepProgress() {
+		CloudletScheduler scheduler = new CloudletSchedulerVirtualTimeShared();
+		List<Double> mipsShare = mipsShare(1);
+		scheduler.updateCloudletsProcessing(0, mipsShare);
+		Cloudlet first = cloudlet(0, 10000, 1);
+		Cloudlet second = cloudlet(1, 10000, 1);
+		scheduler.cloudletSubmit(first, 0);
+		scheduler.cloudletSubmit(second, 0);
+
+		// Both cloudlets run at 500 MIPS
+		assertEquals(20, scheduler.updateCloudletsProcessing(0, mipsShare), 1e-9);
+		scheduler.updateCloudletsProcessing(4, mipsShare);
+		assertTrue(scheduler.cloudletPause(0));
+		assertEquals(8000, first.getRemainingCloudletLength());
+		assertEquals(1, scheduler.runningCloudlets());
+
+		// The second cloudlet now runs alone at 1000 MIPS
+		assertEquals(12, scheduler.updateCloudletsProcessing(4, mipsShare), 1e-9);
+		scheduler.updateCloudletsProcessing(6, mipsShare);
+		// The progress of running cloudlets is written back on request only
+		assertSame(second, scheduler.getCloudletExecList().getFirst());
+		assertEquals(10000, second.getRemainingCloudletLength());
+		((CloudletSchedulerVirtualTimeShared) scheduler).updateCloudletsFinishedSoFar();
+		assertEquals(6000, second.getRemainingCloudletLength());
+
+		scheduler.cloudletResume(0);
+		assertEquals(2, scheduler.runningCloudlets());
+		assertEquals(18, scheduler.updateCloudletsProcessing(6, mipsShare), 1e-9);
+		scheduler.updateCloudletsProcessing(10, mipsShare);
+		assertSame(second, scheduler.cloudletCancel(1));
+		assertEquals(4000, second.getRemainingCloudletLength());
+		((CloudletSchedulerVirtualTimeShared) scheduler).updateCloudletsFinishedSoFar();
+		assertEquals(6000, first.getRemainingCloudletLength());
+
+		assertEquals(16, scheduler.updateCloudletsProcessing(10, mipsShare), 1e-9);
+		assertEquals(0, scheduler.updateCloudletsProcessing(16, mipsShare), 0);
+		assertEquals(Cloudlet.CloudletStatus.SUCCESS, first.getStatus());
+		assertTrue(scheduler.getCloudletExecList().isEmpty());
+		assertSame(first, scheduler.getNextFinishedCloudlet());
+	}
+
+	@Test
+	public void testManySubmitsBetweenUpdates() {
+		CloudletScheduler expected = new CloudletSchedulerTimeShared();
+		CloudletSchedulerVirtualTimeShared actual = new CloudletSchedulerVirtualTimeShared();
+		List<Double> mipsShare = mipsShare(PES_NUMBER);
+		Random random = new Random(11);
+
+		double time = 0;
+		int id = 0;
+		for (int step = 0; step < 50; step++) {
+			expected.updateCloudletsProcessing(time, mipsShare);
+			actual.updateCloudletsProcessing(time, mipsShare);
+			assertEquals(finishedIds(expected), finishedIds(actual), "step " + step);
+			assertEquals(runningIds(expected), runningIds(actual), "step " + step);
+			assertEquals(expected.getTotalUtilizationOfCpu(time), actual.getTotalUtilizationOfCpu(time), 0);
+
+			// A burst of submissions, interleaved with cancellations and pauses
+			for (int i = 0; i < 200; i++) {
+				long length = 100 + random.nextInt(5000);
+				expected.cloudletSubmit(cloudlet(id, length, 1), 0);
+				actual.cloudletSubmit(cloudlet(id, length, 1), 0);
+				id++;
+				if (i % 50 == 49) {
+					int victim = id - 1 - random.nextInt(40);
+					assertEquals(expected.cloudletCancel(victim) != null, actual.cloudletCancel(victim) != null);
+					victim = id - 1 - random.nextInt(40);
+					assertEquals(expected.cloudletPause(victim), actual.cloudletPause(victim));
+				}
+			}
+			assertEquals(expected.runningCloudlets(), actual.runningCloudlets());
+			assertEquals(runningIds(expected), runningIds(actual), "step " + step);
+			time += 1 + random.nextInt(20);
+		}
+		assertTrue(expected.getCloudletFinishedList().size() > 100);
+	}
+
+	@Test
+	public void testUtilizationOfCpuWithVariableModels() {
+		CloudletSchedulerVirtualTimeShared scheduler = new CloudletSchedulerVirtualTimeShared();
+		scheduler.updateCloudletsProcessing(0, mipsShare(2));
+		scheduler.cloudletSubmit(cloudlet(0, 10000, 1), 0);
+		UtilizationModel half = new UtilizationModelStochastic() {
+			@Override
+			public double getUtilization(double time) {
+				return 0.5;
+			}
+		};
+		Cloudlet halfCloudlet = new Cloudlet(1, 10000, 1, 300, 300, half, half, half);
+		halfCloudlet.setResourceParameter(0, 0, 0);
+		scheduler.cloudletSubmit(halfCloudlet, 0);
+		assertEquals(1.5, scheduler.getTotalUtilizationOfCpu(0), 0);
+		scheduler.cloudletCancel(1);
+		assertEquals(1, scheduler.getTotalUtilizationOfCpu(0), 0);
+	}
+
+	private static List<Integer> runningIds(CloudletScheduler scheduler) {
+		List<Integer> ids = new ArrayList<>();
+		for (Cloudlet cloudlet : scheduler.getCloudletExecList()) {
+			ids.add(cloudlet.getCloudletId());
+		}
+		// The execution list of the virtual time scheduler is not in submission order
+		ids.sort(null);
+		return ids;
+	}
+
+	private static List<Double> mipsShare(int pes) {
+		List<Double> mipsShare = new ArrayList<>();
+		for (int i = 0; i < pes; i++) {
+			mipsShare.add(MIPS);
+		}
+		return mipsShare;
+	}
+
+	private static Cloudlet cloudlet(int id, long length, int pes) {
+		UtilizationModelFull utilizationModel = new UtilizationModelFull();
+		Cloudlet cloudlet = new Cloudlet(id, length, pes, 300, 300, utilizationModel, utilizationModel, utilizationModel);
+		cloudlet.setResourceParameter(0, 0, 0);
+		return cloudlet;
+	}
+
+	private static List<Integer> finishedIds(CloudletScheduler scheduler) {
+		List<Integer> ids = new ArrayList<>();
+		for (Cloudlet cloudlet : scheduler.getCloudletFinishedList()) {
+			ids.add(cloudlet.getCloudletId());
+		}
+		// Cloudlets finishing in the same update may be listed in another order
+		ids.sort(null);
+		return ids;
+	}
+}
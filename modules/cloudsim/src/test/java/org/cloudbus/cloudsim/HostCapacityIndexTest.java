@@ -0,0 +1,162 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.RankedSelectionPolicy;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyFirstFit;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyLeastFull;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMostFull;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyWorstFit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link HostCapacityIndex} selects the same hosts as the scan made by
+ * {@link VmAllocationWithSelectionPolicy} with the plain selection policies.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class HostCapacityIndexTest {
+
+	private static final int HOSTS = 61;
+	private static final int GUESTS = 400;
+
+	@Test
+	public void testLeastFull() {
+		checkSameHosts(new SelectionPolicyLeastFull<>());
+	}
+
+	@Test
+	public void testMostFull() {
+		checkSameHosts(new SelectionPolicyMostFull<>());
+	}
+
+	@Test
+	public void testWorstFit() {
+		checkSameHosts(new SelectionPolicyWorstFit<>());
+	}
+
+	@Test
+	public void testFirstFit() {
+		checkSameHosts(new SelectionPolicyFirstFit<>());
+	}
+
+	private static void checkSameHosts(RankedSelectionPolicy<HostEntity> policy) {
+		List<HostEntity> scanned = createHosts();
+		List<HostEntity> indexed = createHosts();
+		HostCapacityIndex<HostEntity> index = new HostCapacityIndex<>(indexed, policy::rank);
+
+		Random random = new Random(7);
+		List<Vm> scannedGuests = new ArrayList<>();
+		List<Vm> indexedGuests = new ArrayList<>();
+		int placed = 0;
+		for (int id = 0; id < GUESTS; id++) {
+			double mips = 250 * (1 + random.nextInt(8));
+			int pes = 1 + random.nextInt(2);
+			int ram = 256 * (1 + random.nextInt(8));
+			long bw = 100 * (1 + random.nextInt(20));
+			Vm scannedGuest = new Vm(id, 0, mips, pes, ram, bw, 0, "", new CloudletSchedulerTimeShared());
+			Vm indexedGuest = new Vm(id, 0, mips, pes, ram, bw, 0, "", new CloudletSchedulerTimeShared());
+
+			int expected = scan(scanned, policy, scannedGuest);
+			HostEntity host = index.findBestHost(indexedGuest);
+			assertEquals(expected, host == null ? -1 : indexed.indexOf(host), "guest " + id);
+			if (host != null) {
+				assertTrue(scanned.get(expected).guestCreate(scannedGuest));
+				// Observed by the index
+				assertTrue(host.guestCreate(indexedGuest));
+				scannedGuests.add(scannedGuest);
+				indexedGuests.add(indexedGuest);
+				placed++;
+			}
+
+			// Free some capacity from time to time
+			if (random.nextInt(4) == 0 && !scannedGuests.isEmpty()) {
+				int victim = random.nextInt(scannedGuests.size());
+				Vm scannedVictim = scannedGuests.remove(victim);
+				Vm indexedVictim = indexedGuests.remove(victim);
+				scannedVictim.getHost().guestDestroy(scannedVictim);
+				indexedVictim.getHost().guestDestroy(indexedVictim);
+			}
+		}
+		assertTrue(placed > GUESTS / 4);
+		assertTrue(placed < GUESTS);
+	}
+
+	@Test
+	public void testChangesOutsideThePolicy() {
+		List<HostEntity> hosts = createHosts();
+		VmAllocationWithSelectionPolicy allocation = new VmAllocationWithSelectionPolicy(hosts, new SelectionPolicyFirstFit<>());
+		HostEntity first = hosts.get(0);
+		Vm filler = new Vm(0, 0, first.getGuestScheduler().getPeCapacity(), 1, first.getGuestRamProvisioner().getRam(),
+				0, 0, "", new CloudletSchedulerTimeShared());
+		assertSame(first, allocation.findHostForGuest(filler));
+		assertTrue(first.guestCreate(filler));
+
+		// Freed within the same clock tick, without going through the policy
+		Vm guest = new Vm(1, 0, 250, 1, 256, 100, 0, "", new CloudletSchedulerTimeShared());
+		assertNotSame(first, allocation.findHostForGuest(guest));
+		first.guestDestroy(filler);
+		assertSame(first, allocation.findHostForGuest(guest));
+
+		// Filled again, by another path
+		assertTrue(first.guestCreate(filler));
+		assertSame(hosts.get(1), allocation.findHostForGuest(guest));
+
+		// A new host list of the same size
+		List<HostEntity> replaced = createHosts();
+		allocation.setHostList(replaced);
+		assertSame(replaced.get(0), allocation.findHostForGuest(guest));
+	}
+
+	/**
+	 * The reference: {@link VmAllocationWithSelectionPolicy} before the index.
+	 */
+	private static int scan(List<HostEntity> hosts, RankedSelectionPolicy<HostEntity> policy, Vm guest) {
+		Set<HostEntity> excluded = new HashSet<>();
+		for (int tries = 0; tries < hosts.size(); tries++) {
+			HostEntity selected = policy.select(hosts, guest, excluded);
+			if (selected == null) {
+				return -1;
+			}
+			if (selected.isSuitableForGuest(guest)) {
+				return hosts.indexOf(selected);
+			}
+			excluded.add(selected);
+		}
+		return -1;
+	}
+
+	private static List<HostEntity> createHosts() {
+		Random random = new Random(3);
+		List<HostEntity> hosts = new ArrayList<>();
+		for (int id = 0; id < HOSTS; id++) {
+			double mips = 1000 * (1 + random.nextInt(2));
+			List<Pe> peList = new ArrayList<>();
+			for (int pe = 1 + random.nextInt(4); pe > 0; pe--) {
+				peList.add(new Pe(pe, new PeProvisionerSimple(mips)));
+			}
+			hosts.add(new Host(id, new RamProvisionerSimple(1024 * (1 + random.nextInt(8))),
+					new BwProvisionerSimple(1000 * (1 + random.nextInt(3))), 1000000, peList,
+					new VmSchedulerTimeShared(peList)));
+		}
+		return hosts;
+	}
+}
@@ -14,7 +14,23 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
+import java.util.logging.Level;
+
+import org.cloudbus.cloudsim.EX.disk.HddCloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.EX.util.CustomLog;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyFirstFit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -174,4 +190,69 @@ public class LogTest {
 		OUTPUT.reset();
 	}
 
+	@Test
+	public void testDisabledLoggingBuildsNoMessages() throws Exception {
+		// The power datacenter reads the utilization of each host for its log messages only
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int logged = runPowerSimulation(output, false);
+		assertTrue(output.toString().contains("[Host #0] utilization is"));
+		int quiet = runPowerSimulation(output, true);
+		assertEquals("", output.toString());
+		assertTrue(quiet < logged, quiet + " utilization reads, " + logged + " when logging");
+
+		// The Hdd scheduler formats its shares only for its FINEST trace
+		assertFalse(CustomLog.isLevelHighEnough(Level.FINEST));
+		int[] formatted = new int[1];
+		List<Double> share = new ArrayList<>(List.of(1000.0)) {
+			@Override
+			public String toString() {
+				formatted[0]++;
+				return super.toString();
+			}
+		};
+		new HddCloudletSchedulerTimeShared().updateVmProcessing(1.0, share, share);
+		assertEquals(0, formatted[0]);
+	}
+
+	/**
+	 * Runs a power simulation of one host and one cloudlet in its own context, with logging enabled
+	 * or disabled.
+	 *
+	 * @return the number of times the utilization of the host was read
+	 */
+	private static int runPowerSimulation(ByteArrayOutputStream output, boolean logDisabled) throws Exception {
+		output.reset();
+		return new SimulationContext().call(() -> {
+			Log.setOutput(output);
+			Log.setDisabled(logDisabled);
+			CloudSim.init(1, null, false);
+
+			int[] reads = new int[1];
+			List<Pe> peList = new ArrayList<>(List.of(new Pe(0, new PeProvisionerSimple(1000))));
+			List<PowerHost> hostList = new ArrayList<>(List.of(new PowerHost(0, new RamProvisionerSimple(2048),
+					new BwProvisionerSimple(10000), 1000000, peList, new VmSchedulerTimeShared(peList),
+					new PowerModelLinear(250, 0.7)) {
+				@Override
+				public double getUtilizationOfCpu() {
+					reads[0]++;
+					return super.getUtilizationOfCpu();
+				}
+			}));
+			DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+					"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+			new PowerDatacenter("Datacenter_0", characteristics,
+					new VmAllocationWithSelectionPolicy(hostList, new SelectionPolicyFirstFit<>()), new LinkedList<>(), 300);
+
+			DatacenterBroker broker = new DatacenterBroker("Broker");
+			broker.submitGuestList(List.of(new Vm(0, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen",
+					new CloudletSchedulerDynamicWorkload(1000, 1))));
+			Cloudlet cloudlet = new Cloudlet(0, 3_000_000L, 1, 300, 300,
+					new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			broker.submitCloudletList(List.of(cloudlet));
+
+			CloudSim.startSimulation();
+			return reads[0];
+		});
+	}
 }
@@ -0,0 +1,100 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.cloudbus.cloudsim.util.UtilizationTraceStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class UtilizationModelPlanetLabMappedTest {
+
+	public static final double SCHEDULING_INTERVAL = 300;
+
+	public static final String FILE = UtilizationModelPlanetLabInMemoryTest.FILE;
+
+	@Test
+	public void testMatchesInMemory(@TempDir Path folder) throws Exception {
+		Path trace = Path.of(getClass().getClassLoader().getResource(FILE).toURI());
+		Path traces = Files.createDirectory(folder.resolve("traces"));
+		Files.copy(trace, traces.resolve(FILE));
+		// A second trace, to check that each model reads its own slice
+		List<String> lines = Files.readAllLines(trace);
+		Files.write(traces.resolve("reversed.dat"), lines.reversed());
+
+		String storePath = folder.resolve("traces.bin").toString();
+		UtilizationTraceStore.convert(traces.toString(), storePath);
+		UtilizationTraceStore store = UtilizationTraceStore.open(storePath);
+		assertSame(store, UtilizationTraceStore.open(new File(folder.toFile(), "./traces.bin").getPath()));
+		assertEquals(2, store.getTraceCount());
+		assertEquals(UtilizationTraceStore.PLANETLAB_SAMPLES, store.getSampleCount());
+
+		for (int i = 0; i < store.getTraceCount(); i++) {
+			String name = store.getTraceName(i);
+			assertEquals(i, store.indexOf(name));
+			UtilizationModelPlanetLabInMemory expected = new UtilizationModelPlanetLabInMemory(
+					traces.resolve(name).toString(), SCHEDULING_INTERVAL);
+			UtilizationModelPlanetLabMapped actual = new UtilizationModelPlanetLabMapped(store, name, SCHEDULING_INTERVAL);
+			for (double time = 0; time <= 288 * SCHEDULING_INTERVAL; time += 37.5) {
+				assertEquals(expected.getUtilization(time), actual.getUtilization(time), 0, name + " at " + time);
+			}
+		}
+		assertEquals(-1, store.indexOf("missing.dat"));
+		assertThrows(IllegalArgumentException.class,
+				() -> new UtilizationModelPlanetLabMapped(store, "missing.dat", SCHEDULING_INTERVAL));
+	}
+
+	@Test
+	public void testConvertReplacesOpenedStore(@TempDir Path folder) throws Exception {
+		Path traces = Files.createDirectory(folder.resolve("traces"));
+		Files.write(traces.resolve("a.dat"), List.of("10", "20"));
+		String storePath = folder.resolve("traces.bin").toString();
+		UtilizationTraceStore.convert(traces.toString(), storePath, 2);
+		UtilizationTraceStore store = UtilizationTraceStore.open(storePath);
+
+		// Converting again replaces the file: the opened store keeps its traces
+		Files.write(traces.resolve("a.dat"), List.of("30", "40"));
+		UtilizationTraceStore.convert(traces.toString(), storePath, 2);
+		assertEquals(10, store.getTrace(0).get(0));
+		assertEquals(20, store.getTrace(0).get(1));
+		try (var files = Files.list(folder)) {
+			assertEquals(2, files.count());
+		}
+
+		UtilizationTraceStore replaced = UtilizationTraceStore.open(storePath);
+		assertNotSame(store, replaced);
+		assertEquals(30, replaced.getTrace(0).get(0));
+
+		assertTrue(UtilizationTraceStore.close(storePath));
+		assertFalse(UtilizationTraceStore.close(storePath));
+		assertNotSame(replaced, UtilizationTraceStore.open(storePath));
+		UtilizationTraceStore.closeAll();
+		assertFalse(UtilizationTraceStore.close(storePath));
+	}
+
+	@Test
+	public void testRejectsOtherFiles(@TempDir Path folder) throws Exception {
+		Path trace = Path.of(getClass().getClassLoader().getResource(FILE).toURI());
+		assertThrows(IllegalArgumentException.class, () -> UtilizationTraceStore.open(trace.toString()));
+
+		Path traces = Files.createDirectory(folder.resolve("traces"));
+		Files.write(traces.resolve("overloaded.dat"), List.of("10", "300"));
+		assertThrows(IllegalArgumentException.class,
+				() -> UtilizationTraceStore.convert(traces.toString(), folder.resolve("traces.bin").toString(), 2));
+	}
+}
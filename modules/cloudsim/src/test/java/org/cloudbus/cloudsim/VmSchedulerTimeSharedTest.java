@@ -11,7 +11,9 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
+import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.junit.jupiter.api.BeforeEach;
@@ -159,4 +161,140 @@ public class VmSchedulerTimeSharedTest {
 		assertEquals(0, vmScheduler.getTotalAllocatedMipsForGuest(vm2), 0);
 	}
 
+	@Test
+	public void testIncrementalMatchesFullRebuild() {
+		for (long seed = 0; seed < 20; seed++) {
+			boolean overSubscription = seed % 2 == 1;
+			List<Pe> expectedPes = createPes(4);
+			List<Pe> actualPes = createPes(4);
+			VmSchedulerTimeShared expected = overSubscription
+					? new VmSchedulerTimeSharedOverSubscription(expectedPes) {
+						@Override
+						public void deallocatePesForGuest(GuestEntity guest) {
+							invalidateAllocations();
+							super.deallocatePesForGuest(guest);
+						}
+
+						@Override
+						protected void updatePeProvisioning() {
+							invalidateAllocations();
+							super.updatePeProvisioning();
+						}
+					}
+					: new VmSchedulerTimeShared(expectedPes) {
+						@Override
+						public void deallocatePesForGuest(GuestEntity guest) {
+							invalidateAllocations();
+							super.deallocatePesForGuest(guest);
+						}
+
+						@Override
+						protected void updatePeProvisioning() {
+							invalidateAllocations();
+							super.updatePeProvisioning();
+						}
+					};
+			VmSchedulerTimeShared actual = overSubscription
+					? new VmSchedulerTimeSharedOverSubscription(actualPes)
+					: new VmSchedulerTimeShared(actualPes);
+
+			Random random = new Random(seed);
+			List<Vm> vms = new ArrayList<>();
+			for (int id = 0; id < 12; id++) {
+				vms.add(new Vm(id, 0, MIPS, 1 + random.nextInt(3), 0, 0, 0, "", null));
+			}
+			List<Vm> allocated = new ArrayList<>();
+			for (int step = 0; step < 400; step++) {
+				int action = random.nextInt(10);
+				if (action < 4 || allocated.isEmpty()) {
+					// Allocate a guest, which may be migrating in or out
+					Vm vm = vms.get(random.nextInt(vms.size()));
+					boolean migratingIn = expected.getGuestsMigratingIn().contains(vm.getUid());
+					if (!allocated.contains(vm) && !expected.getGuestsMigratingOut().contains(vm.getUid())
+							&& random.nextInt(8) == 0) {
+						expected.getGuestsMigratingIn().add(vm.getUid());
+						actual.getGuestsMigratingIn().add(vm.getUid());
+						migratingIn = true;
+					}
+					vm.setInMigration(migratingIn || random.nextInt(8) == 0);
+					List<Double> mipsShare = requestedMips(vm, random, overSubscription ? 0.4 : 0.2);
+					boolean result = expected.allocatePesForGuest(vm, mipsShare);
+					assertEquals(result, actual.allocatePesForGuest(vm, mipsShare), "seed " + seed + " step " + step);
+					if (result && !allocated.contains(vm)) {
+						allocated.add(vm);
+					}
+				} else if (action < 7) {
+					// Deallocate a guest, ending its migration in if any
+					Vm vm = allocated.remove(random.nextInt(allocated.size()));
+					expected.deallocatePesForGuest(vm);
+					actual.deallocatePesForGuest(vm);
+					expected.getGuestsMigratingIn().remove(vm.getUid());
+					actual.getGuestsMigratingIn().remove(vm.getUid());
+				} else if (action < 9) {
+					// Update the allocations as HostDynamicWorkload does
+					for (Vm vm : allocated) {
+						expected.deallocatePesForGuest(vm);
+						actual.deallocatePesForGuest(vm);
+						assertSameAllocations(expected, actual, vms, seed, step);
+					}
+					for (Vm vm : new ArrayList<>(allocated)) {
+						List<Double> mipsShare = requestedMips(vm, random, overSubscription ? 0.4 : 0.2);
+						boolean result = expected.allocatePesForGuest(vm, mipsShare);
+						assertEquals(result, actual.allocatePesForGuest(vm, mipsShare), "seed " + seed + " step " + step);
+						if (!result) {
+							allocated.remove(vm);
+						}
+					}
+				} else {
+					expected.deallocatePesForAllGuests();
+					actual.deallocatePesForAllGuests();
+					expected.getGuestsMigratingIn().clear();
+					actual.getGuestsMigratingIn().clear();
+					allocated.clear();
+				}
+				assertSameAllocations(expected, actual, vms, seed, step);
+			}
+		}
+	}
+
+	private static List<Pe> createPes(int number) {
+		List<Pe> pes = new ArrayList<>();
+		for (int id = 0; id < number; id++) {
+			pes.add(new Pe(id, new PeProvisionerSimple(MIPS)));
+		}
+		return pes;
+	}
+
+	private static List<Double> requestedMips(Vm vm, Random random, double load) {
+		List<Double> mipsShare = new ArrayList<>();
+		for (int i = 0; i < vm.getNumberOfPes(); i++) {
+			mipsShare.add(Math.floor(MIPS * 2 * load * random.nextDouble() * (random.nextInt(20) == 0 ? 4 : 1)));
+		}
+		return mipsShare;
+	}
+
+	private static void assertSameAllocations(VmSchedulerTimeShared expected, VmSchedulerTimeShared actual,
+			List<Vm> vms, long seed, int step) {
+		String message = "seed " + seed + " step " + step;
+		assertEquals(expected.getMipsMapRequested(), actual.getMipsMapRequested(), message);
+		assertEquals(expected.getMipsMapAllocated(), actual.getMipsMapAllocated(), message);
+		assertEquals(expected.getPesInUse(), actual.getPesInUse(), message);
+		assertEquals(expected.getAvailableMips(), actual.getAvailableMips(), 1e-6, message);
+		assertEquals(expected.getPeMap().keySet(), actual.getPeMap().keySet(), message);
+
+		// The guests may sit on other PEs, but get their allocated MIPS from them
+		for (Vm vm : vms) {
+			List<Double> allocatedMips = actual.getAllocatedMipsForGuest(vm);
+			double totalAllocatedMips = actual.getTotalAllocatedMipsForGuest(vm);
+			double provisionedMips = 0;
+			for (Pe pe : actual.getPeList()) {
+				provisionedMips += pe.getPeProvisioner().getTotalAllocatedMipsForGuest(vm);
+				assertTrue(pe.getPeProvisioner().getAvailableMips() > -1e-6, message);
+			}
+			// Shares below 0.1 MIPS are not provisioned
+			double tolerance = allocatedMips == null ? 0 : 0.1 * allocatedMips.size() + 1e-6;
+			assertEquals(totalAllocatedMips, provisionedMips, tolerance, message + " vm " + vm.getId());
+		}
+	}
+
 }
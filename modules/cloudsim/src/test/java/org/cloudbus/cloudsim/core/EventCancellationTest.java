@@ -0,0 +1,134 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class EventCancellationTest {
+
+	@BeforeAll
+	public static void setUp() {
+		Log.disable();
+	}
+
+	@Test
+	public void testCancellationWithTheDefaultQueue() throws Exception {
+		checkCancellation(null);
+	}
+
+	@Test
+	public void testCancellationWithTheCalendarQueue() throws Exception {
+		checkCancellation(new CalendarQueue());
+	}
+
+	private static void checkCancellation(FutureEventList futureEventList) throws Exception {
+		new SimulationContext().call(() -> {
+			if (futureEventList == null) {
+				CloudSim.init(1, null, false);
+			} else {
+				CloudSim.init(1, null, false, futureEventList);
+			}
+			Timers timers = new Timers();
+			double lastClock = CloudSim.startSimulation();
+
+			assertEquals(List.of("b@2.0", "packet@6.0", "timer@8.0"), timers.received);
+			assertTrue(timers.results.stream().allMatch(result -> result), timers.results.toString());
+			// The cancelled event at time 100 must not advance the clock
+			assertEquals(8.0, lastClock);
+			return null;
+		});
+	}
+
+	@Test
+	public void testCancelledEventsAreNotPending() throws Exception {
+		new SimulationContext().call(() -> {
+			CloudSim.init(1, null, false, new CalendarQueue());
+			new SimEntity("Canceller") {
+				@Override
+				public void startEntity() {
+					List<SimEvent> events = new ArrayList<>();
+					for (int i = 1; i <= 1000; i++) {
+						events.add(schedule(getId(), i, CloudActionTags.BLANK));
+					}
+					for (int i = 0; i < 999; i++) {
+						cancelEvent(events.get(i));
+						assertEquals(1000 - i - 1, SimulationContext.current().getPendingEventCount());
+					}
+				}
+
+				@Override
+				public void processEvent(SimEvent ev) {
+					assertEquals(0, SimulationContext.current().getPendingEventCount());
+				}
+			};
+			// Only the last event is dispatched, once the cancelled ones are dropped
+			assertEquals(1000.0, CloudSim.startSimulation());
+			assertEquals(1, SimulationContext.current().getEventsDispatchedCount());
+			return null;
+		});
+	}
+
+	/**
+	 * Schedules events to itself and cancels some of them, by handle and by tag.
+	 */
+	private static class Timers extends SimEntity {
+		final List<String> received = new ArrayList<>();
+		final List<Boolean> results = new ArrayList<>();
+
+		Timers() {
+			super("Timers");
+		}
+
+		@Override
+		public void startEntity() {
+			SimEvent a = schedule(getId(), 1, CloudActionTags.BLANK, "a");
+			schedule(getId(), 2, CloudActionTags.BLANK, "b");
+			results.add(cancelEvent(a));
+			results.add(!cancelEvent(a));
+			results.add(a.isCancelled());
+
+			// Timers pending before the tag is first cancelled
+			for (int i = 3; i <= 5; i++) {
+				schedule(getId(), i, CloudActionTags.VM_DATACENTER_EVENT, "stale");
+			}
+			schedule(getId(), 6, CloudActionTags.NETWORK_PKT_FORWARD, "packet");
+			results.add(CloudSim.cancelAll(getId(), new PredicateType(CloudActionTags.VM_DATACENTER_EVENT)));
+			results.add(!CloudSim.cancelAll(getId(), new PredicateType(CloudActionTags.VM_DATACENTER_EVENT)));
+
+			// Timers scheduled once the tag is indexed
+			SimEvent first = schedule(getId(), 7, CloudActionTags.VM_DATACENTER_EVENT, "cancelled");
+			schedule(getId(), 8, CloudActionTags.VM_DATACENTER_EVENT, "timer");
+			results.add(cancelEvent(new PredicateType(CloudActionTags.VM_DATACENTER_EVENT)) == first);
+
+			SimEvent last = schedule(getId(), 100, CloudActionTags.BLANK, "last");
+			results.add(CloudSim.cancel(last));
+
+			// The cancelled events still queued are not counted
+			results.add(SimulationContext.current().getPendingEventCount() == 3);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			received.add(ev.getData() + "@" + ev.eventTime());
+			// Events can't be cancelled once dispatched
+			results.add(!cancelEvent(ev));
+		}
+	}
+}
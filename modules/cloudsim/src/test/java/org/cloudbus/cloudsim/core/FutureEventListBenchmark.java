@@ -0,0 +1,90 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the future event list implementations with the classic "hold" benchmark: the list is
+ * filled with N events, then each operation removes the first event and schedules a new one at
+ * its time plus a random delay, so the size stays at N. Run it with:
+ * <pre>
+ * java -cp ... org.cloudbus.cloudsim.core.FutureEventListBenchmark [operations]
+ * </pre>
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class FutureEventListBenchmark {
+
+	private static final int[] SIZES = {1_000, 100_000, 1_000_000};
+
+	public static void main(String[] args) {
+		int operations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+		System.out.printf("%-10s %-14s %12s %12s%n", "size", "delays", "heap ns/op", "calendar ns/op");
+		for (int size : SIZES) {
+			for (String delays : new String[] {"exponential", "discrete"}) {
+				double heap = run(HeapQueue::new, size, operations, delays);
+				double calendar = run(CalendarQueue::new, size, operations, delays);
+				System.out.printf("%-10d %-14s %12.1f %12.1f%n", size, delays, heap, calendar);
+			}
+		}
+	}
+
+	/**
+	 * @return the average time of a hold operation in nanoseconds (best of 3 runs)
+	 */
+	private static double run(Supplier<FutureEventList> factory, int size, int operations, String delays) {
+		double best = Double.MAX_VALUE;
+		for (int round = 0; round < 3; round++) {
+			Random random = new Random(42);
+			FutureEventList queue = factory.get();
+			for (int i = 0; i < size; i++) {
+				queue.addEvent(event(delay(random, delays)));
+			}
+			long start = System.nanoTime();
+			for (int i = 0; i < operations; i++) {
+				SimEvent first = queue.poll();
+				queue.addEvent(event(first.eventTime() + delay(random, delays)));
+			}
+			best = Math.min(best, (double) (System.nanoTime() - start) / operations);
+		}
+		return best;
+	}
+
+	/** Exponential delays, or CloudSim-like ones: many events at the same time on a coarse grid. */
+	private static double delay(Random random, String delays) {
+		if (delays.equals("exponential")) {
+			return -Math.log(1 - random.nextDouble()) * 100;
+		}
+		return random.nextInt(4) == 0 ? 0 : random.nextInt(300) * 0.5;
+	}
+
+	private static SimEvent event(double time) {
+		return new SimEvent(SimEvent.SEND, time, 0, 0, CloudActionTags.BLANK, null);
+	}
+
+	/** {@link EventQueue} without the running-simulation gate on poll(). */
+	private static final class HeapQueue extends java.util.PriorityQueue<SimEvent> implements FutureEventList {
+		private long serial = 0;
+
+		@Override
+		public void addEvent(SimEvent newEvent) {
+			newEvent.setSerial(serial++);
+			add(newEvent);
+		}
+
+		@Override
+		public void addEventFirst(SimEvent newEvent) {
+			newEvent.setSerial(0);
+			add(newEvent);
+		}
+	}
+}
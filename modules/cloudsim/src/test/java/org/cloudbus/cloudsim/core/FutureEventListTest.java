@@ -0,0 +1,130 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link CalendarQueue} returns events in the same order as the default heap.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class FutureEventListTest {
+
+	@Test
+	public void testCalendarQueueMatchesHeapOrder() {
+		for (long seed = 0; seed < 5; seed++) {
+			assertEquals(drain(new HeapQueue(), seed), drain(new CalendarQueue(), seed));
+		}
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		CalendarQueue queue = new CalendarQueue(0.5);
+		for (int i = 0; i < 200; i++) {
+			queue.addEvent(event(i % 37, i));
+		}
+		Iterator<SimEvent> iter = queue.iterator();
+		int visited = 0;
+		while (iter.hasNext()) {
+			SimEvent ev = iter.next();
+			visited++;
+			if ((Integer) ev.getData() % 3 == 0) {
+				iter.remove();
+			}
+		}
+		assertEquals(200, visited);
+		assertEquals(133, queue.size());
+
+		double lastTime = -1;
+		while (!queue.isEmpty()) {
+			SimEvent ev = queue.poll();
+			assertNotEquals(0, (Integer) ev.getData() % 3);
+			assertTrue(ev.eventTime() >= lastTime);
+			lastTime = ev.eventTime();
+		}
+		assertNull(queue.poll());
+	}
+
+	/**
+	 * Runs a random mix of insertions (some at the current time, some with priority, some far in
+	 * the future) and removals, and returns the ids of the events in removal order.
+	 */
+	private static List<Integer> drain(FutureEventList queue, long seed) {
+		Random random = new Random(seed);
+		List<Integer> order = new ArrayList<>();
+		double now = 0;
+		int id = 0;
+		for (int step = 0; step < 20000; step++) {
+			int op = random.nextInt(10);
+			if (op < 5 || queue.isEmpty()) {
+				double delay = switch (random.nextInt(4)) {
+					case 0 -> 0;
+					case 1 -> random.nextInt(5);
+					case 2 -> random.nextDouble() * 10;
+					default -> random.nextDouble() * 100000;
+				};
+				if (random.nextInt(20) == 0) {
+					// Prioritised events at the same time have no defined order: keep their times distinct
+					queue.addEventFirst(event(now + random.nextDouble() * 10, id++));
+				} else {
+					queue.addEvent(event(now + delay, id++));
+				}
+			} else if (op == 9) {
+				// Cancel the events whose id ends with the drawn digit (iteration order differs)
+				int digit = random.nextInt(10);
+				Iterator<SimEvent> iter = queue.iterator();
+				while (iter.hasNext()) {
+					if ((Integer) iter.next().getData() % 10 == digit) {
+						iter.remove();
+					}
+				}
+			} else {
+				SimEvent ev = queue.poll();
+				now = ev.eventTime();
+				order.add((Integer) ev.getData());
+			}
+		}
+		while (!queue.isEmpty()) {
+			order.add((Integer) queue.poll().getData());
+		}
+		return order;
+	}
+
+	private static SimEvent event(double time, int id) {
+		return new SimEvent(SimEvent.SEND, time, 0, 0, CloudActionTags.BLANK, id);
+	}
+
+	/**
+	 * The reference ordering: {@link EventQueue} without the running-simulation gate on poll().
+	 */
+	private static final class HeapQueue extends PriorityQueue<SimEvent> implements FutureEventList {
+		private long serial = 0;
+
+		@Override
+		public void addEvent(SimEvent newEvent) {
+			newEvent.setSerial(serial++);
+			add(newEvent);
+		}
+
+		@Override
+		public void addEventFirst(SimEvent newEvent) {
+			newEvent.setSerial(0);
+			add(newEvent);
+		}
+	}
+}
@@ -0,0 +1,270 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.util.StateHistoryStore.Retention;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class SimulationContextTest {
+
+	private static final int SIMULATIONS = 8;
+
+	@BeforeAll
+	public static void setUp() {
+		Log.disable();
+	}
+
+	@Test
+	public void testEntitiesAreBoundToTheirContext() throws Exception {
+		SimulationContext ctx1 = new SimulationContext();
+		SimulationContext ctx2 = new SimulationContext();
+
+		DatacenterBroker broker1 = ctx1.call(() -> {
+			CloudSim.init(1, null, false);
+			return new DatacenterBroker("Broker");
+		});
+		DatacenterBroker broker2 = ctx2.call(() -> {
+			CloudSim.init(1, null, false);
+			return new DatacenterBroker("Broker");
+		});
+
+		assertSame(ctx1, broker1.getSimulation());
+		assertSame(ctx2, broker2.getSimulation());
+		assertSame(broker1, ctx1.getEntity("Broker"));
+		assertSame(broker2, ctx2.getEntity("Broker"));
+		assertNotSame(ctx1.getNetworkTopology(), ctx2.getNetworkTopology());
+		assertSame(SimulationContext.current(), CloudSim.context());
+	}
+
+	@Test
+	public void testConcurrentSimulationsMatchSequentialOnes() throws Exception {
+		double[][] expected = new double[SIMULATIONS][];
+		for (int i = 0; i < SIMULATIONS; i++) {
+			final int cloudlets = i + 1;
+			expected[i] = new SimulationContext().call(() -> runSimulation(cloudlets));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<double[]>> futures = new ArrayList<>();
+			for (int i = 0; i < SIMULATIONS; i++) {
+				final int cloudlets = i + 1;
+				futures.add(pool.submit(() -> new SimulationContext().call(() -> runSimulation(cloudlets))));
+			}
+
+			for (int i = 0; i < SIMULATIONS; i++) {
+				assertArrayEquals(expected[i], futures.get(i).get(), 0);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testLogSettingsArePerContext() throws Exception {
+		// The default context is disabled, and new contexts start with its settings
+		assertTrue(new SimulationContext().isLogDisabled());
+
+		ExecutorService pool = Executors.newFixedThreadPool(SIMULATIONS);
+		try {
+			List<ByteArrayOutputStream> outputs = new ArrayList<>();
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < SIMULATIONS; i++) {
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+				outputs.add(output);
+				final int cloudlets = i + 1;
+				final boolean quiet = i % 2 == 1;
+				futures.add(pool.submit(() -> new SimulationContext().call(() -> {
+					Log.setOutput(output);
+					Log.setDisabled(quiet);
+					Log.println("Simulation with " + cloudlets + " cloudlets");
+					return runSimulation(cloudlets);
+				})));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+
+			for (int i = 0; i < SIMULATIONS; i++) {
+				String log = outputs.get(i).toString();
+				if (i % 2 == 1) {
+					assertEquals("", log);
+				} else {
+					assertTrue(log.startsWith("Simulation with " + (i + 1) + " cloudlets"));
+					for (int j = 0; j < SIMULATIONS; j++) {
+						if (j != i) {
+							assertFalse(log.contains("Simulation with " + (j + 1) + " cloudlets"));
+						}
+					}
+				}
+			}
+			// The default context is left as it was
+			assertTrue(Log.isDisabled());
+			assertFalse(outputs.contains(Log.getOutput()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testGuestIndexesArePerContext() throws Exception {
+		for (int run = 0; run < 2; run++) {
+			List<Integer> indexes = new SimulationContext().call(() -> {
+				List<Integer> created = new ArrayList<>();
+				for (int i = 0; i < 3; i++) {
+					created.add(new Vm(i, 0, 1000, 1, 512, 1000, 0, "", new CloudletSchedulerTimeShared()).getIndex());
+				}
+				return created;
+			});
+			// Each context numbers its guests from 0, whatever was created before
+			assertEquals(List.of(0, 1, 2), indexes);
+		}
+	}
+
+	@Test
+	public void testStateHistoryRetentionIsPerContext() throws Exception {
+		SimulationContext ctx = new SimulationContext();
+		ctx.setStateHistoryRetention(Retention.WINDOW, 1);
+		Vm windowed = ctx.call(() -> new Vm(0, 0, 1000, 1, 512, 1000, 0, "", new CloudletSchedulerTimeShared()));
+		Vm full = new SimulationContext().call(() -> new Vm(0, 0, 1000, 1, 512, 1000, 0, "", new CloudletSchedulerTimeShared()));
+		for (int i = 0; i < 3; i++) {
+			windowed.addStateHistoryEntry(i, i, i, false);
+			full.addStateHistoryEntry(i, i, i, false);
+		}
+		assertEquals(Retention.WINDOW, windowed.getStateHistoryStore().getRetention());
+		assertEquals(1, windowed.getStateHistory().size());
+		assertEquals(2, windowed.getStateHistory().getFirst().getTime());
+		assertEquals(3, full.getStateHistory().size());
+
+		// A context created from a bound one starts with its retention
+		assertEquals(Retention.WINDOW, ctx.call(() -> new SimulationContext().getStateHistoryRetention()));
+		assertThrows(IllegalArgumentException.class, () -> ctx.setStateHistoryRetention(Retention.DOWNSAMPLED, 2));
+	}
+
+	@Test
+	public void testOnlyEntitiesWithEventsAreRun() throws Exception {
+		SimulationContext ctx = new SimulationContext();
+		Pinger pinger = ctx.call(() -> {
+			CloudSim.init(1, null, false);
+			for (int i = 0; i < 500; i++) {
+				new SimEntity("Idle" + i) {
+					@Override
+					public void processEvent(SimEvent ev) {
+						fail("Idle entities receive no events");
+					}
+				};
+			}
+			Pinger p = new Pinger();
+			CloudSim.startSimulation();
+			return p;
+		});
+
+		assertEquals(10, pinger.received);
+		assertTrue(ctx.getEventsDispatchedCount() >= 10);
+		// Each run processes at least one event: idle entities are never visited
+		assertTrue(ctx.getEntitiesRunCount() <= ctx.getEventsDispatchedCount());
+		assertTrue(ctx.getTickCount() >= 10);
+	}
+
+	/**
+	 * Sends itself an event every time unit, 10 times.
+	 */
+	private static class Pinger extends SimEntity {
+		int received;
+
+		Pinger() {
+			super("Pinger");
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), 1, CloudActionTags.BLANK);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (++received < 10) {
+				schedule(getId(), 1, CloudActionTags.BLANK);
+			}
+		}
+	}
+
+	/**
+	 * Runs a small simulation in the current context and returns the finish times of its cloudlets,
+	 * followed by the last clock value.
+	 */
+	private static double[] runSimulation(int numCloudlets) throws Exception {
+		CloudSim.init(1, null, false);
+
+		List<Pe> peList = new ArrayList<>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		List<Host> hostList = new ArrayList<>();
+		hostList.add(new Host(0, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000,
+				peList, new VmSchedulerTimeShared(peList)));
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+				"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		new Datacenter("Datacenter_0", characteristics, new VmAllocationPolicySimple(hostList),
+				new LinkedList<Storage>(), 0);
+
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		List<Vm> vms = new ArrayList<>();
+		vms.add(new Vm(0, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared()));
+		broker.submitGuestList(vms);
+
+		List<Cloudlet> cloudlets = new ArrayList<>();
+		for (int i = 0; i < numCloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 10000L * (i + 1), 1, 300, 300,
+					new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			cloudlets.add(cloudlet);
+		}
+		broker.submitCloudletList(cloudlets);
+
+		double lastClock = CloudSim.startSimulation();
+
+		List<Cloudlet> received = broker.getCloudletReceivedList();
+		assertEquals(numCloudlets, received.size());
+		double[] result = new double[numCloudlets + 1];
+		for (Cloudlet cloudlet : received) {
+			result[cloudlet.getCloudletId()] = cloudlet.getExecFinishTime();
+		}
+		result[numCloudlets] = lastClock;
+		return result;
+	}
+}
@@ -0,0 +1,28 @@
+package org.cloudbus.cloudsim.geolocation;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class IPUtilTest {
+
+	@Test
+	public void testParseIPv4() {
+		assertEquals(0, IPUtil.parseIPv4("0.0.0.0"));
+		assertEquals(0xFFFFFFFFL, IPUtil.parseIPv4("255.255.255.255"));
+		Random random = new Random(0);
+		for (int i = 0; i < 1000; i++) {
+			int ip = random.nextInt();
+			assertEquals(Integer.toUnsignedLong(ip), IPUtil.parseIPv4(IPUtil.convertIPv4(ip)));
+		}
+
+		for (String invalid : new String[] { "", "1.2.3", "1.2.3.4.5", "1.2.3.256", "1..3.4", "1.2.3.", "::1", "a.b.c.d" }) {
+			assertEquals(-1, IPUtil.parseIPv4(invalid), invalid);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package org.cloudbus.cloudsim.geolocation.geoip2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.geolocation.BaseGeolocationService;
+import org.cloudbus.cloudsim.geolocation.IPMetadata;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link PingERLatencyIndex} selects the measurements a full scan would.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class PingERLatencyIndexTest {
+
+	private static final int COUNT = 3;
+
+	/** The distances of the geolocation services, cache included. */
+	private final BaseGeolocationService service = new BaseGeolocationService() {
+		@Override
+		public double[] getCoordinates(String ip) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPMetadata getMetaData(String ip) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public double latency(double[] reqCoord1, double[] reqCoord2) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	@Test
+	public void testMatchesFullScan() {
+		Random random = new Random(0);
+		int sites = 300;
+		String[] names = new String[sites];
+		double[][] coords = new double[sites][];
+		for (int s = 0; s < sites; s++) {
+			names[s] = "site" + s;
+			coords[s] = randomCoord(random);
+		}
+		int size = 3000;
+		int[] sites1 = new int[size];
+		int[] sites2 = new int[size];
+		double[] latencies = new double[size];
+		for (int e = 0; e < size; e++) {
+			sites1[e] = random.nextInt(sites);
+			sites2[e] = random.nextInt(sites);
+			latencies[e] = 1 + random.nextDouble() * 300;
+		}
+		PingERLatencyIndex index = new PingERLatencyIndex(names, coords, sites1, sites2, latencies);
+
+		for (int query = 0; query < 200; query++) {
+			double[] req1 = randomCoord(random);
+			double[] req2 = query % 10 == 0 ? req1 : randomCoord(random);
+
+			// Take the measurements in increasing distance, skipping those sharing a site
+			List<double[]> all = new ArrayList<>();
+			for (int e = 0; e < size; e++) {
+				double direct = service.distance(req1, coords[sites1[e]]) + service.distance(req2, coords[sites2[e]]);
+				double inverse = service.distance(req1, coords[sites2[e]]) + service.distance(req2, coords[sites1[e]]);
+				all.add(new double[] { Math.min(direct, inverse), e });
+			}
+			all.sort(Comparator.comparingDouble(entry -> entry[0]));
+			List<Integer> expected = new ArrayList<>();
+			List<Double> expectedDistances = new ArrayList<>();
+			for (double[] entry : all) {
+				int e = (int) entry[1];
+				boolean diverse = true;
+				for (int other : expected) {
+					diverse &= sites1[e] != sites1[other] && sites1[e] != sites2[other]
+							&& sites2[e] != sites1[other] && sites2[e] != sites2[other];
+				}
+				if (diverse && expected.size() < COUNT) {
+					expected.add(e);
+					expectedDistances.add(entry[0]);
+				}
+			}
+
+			assertEquals(COUNT, index.nearest(req1, req2, COUNT, service::distance));
+			for (int i = 0; i < COUNT; i++) {
+				// Measurements between the same sites tie, either can be taken
+				assertEquals(expectedDistances.get(i), index.getSelectedDistance(i), 0, "query " + query);
+			}
+		}
+	}
+
+	@Test
+	public void testUnknownLocation() {
+		PingERLatencyIndex index = new PingERLatencyIndex(new String[] { "a", "b" },
+				new double[][] { { 10, 10 }, { -20, 30 } }, new int[] { 0 }, new int[] { 1 }, new double[] { 42 });
+		assertEquals(0, index.nearest(new double[] { Double.NaN, Double.NaN }, new double[] { 0, 0 }, COUNT,
+				service::distance));
+		assertEquals(1, index.nearest(new double[] { -20, 30 }, new double[] { 10, 10 }, COUNT, service::distance));
+		assertEquals(0, index.getSelected(0));
+		assertEquals(0, index.getSelectedDistance(0), 1e-6);
+		assertEquals(42, index.getLatency(0));
+		assertEquals("b", index.getSiteName2(0));
+	}
+
+	private static double[] randomCoord(Random random) {
+		// Uniform on the sphere
+		double lat = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+		double lon = random.nextDouble() * 360 - 180;
+		return new double[] { lat, lon };
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class IdIndexedListTest {
+
+	@Test
+	public void testGetById() {
+		List<Vm> vmList = new IdIndexedList<>(GuestEntity::getId);
+		assertNull(VmList.getById(vmList, 0));
+
+		Vm vm1 = new Vm(0, 0, 0, 1, 0, 0, 0, "", null);
+		Vm vm2 = new Vm(1, 1, 0, 1, 0, 0, 0, "", null);
+		Vm vm3 = new Vm(1, 2, 0, 1, 0, 0, 0, "", null);
+		vmList.add(vm1);
+		assertSame(vm1, VmList.getById(vmList, 0));
+		vmList.add(vm2);
+		vmList.add(vm3);
+
+		// The first VM with an id is found, as with a scan
+		assertSame(vm2, VmList.getById(vmList, 1));
+		assertSame(vm3, VmList.getByIdAndUserId(vmList, 1, 2));
+		assertNull(VmList.getByIdAndUserId(vmList, 1, 3));
+		assertNull(VmList.getById(vmList, 2));
+
+		vmList.remove(vm2);
+		assertSame(vm3, VmList.getById(vmList, 1));
+		vmList.add(0, vm2);
+		assertSame(vm2, VmList.getById(vmList, 1));
+		vmList.set(0, vm1);
+		assertSame(vm3, VmList.getById(vmList, 1));
+		Vm vm7 = new Vm(7, 0, 0, 1, 0, 0, 0, "", null);
+		vmList.subList(0, 3).set(1, vm7);
+		assertEquals(1, ((IdIndexedList<Vm>) vmList).indexOfId(7));
+		assertSame(vm7, VmList.getById(vmList, 7));
+		vmList.subList(1, 3).subList(0, 1).set(0, vm2);
+		assertNull(VmList.getById(vmList, 7));
+		assertSame(vm2, VmList.getById(vmList, 1));
+		vmList.subList(1, 2).clear();
+		assertSame(vm3, VmList.getById(vmList, 1));
+		vmList.subList(0, 1).add(vm2);
+		assertSame(vm2, VmList.getById(vmList, 1));
+		vmList.remove(1);
+		vmList.removeIf(vm -> vm.getId() == 1);
+		assertNull(VmList.getById(vmList, 1));
+		vmList.clear();
+		assertNull(VmList.getById(vmList, 0));
+	}
+
+	@Test
+	public void testGetPositionById() {
+		List<Cloudlet> cloudletList = new IdIndexedList<>(Cloudlet::getCloudletId);
+		for (int id = 9; id >= 0; id--) {
+			cloudletList.add(new Cloudlet(id, 100 * (id + 1), 1, 0, 0,
+					new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull()));
+		}
+		for (int id = 0; id < 10; id++) {
+			assertEquals(9 - id, CloudletList.getPositionById(cloudletList, id));
+			assertSame(cloudletList.get(9 - id), CloudletList.getById(cloudletList, id));
+		}
+
+		CloudletList.sort(cloudletList);
+		for (int id = 0; id < 10; id++) {
+			assertEquals(id, CloudletList.getPositionById(cloudletList, id));
+		}
+		assertEquals(-1, CloudletList.getPositionById(cloudletList, 10));
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.NetworkTopology;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link DelayGraph} gives the delays of {@link DelayMatrix_Float}.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class DelayGraphTest {
+
+	@Test
+	public void testMatchesDelayMatrix() {
+		for (long seed = 0; seed < 5; seed++) {
+			Random random = new Random(seed);
+			TopologicalGraph topology = new TopologicalGraph();
+			DelayGraph incremental = new DelayGraph();
+			DelayGraph allPairs = new DelayGraph();
+			allPairs.setAllPairs(true);
+			// Few cached rows, to exercise the eviction
+			incremental.setMaxCachedRows(8);
+
+			for (int step = 0; step < 40; step++) {
+				// A batch of new nodes and links, some of them replacing or removing others
+				for (int i = random.nextInt(3); i > 0 || topology.getNumberOfNodes() < 2; i--) {
+					topology.addNode(new TopologicalNode(topology.getNumberOfNodes()));
+					incremental.addNodes(1);
+					allPairs.addNodes(1);
+				}
+				int nodes = topology.getNumberOfNodes();
+				for (int i = random.nextInt(step % 10 == 9 ? 100 : 6); i >= 0; i--) {
+					int src = random.nextInt(nodes);
+					int dest = random.nextInt(nodes);
+					float delay = random.nextInt(20) == 0 ? 0 : 0.5f + random.nextInt(1000) / 7f;
+					topology.addLink(new TopologicalLink(src, dest, delay, 10));
+					incremental.addLink(src, dest, delay, 10);
+					allPairs.addLink(src, dest, delay, 10);
+				}
+
+				DelayMatrix_Float expected = new DelayMatrix_Float(topology, false);
+				for (int src = 0; src < nodes; src++) {
+					for (int dest = 0; dest < nodes; dest++) {
+						float delay = expected.getDelay(src, dest);
+						// Paths of the same delay may add up in another order
+						assertEquals(delay, incremental.getDelay(src, dest), delay * 1e-5f, "seed " + seed + " step " + step);
+						assertEquals(delay, allPairs.getDelay(src, dest), delay * 1e-5f, "seed " + seed + " step " + step);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFromTopologicalGraph() {
+		TopologicalGraph topology = new TopologicalGraph();
+		for (int i = 0; i < 4; i++) {
+			topology.addNode(new TopologicalNode(i));
+		}
+		topology.addLink(new TopologicalLink(0, 1, 2, 100));
+		topology.addLink(new TopologicalLink(1, 2, 3, 200));
+		topology.addLink(new TopologicalLink(0, 2, 10, 300));
+
+		DelayGraph graph = new DelayGraph(topology);
+		assertEquals(5, graph.getDelay(0, 2));
+		assertEquals(5, graph.getDelay(2, 0));
+		assertEquals(0, graph.getDelay(1, 1));
+		assertEquals(Float.MAX_VALUE, graph.getDelay(0, 3));
+		assertEquals(300, graph.getBw(2, 0));
+		assertEquals(0, graph.getBw(0, 3));
+
+		// A shorter link repairs the cached rows, a longer one drops them
+		graph.addLink(0, 2, 1, 300);
+		assertEquals(1, graph.getDelay(2, 0));
+		assertEquals(2, graph.getDelay(1, 0));
+		graph.addLink(0, 2, 10, 300);
+		assertEquals(5, graph.getDelay(2, 0));
+		graph.addLink(2, 3, 1, 300);
+		assertEquals(6, graph.getDelay(0, 3));
+		assertThrows(IndexOutOfBoundsException.class, () -> graph.getDelay(0, 4));
+	}
+
+	@Test
+	public void testAddNodesAfterQuery() {
+		DelayGraph graph = new DelayGraph();
+		graph.addNodes(2);
+		graph.addLink(0, 1, 1, 10);
+		assertEquals(1, graph.getDelay(0, 1));
+
+		// New nodes with no link yet are unreachable from the cached rows, both ways
+		graph.addNodes(1);
+		assertEquals(Float.MAX_VALUE, graph.getDelay(0, 2));
+		assertEquals(Float.MAX_VALUE, graph.getDelay(2, 0));
+		graph.addLink(1, 2, 2, 10);
+		assertEquals(3, graph.getDelay(0, 2));
+		assertEquals(3, graph.getDelay(2, 0));
+	}
+
+	@Test
+	public void testNetworkTopologyLinks() {
+		NetworkTopology topology = new NetworkTopology();
+		assertFalse(topology.isEnabled());
+		assertEquals(0, topology.delay(3, 5));
+
+		topology.addTopologyLink(3, 5, 100, 2);
+		topology.addTopologyLink(5, 8, 100, 3);
+		assertTrue(topology.isEnabled());
+		assertEquals(5, topology.delay(3, 8));
+		assertEquals(5, topology.delay(8, 3));
+		// Unmapped entities have no delay
+		assertEquals(0, topology.delay(3, 9));
+		assertEquals(100, topology.bandwidth(8, 5));
+		assertEquals(0, topology.bandwidth(3, 8));
+
+		topology.unmapEntity(8);
+		assertEquals(-1, topology.getBriteId(8));
+		assertEquals(0, topology.delay(3, 8));
+		topology.mapEntity(9, 2);
+		assertEquals(5, topology.delay(3, 9));
+		// A BRITE node mapped to another entity can't be mapped again
+		topology.mapEntity(10, 2);
+		assertEquals(-1, topology.getBriteId(10));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testNetworkTopologyDeprecatedAccessors() {
+		NetworkTopology topology = new NetworkTopology() {
+			{
+				addTopologyLink(3, 5, 100, 2);
+				addTopologyLink(5, 8, 50, 3);
+				assertEquals(Map.of(3, 0, 5, 1, 8, 2), getMap());
+				assertEquals(5, getDelayMatrix().getDelay(0, 2));
+				double[][] bw = getBwMatrix();
+				assertEquals(3, bw.length);
+				assertEquals(100, bw[1][0]);
+				assertEquals(50, bw[1][2]);
+				assertEquals(0, bw[0][2]);
+			}
+		};
+		assertTrue(topology.isEnabled());
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMinimumMigrationTime;
+import org.junit.jupiter.api.Test;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the migration policies find the same migrations on a {@link PowerHostCapacityModel}
+ * as on the hosts themselves, and that the model leaves the hosts untouched.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class PowerHostCapacityModelTest {
+
+	private static final int HOSTS = 30;
+	private static final int VMS = 70;
+
+	@Test
+	public void testStaticThresholdMatchesHosts() {
+		for (long seed = 0; seed < 5; seed++) {
+			List<PowerHost> modelled = createHosts(seed);
+			List<PowerHost> real = createHosts(seed);
+			List<String> expected = describe(new PowerVmAllocationPolicyMigrationStaticThreshold(
+					real, new SelectionPolicyMinimumMigrationTime<>(), 0.8) {
+				@Override
+				protected boolean isCapacityModelSupported() {
+					return false;
+				}
+			}.optimizeAllocation(null));
+
+			List<String> before = snapshot(modelled);
+			PowerVmAllocationPolicyMigrationStaticThreshold policy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+					modelled, new SelectionPolicyMinimumMigrationTime<>(), 0.8);
+			assertTrue(policy.isCapacityModelSupported());
+			assertEquals(expected, describe(policy.optimizeAllocation(null)), "seed " + seed);
+			assertEquals(before, snapshot(modelled));
+			assertFalse(expected.isEmpty());
+		}
+	}
+
+	@Test
+	public void testFallbackPolicySharesModel() {
+		for (long seed = 0; seed < 5; seed++) {
+			List<PowerHost> modelled = createHosts(seed);
+			List<PowerHost> real = createHosts(seed);
+			List<String> expected = describe(new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+					real, new SelectionPolicyMinimumMigrationTime<>(), 2.5,
+					new PowerVmAllocationPolicyMigrationStaticThreshold(real, new SelectionPolicyMinimumMigrationTime<>(), 0.7)) {
+				@Override
+				protected boolean isCapacityModelSupported() {
+					return false;
+				}
+			}.optimizeAllocation(null));
+
+			List<String> before = snapshot(modelled);
+			PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation policy = new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+					modelled, new SelectionPolicyMinimumMigrationTime<>(), 2.5,
+					new PowerVmAllocationPolicyMigrationStaticThreshold(modelled, new SelectionPolicyMinimumMigrationTime<>(), 0.7));
+			assertEquals(expected, describe(policy.optimizeAllocation(null)), "seed " + seed);
+			assertEquals(before, snapshot(modelled));
+			assertNull(policy.getFallbackVmAllocationPolicy().getCapacityModel());
+		}
+	}
+
+	@Test
+	public void testRollback() {
+		List<PowerHost> hosts = createHosts(1);
+		PowerHost source = hosts.get(0);
+		PowerHost target = hosts.get(HOSTS - 1);
+		GuestEntity vm = source.getGuestList().getFirst();
+		double targetMips = target.getGuestScheduler().getAvailableMips();
+		int sourceGuests = source.getGuestList().size();
+
+		PowerHostCapacityModel model = new PowerHostCapacityModel();
+		int mark = model.mark();
+		model.guestDestroy(source, vm);
+		assertTrue(model.guestCreate(target, vm));
+		assertEquals(sourceGuests - 1, model.getGuestList(source).size());
+		assertSame(vm, model.getGuestList(target).getLast());
+		assertEquals(targetMips - vm.getCurrentRequestedTotalMips(), model.getAvailableMips(target), 1e-9);
+		assertEquals(vm.getCurrentRequestedTotalMips(), model.getTotalAllocatedMipsForGuest(target, vm), 0);
+
+		model.rollback(mark);
+		assertEquals(source.getGuestList(), model.getGuestList(source));
+		assertEquals(target.getGuestList(), model.getGuestList(target));
+		assertEquals(targetMips, model.getAvailableMips(target), 0);
+
+		// The hosts themselves never changed
+		assertEquals(sourceGuests, source.getGuestList().size());
+		assertSame(source, vm.getHost());
+		assertEquals(targetMips, target.getGuestScheduler().getAvailableMips(), 0);
+	}
+
+	/**
+	 * Creates hosts where the first two thirds carry most of the VMs, some of them oversubscribed,
+	 * and a few VMs are migrating to the last hosts.
+	 */
+	private static List<PowerHost> createHosts(long seed) {
+		Random random = new Random(seed);
+		Datacenter datacenter = createNiceMock(Datacenter.class);
+		replay(datacenter);
+		List<PowerHost> hosts = new ArrayList<>();
+		for (int id = 0; id < HOSTS; id++) {
+			double mips = 1000 * (1 + random.nextInt(2));
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(mips)));
+			peList.add(new Pe(1, new PeProvisionerSimple(mips)));
+			hosts.add(new PowerHost(id, new RamProvisionerSimple(16384), new BwProvisionerSimple(100000), 1000000,
+					peList, new VmSchedulerTimeSharedOverSubscription(peList), new PowerModelLinear(250, 0.7)));
+			hosts.getLast().setDatacenter(datacenter);
+		}
+		List<PowerVm> vms = new ArrayList<>();
+		for (int id = 0; id < VMS; id++) {
+			double mips = 100 * (1 + random.nextInt(10));
+			PowerVm vm = new PowerVm(id, 0, mips, 1, 256 * (1 + random.nextInt(8)), 1000, 100, 1, "Xen",
+					new CloudletSchedulerDynamicWorkload(mips, 1), 300);
+			vms.add(vm);
+			int host = id < VMS - 3 ? random.nextInt(2 * HOSTS / 3) : HOSTS - 3 + random.nextInt(3);
+			if (id < VMS - 3) {
+				assertTrue(hosts.get(host).guestCreate(vm));
+			} else {
+				vm.setHost(hosts.get(random.nextInt(2 * HOSTS / 3)));
+				hosts.get(host).addMigratingInGuest(vm);
+			}
+		}
+		for (PowerHost host : hosts) {
+			host.updateCloudletsProcessing(0);
+		}
+		return hosts;
+	}
+
+	private static List<String> describe(List<GuestMapping> migrationMap) {
+		List<String> migrations = new ArrayList<>();
+		for (GuestMapping map : migrationMap) {
+			migrations.add(map.vm().getId() + "->" + map.host().getId());
+		}
+		return migrations;
+	}
+
+	private static List<String> snapshot(List<PowerHost> hosts) {
+		List<String> state = new ArrayList<>();
+		for (PowerHost host : hosts) {
+			StringBuilder guests = new StringBuilder();
+			for (GuestEntity guest : host.getGuestList()) {
+				guests.append(guest.getId()).append(':').append(host.getTotalAllocatedMipsForGuest(guest)).append(' ');
+			}
+			state.add(host.getId() + " [" + guests + "] " + host.getGuestScheduler().getAvailableMips()
+					+ " " + host.getGuestRamProvisioner().getAvailableRam() + " " + host.getGuestBwProvisioner().getAvailableBw()
+					+ " " + host.getStorage());
+		}
+		return state;
+	}
+}
@@ -8,6 +8,9 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.cloudbus.cloudsim.Vm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -130,4 +133,34 @@ public class BwProvisionerSimpleTest {
 		assertEquals(0, vm2.getCurrentAllocatedBw());
 	}
 
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedBwTable() {
+		Vm vm1 = new Vm(0, 0, 0, 0, 0, BW, 0, "", null);
+		Vm vm2 = new Vm(1, 0, 0, 0, 0, BW, 0, "", null);
+		assertTrue(bwProvisioner.allocateBwForGuest(vm1, BW / 2));
+		assertTrue(bwProvisioner.allocateBwForGuest(vm2, BW / 4));
+		assertEquals(Map.of(vm1.getUid(), BW / 2, vm2.getUid(), BW / 4), bwProvisioner.getBwTable());
+		bwProvisioner.deallocateBwForGuest(vm1);
+		assertEquals(Map.of(vm2.getUid(), BW / 4), bwProvisioner.getBwTable());
+
+		// A loaded table replaces the allocations, which the VMs then find by uid
+		bwProvisioner.setBwTable(Map.of(vm1.getUid(), BW / 2));
+		assertEquals(Map.of(vm1.getUid(), BW / 2), bwProvisioner.getBwTable());
+		assertEquals(BW / 2, bwProvisioner.getAllocatedBwForGuest(vm1));
+		assertEquals(0, bwProvisioner.getAllocatedBwForGuest(vm2));
+		assertEquals(BW / 2, bwProvisioner.getAvailableBw());
+		assertTrue(bwProvisioner.allocateBwForGuest(vm1, BW / 4));
+		assertEquals(Map.of(vm1.getUid(), BW / 4), bwProvisioner.getBwTable());
+		assertEquals(3 * BW / 4, bwProvisioner.getAvailableBw());
+		bwProvisioner.setBwTable(Map.of(vm1.getUid(), BW / 2));
+		bwProvisioner.deallocateBwForGuest(vm1);
+		assertEquals(BW, bwProvisioner.getAvailableBw());
+
+		bwProvisioner.setBwTable(Map.of(vm2.getUid(), BW / 4));
+		bwProvisioner.setBwTable(new HashMap<>());
+		assertTrue(bwProvisioner.getBwTable().isEmpty());
+		assertEquals(BW, bwProvisioner.getAvailableBw());
+	}
+
 }
@@ -10,6 +10,9 @@ package org.cloudbus.cloudsim.provisioners;
 
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
 import org.junit.jupiter.api.BeforeEach;
@@ -191,4 +194,68 @@ public class PeProvisionerSimpleTest {
 		assertEquals(MIPS, peProvisioner.getAvailableMips(), 0);
 	}
 
+	@Test
+	public void testAllocateMipsForVmByUid() {
+		Vm vm1 = new Vm(0, 0, MIPS / 2, 1, 0, 0, 0, "", null);
+		Vm vm2 = new Vm(1, 0, MIPS / 2, 1, 0, 0, 0, "", null);
+
+		assertTrue(peProvisioner.allocateMipsForGuest(vm1.getUid(), MIPS / 4));
+		assertTrue(peProvisioner.allocateMipsForGuest(vm2, MIPS / 4));
+		// Once provisioned by uid, the VM is found by uid
+		assertTrue(peProvisioner.allocateMipsForGuest(vm1, MIPS / 8));
+		assertEquals(MIPS / 4 + MIPS / 8, peProvisioner.getTotalAllocatedMipsForGuest(vm1), 0);
+		assertEquals(MIPS / 8, peProvisioner.getAllocatedMipsForGuestByVirtualPeId(vm1, 1), 0);
+		assertEquals(MIPS / 4, peProvisioner.getTotalAllocatedMipsForGuest(vm2), 0);
+
+		peProvisioner.deallocateMipsForGuest(vm1);
+		assertNull(peProvisioner.getAllocatedMipsForGuest(vm1));
+		assertEquals(MIPS * 3 / 4, peProvisioner.getAvailableMips(), 0);
+		assertEquals(MIPS / 4, peProvisioner.getTotalAllocatedMipsForGuest(vm2), 0);
+
+		peProvisioner.deallocateMipsForAllGuests();
+		assertNull(peProvisioner.getAllocatedMipsForGuest(vm2));
+		assertEquals(MIPS, peProvisioner.getAvailableMips(), 0);
+	}
+
+	@Test
+	public void testAllocatedMipsView() {
+		Vm vm = new Vm(0, 0, MIPS / 2, 2, 0, 0, 0, "", null);
+		assertTrue(peProvisioner.allocateMipsForGuest(vm, MIPS / 4));
+		List<Double> allocatedMips = peProvisioner.getAllocatedMipsForGuest(vm);
+		assertEquals(List.of(MIPS / 4), allocatedMips);
+		assertThrows(UnsupportedOperationException.class, () -> allocatedMips.add(MIPS));
+
+		// The view follows the allocation table
+		assertTrue(peProvisioner.allocateMipsForGuest(vm, MIPS / 8));
+		assertEquals(List.of(MIPS / 4, MIPS / 8), allocatedMips);
+		peProvisioner.deallocateMipsForGuest(vm);
+		assertTrue(allocatedMips.isEmpty());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedPeTable() {
+		Vm vm1 = new Vm(0, 0, MIPS / 2, 1, 0, 0, 0, "", null);
+		Vm vm2 = new Vm(1, 0, MIPS / 2, 1, 0, 0, 0, "", null);
+		peProvisioner.allocateMipsForGuest(vm1, MIPS / 2);
+		peProvisioner.allocateMipsForGuest(vm2.getUid(), MIPS / 4);
+		assertEquals(Map.of(vm1.getUid(), List.of(MIPS / 2), vm2.getUid(), List.of(MIPS / 4)),
+				peProvisioner.getPeTable());
+
+		// A loaded table replaces the allocations, which the VMs then find by uid
+		peProvisioner.setPeTable(Map.of(vm1.getUid(), List.of(MIPS / 4, MIPS / 8)));
+		assertEquals(Map.of(vm1.getUid(), List.of(MIPS / 4, MIPS / 8)), peProvisioner.getPeTable());
+		assertEquals(List.of(MIPS / 4, MIPS / 8), peProvisioner.getAllocatedMipsForGuest(vm1));
+		assertEquals(MIPS / 8, peProvisioner.getAllocatedMipsForGuestByVirtualPeId(vm1, 1), 0);
+		assertNull(peProvisioner.getAllocatedMipsForGuest(vm2));
+		assertEquals(MIPS * 5 / 8, peProvisioner.getAvailableMips(), 0);
+		peProvisioner.deallocateMipsForGuest(vm1);
+		assertEquals(MIPS, peProvisioner.getAvailableMips(), 0);
+
+		peProvisioner.setPeTable(Map.of(vm2.getUid(), List.of(MIPS / 4)));
+		peProvisioner.setPeTable(new HashMap<>());
+		assertTrue(peProvisioner.getPeTable().isEmpty());
+		assertEquals(MIPS, peProvisioner.getAvailableMips(), 0);
+	}
+
 }
@@ -8,6 +8,9 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.cloudbus.cloudsim.Vm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -111,4 +114,34 @@ public class RamProvisionerSimpleTest {
 		assertEquals(0, vm2.getCurrentAllocatedRam());
 	}
 
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedRamTable() {
+		Vm vm1 = new Vm(0, 0, 0, 0, RAM, 0, 0, "", null);
+		Vm vm2 = new Vm(1, 0, 0, 0, RAM, 0, 0, "", null);
+		assertTrue(ramProvisioner.allocateRamForGuest(vm1, RAM / 2));
+		assertTrue(ramProvisioner.allocateRamForGuest(vm2, RAM / 4));
+		assertEquals(Map.of(vm1.getUid(), RAM / 2, vm2.getUid(), RAM / 4), ramProvisioner.getRamTable());
+		ramProvisioner.deallocateRamForGuest(vm1);
+		assertEquals(Map.of(vm2.getUid(), RAM / 4), ramProvisioner.getRamTable());
+
+		// A loaded table replaces the allocations, which the VMs then find by uid
+		ramProvisioner.setRamTable(Map.of(vm1.getUid(), RAM / 2));
+		assertEquals(Map.of(vm1.getUid(), RAM / 2), ramProvisioner.getRamTable());
+		assertEquals(RAM / 2, ramProvisioner.getAllocatedRamForGuest(vm1));
+		assertEquals(0, ramProvisioner.getAllocatedRamForGuest(vm2));
+		assertEquals(RAM / 2, ramProvisioner.getAvailableRam());
+		assertTrue(ramProvisioner.allocateRamForGuest(vm1, RAM / 4));
+		assertEquals(Map.of(vm1.getUid(), RAM / 4), ramProvisioner.getRamTable());
+		assertEquals(3 * RAM / 4, ramProvisioner.getAvailableRam());
+		ramProvisioner.setRamTable(Map.of(vm1.getUid(), RAM / 2));
+		ramProvisioner.deallocateRamForGuest(vm1);
+		assertEquals(RAM, ramProvisioner.getAvailableRam());
+
+		ramProvisioner.setRamTable(Map.of(vm2.getUid(), RAM / 4));
+		ramProvisioner.setRamTable(new HashMap<>());
+		assertTrue(ramProvisioner.getRamTable().isEmpty());
+		assertEquals(RAM, ramProvisioner.getAvailableRam());
+	}
+
 }
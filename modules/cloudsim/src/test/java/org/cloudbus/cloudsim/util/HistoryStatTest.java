@@ -10,6 +10,7 @@ import java.util.Random;
 
 import static org.cloudbus.cloudsim.core.PowerGuestEntity.HISTORY_LENGTH;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class HistoryStatTest {
     HistoryStat stat;
@@ -51,6 +52,17 @@ public class HistoryStatTest {
         }
     }
 
+    @Test
+    public void testGet() {
+        for (double val = 0.0; val < 2 * HISTORY_LENGTH; val += 1.0) {
+            stat.offer(val);
+            int i = 0;
+            for (double u : stat)
+                assertEquals(u, stat.get(i++), 0);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> stat.get(HISTORY_LENGTH));
+    }
+
     @Test
     public void testCompared() {
         Random gen = new Random();
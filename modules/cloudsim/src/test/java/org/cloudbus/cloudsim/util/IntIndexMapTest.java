@@ -0,0 +1,90 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class IntIndexMapTest {
+
+	@Test
+	public void testSlotsStayDense() {
+		IntIndexMap map = new IntIndexMap();
+		assertEquals(0, map.add(10));
+		assertEquals(1, map.add(-3));
+		assertEquals(2, map.add(7));
+		assertEquals(1, map.add(-3));
+		assertEquals(3, map.size());
+
+		// The last key moves to the freed slot
+		assertEquals(0, map.remove(10));
+		assertEquals(2, map.size());
+		assertEquals(7, map.keyAt(0));
+		assertEquals(0, map.get(7));
+		assertEquals(-1, map.get(10));
+		assertEquals(-1, map.remove(10));
+
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertEquals(-1, map.get(7));
+		assertEquals(0, map.add(7));
+	}
+
+	@Test
+	public void testMatchesHashMap() {
+		Random random = new Random(0);
+		IntIndexMap map = new IntIndexMap();
+		// The values a user of the map keeps by slot, and the expected ones by key
+		List<Integer> values = new ArrayList<>();
+		Map<Integer, Integer> expected = new HashMap<>();
+		for (int step = 0; step < 100000; step++) {
+			// Few distinct keys with colliding low bits, to exercise probing and deletion
+			int key = (random.nextInt(300) - 100) * 64;
+			if (random.nextInt(3) == 0) {
+				int slot = map.remove(key);
+				assertEquals(expected.remove(key) != null, slot >= 0);
+				if (slot >= 0) {
+					int last = values.removeLast();
+					if (slot < values.size()) {
+						values.set(slot, last);
+					}
+				}
+			} else {
+				int slot = map.add(key);
+				if (slot == values.size()) {
+					values.add(step);
+					expected.put(key, step);
+				} else {
+					assertEquals(expected.get(key), values.get(slot));
+				}
+			}
+			if (random.nextInt(20000) == 0) {
+				map.clear();
+				values.clear();
+				expected.clear();
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+			int slot = map.get(entry.getKey());
+			assertEquals(entry.getKey().intValue(), map.keyAt(slot));
+			assertEquals(entry.getValue(), values.get(slot));
+		}
+	}
+}
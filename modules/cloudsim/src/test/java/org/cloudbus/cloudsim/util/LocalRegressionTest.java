@@ -0,0 +1,69 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link LocalRegression} gives the estimates of {@link MathUtil}.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class LocalRegressionTest {
+
+	@Test
+	public void testMatchesMathUtil() {
+		Random random = new Random(0);
+		LocalRegression regression = new LocalRegression();
+		double[] estimates = new double[2];
+		for (int run = 0; run < 2000; run++) {
+			int n = 3 + random.nextInt(30);
+			double[] data = new double[n + random.nextInt(5)];
+			for (int i = 0; i < data.length; i++) {
+				// Some flat or repeated series, as idle hosts give
+				data[i] = run % 10 == 0 ? 0.5 : random.nextInt(4) == 0 ? data[Math.max(0, i - 1)] : random.nextDouble();
+			}
+			double[] reversed = new double[n];
+			for (int i = 0; i < n; i++) {
+				reversed[i] = data[n - i - 1];
+			}
+
+			regression.loess(data, n, true, estimates);
+			assertEstimates(MathUtil.getLoessParameterEstimates(reversed), estimates);
+			regression.robustLoess(data, n, true, estimates);
+			assertEstimates(MathUtil.getRobustLoessParameterEstimates(reversed), estimates);
+			regression.robustLoess(reversed, n, false, estimates);
+			assertEstimates(MathUtil.getRobustLoessParameterEstimates(reversed), estimates);
+		}
+	}
+
+	@Test
+	public void testNotEnoughData() {
+		LocalRegression regression = new LocalRegression();
+		assertThrows(IllegalArgumentException.class, () -> regression.loess(new double[] { 1, 2 }, 2, true, new double[2]));
+		assertThrows(IllegalArgumentException.class, () -> regression.robustLoess(new double[] { 1, 2 }, 2, false, new double[2]));
+	}
+
+	@Test
+	public void testTricubeWeights() {
+		for (int n = 3; n < 40; n++) {
+			assertArrayEquals(MathUtil.getTricubeWeigts(n), LocalRegression.getTricubeWeights(n));
+			assertSame(LocalRegression.getTricubeWeights(n), LocalRegression.getTricubeWeights(n));
+		}
+	}
+
+	private static void assertEstimates(double[] expected, double[] actual) {
+		assertEquals(expected[0], actual[0], 1e-9);
+		assertEquals(expected[1], actual[1], 1e-9);
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.container.utils.CustomCSVWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class MetricsSinkTest {
+
+	private static final int ROWS = 10_000;
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void testCsv() throws IOException {
+		String path = folder.resolve("csv/metrics.csv").toString();
+		try (MetricsSink sink = new CsvMetricsSink(path, false)) {
+			sink.write("time", "power");
+			sink.write(1.5, 20);
+			sink.writeAll(List.of(new String[] {"2", "30"}, new String[] {"3", "40"}));
+		}
+		assertEquals(List.of("time,power", "1.5,20.0", "2,30", "3,40"), Files.readAllLines(Path.of(path)));
+
+		try (MetricsSink sink = new CsvMetricsSink(path, true)) {
+			sink.write("4", "50");
+		}
+		assertEquals("4,50", Files.readAllLines(Path.of(path)).get(4));
+	}
+
+	@Test
+	public void testColumnar() throws IOException {
+		String path = folder.resolve("metrics.bin").toString();
+		try (MetricsSink sink = new ColumnarMetricsSink(path, 64, "time", "power")) {
+			for (int i = 0; i < ROWS; i++) {
+				if (i % 2 == 0) {
+					sink.write(i, 0.5 * i);
+				} else {
+					sink.write(Integer.toString(i), Double.toString(0.5 * i));
+				}
+			}
+			assertThrows(IllegalArgumentException.class, () -> sink.write(1, 2, 3));
+			assertThrows(NumberFormatException.class, () -> sink.write("1", "False"));
+		}
+
+		Map<String, double[]> columns = ColumnarMetricsSink.read(path);
+		assertEquals(List.of("time", "power"), new ArrayList<>(columns.keySet()));
+		double[] time = columns.get("time");
+		double[] power = columns.get("power");
+		assertEquals(ROWS, time.length);
+		for (int i = 0; i < ROWS; i++) {
+			assertEquals(i, time[i]);
+			assertEquals(0.5 * i, power[i]);
+		}
+		// 2 doubles per row, plus the headers of the file and of each block
+		assertTrue(Files.size(Path.of(path)) < 17L * ROWS);
+
+		assertThrows(IllegalArgumentException.class, () -> new ColumnarMetricsSink(path, "a", "a"));
+	}
+
+	@Test
+	public void testAsync() throws IOException {
+		String path = folder.resolve("async.csv").toString();
+		List<String> expected = new ArrayList<>();
+		// A small queue, so that writing waits for the background thread
+		try (MetricsSink sink = new AsyncMetricsSink(new CsvMetricsSink(path, false), 4)) {
+			String[] row = new String[2];
+			for (int i = 0; i < ROWS; i++) {
+				row[0] = Integer.toString(i);
+				row[1] = Integer.toString(2 * i);
+				sink.write(row);
+				expected.add(i + "," + 2 * i);
+				if (i == ROWS / 2) {
+					sink.flush();
+					assertEquals(expected, Files.readAllLines(Path.of(path)));
+				}
+			}
+		}
+		assertEquals(expected, Files.readAllLines(Path.of(path)));
+	}
+
+	@Test
+	public void testAsyncClosedAtShutdown() throws IOException {
+		String path = folder.resolve("unclosed.csv").toString();
+		MetricsSink sink = new AsyncMetricsSink(new CsvMetricsSink(path, false));
+		sink.write("1", "2");
+		// What the shutdown hook runs
+		AsyncMetricsSink.closeAll();
+		assertEquals(List.of("1,2"), Files.readAllLines(Path.of(path)));
+		assertThrows(IOException.class, () -> sink.write("3", "4"));
+		assertDoesNotThrow(sink::close);
+	}
+
+	@Test
+	public void testAsyncCloseWhileWriting() throws Exception {
+		for (int round = 0; round < 20; round++) {
+			String path = folder.resolve("racing" + round + ".csv").toString();
+			AsyncMetricsSink sink = new AsyncMetricsSink(new CsvMetricsSink(path, false), 4);
+			List<String> written = Collections.synchronizedList(new ArrayList<>());
+			List<Thread> writers = new ArrayList<>();
+			for (int w = 0; w < 4; w++) {
+				String name = Integer.toString(w);
+				Thread writer = new Thread(() -> {
+					try {
+						for (int i = 0; ; i++) {
+							sink.write(name, Integer.toString(i));
+							written.add(name + "," + i);
+							sink.flush();
+						}
+					} catch (IOException e) {
+						// Closed
+					}
+				});
+				writer.start();
+				writers.add(writer);
+			}
+			Thread.sleep(2);
+			sink.close();
+			for (Thread writer : writers) {
+				// A flush racing with the close must not wait forever
+				writer.join(10_000);
+				assertFalse(writer.isAlive());
+			}
+			// Every row accepted before the close is written
+			assertTrue(Files.readAllLines(Path.of(path)).containsAll(written));
+		}
+	}
+
+	@Test
+	public void testAsyncFailure() {
+		MetricsSink failing = new MetricsSink() {
+			@Override
+			public void write(String... row) throws IOException {
+				throw new IOException("disk full");
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		AsyncMetricsSink sink = new AsyncMetricsSink(failing);
+		assertDoesNotThrow(() -> sink.write("1"));
+		IOException e = assertThrows(IOException.class, sink::flush);
+		assertEquals("disk full", e.getCause().getMessage());
+		assertThrows(IOException.class, () -> sink.write("2"));
+		assertThrows(IOException.class, sink::close);
+	}
+
+	@Test
+	public void testCustomCsvWriter() throws IOException {
+		String path = folder.resolve("custom/metrics.csv").toString();
+		CustomCSVWriter writer = new CustomCSVWriter(path);
+		assertFalse(writer.fileExistedAlready());
+		writer.writeTofile(new String[] {"stale"});
+		writer.writeTofile(new String[] {"time", "power"}, false);
+		writer.writeTofile(new String[] {"1.0", "2.0"});
+		writer.close();
+		writer.writeTofile(new String[] {"2.0", "3.0"});
+		writer.close();
+		assertEquals(List.of("time,power", "1.0,2.0", "2.0,3.0"), Files.readAllLines(Path.of(path)));
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Random;
+
+import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link MultipleCorrelation} gives the R<sup>2</sup> of one regression per series.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class MultipleCorrelationTest {
+
+	@Test
+	public void testMatchesRegressions() {
+		Random random = new Random(0);
+		MultipleCorrelation correlation = new MultipleCorrelation();
+		double[] rSquared = new double[20];
+		for (int run = 0; run < 300; run++) {
+			int n = 2 + random.nextInt(10);
+			int m = n + 1 + random.nextInt(30);
+			double[] data = new double[n * m];
+			for (int k = 0; k < data.length; k++) {
+				data[k] = random.nextDouble();
+			}
+			// Some series partly follow another one
+			for (int i = 1; i < n; i++) {
+				if (random.nextBoolean()) {
+					for (int k = 0; k < m; k++) {
+						data[i * m + k] = 0.8 * data[k] + 0.2 * data[i * m + k];
+					}
+				}
+			}
+			correlation.compute(data, n, m, rSquared);
+
+			for (int i = 0; i < n; i++) {
+				double[] y = new double[m];
+				double[][] x = new double[m][n - 1];
+				for (int k = 0; k < m; k++) {
+					y[k] = data[i * m + k];
+					for (int j = 0, c = 0; j < n; j++) {
+						if (j != i) {
+							x[k][c++] = data[j * m + k];
+						}
+					}
+				}
+				OLSMultipleLinearRegression regression = new OLSMultipleLinearRegression();
+				regression.newSampleData(y, x);
+				assertEquals(regression.calculateRSquared(), rSquared[i], 1e-9, "run " + run + " series " + i);
+			}
+		}
+	}
+
+	@Test
+	public void testNotEnoughData() {
+		MultipleCorrelation correlation = new MultipleCorrelation();
+		double[] rSquared = new double[3];
+		assertThrows(IllegalArgumentException.class, () -> correlation.compute(new double[] { 1, 2, 3 }, 1, 3, rSquared));
+		assertThrows(IllegalArgumentException.class, () -> correlation.compute(new double[] { 1, 2, 3, 3, 1, 2 }, 3, 2, rSquared));
+		// A constant series, and a series that is a multiple of another
+		assertThrows(IllegalArgumentException.class, () -> correlation.compute(new double[] { 1, 2, 4, 3, 3, 3, 3, 3 }, 2, 4, rSquared));
+		assertThrows(IllegalArgumentException.class, () -> correlation.compute(new double[] { 1, 2, 4, 3, 2, 4, 8, 6 }, 2, 4, rSquared));
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class OrderStatisticsWindowTest {
+
+	private static final int CAPACITY = 30;
+
+	@Test
+	public void testSliding() {
+		Random random = new Random(7);
+		OrderStatisticsWindow window = new OrderStatisticsWindow(CAPACITY);
+		double[] stream = new double[5 * CAPACITY];
+		for (int t = 0; t < stream.length; t++) {
+			// Rounded values, to have ties
+			stream[t] = t % 7 == 0 ? 0.5 : Math.round(random.nextDouble() * 20) / 20.0;
+			window.add(stream[t]);
+
+			int n = Math.min(t + 1, CAPACITY);
+			double[] data = new double[n];
+			System.arraycopy(stream, t + 1 - n, data, 0, n);
+			assertEquals(n, window.size());
+			for (int i = 0; i < n; i++) {
+				assertEquals(data[i], window.get(i));
+			}
+			assertEquals(MathUtil.median(data), window.getMedian());
+			assertEquals(MathUtil.mad(data), window.getMad());
+			if (n > 1) {
+				assertEquals(MathUtil.iqr(data.clone()), window.getIqr());
+			}
+			for (int i = 1; i < n; i++) {
+				assertTrue(window.getSorted(i - 1) <= window.getSorted(i));
+			}
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> window.get(CAPACITY));
+
+		window.clear();
+		assertEquals(0, window.size());
+		assertEquals(0, window.getMad());
+	}
+
+	@Test
+	public void testMad() {
+		Random random = new Random(11);
+		for (int n = 1; n <= 40; n++) {
+			double[] data = new double[n];
+			for (int i = 0; i < n; i++) {
+				data[i] = random.nextGaussian();
+			}
+			double center = random.nextGaussian();
+			double[] deviations = new double[n];
+			for (int i = 0; i < n; i++) {
+				deviations[i] = Math.abs(center - data[i]);
+			}
+			double[] sorted = data.clone();
+			Arrays.sort(sorted);
+			assertEquals(MathUtil.median(deviations), OrderStatisticsWindow.mad(sorted, n, center));
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the metrics computed as the state histories grow against a replay of the histories.
+ *
+ * @since		CloudSim Toolkit 7.0
+ */
+public class StateHistoryMetricsTest {
+
+	@Test
+	public void testHostMetrics() {
+		Random random = new Random(0);
+		HostStateMetrics merged = new HostStateMetrics();
+		double slaTime = 0;
+		double totalTime = 0;
+		List<Double> timeBeforeShutdown = new ArrayList<>();
+		for (int host = 0; host < 5; host++) {
+			StateHistoryStore history = new StateHistoryStore();
+			HostStateMetrics metrics = new HostStateMetrics();
+			fill(random, history, metrics);
+
+			// Replay of the history, as the power examples did
+			double hostSlaTime = 0;
+			double hostTotalTime = 0;
+			double previousTime = -1;
+			double previousAllocated = 0;
+			double previousRequested = 0;
+			boolean previousIsActive = true;
+			double lastTimeSwitchedOn = 0;
+			for (StateHistoryStore.Cursor entry = history.cursor(); entry.next();) {
+				if (previousTime != -1 && previousIsActive) {
+					double timeDiff = entry.getTime() - previousTime;
+					hostTotalTime += timeDiff;
+					if (previousAllocated < previousRequested) {
+						hostSlaTime += timeDiff;
+					}
+				}
+				if (previousIsActive && !entry.isActive()) {
+					timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
+				}
+				if (!previousIsActive && entry.isActive()) {
+					lastTimeSwitchedOn = entry.getTime();
+				}
+				previousAllocated = entry.getAllocatedMips();
+				previousRequested = entry.getRequestedMips();
+				previousTime = entry.getTime();
+				previousIsActive = entry.isActive();
+			}
+
+			assertEquals(hostSlaTime / hostTotalTime, metrics.getSlaTimePerActiveHost(), 1e-12);
+			slaTime += hostSlaTime;
+			totalTime += hostTotalTime;
+			merged.merge(metrics);
+		}
+
+		assertEquals(slaTime / totalTime, merged.getSlaTimePerActiveHost(), 1e-12);
+		RunningStat stat = merged.getTimeBeforeShutdown();
+		assertEquals(timeBeforeShutdown.size(), stat.getCount());
+		assertEquals(MathUtil.mean(timeBeforeShutdown), stat.getMean(), 1e-9);
+		assertEquals(MathUtil.stDev(timeBeforeShutdown), stat.getStDev(), 1e-9);
+	}
+
+	@Test
+	public void testGuestMetrics() {
+		Random random = new Random(1);
+		GuestStateMetrics merged = new GuestStateMetrics();
+		double totalAllocated = 0;
+		double totalRequested = 0;
+		double underAllocatedDueToMigration = 0;
+		List<Double> slaViolation = new ArrayList<>();
+		List<Double> timeBeforeMigration = new ArrayList<>();
+		for (int guest = 0; guest < 5; guest++) {
+			StateHistoryStore history = new StateHistoryStore();
+			GuestStateMetrics metrics = new GuestStateMetrics();
+			fill(random, history, metrics);
+
+			double previousTime = -1;
+			double previousAllocated = 0;
+			double previousRequested = 0;
+			boolean previousIsInMigration = false;
+			double lastTimeMigrationFinished = 0;
+			for (StateHistoryStore.Cursor entry = history.cursor(); entry.next();) {
+				if (previousTime != -1) {
+					double timeDiff = entry.getTime() - previousTime;
+					totalAllocated += previousAllocated * timeDiff;
+					totalRequested += previousRequested * timeDiff;
+					if (previousAllocated < previousRequested) {
+						slaViolation.add((previousRequested - previousAllocated) / previousRequested);
+						if (previousIsInMigration) {
+							underAllocatedDueToMigration += (previousRequested - previousAllocated) * timeDiff;
+						}
+					}
+				}
+				if (previousIsInMigration && !entry.isInMigration()) {
+					timeBeforeMigration.add(entry.getTime() - lastTimeMigrationFinished);
+				}
+				if (!previousIsInMigration && entry.isInMigration()) {
+					lastTimeMigrationFinished = entry.getTime();
+				}
+				previousAllocated = entry.getAllocatedMips();
+				previousRequested = entry.getRequestedMips();
+				previousTime = entry.getTime();
+				previousIsInMigration = entry.isInMigration();
+			}
+			merged.merge(metrics);
+		}
+
+		assertEquals(totalAllocated, merged.getTotalAllocatedMips(), totalAllocated * 1e-12);
+		assertEquals(totalRequested, merged.getTotalRequestedMips(), totalRequested * 1e-12);
+		assertEquals((totalRequested - totalAllocated) / totalRequested, merged.getOverallSlaViolation(), 1e-9);
+		assertEquals(MathUtil.mean(slaViolation), merged.getAverageSlaViolation(), 1e-12);
+		assertEquals(underAllocatedDueToMigration / totalRequested, merged.getSlaDegradationDueToMigration(), 1e-12);
+		RunningStat stat = merged.getTimeBeforeMigration();
+		assertEquals(timeBeforeMigration.size(), stat.getCount());
+		assertEquals(MathUtil.mean(timeBeforeMigration), stat.getMean(), 1e-9);
+		assertEquals(MathUtil.stDev(timeBeforeMigration), stat.getStDev(), 1e-9);
+	}
+
+	@Test
+	public void testLatestEntryReplaced() {
+		GuestStateMetrics metrics = new GuestStateMetrics();
+		metrics.add(0, 100, 100, false);
+		metrics.add(10, 50, 100, false);
+		assertEquals(1000, metrics.getTotalRequestedMips());
+		assertEquals(0, metrics.getOverallSlaViolation());
+		// The entry at time 10 is replaced, and accounts from time 10 to 20 with its new state
+		metrics.add(10, 80, 100, true);
+		metrics.add(20, 100, 100, false);
+		assertEquals(2000, metrics.getTotalRequestedMips());
+		assertEquals(1800, metrics.getTotalAllocatedMips());
+		assertEquals(0.1, metrics.getSlaDegradationDueToMigration(), 1e-12);
+		assertEquals(1, metrics.getTimeBeforeMigration().getCount());
+	}
+
+	private static void fill(Random random, StateHistoryStore history, StateHistoryMetrics<?> metrics) {
+		double time = 0;
+		for (int i = 0; i < 500; i++) {
+			// Some entries replace the previous one
+			time += random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(300);
+			double requested = 100 + random.nextInt(1000);
+			double allocated = random.nextBoolean() ? requested : requested * random.nextDouble();
+			boolean flag = random.nextInt(5) != 0;
+			history.add(time, allocated, requested, flag);
+			metrics.add(time, allocated, requested, flag);
+		}
+	}
+}
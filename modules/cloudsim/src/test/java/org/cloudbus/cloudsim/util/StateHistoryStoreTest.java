@@ -0,0 +1,137 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.cloudbus.cloudsim.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.util.StateHistoryStore.Retention;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class StateHistoryStoreTest {
+
+	private static final int ENTRIES = 5 * StateHistoryStore.CHUNK_SIZE + 17;
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void testFull() {
+		StateHistoryStore store = new StateHistoryStore();
+		fill(store, 0, ENTRIES);
+		assertEquals(ENTRIES, store.size());
+		assertEntries(store, 0, 1);
+
+		// An entry at the same time replaces the latest one
+		store.add(ENTRIES - 1, -1, -2, true);
+		assertEquals(ENTRIES, store.size());
+		assertEquals(-2, store.getRequestedMips(ENTRIES - 1));
+		assertThrows(IndexOutOfBoundsException.class, () -> store.getTime(ENTRIES));
+
+		store.clear();
+		assertTrue(store.isEmpty());
+		assertFalse(store.cursor().next());
+	}
+
+	@Test
+	public void testListView() {
+		StateHistoryStore store = new StateHistoryStore(Retention.WINDOW, 3);
+		List<HostStateHistoryEntry> entries = store.asList(HostStateHistoryEntry::new);
+		assertTrue(entries.isEmpty());
+		fill(store, 0, 5);
+		assertEquals(3, entries.size());
+		assertEquals(2, entries.getFirst().getTime());
+		assertEquals(9, entries.get(1).getRequestedMips());
+		assertTrue(entries.get(1).isActive());
+		assertFalse(entries.getLast().isActive());
+		assertThrows(IndexOutOfBoundsException.class, () -> entries.get(3));
+		assertThrows(UnsupportedOperationException.class, () -> entries.add(new HostStateHistoryEntry(5, 0, 0, true)));
+	}
+
+	@Test
+	public void testWindow() {
+		StateHistoryStore store = new StateHistoryStore(Retention.WINDOW, 1500);
+		fill(store, 0, ENTRIES);
+		assertEquals(1500, store.size());
+		assertEntries(store, ENTRIES - 1500, 1);
+		assertThrows(IllegalStateException.class, () -> store.setRetention(Retention.FULL, 0));
+	}
+
+	@Test
+	public void testNoHistory() {
+		StateHistoryStore store = new StateHistoryStore(Retention.WINDOW, 1);
+		fill(store, 0, ENTRIES);
+		assertEquals(1, store.size());
+		assertEntries(store, ENTRIES - 1, 1);
+		store.add(ENTRIES - 1, 0, 0, false);
+		assertEquals(1, store.size());
+		assertEquals(0, store.getRequestedMips(0));
+	}
+
+	@Test
+	public void testDownsampled() {
+		StateHistoryStore store = new StateHistoryStore(Retention.DOWNSAMPLED, 100);
+		fill(store, 0, ENTRIES);
+		assertTrue(store.size() <= 100);
+		assertEquals(0, store.getTime(0));
+		assertEquals(ENTRIES - 1, store.getTime(store.size() - 1));
+		for (int i = 1; i < store.size(); i++) {
+			double time = store.getTime(i);
+			assertTrue(time > store.getTime(i - 1));
+			assertEquals(time * 2, store.getAllocatedMips(i));
+		}
+	}
+
+	@Test
+	public void testSpill() throws IOException {
+		StateHistoryStore store = new StateHistoryStore();
+		fill(store, 0, 2 * StateHistoryStore.CHUNK_SIZE + 5);
+		store.spillTo(folder.resolve("history.bin"));
+		fill(store, 2 * StateHistoryStore.CHUNK_SIZE + 5, ENTRIES);
+		assertEntries(store, 0, 1);
+		for (int i = 0; i < ENTRIES; i += 97) {
+			assertEquals(i, store.getTime(i));
+			assertEquals(i * 2, store.getAllocatedMips(i));
+			assertEquals(i * 3, store.getRequestedMips(i));
+			assertEquals(i % 3 == 0, store.getFlag(i));
+		}
+		store.close();
+
+		StateHistoryStore window = new StateHistoryStore(Retention.WINDOW, 10);
+		assertThrows(IllegalStateException.class, () -> window.spillTo(folder.resolve("window.bin")));
+	}
+
+	private static void fill(StateHistoryStore store, int from, int to) {
+		for (int i = from; i < to; i++) {
+			store.add(i, i * 2, i * 3, i % 3 == 0);
+		}
+	}
+
+	private static void assertEntries(StateHistoryStore store, int first, int step) {
+		StateHistoryStore.Cursor cursor = store.cursor();
+		int i = first;
+		while (cursor.next()) {
+			assertEquals(i, cursor.getTime());
+			assertEquals(i * 2, cursor.getAllocatedMips());
+			assertEquals(i * 3, cursor.getRequestedMips());
+			assertEquals(i % 3 == 0, cursor.isActive());
+			i += step;
+		}
+		assertEquals(first + store.size() * step, i);
+		assertFalse(cursor.next());
+	}
+}